@@ -1,9 +1,41 @@
+create sequence scan_result_outbox_seq start with 1 increment by 50;
 create sequence scan_result_seq start with 1 increment by 50;
 create sequence scan_seq start with 1 increment by 50;
-create table scan (created_at timestamp(6) with time zone, id bigint not null, result_id bigint, updated_at timestamp(6) with time zone, user_id varchar(100) not null, primary key (id));
-create table scan_result (status smallint not null, status_code integer, created_at timestamp(6) with time zone, id bigint not null, updated_at timestamp(6) with time zone, result_url varchar(100), url_scan_id varchar(100), status_description varchar, status_message varchar, url varchar not null, primary key (id));
-create index IDXdjvrc9ovp4smei194tw4xo1t0 on scan (user_id, created_at);
-create index IDX4hfxoargmsoicvmixnern6nnf on scan_result (url, created_at);
+create sequence webhook_delivery_seq start with 1 increment by 50;
+create sequence webhook_seq start with 1 increment by 50;
+create table scan (status smallint not null, created_at timestamp(6) with time zone, id bigint not null, result_id bigint, updated_at timestamp(6) with time zone, user_id varchar(100) not null, primary key (id));
+create table scan_result (status smallint not null, check_count integer not null, status_code integer, created_at timestamp(6) with time zone, id bigint not null, last_checked_at timestamp(6) with time zone, lease_expires_at timestamp(6) with time zone, next_check_at timestamp(6) with time zone, submitted_at timestamp(6) with time zone, updated_at timestamp(6) with time zone, url_fingerprint bigint not null, lease_owner varchar(100), result_url varchar(100), url_scan_id varchar(100), status_description varchar, status_message varchar, url varchar not null, primary key (id));
+-- Change feed of the scans of each user, compacted to the last change of each scan and kept as a tombstone for deleted scans
+create table scan_change (deleted boolean not null, status smallint not null, changed_at timestamp(6) with time zone not null, position bigint not null, scan_id bigint not null, user_id varchar(100) not null, primary key (scan_id));
+-- Highest position of a tombstone removed from the change feed of each user, at or below which cursors have expired
+create table scan_change_horizon (position bigint not null, user_id varchar(100) not null, primary key (user_id));
+-- Transactional outbox of scan result status transitions, inserted with each transition, leased to a relay while it publishes them and deleted once relayed to the outbox sink in order of ID
+create table scan_result_outbox (previous_status smallint not null, status smallint not null, status_code integer, created_at timestamp(6) with time zone not null, id bigint not null, lease_expires_at timestamp(6) with time zone, scan_result_id bigint not null, lease_owner varchar(100), result_url varchar(100), url_scan_id varchar(100), status_description varchar, status_message varchar, primary key (id));
+-- Current scan result of each canonical URL for dedupe, keyed by the fixed-width fingerprint of the URL and claimed with an upsert when creating a scan
+create table url_dedupe (created_at timestamp(6) with time zone not null, scan_result_id bigint not null, url_fingerprint bigint not null, url varchar not null, primary key (url_fingerprint));
+create table webhook (created_at timestamp(6) with time zone, id bigint not null, user_id varchar(100) not null, url varchar not null, primary key (id), constraint webhook_user_url_key unique (user_id, url));
+-- Durable retry queue of scans to deliver to webhooks, enqueued with the status transition that finishes their scan result and deleted once delivered
+create table webhook_delivery (attempt_count integer not null, created_at timestamp(6) with time zone not null, id bigint not null, next_attempt_at timestamp(6) with time zone, scan_id bigint not null, webhook_id bigint not null, lease_owner varchar(100), last_error varchar, primary key (id));
+-- Listing index for the scans of each user, ordered by (created_at, id) so that cursors resume with an index range scan
+create index scan_user_created_idx on scan (user_id, created_at, id);
+-- Listing index for the scans of each user filtered by the denormalized status of their scan result
+create index scan_user_status_created_idx on scan (user_id, status, created_at, id);
+-- Change feed index for the scans of each user, ordered by (position, scan_id) so that the feed resumes after a cursor with an index range scan
+create index scan_change_user_position_idx on scan_change (user_id, position, scan_id);
+-- Fan out index for applying the status transitions of a scan result to every scan that shares it
+create index scan_result_idx on scan (result_id);
+-- Work queue index for the scan submitter, which claims submitted (SUBMITTED = 0) scan results in order of (created_at, id); partial so that it only holds pending rows
+create index scan_result_work_queue_idx on scan_result (created_at, id) where status = 0;
+-- Due check index for the status poller, which claims processing (PROCESSING = 1) scan results in order of their next check (unscheduled first)
+create index scan_result_next_check_idx on scan_result (next_check_at nulls first, id) where status = 1;
+-- Completion index for the status check scheduler, which estimates completion times from the most recently finished (DONE = 3) scan results
+create index scan_result_completion_idx on scan_result (updated_at) where status = 3;
+-- Due index for the webhook deliverer, which claims deliveries in order of their next attempt; partial so that it only holds deliveries that have not been given up on
+create index webhook_delivery_due_idx on webhook_delivery (next_attempt_at, id) where next_attempt_at is not null;
+-- Deliveries of each webhook, which are deleted along with it
+create index webhook_delivery_webhook_idx on webhook_delivery (webhook_id);
 alter table if exists scan add constraint FK5rlw7hlg38uy8rkb8i28p6tdc foreign key (result_id) references scan_result;
 alter table if exists scan_result_scan add constraint FKgreetd2wy8srh43hlbexog7ck foreign key (scan_id) references scan;
 alter table if exists scan_result_scan add constraint FKmv5pscepbs7jbvvqon9pylenq foreign key (scan_result_id) references scan_result;
+alter table if exists url_dedupe add constraint url_dedupe_scan_result_fk foreign key (scan_result_id) references scan_result;
+alter table if exists webhook_delivery add constraint webhook_delivery_webhook_fk foreign key (webhook_id) references webhook;
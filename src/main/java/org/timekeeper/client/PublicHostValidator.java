@@ -0,0 +1,67 @@
+package org.timekeeper.client;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+
+/**
+ * Validates that the host of a URL supplied by a user, which the service sends requests to, only resolves to publicly
+ * routable addresses, so that users cannot have the service send requests into its own network. Loopback, private,
+ * link-local (which includes the 169.254.169.254 metadata endpoint of cloud providers), shared, unspecified and multicast
+ * addresses are rejected, along with their IPv6 counterparts.
+ * Every address of the host must be public, as a connection may be made to any of them. Resolved addresses are cached
+ * by the JVM (networkaddress.cache.ttl, 30 seconds by default), so a request sent right after the host is validated
+ * connects to an address that was validated, even if the host has since been pointed elsewhere
+ */
+@Slf4j
+public class PublicHostValidator {
+
+    /**
+     * @param host the host of the URL, or an IP address literal
+     * @return whether the host resolves, and only to public addresses
+     */
+    public boolean isValid(String host) {
+        if (host == null) {
+            return false;
+        }
+
+        InetAddress[] addresses;
+        try {
+            addresses = lookup(host);
+        } catch (UnknownHostException e) {
+            log.info("Failed to resolve host; rejecting: host={}", host);
+            return false;
+        }
+
+        return Arrays.stream(addresses).allMatch(PublicHostValidator::isPublic);
+    }
+
+    protected InetAddress[] lookup(String host) throws UnknownHostException {
+        return InetAddress.getAllByName(host);
+    }
+
+    protected static boolean isPublic(InetAddress address) {
+        if (
+            address.isAnyLocalAddress()
+                || address.isLoopbackAddress()
+                || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress()
+                || address.isMulticastAddress()
+        ) {
+            return false;
+        }
+
+        byte[] bytes = address.getAddress();
+        if (address instanceof Inet4Address) {
+            // 0.0.0.0/8 (this network) and 100.64.0.0/10 (shared address space, which some clouds serve metadata from)
+            return bytes[0] != 0 && !(bytes[0] == 100 && (bytes[1] & 0xc0) == 64);
+        }
+        // fc00::/7 (unique local addresses, the IPv6 counterpart of private addresses)
+        return !(address instanceof Inet6Address) || (bytes[0] & 0xfe) != 0xfc;
+    }
+
+}
@@ -1,6 +1,7 @@
 package org.timekeeper.client;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.RestClient;
@@ -9,8 +10,12 @@ import org.timekeeper.client.model.SubmitScanRequest;
 import org.timekeeper.client.model.SubmitScanResponse;
 import org.timekeeper.configuration.client.UrlScanClientConfig;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 
@@ -21,12 +26,26 @@ public class UrlScanClient {
 
     protected static final String IN_PROGRESS_MESSAGE = "not finished yet";
 
+    /**
+     * Longest wait for a paced permit before a request is held back instead, which keeps the wait for each request short
+     * relative to the leases of the scan results that workers are processing
+     */
+    protected static final Duration MAX_PACING_WAIT = Duration.of(1, ChronoUnit.SECONDS);
+
     private final RestClient client;
 
+    private final UrlScanRateLimiter rateLimiter;
+
+    private final Clock clock;
+
     public UrlScanClient(
         UrlScanClientConfig config,
-        RestClient.ResponseSpec.ErrorHandler responseErrorHandler
+        RestClient.ResponseSpec.ErrorHandler responseErrorHandler,
+        UrlScanRateLimiter rateLimiter,
+        Clock clock
     ) {
+        this.rateLimiter = rateLimiter;
+        this.clock = clock;
         this.client = RestClient.builder()
             .baseUrl(config.getUrl())
             .defaultHeader(config.getApiKeyHeader(), config.getApiKey())
@@ -39,22 +58,59 @@ public class UrlScanClient {
             .url(url)
             .build();
 
-        ResponseEntity<SubmitScanResponse> response = post("/scan", request, SubmitScanResponse.class);
+        ResponseEntity<SubmitScanResponse> response = rateLimited(
+            UrlScanRateLimiter.Action.SCAN,
+            () -> post("/scan", request, SubmitScanResponse.class)
+        );
         log.info("Submitted scan request: request={} response={}", request, response);
 
         return response;
     }
 
     public ResponseEntity<GetResultResponse> getResult(String scanId) {
-        ResponseEntity<GetResultResponse> response = get(
-            String.format("/result/%s", scanId),
-            GetResultResponse.class
+        ResponseEntity<GetResultResponse> response = rateLimited(
+            UrlScanRateLimiter.Action.RESULT,
+            () -> get(String.format("/result/%s", scanId), GetResultResponse.class)
         );
         log.info("Retrieved scan result: scanId={} response={}", scanId, response);
 
         return response;
     }
 
+    /**
+     * Sends a request only if it would not exceed a known rate limit for the action, and records the rate limits reported in the response.
+     * A request whose paced permit is due within the maximum pacing wait waits for it. Requests that are held back for
+     * longer are answered with a locally generated 429 carrying the time at which a permit is next available, so that
+     * callers handle held back requests the same way as requests throttled by urlscan.io
+     */
+    private <T> ResponseEntity<T> rateLimited(
+        UrlScanRateLimiter.Action action,
+        Supplier<ResponseEntity<T>> request
+    ) {
+        Optional<Instant> availableAt = rateLimiter.tryAcquire(action);
+        while (availableAt.isPresent() && !availableAt.get().isAfter(clock.instant().plus(MAX_PACING_WAIT))) {
+            try {
+                Thread.sleep(Math.max(Duration.between(clock.instant(), availableAt.get()).toMillis(), 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            availableAt = rateLimiter.tryAcquire(action);
+        }
+        if (availableAt.isPresent()) {
+            log.info("Request would exceed rate limit; not sending: action={} availableAt={}", action, availableAt.get());
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(THROTTLE_RESET_HEADER, availableAt.get().toString());
+
+            return new ResponseEntity<>(headers, HttpStatus.TOO_MANY_REQUESTS);
+        }
+
+        ResponseEntity<T> response = request.get();
+        rateLimiter.update(action, response.getStatusCode(), response.getHeaders());
+
+        return response;
+    }
+
     private <T> ResponseEntity<T> post(
         String uri,
         Object requestBody,
@@ -78,6 +134,16 @@ public class UrlScanClient {
             .toEntity(responseType);
     }
 
+    /**
+     * Retrieves the time until which requests for the given action are held back due to an exhausted rate limit
+     *
+     * @param action the action that is to be requested
+     * @return the time at which requests for the action can be sent again, or empty if requests can be sent now
+     */
+    public Optional<Instant> getThrottleReset(UrlScanRateLimiter.Action action) {
+        return rateLimiter.getAvailableAt(action);
+    }
+
     public Optional<Instant> getThrottleReset(ResponseEntity<?> response) {
         return Optional.of(response.getHeaders())
             .map(headers -> headers.getFirst(THROTTLE_RESET_HEADER))
@@ -0,0 +1,240 @@
+package org.timekeeper.client;
+
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Synchronized;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Tracks the rate limits that urlscan.io reports through X-Rate-Limit headers, so that requests which would exceed a
+ * limit are held back instead of being sent and throttled.
+ * urlscan.io applies separate limits per action (ex: submitting scans and retrieving results) over several windows
+ * (ex: minute, hour, day) and scopes, and reports the state of one window per response, so the state of every window
+ * seen is kept per action.
+ * Permits are paced across the time left in each window rather than taken as fast as they are requested, so that a
+ * window is not exhausted in a burst at its start. A window is shared with every other process using the same API key,
+ * and the remaining count that urlscan.io reports includes their requests. Usage of a window beyond the permits taken by
+ * this process since it first saw the window is attributed to other processes, and only the share of the remaining count
+ * matching the share of usage of this process is paced across the window.
+ * Synchronization is required as requests can be issued from multiple threads at the same time
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class UrlScanRateLimiter {
+
+    public enum Action {
+        SCAN,
+        RESULT,
+    }
+
+    @Value
+    @Builder(toBuilder = true)
+    public static class Window {
+
+        String name;
+
+        String scope;
+
+        Integer limit;
+
+        Integer remaining;
+
+        Instant reset;
+
+        /**
+         * Count used in the window when this process first saw it, or null if the limit of the window is unknown
+         */
+        Integer initialUsed;
+
+        /**
+         * Number of permits taken by this process since it first saw the window
+         */
+        Integer acquired;
+
+        /**
+         * Time at which the next permit of the window is paced, or null if a permit has not been taken yet
+         */
+        Instant nextPermitAt;
+
+    }
+
+    protected static final String LIMIT_HEADER = "X-Rate-Limit-Limit";
+
+    protected static final String REMAINING_HEADER = "X-Rate-Limit-Remaining";
+
+    protected static final String RESET_HEADER = "X-Rate-Limit-Reset";
+
+    protected static final String SCOPE_HEADER = "X-Rate-Limit-Scope";
+
+    protected static final String WINDOW_HEADER = "X-Rate-Limit-Window";
+
+    /**
+     * Name of the window recorded for a throttled response that does not specify which window was exceeded
+     */
+    protected static final String UNKNOWN_WINDOW = "unknown";
+
+    private final Clock clock;
+
+    private final Map<Action, Map<String, Window>> windows = new EnumMap<>(Action.class);
+
+    /**
+     * Takes a permit for a single request of the given action if no known window for the action is exhausted, and the
+     * next permit of every window is due.
+     * Taking a permit decrements the remaining count of every window for the action, so that concurrent requests
+     * cannot overshoot a window before urlscan.io reports the updated counts, and paces the next permit of every window
+     * at an even share of the time left until it resets
+     *
+     * @param action the action that is to be requested
+     * @return the time at which a permit will next be available if one is not available now, otherwise empty
+     */
+    @Synchronized
+    public Optional<Instant> tryAcquire(Action action) {
+        Optional<Instant> availableAt = getAvailableAt(action);
+        if (availableAt.isPresent()) {
+            return availableAt;
+        }
+
+        Instant now = clock.instant();
+        windows.computeIfAbsent(action, key -> new HashMap<>())
+            .replaceAll((key, window) -> window.toBuilder()
+                .remaining(window.getRemaining() - 1)
+                .acquired(window.getAcquired() + 1)
+                .nextPermitAt(now.plus(getPermitInterval(window, now)))
+                .build()
+            );
+
+        return Optional.empty();
+    }
+
+    /**
+     * Retrieves the time at which a permit for the given action will next be available without taking a permit
+     *
+     * @param action the action that is to be requested
+     * @return the latest reset time across exhausted windows and next permit time across paced windows of the action,
+     * or empty if a permit is available now
+     */
+    @Synchronized
+    public Optional<Instant> getAvailableAt(Action action) {
+        Instant now = clock.instant();
+        Map<String, Window> actionWindows = windows.computeIfAbsent(action, key -> new HashMap<>());
+        // Windows that have reset are forgotten until urlscan.io reports on them again
+        actionWindows.values().removeIf(window -> !window.getReset().isAfter(now));
+
+        return actionWindows.values().stream()
+            .map(window -> window.getRemaining() <= 0 ? window.getReset() : window.getNextPermitAt())
+            .filter(Objects::nonNull)
+            .filter(availableAt -> availableAt.isAfter(now))
+            .max(Instant::compareTo);
+    }
+
+    /**
+     * Records the state of the window reported in the headers of a response from urlscan.io.
+     * Responses to concurrent requests can arrive out of order, so within the same window the lower of the reported
+     * and locally tracked remaining counts is kept
+     *
+     * @param action     the action that was requested
+     * @param statusCode the status code of the response
+     * @param headers    the headers of the response
+     */
+    @Synchronized
+    public void update(Action action, HttpStatusCode statusCode, HttpHeaders headers) {
+        Optional<Instant> reset = parseInstant(headers.getFirst(RESET_HEADER));
+        if (reset.isEmpty()) {
+            return;
+        }
+
+        boolean throttled = HttpStatus.TOO_MANY_REQUESTS.equals(statusCode);
+        Optional<Integer> remaining = throttled
+            ? Optional.of(0)
+            : parseInteger(headers.getFirst(REMAINING_HEADER));
+        if (remaining.isEmpty()) {
+            return;
+        }
+
+        String name = Optional.ofNullable(headers.getFirst(WINDOW_HEADER))
+            .orElse(UNKNOWN_WINDOW);
+        String scope = headers.getFirst(SCOPE_HEADER);
+        Integer limit = parseInteger(headers.getFirst(LIMIT_HEADER)).orElse(null);
+        // Windows of different scopes may share a name, and are tracked separately
+        String key = String.format("%s/%s", scope, name);
+        Map<String, Window> actionWindows = windows.computeIfAbsent(action, actionKey -> new HashMap<>());
+        Optional<Window> trackedWindow = Optional.ofNullable(actionWindows.get(key))
+            .filter(window -> window.getReset().equals(reset.get()));
+        Integer trackedRemaining = trackedWindow
+            .map(Window::getRemaining)
+            .filter(windowRemaining -> windowRemaining < remaining.get())
+            .orElse(remaining.get());
+        Window window = Window.builder()
+            .name(name)
+            .scope(scope)
+            .limit(limit)
+            .remaining(trackedRemaining)
+            .reset(reset.get())
+            .initialUsed(trackedWindow
+                .map(Window::getInitialUsed)
+                .orElse(limit == null ? null : limit - remaining.get())
+            )
+            .acquired(trackedWindow.map(Window::getAcquired).orElse(0))
+            .nextPermitAt(trackedWindow.map(Window::getNextPermitAt).orElse(null))
+            .build();
+        actionWindows.put(key, window);
+
+        if (trackedRemaining <= 0) {
+            log.info("Rate limit window exhausted; holding back requests until reset: action={} window={}", action, window);
+        }
+    }
+
+    /**
+     * Spreads the permits of a window that are left to this process evenly across the time left until it resets. The
+     * count used by other processes since this process first saw the window is derived from its limit, and while there
+     * is any, only the share of the remaining count matching the share of usage of this process is left to it
+     */
+    private static Duration getPermitInterval(Window window, Instant now) {
+        long permits = window.getRemaining();
+        if (window.getLimit() != null && window.getInitialUsed() != null) {
+            long used = window.getLimit() - window.getRemaining() - window.getInitialUsed();
+            if (used > window.getAcquired()) {
+                permits = permits * (window.getAcquired() + 1) / (used + 1);
+            }
+        }
+
+        return Duration.between(now, window.getReset()).dividedBy(Math.max(permits, 1));
+    }
+
+    private static Optional<Instant> parseInstant(String value) {
+        try {
+            return Optional.ofNullable(value)
+                .map(Instant::parse);
+        } catch (DateTimeParseException e) {
+            log.warn("Unable to parse rate limit reset time; ignoring: value={}", value);
+
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<Integer> parseInteger(String value) {
+        try {
+            return Optional.ofNullable(value)
+                .map(Integer::valueOf);
+        } catch (NumberFormatException e) {
+            log.warn("Unable to parse rate limit count; ignoring: value={}", value);
+
+            return Optional.empty();
+        }
+    }
+
+}
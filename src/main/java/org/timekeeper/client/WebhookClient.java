@@ -0,0 +1,74 @@
+package org.timekeeper.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.timekeeper.client.model.WebhookPayload;
+import org.timekeeper.configuration.client.WebhookClientConfig;
+
+import java.net.URI;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+@Slf4j
+public class WebhookClient {
+
+    private final RestClient client;
+
+    private final PublicHostValidator publicHostValidator;
+
+    /**
+     * @param builder              builder of the client, which is expected to be configured with the message converters of
+     *                             the API server, so that webhooks are sent scans in the same format as API clients
+     * @param config               the timeouts of requests to webhooks
+     * @param responseErrorHandler handler of unsuccessful responses, which are returned to the caller rather than thrown
+     * @param publicHostValidator  validator of the hosts of webhooks, which are checked again before every request
+     */
+    public WebhookClient(
+        RestClient.Builder builder,
+        WebhookClientConfig config,
+        RestClient.ResponseSpec.ErrorHandler responseErrorHandler,
+        PublicHostValidator publicHostValidator
+    ) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(config.getConnectTimeout());
+        requestFactory.setReadTimeout(config.getReadTimeout());
+        this.client = builder
+            .requestFactory(requestFactory)
+            .defaultStatusHandler(statusCode -> true, responseErrorHandler)
+            .build();
+        this.publicHostValidator = publicHostValidator;
+    }
+
+    /**
+     * POSTs a batch of events to a webhook. Responses are returned whatever their status, while failures to connect to
+     * the webhook or read its response are thrown as a {@link org.springframework.web.client.RestClientException}.
+     * The host of the webhook was validated when it was registered, but is validated again before the request, as its
+     * DNS records may have since been pointed at a non-public address
+     *
+     * @param url     the URL of the webhook
+     * @param payload the events to deliver
+     * @return the response of the webhook, without its body
+     */
+    public ResponseEntity<Void> deliver(String url, WebhookPayload payload) {
+        URI uri = URI.create(url);
+        if (!publicHostValidator.isValid(uri.getHost())) {
+            throw new ResourceAccessException(
+                String.format("Webhook host does not resolve to a public address: host=%s", uri.getHost())
+            );
+        }
+
+        ResponseEntity<Void> response = client.post()
+            .uri(uri)
+            .contentType(APPLICATION_JSON)
+            .body(payload)
+            .retrieve()
+            .toBodilessEntity();
+        log.info("Delivered webhook events: url={} events={} status={}", url, payload.getEvents().size(), response.getStatusCode());
+
+        return response;
+    }
+
+}
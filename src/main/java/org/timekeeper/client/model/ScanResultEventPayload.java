@@ -0,0 +1,20 @@
+package org.timekeeper.client.model;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+import org.timekeeper.model.ScanResultEvent;
+
+import java.util.List;
+
+/**
+ * Body of a single POST to the HTTP outbox sink, batching a page of transitions in ascending order of ID
+ */
+@Value
+@Jacksonized
+@Builder(toBuilder = true)
+public class ScanResultEventPayload {
+
+    List<ScanResultEvent> events;
+
+}
@@ -0,0 +1,21 @@
+package org.timekeeper.client.model;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+import org.timekeeper.model.Scan;
+
+/**
+ * A finished scan delivered to a webhook. The ID is that of the delivery, which stays the same across retries, so that
+ * receivers can discard a batch they already processed but failed to acknowledge
+ */
+@Value
+@Jacksonized
+@Builder(toBuilder = true)
+public class WebhookEvent {
+
+    Long id;
+
+    Scan scan;
+
+}
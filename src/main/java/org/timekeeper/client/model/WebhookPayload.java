@@ -0,0 +1,19 @@
+package org.timekeeper.client.model;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+/**
+ * Body of a single POST to a webhook, batching the events due for it
+ */
+@Value
+@Jacksonized
+@Builder(toBuilder = true)
+public class WebhookPayload {
+
+    List<WebhookEvent> events;
+
+}
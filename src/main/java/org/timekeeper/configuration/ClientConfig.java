@@ -4,8 +4,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.timekeeper.client.NoOpResponseErrorHandler;
 import org.timekeeper.client.UrlScanClient;
+import org.timekeeper.client.UrlScanRateLimiter;
 import org.timekeeper.configuration.client.UrlScanClientConfig;
 
+import java.time.Clock;
+
 @Configuration
 public class ClientConfig {
 
@@ -15,8 +18,18 @@ public class ClientConfig {
     }
 
     @Bean
-    public UrlScanClient urlScanClient(UrlScanClientConfig clientConfig, NoOpResponseErrorHandler noOpResponseErrorHandler) {
-        return new UrlScanClient(clientConfig, noOpResponseErrorHandler);
+    public UrlScanRateLimiter urlScanRateLimiter(Clock clock) {
+        return new UrlScanRateLimiter(clock);
+    }
+
+    @Bean
+    public UrlScanClient urlScanClient(
+        UrlScanClientConfig clientConfig,
+        NoOpResponseErrorHandler noOpResponseErrorHandler,
+        UrlScanRateLimiter urlScanRateLimiter,
+        Clock clock
+    ) {
+        return new UrlScanClient(clientConfig, noOpResponseErrorHandler, urlScanRateLimiter, clock);
     }
 
 }
@@ -0,0 +1,18 @@
+package org.timekeeper.configuration;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public final class LeaseOwner {
+
+    /**
+     * Identifies this worker process as the owner of the leases it takes on claimed rows, whichever worker claims them.
+     * The container hostname is included to make lease owners traceable to a replica
+     */
+    public static final String LEASE_OWNER = String.format(
+        "%s/%s",
+        Optional.ofNullable(System.getenv("HOSTNAME")).orElse("localhost"),
+        UUID.randomUUID()
+    );
+
+}
@@ -0,0 +1,26 @@
+package org.timekeeper.configuration;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.timekeeper.database.postgresql.listener.NotificationListener;
+import org.timekeeper.database.postgresql.listener.NotificationSubscription;
+
+import javax.sql.DataSource;
+
+/**
+ * Configures the single Postgres notification listener of the process, which holds one connection for the notification
+ * subscriptions of every component enabled for the role of the process
+ */
+@Configuration
+public class NotificationListenerConfig {
+
+    @Bean
+    public NotificationListener notificationListener(
+        DataSource dataSource,
+        ObjectProvider<NotificationSubscription> notificationSubscriptionProvider
+    ) {
+        return new NotificationListener(dataSource, notificationSubscriptionProvider.orderedStream().toList());
+    }
+
+}
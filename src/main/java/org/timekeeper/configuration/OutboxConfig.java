@@ -0,0 +1,59 @@
+package org.timekeeper.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+import org.timekeeper.configuration.outbox.OutboxSinkConfig;
+import org.timekeeper.model.request.LeaseRequest;
+import org.timekeeper.outbox.HttpOutboxSink;
+import org.timekeeper.outbox.LogOutboxSink;
+import org.timekeeper.outbox.OutboxRelay;
+import org.timekeeper.outbox.OutboxSink;
+import org.timekeeper.service.OutboxService;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+import static org.timekeeper.configuration.LeaseOwner.LEASE_OWNER;
+
+@Configuration
+public class OutboxConfig {
+
+    /**
+     * Other relays wait for the lease to expire before relaying transitions that a failed relay left behind, so the lease
+     * only needs to outlast publishing a page, bounded by the timeouts of the sink
+     */
+    private static final Duration OUTBOX_RELAY_LEASE_DURATION = Duration.of(1, ChronoUnit.MINUTES);
+
+    @Bean
+    public OutboxSink outboxSink(
+        OutboxSinkConfig sinkConfig,
+        RestClient.Builder restClientBuilder,
+        ObjectMapper objectMapper
+    ) {
+        return switch (sinkConfig.getType()) {
+            case LOG -> new LogOutboxSink(objectMapper);
+            case HTTP -> {
+                if (sinkConfig.getUrl() == null || sinkConfig.getUrl().isBlank()) {
+                    throw new IllegalStateException("outbox.sink.url is required by the HTTP outbox sink");
+                }
+                yield new HttpOutboxSink(restClientBuilder, sinkConfig);
+            }
+        };
+    }
+
+    @Bean
+    public LeaseRequest outboxRelayLease() {
+        return LeaseRequest.builder()
+            .owner(LEASE_OWNER)
+            .duration(OUTBOX_RELAY_LEASE_DURATION)
+            .build();
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(OutboxService outboxService, OutboxSink outboxSink, LeaseRequest outboxRelayLease) {
+        return new OutboxRelay(outboxService, outboxSink, outboxRelayLease);
+    }
+
+}
@@ -2,44 +2,110 @@ package org.timekeeper.configuration;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.timekeeper.client.UrlScanClient;
+import org.timekeeper.configuration.submitter.ScanSubmitterExecutorConfig;
+import org.timekeeper.model.request.LeaseRequest;
 import org.timekeeper.submitter.ScanSubmitter;
+import org.timekeeper.poller.StatusCheckScheduler;
 import org.timekeeper.poller.StatusPoller;
 import org.timekeeper.service.ScanService;
 
 import java.time.Clock;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+import static org.timekeeper.configuration.LeaseOwner.LEASE_OWNER;
 
 @Configuration
 public class PollerConfig {
 
+    /**
+     * Submissions are not idempotent, so the lease must comfortably outlast the processing of a page of scan results
+     */
+    private static final Duration SCAN_SUBMITTER_LEASE_DURATION = Duration.of(5, ChronoUnit.MINUTES);
+
+    /**
+     * Scan results that could not be checked (ex: indeterminate responses) keep their lease, so the lease duration also bounds how often they are retried
+     */
+    private static final Duration STATUS_POLLER_LEASE_DURATION = Duration.of(1, ChronoUnit.MINUTES);
+
+    @Bean
+    public LeaseRequest scanSubmitterLease() {
+        return LeaseRequest.builder()
+            .owner(LEASE_OWNER)
+            .duration(SCAN_SUBMITTER_LEASE_DURATION)
+            .build();
+    }
+
+    /**
+     * Runs scan submissions on virtual threads, as submissions spend almost all of their time waiting on urlscan.io and Postgres.
+     * The concurrency limit blocks further submissions until one completes
+     */
+    @Bean
+    public TaskExecutor scanSubmitterExecutor(ScanSubmitterExecutorConfig executorConfig) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("scan-submitter-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(executorConfig.getConcurrency());
+
+        return executor;
+    }
+
+    /**
+     * Claims the next page of scan results while the current page is submitted. Kept apart from the submissions, so that
+     * in-flight submissions can never hold back the claim of the next page. Only one page is prefetched at a time
+     */
     @Bean
-    public ScanSubmitter.Delay scanSubmitterDelay() {
-        return ScanSubmitter.Delay.builder().build();
+    public TaskExecutor scanSubmitterPrefetchExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("scan-submitter-prefetch-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(1);
+
+        return executor;
     }
 
     @Bean
     public ScanSubmitter scanRequester(
         ScanService scanService,
         UrlScanClient urlScanClient,
-        ScanSubmitter.Delay scanSubmitterDelay,
+        LeaseRequest scanSubmitterLease,
+        TaskExecutor scanSubmitterExecutor,
+        TaskExecutor scanSubmitterPrefetchExecutor,
         Clock clock
     ) {
-        return new ScanSubmitter(scanService, urlScanClient, scanSubmitterDelay, clock);
+        return new ScanSubmitter(
+            scanService,
+            urlScanClient,
+            scanSubmitterLease,
+            scanSubmitterExecutor,
+            scanSubmitterPrefetchExecutor,
+            clock
+        );
+    }
+
+    @Bean
+    public LeaseRequest statusPollerLease() {
+        return LeaseRequest.builder()
+            .owner(LEASE_OWNER)
+            .duration(STATUS_POLLER_LEASE_DURATION)
+            .build();
     }
 
     @Bean
-    public StatusPoller.Delay statusPollerDelay() {
-        return StatusPoller.Delay.builder().build();
+    public StatusCheckScheduler statusCheckScheduler(ScanService scanService) {
+        return new StatusCheckScheduler(scanService);
     }
 
     @Bean
     public StatusPoller statusPoller(
         ScanService scanService,
         UrlScanClient urlScanClient,
-        StatusPoller.Delay statusPollerDelay,
+        LeaseRequest statusPollerLease,
+        StatusCheckScheduler statusCheckScheduler,
         Clock clock
     ) {
-        return new StatusPoller(scanService, urlScanClient, statusPollerDelay, clock);
+        return new StatusPoller(scanService, urlScanClient, statusPollerLease, statusCheckScheduler, clock);
     }
 
 }
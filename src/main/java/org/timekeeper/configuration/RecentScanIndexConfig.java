@@ -0,0 +1,48 @@
+package org.timekeeper.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.timekeeper.database.postgresql.listener.NotificationSubscription;
+import org.timekeeper.service.RecentScanIndex;
+import org.timekeeper.service.ScanService;
+
+import java.time.Clock;
+
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_RESULT_CREATED_CHANNEL;
+import static org.timekeeper.service.ScanService.RECENT_SCAN_RETENTION;
+
+/**
+ * Configures the recent scan index used to skip the duplicate scan check when creating scans.
+ * Only the API server creates scans, so only the API server listens for created scan results and loads the index;
+ * elsewhere the index is never marked ready and every URL falls back to the duplicate scan check
+ */
+@Configuration
+public class RecentScanIndexConfig {
+
+    /**
+     * Sizes each bloom filter generation at roughly 1.2 MB for a 1% false positive rate
+     */
+    private static final Long EXPECTED_URLS_PER_GENERATION = 1_000_000L;
+
+    @Bean
+    public RecentScanIndex recentScanIndex(Clock clock) {
+        return new RecentScanIndex(clock, RECENT_SCAN_RETENTION, EXPECTED_URLS_PER_GENERATION);
+    }
+
+    /**
+     * The index is loaded every time the listener starts listening, by which point it is already receiving created scan
+     * results, and is marked not ready whenever the listener may miss them
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application", name = "name", havingValue = "API_SERVER")
+    public NotificationSubscription recentScanIndexSubscription(RecentScanIndex recentScanIndex, ScanService scanService) {
+        return NotificationSubscription.builder()
+            .channel(SCAN_RESULT_CREATED_CHANNEL)
+            .consumer(recentScanIndex::handleNotification)
+            .onListen(scanService::loadRecentScanIndex)
+            .onListenLost(recentScanIndex::markNotReady)
+            .build();
+    }
+
+}
@@ -0,0 +1,98 @@
+package org.timekeeper.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.timekeeper.database.postgresql.listener.NotificationSubscription;
+import org.timekeeper.service.ScanEventBroadcaster;
+import org.timekeeper.service.ScanService;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_RESULT_UPDATED_CHANNEL;
+
+/**
+ * Configures the broadcaster of scan status changes to the event streams of users.
+ * Only the API server serves event streams, so the broadcaster and its threads only exist on the API server
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application", name = "name", havingValue = "API_SERVER")
+public class ScanEventBroadcasterConfig {
+
+    /**
+     * Events buffered per event stream before its client is evicted as a slow consumer; status events are on the order
+     * of 200 bytes, bounding each stream to roughly 50 KB
+     */
+    private static final Integer BUFFER_CAPACITY = 256;
+
+    /**
+     * Bounds how many event streams are written to at once. A client that stops reading holds a sender thread until
+     * its socket buffer drains, so there are enough threads that a few such clients do not hold up the rest
+     */
+    private static final Integer SENDER_THREADS = 8;
+
+    /**
+     * Well within the idle timeouts of proxies in front of the API server
+     */
+    private static final Duration HEARTBEAT_INTERVAL = Duration.of(20, ChronoUnit.SECONDS);
+
+    /**
+     * Single thread, as the broadcaster relies on publishing, resuming and registering event streams being serialized
+     */
+    @Bean
+    public ThreadPoolTaskScheduler scanEventPublisher() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("scan-event-publisher-");
+
+        return scheduler;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor scanEventSender() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(SENDER_THREADS);
+        executor.setMaxPoolSize(SENDER_THREADS);
+        executor.setThreadNamePrefix("scan-event-sender-");
+
+        return executor;
+    }
+
+    @Bean
+    public ScanEventBroadcaster scanEventBroadcaster(
+        ScanService scanService,
+        ThreadPoolTaskScheduler scanEventPublisher,
+        ThreadPoolTaskExecutor scanEventSender,
+        ObjectProvider<MeterRegistry> meterRegistryProvider
+    ) {
+        ScanEventBroadcaster scanEventBroadcaster = new ScanEventBroadcaster(
+            scanService,
+            scanEventPublisher,
+            scanEventSender,
+            BUFFER_CAPACITY
+        );
+        scanEventPublisher.scheduleAtFixedRate(scanEventBroadcaster::sendHeartbeats, HEARTBEAT_INTERVAL);
+        meterRegistryProvider.ifAvailable(meterRegistry ->
+            Gauge.builder("scan.event.subscriptions", scanEventBroadcaster, ScanEventBroadcaster::size)
+                .description("Number of open scan event streams")
+                .register(meterRegistry)
+        );
+
+        return scanEventBroadcaster;
+    }
+
+    @Bean
+    public NotificationSubscription scanEventBroadcasterSubscription(ScanEventBroadcaster scanEventBroadcaster) {
+        return NotificationSubscription.builder()
+            .channel(SCAN_RESULT_UPDATED_CHANNEL)
+            .consumer(scanEventBroadcaster::handleNotification)
+            .build();
+    }
+
+}
@@ -0,0 +1,61 @@
+package org.timekeeper.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.timekeeper.database.postgresql.listener.NotificationSubscription;
+import org.timekeeper.service.ScanStatusWaiters;
+
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_RESULT_UPDATED_CHANNEL;
+
+/**
+ * Configures the registry of requests waiting for the status of their scan to change.
+ * Only the API server serves waiting requests, so the registry and its threads only exist on the API server
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application", name = "name", havingValue = "API_SERVER")
+public class ScanStatusWaitersConfig {
+
+    /**
+     * Bounds how many woken up waiters re-read their scan at once, leaving the rest of the connection pool to other requests
+     */
+    private static final Integer WAKEUP_THREADS = 4;
+
+    @Bean
+    public ThreadPoolTaskExecutor scanStatusWaiterExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(WAKEUP_THREADS);
+        executor.setMaxPoolSize(WAKEUP_THREADS);
+        executor.setThreadNamePrefix("scan-status-waiter-");
+
+        return executor;
+    }
+
+    @Bean
+    public ScanStatusWaiters scanStatusWaiters(
+        ThreadPoolTaskExecutor scanStatusWaiterExecutor,
+        ObjectProvider<MeterRegistry> meterRegistryProvider
+    ) {
+        ScanStatusWaiters scanStatusWaiters = new ScanStatusWaiters(scanStatusWaiterExecutor);
+        meterRegistryProvider.ifAvailable(meterRegistry ->
+            Gauge.builder("scan.status.waiters", scanStatusWaiters, ScanStatusWaiters::size)
+                .description("Number of requests waiting for the status of their scan to change")
+                .register(meterRegistry)
+        );
+
+        return scanStatusWaiters;
+    }
+
+    @Bean
+    public NotificationSubscription scanStatusWaitersSubscription(ScanStatusWaiters scanStatusWaiters) {
+        return NotificationSubscription.builder()
+            .channel(SCAN_RESULT_UPDATED_CHANNEL)
+            .consumer(scanStatusWaiters::handleNotification)
+            .build();
+    }
+
+}
@@ -0,0 +1,56 @@
+package org.timekeeper.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.timekeeper.database.postgresql.listener.NotificationSubscription;
+import org.timekeeper.service.TerminalScanCache;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_DELETED_CHANNEL;
+
+/**
+ * Configures the cache of finished scans used when retrieving scans.
+ * Only the API server reads scans, so only the API server listens for deleted scans to invalidate
+ */
+@Configuration
+public class TerminalScanCacheConfig {
+
+    private static final String CACHE_NAME = "terminalScanCache";
+
+    /**
+     * Holds on the order of 100,000 typical scans
+     */
+    private static final Long MAX_WEIGHT_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Bounds how long a scan that was deleted on another API server may be served if its notification is lost
+     */
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.of(10, ChronoUnit.MINUTES);
+
+    @Bean
+    public TerminalScanCache terminalScanCache(ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        TerminalScanCache terminalScanCache = new TerminalScanCache(MAX_WEIGHT_BYTES, EXPIRE_AFTER_WRITE);
+        // Publishes hit, miss, eviction and size metrics whenever a meter registry is configured
+        meterRegistryProvider.ifAvailable(meterRegistry ->
+            GuavaCacheMetrics.monitor(meterRegistry, terminalScanCache.getCache(), CACHE_NAME)
+        );
+
+        return terminalScanCache;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application", name = "name", havingValue = "API_SERVER")
+    public NotificationSubscription terminalScanCacheSubscription(TerminalScanCache terminalScanCache) {
+        return NotificationSubscription.builder()
+            .channel(SCAN_DELETED_CHANNEL)
+            .consumer(terminalScanCache::handleNotification)
+            .build();
+    }
+
+}
@@ -3,6 +3,7 @@ package org.timekeeper.configuration;
 import org.apache.commons.validator.routines.UrlValidator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.timekeeper.client.PublicHostValidator;
 
 @Configuration
 public class ValidatorConfig {
@@ -12,4 +13,9 @@ public class ValidatorConfig {
         return new UrlValidator();
     }
 
+    @Bean
+    public PublicHostValidator publicHostValidator() {
+        return new PublicHostValidator();
+    }
+
 }
@@ -0,0 +1,82 @@
+package org.timekeeper.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.web.client.RestClient;
+import org.timekeeper.client.NoOpResponseErrorHandler;
+import org.timekeeper.client.PublicHostValidator;
+import org.timekeeper.client.WebhookClient;
+import org.timekeeper.configuration.client.WebhookClientConfig;
+import org.timekeeper.configuration.webhook.WebhookDelivererExecutorConfig;
+import org.timekeeper.model.request.LeaseRequest;
+import org.timekeeper.service.WebhookService;
+import org.timekeeper.webhook.WebhookDeliverer;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+import static org.timekeeper.configuration.LeaseOwner.LEASE_OWNER;
+
+@Configuration
+public class WebhookConfig {
+
+    /**
+     * Deliveries are retried once their lease expires, so the lease must comfortably outlast a run over a page of deliveries
+     * to slow webhooks, bounded by the read timeout of each request
+     */
+    private static final Duration WEBHOOK_DELIVERER_LEASE_DURATION = Duration.of(5, ChronoUnit.MINUTES);
+
+    @Bean
+    public WebhookClient webhookClient(
+        RestClient.Builder restClientBuilder,
+        WebhookClientConfig clientConfig,
+        NoOpResponseErrorHandler noOpResponseErrorHandler,
+        PublicHostValidator publicHostValidator
+    ) {
+        return new WebhookClient(restClientBuilder, clientConfig, noOpResponseErrorHandler, publicHostValidator);
+    }
+
+    @Bean
+    public LeaseRequest webhookDelivererLease() {
+        return LeaseRequest.builder()
+            .owner(LEASE_OWNER)
+            .duration(WEBHOOK_DELIVERER_LEASE_DURATION)
+            .build();
+    }
+
+    /**
+     * Runs webhook requests on virtual threads, as requests spend almost all of their time waiting on webhooks.
+     * The concurrency limit blocks further requests until one completes
+     */
+    @Bean
+    public TaskExecutor webhookDelivererExecutor(WebhookDelivererExecutorConfig executorConfig) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("webhook-deliverer-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(executorConfig.getConcurrency());
+
+        return executor;
+    }
+
+    @Bean
+    public WebhookDeliverer webhookDeliverer(
+        WebhookService webhookService,
+        WebhookClient webhookClient,
+        LeaseRequest webhookDelivererLease,
+        TaskExecutor webhookDelivererExecutor,
+        WebhookDelivererExecutorConfig executorConfig,
+        Clock clock
+    ) {
+        return new WebhookDeliverer(
+            webhookService,
+            webhookClient,
+            webhookDelivererLease,
+            webhookDelivererExecutor,
+            executorConfig.getEndpointConcurrency(),
+            clock
+        );
+    }
+
+}
@@ -0,0 +1,24 @@
+package org.timekeeper.configuration.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "webhook.client")
+public class WebhookClientConfig {
+
+    /**
+     * Maximum time to wait for a connection to a webhook
+     */
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Maximum time to wait for a webhook to respond, which bounds how long a slow webhook holds up a run of the deliverer
+     */
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+}
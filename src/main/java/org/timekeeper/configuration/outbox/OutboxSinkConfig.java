@@ -0,0 +1,39 @@
+package org.timekeeper.configuration.outbox;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "outbox.sink")
+public class OutboxSinkConfig {
+
+    public enum Type {
+        LOG,
+        HTTP,
+    }
+
+    /**
+     * Sink that the outbox relay streams transitions to
+     */
+    private Type type = Type.LOG;
+
+    /**
+     * URL that batches of transitions are POSTed to; required by the HTTP sink
+     */
+    private String url;
+
+    /**
+     * Maximum time to wait for a connection to the HTTP sink
+     */
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Maximum time to wait for the HTTP sink to respond, which bounds how long the outbox rows of a batch stay locked
+     */
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+}
@@ -0,0 +1,79 @@
+package org.timekeeper.configuration.scheduler;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.timekeeper.database.postgresql.listener.NotificationSubscription;
+import org.timekeeper.model.ScanResultStatus;
+import org.timekeeper.outbox.OutboxRelay;
+import org.timekeeper.scheduler.BacklogAwareTrigger;
+import org.timekeeper.scheduler.CoalescingWakeup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_RESULT_STATUS_CHANNEL;
+
+/**
+ * Configures the outbox relay to wake up whenever a scan result transitions, to run again immediately while a backlog
+ * remains, and otherwise to run on an idle interval (currently 5 seconds) as a safety net for lost notifications
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "application", name = "name", havingValue = "OUTBOX_RELAY")
+public class OutboxRelayConfig implements SchedulingConfigurer {
+
+    /**
+     * Transitions are relayed shortly after they commit, with a window to batch the transitions of a page of status
+     * checks together
+     */
+    protected static final Duration WAKEUP_DELAY = Duration.of(100, ChronoUnit.MILLIS);
+
+    protected static final Duration INTERVAL = Duration.of(5, ChronoUnit.SECONDS);
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private Clock clock;
+
+    @Bean
+    public ScheduledExecutorService taskExecutor() {
+        return Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @Bean
+    public CoalescingWakeup outboxRelayWakeup() {
+        return new CoalescingWakeup(taskExecutor(), outboxRelay::relay, WAKEUP_DELAY);
+    }
+
+    /**
+     * Scan results are created as SUBMITTED, so every other status is published by a transition
+     */
+    @Bean
+    public NotificationSubscription outboxRelaySubscription(CoalescingWakeup outboxRelayWakeup) {
+        return NotificationSubscription.builder()
+            .channel(SCAN_RESULT_STATUS_CHANNEL)
+            .consumer(payload -> {
+                if (!ScanResultStatus.SUBMITTED.name().equals(payload)) {
+                    outboxRelayWakeup.wakeup();
+                }
+            })
+            .build();
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        BacklogAwareTrigger trigger = new BacklogAwareTrigger(outboxRelay::relay, INTERVAL, clock);
+        taskRegistrar.setScheduler(taskExecutor());
+        taskRegistrar.addTriggerTask(trigger, trigger);
+    }
+
+}
@@ -7,22 +7,39 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.timekeeper.database.postgresql.listener.NotificationSubscription;
+import org.timekeeper.model.ScanResultStatus;
+import org.timekeeper.scheduler.BacklogAwareTrigger;
+import org.timekeeper.scheduler.CoalescingWakeup;
 import org.timekeeper.submitter.ScanSubmitter;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.temporal.ChronoUnit;
-import java.util.Optional;
-import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_RESULT_STATUS_CHANNEL;
 
 /**
- * Configures the scan submitter to run on a regular interval (currently 10 seconds)
+ * Configures the scan submitter to wake up whenever a scan result is created, to run again immediately while a backlog
+ * remains, and otherwise to run on an idle interval (currently 1 minute) to pick up scan results whose notifications were missed
  */
 @Configuration
 @EnableScheduling
 @ConditionalOnProperty(prefix = "application", name = "name", havingValue = "SCAN_SUBMITTER")
 public class ScanSubmitterConfig implements SchedulingConfigurer {
 
+    /**
+     * Scan results are submitted almost immediately after they are created, with a short window to batch scans created together
+     */
+    protected static final Duration WAKEUP_DELAY = Duration.of(100, ChronoUnit.MILLIS);
+
+    /**
+     * Scan results are picked up on notification, so the idle interval only serves as a safety net for missed notifications
+     */
+    protected static final Duration INTERVAL = Duration.of(1, ChronoUnit.MINUTES);
+
     @Autowired
     ScanSubmitter scanSubmitter;
 
@@ -30,19 +47,32 @@ public class ScanSubmitterConfig implements SchedulingConfigurer {
     Clock clock;
 
     @Bean
-    public Executor taskExecutor() {
+    public ScheduledExecutorService taskExecutor() {
         return Executors.newSingleThreadScheduledExecutor();
     }
 
+    @Bean
+    public CoalescingWakeup scanSubmitterWakeup() {
+        return new CoalescingWakeup(taskExecutor(), scanSubmitter::submit, WAKEUP_DELAY);
+    }
+
+    @Bean
+    public NotificationSubscription scanSubmitterSubscription(CoalescingWakeup scanSubmitterWakeup) {
+        return NotificationSubscription.builder()
+            .channel(SCAN_RESULT_STATUS_CHANNEL)
+            .consumer(payload -> {
+                if (ScanResultStatus.SUBMITTED.name().equals(payload)) {
+                    scanSubmitterWakeup.wakeup();
+                }
+            })
+            .build();
+    }
+
     @Override
     public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        BacklogAwareTrigger trigger = new BacklogAwareTrigger(scanSubmitter::submit, INTERVAL, clock);
         taskRegistrar.setScheduler(taskExecutor());
-        taskRegistrar.addTriggerTask(
-            scanSubmitter::submit,
-            triggerContext -> Optional.ofNullable(triggerContext.lastActualExecution())
-                .map(time -> time.plus(10, ChronoUnit.SECONDS))
-                .orElseGet(() -> clock.instant())
-        );
+        taskRegistrar.addTriggerTask(trigger, trigger);
     }
 
 }
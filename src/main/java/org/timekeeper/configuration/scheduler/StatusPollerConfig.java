@@ -7,22 +7,41 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.timekeeper.database.postgresql.listener.NotificationSubscription;
+import org.timekeeper.model.ScanResultStatus;
 import org.timekeeper.poller.StatusPoller;
+import org.timekeeper.scheduler.BacklogAwareTrigger;
+import org.timekeeper.scheduler.CoalescingWakeup;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.temporal.ChronoUnit;
-import java.util.Optional;
-import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_RESULT_STATUS_CHANNEL;
+import static org.timekeeper.service.ScanService.INITIAL_CHECK_DELAY;
 
 /**
- * Configures the status poller to run on a regular interval (currently 10 seconds)
+ * Configures the status poller to run again immediately while a backlog remains, and otherwise to run on an idle
+ * interval (currently 10 seconds). The poller also wakes up once the first status check of newly submitted scan results is due
  */
 @Configuration
 @EnableScheduling
 @ConditionalOnProperty(prefix = "application", name = "name", havingValue = "STATUS_POLLER")
 public class StatusPollerConfig implements SchedulingConfigurer {
 
+    /**
+     * The first status check of a scan result is not due until the initial check delay after it was submitted, with an
+     * additional window so that scan results submitted together are all due by the time the poller runs
+     */
+    protected static final Duration WAKEUP_DELAY = INITIAL_CHECK_DELAY.plus(1, ChronoUnit.SECONDS);
+
+    /**
+     * Scan results become due for their next status check without a notification, so the idle interval drives most runs
+     */
+    protected static final Duration INTERVAL = Duration.of(10, ChronoUnit.SECONDS);
+
     @Autowired
     private StatusPoller statusPoller;
 
@@ -30,19 +49,32 @@ public class StatusPollerConfig implements SchedulingConfigurer {
     private Clock clock;
 
     @Bean
-    public Executor taskExecutor() {
+    public ScheduledExecutorService taskExecutor() {
         return Executors.newSingleThreadScheduledExecutor();
     }
 
+    @Bean
+    public CoalescingWakeup statusPollerWakeup() {
+        return new CoalescingWakeup(taskExecutor(), statusPoller::poll, WAKEUP_DELAY);
+    }
+
+    @Bean
+    public NotificationSubscription statusPollerSubscription(CoalescingWakeup statusPollerWakeup) {
+        return NotificationSubscription.builder()
+            .channel(SCAN_RESULT_STATUS_CHANNEL)
+            .consumer(payload -> {
+                if (ScanResultStatus.PROCESSING.name().equals(payload)) {
+                    statusPollerWakeup.wakeup();
+                }
+            })
+            .build();
+    }
+
     @Override
     public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        BacklogAwareTrigger trigger = new BacklogAwareTrigger(statusPoller::poll, INTERVAL, clock);
         taskRegistrar.setScheduler(taskExecutor());
-        taskRegistrar.addTriggerTask(
-            statusPoller::poll,
-            triggerContext -> Optional.ofNullable(triggerContext.lastActualExecution())
-                .map(time -> time.plus(10, ChronoUnit.SECONDS))
-                .orElseGet(() -> clock.instant())
-        );
+        taskRegistrar.addTriggerTask(trigger, trigger);
     }
 
 }
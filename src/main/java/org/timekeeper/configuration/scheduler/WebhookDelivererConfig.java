@@ -0,0 +1,78 @@
+package org.timekeeper.configuration.scheduler;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.timekeeper.database.postgresql.listener.NotificationSubscription;
+import org.timekeeper.model.ScanResultStatus;
+import org.timekeeper.scheduler.BacklogAwareTrigger;
+import org.timekeeper.scheduler.CoalescingWakeup;
+import org.timekeeper.webhook.WebhookDeliverer;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_RESULT_STATUS_CHANNEL;
+
+/**
+ * Configures the webhook deliverer to wake up whenever a scan result finishes, to run again immediately while a backlog
+ * remains, and otherwise to run on an idle interval (currently 5 seconds) to pick up deliveries that are due for a retry
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "application", name = "name", havingValue = "WEBHOOK_DELIVERER")
+public class WebhookDelivererConfig implements SchedulingConfigurer {
+
+    /**
+     * Scans are delivered shortly after they finish, with a window to batch the scans of a page of status checks together
+     */
+    protected static final Duration WAKEUP_DELAY = Duration.of(1, ChronoUnit.SECONDS);
+
+    /**
+     * Retries become due without a notification, so the idle interval bounds how late a retry is attempted
+     */
+    protected static final Duration INTERVAL = Duration.of(5, ChronoUnit.SECONDS);
+
+    @Autowired
+    private WebhookDeliverer webhookDeliverer;
+
+    @Autowired
+    private Clock clock;
+
+    @Bean
+    public ScheduledExecutorService taskExecutor() {
+        return Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @Bean
+    public CoalescingWakeup webhookDelivererWakeup() {
+        return new CoalescingWakeup(taskExecutor(), webhookDeliverer::deliver, WAKEUP_DELAY);
+    }
+
+    @Bean
+    public NotificationSubscription webhookDelivererSubscription(CoalescingWakeup webhookDelivererWakeup) {
+        return NotificationSubscription.builder()
+            .channel(SCAN_RESULT_STATUS_CHANNEL)
+            .consumer(payload -> {
+                if (ScanResultStatus.DONE.name().equals(payload) || ScanResultStatus.FAILED.name().equals(payload)) {
+                    webhookDelivererWakeup.wakeup();
+                }
+            })
+            .build();
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        BacklogAwareTrigger trigger = new BacklogAwareTrigger(webhookDeliverer::deliver, INTERVAL, clock);
+        taskRegistrar.setScheduler(taskExecutor());
+        taskRegistrar.addTriggerTask(trigger, trigger);
+    }
+
+}
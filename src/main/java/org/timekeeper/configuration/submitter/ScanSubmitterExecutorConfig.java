@@ -0,0 +1,17 @@
+package org.timekeeper.configuration.submitter;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "submitter")
+public class ScanSubmitterExecutorConfig {
+
+    /**
+     * Maximum number of scan submissions to urlscan.io that can be in flight at the same time
+     */
+    private Integer concurrency = 1;
+
+}
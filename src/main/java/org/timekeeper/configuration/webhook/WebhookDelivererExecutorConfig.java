@@ -0,0 +1,22 @@
+package org.timekeeper.configuration.webhook;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "webhook")
+public class WebhookDelivererExecutorConfig {
+
+    /**
+     * Maximum number of webhook requests that can be in flight at the same time, across all webhooks
+     */
+    private Integer concurrency = 16;
+
+    /**
+     * Maximum number of webhook requests that can be in flight at the same time to a single endpoint (scheme, host and port)
+     */
+    private Integer endpointConcurrency = 2;
+
+}
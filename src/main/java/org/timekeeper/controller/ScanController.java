@@ -5,6 +5,10 @@ import io.swagger.v3.oas.annotations.Parameter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.validator.routines.UrlValidator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DurationFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,37 +16,84 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.timekeeper.model.ChangeFeedCursor;
+import org.timekeeper.model.Cursor;
+import org.timekeeper.model.KeysetPage;
 import org.timekeeper.model.Page;
 import org.timekeeper.model.Scan;
+import org.timekeeper.model.ScanChangePage;
+import org.timekeeper.model.ScanCreation;
+import org.timekeeper.model.ScanLookup;
 import org.timekeeper.model.ScanResultStatus;
 import org.timekeeper.model.ScanSummary;
+import org.timekeeper.model.ScanVersion;
 import org.timekeeper.model.request.CreateScanRequest;
+import org.timekeeper.model.request.CreateScansRequest;
+import org.timekeeper.model.request.CursorPageRequest;
+import org.timekeeper.model.request.LookupScansRequest;
 import org.timekeeper.model.request.PageRequest;
+import org.timekeeper.model.transform.ChangeFeedCursorTransform;
+import org.timekeeper.model.transform.CursorTransform;
+import org.timekeeper.model.transform.EntityTagTransform;
+import org.timekeeper.model.transform.KeysetPageTransform;
+import org.timekeeper.model.transform.ScanVersionTransform;
 import org.timekeeper.exception.BadRequestException;
+import org.timekeeper.service.ScanEventBroadcaster;
 import org.timekeeper.service.ScanService;
+import org.timekeeper.service.ScanStatusWaiters;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
+import static org.timekeeper.database.postgresql.repository.Constants.APPLICATION_SMILE_VALUE;
+import static org.timekeeper.database.postgresql.repository.Constants.EVENT_STREAM_TIMEOUT;
+import static org.timekeeper.database.postgresql.repository.Constants.MAX_CHANGE_PAGE_SIZE;
+import static org.timekeeper.database.postgresql.repository.Constants.MAX_CREATE_BATCH_SIZE;
+import static org.timekeeper.database.postgresql.repository.Constants.MAX_LOOKUP_BATCH_SIZE;
 import static org.timekeeper.database.postgresql.repository.Constants.MAX_PAGE_SIZE;
+import static org.timekeeper.database.postgresql.repository.Constants.MAX_WAIT_TIMEOUT;
 
 /**
  * Controller for servicing REST API calls to the /scans endpoint
  */
 @Slf4j
 @RestController
-@RequestMapping(value = "scans", produces = "application/json")
+@ConditionalOnProperty(prefix = "application", name = "name", havingValue = "API_SERVER")
+@RequestMapping(
+    value = "scans",
+    produces = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE}
+)
 @RequiredArgsConstructor
 public class ScanController implements Controller {
 
+    private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
     private final ScanService scanService;
 
     private final UrlValidator urlValidator;
 
+    private final ScanStatusWaiters scanStatusWaiters;
+
+    private final ScanEventBroadcaster scanEventBroadcaster;
+
     @GetMapping
-    @Operation(summary = "Paginated API for listing all scans for the calling user")
+    @Operation(
+        summary = "Paginated API for listing all scans for the calling user",
+        description = "Responds with 304 Not Modified if the page matches the If-None-Match or If-Modified-Since header"
+    )
     public Page<ScanSummary> listScanSummaries(
         @AuthenticationPrincipal
         OidcUser user,
@@ -53,7 +104,8 @@ public class ScanController implements Controller {
         @Parameter(description = "0-indexed page offset for pagination")
         Integer page,
         @Parameter(description = "Number of items to query per page")
-        @RequestParam(defaultValue = "20") Integer pageSize
+        @RequestParam(defaultValue = "20") Integer pageSize,
+        WebRequest webRequest
     ) {
         String userId = getUserId(user);
         log.info("Listing scan summaries: userId={} status={} page={} pageSize={}", userId, status, page, pageSize);
@@ -76,23 +128,221 @@ public class ScanController implements Controller {
             .build();
         log.info("Listing scan summaries: userId={} status={} pageRequest={}", userId, status, pageRequest);
 
-        return scanService.listScanSummaries(
+        Page<ScanSummary> scanSummaryPage = scanService.listScanSummaries(
             userId,
             status,
             pageRequest
         );
+        if (webRequest.checkNotModified(EntityTagTransform.apply(scanSummaryPage), getLastModified(scanSummaryPage.getData()))) {
+            log.info("Scan summaries not modified: userId={} status={} pageRequest={}", userId, status, pageRequest);
+            return null;
+        }
+
+        return scanSummaryPage;
+    }
+
+    @GetMapping(params = "cursor")
+    @Operation(
+        summary = "Cursor-paginated API for listing all scans for the calling user",
+        description = "Pass an empty cursor to retrieve the first page, then the nextCursor of each page to retrieve the page after it. " +
+            "Does not count the scans of the user, so the cost of each page is the same no matter how deep into the list it is. " +
+            "Responds with 304 Not Modified if the page matches the If-None-Match or If-Modified-Since header"
+    )
+    public KeysetPage<ScanSummary> listScanSummariesByCursor(
+        @AuthenticationPrincipal
+        OidcUser user,
+        @RequestParam
+        @Parameter(description = "Status of scans to filter on; not providing a status will return all statuses")
+        Optional<ScanResultStatus> status,
+        @RequestParam
+        @Parameter(description = "Opaque cursor returned as nextCursor by the previous page; empty for the first page")
+        String cursor,
+        @Parameter(description = "Number of items to query per page")
+        @RequestParam(defaultValue = "20") Integer pageSize,
+        WebRequest webRequest
+    ) {
+        String userId = getUserId(user);
+        log.info("Listing scan summaries by cursor: userId={} status={} cursor={} pageSize={}", userId, status, cursor, pageSize);
+        if(pageSize <= 0) {
+            throw new BadRequestException(
+                String.format(
+                    "Page size must be > 0: pageSize=%s", pageSize)
+            );
+        }
+
+        Cursor decodedCursor;
+        try {
+            decodedCursor = cursor.isEmpty() ? null : CursorTransform.apply(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(
+                String.format("Cursor is malformed: cursor=%s", cursor)
+            );
+        }
+
+        CursorPageRequest cursorPageRequest = CursorPageRequest.builder()
+            .cursor(decodedCursor)
+            .pageSize(Math.min(pageSize, MAX_PAGE_SIZE))
+            .build();
+
+        KeysetPage<ScanSummary> scanSummaryPage = KeysetPageTransform.apply(
+            scanService.listScanSummaries(
+                userId,
+                status,
+                cursorPageRequest
+            )
+        );
+        if (webRequest.checkNotModified(EntityTagTransform.apply(scanSummaryPage), getLastModified(scanSummaryPage.getData()))) {
+            log.info("Scan summaries not modified: userId={} status={} cursorPageRequest={}", userId, status, cursorPageRequest);
+            return null;
+        }
+
+        return scanSummaryPage;
+    }
+
+    @GetMapping("/changes")
+    @Operation(
+        summary = "Lists the scans of the calling user that changed since a cursor",
+        description = "Pass an empty cursor to list every scan of the user, then the nextCursor of each page to list the " +
+            "scans that changed after it. Each scan is listed once with its last change, including scans that were " +
+            "deleted, and nextCursor is always returned so that the feed can be polled once hasMore is false. " +
+            "Responds with 410 Gone if tombstones after the cursor have been removed, which happens to cursors older " +
+            "than the 7 day retention of the feed, in which case the feed must be listed again from the start"
+    )
+    public ScanChangePage listScanChanges(
+        @AuthenticationPrincipal
+        OidcUser user,
+        @RequestParam(defaultValue = "")
+        @Parameter(description = "Opaque cursor returned as nextCursor by the previous page; empty to list from the start")
+        String since,
+        @Parameter(description = "Number of changes to query per page")
+        @RequestParam(defaultValue = "100") Integer pageSize
+    ) {
+        String userId = getUserId(user);
+        log.info("Listing scan changes: userId={} since={} pageSize={}", userId, since, pageSize);
+        if(pageSize <= 0) {
+            throw new BadRequestException(
+                String.format(
+                    "Page size must be > 0: pageSize=%s", pageSize)
+            );
+        }
+
+        Optional<ChangeFeedCursor> cursor;
+        try {
+            cursor = since.isEmpty() ? Optional.empty() : Optional.of(ChangeFeedCursorTransform.apply(since));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(
+                String.format("Cursor is malformed: since=%s", since)
+            );
+        }
+
+        return scanService.listScanChanges(userId, cursor, Math.min(pageSize, MAX_CHANGE_PAGE_SIZE));
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Streams the status changes of the scans of the calling user as server-sent events",
+        description = "Sends a status event with the ID, status and update time of a scan whenever the status of one of " +
+            "the scans of the user changes. Clients that reconnect with the Last-Event-ID header are sent the changes " +
+            "they missed, or a reset event if too many scans changed to send them all. Event IDs are change feed cursors, " +
+            "which may also be passed as the since parameter of the change feed. Changes made around the time of the " +
+            "last event may be sent again"
+    )
+    public SseEmitter streamScanEvents(
+        @AuthenticationPrincipal OidcUser user,
+        @RequestHeader(name = LAST_EVENT_ID_HEADER)
+        @Parameter(description = "ID of the last event received on a previous event stream, to resume from")
+        Optional<String> lastEventId
+    ) {
+        String userId = getUserId(user);
+        log.info("Streaming scan events: userId={} lastEventId={}", userId, lastEventId);
+
+        Optional<ChangeFeedCursor> lastEventCursor;
+        try {
+            lastEventCursor = lastEventId.map(ChangeFeedCursorTransform::apply);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(
+                String.format("Last event ID is malformed; it must be the ID of an event from a previous event stream: lastEventId=%s", lastEventId.get())
+            );
+        }
+
+        SseEmitter emitter = new SseEmitter(EVENT_STREAM_TIMEOUT.toMillis());
+        scanEventBroadcaster.subscribe(userId, emitter, lastEventCursor);
+
+        return emitter;
     }
 
     @GetMapping("/{scanId}")
-    @Operation(summary = "Retrieves a scan by ID")
+    @Operation(
+        summary = "Retrieves a scan by ID",
+        description = "Responds with 304 Not Modified if the scan matches the If-None-Match or If-Modified-Since header, " +
+            "which is checked against the version of the scan without retrieving the scan itself"
+    )
     public Scan getScan(
         @AuthenticationPrincipal OidcUser user,
-        @PathVariable Long scanId
+        @PathVariable Long scanId,
+        WebRequest webRequest
     ) {
         String userId = getUserId(user);
         log.info("Getting scan: userId={} scanId={}", userId, scanId);
 
-        return scanService.getScan(userId, scanId);
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+            ScanVersion scanVersion = scanService.getScanVersion(userId, scanId);
+            if (webRequest.checkNotModified(EntityTagTransform.apply(scanVersion), scanVersion.getUpdatedAt().toEpochMilli())) {
+                log.info("Scan not modified: userId={} scanId={} scanVersion={}", userId, scanId, scanVersion);
+                return null;
+            }
+        }
+
+        Scan scan = scanService.getScan(userId, scanId);
+        // Sets the ETag and Last-Modified headers of the response, unless already set by the version check
+        webRequest.checkNotModified(EntityTagTransform.apply(ScanVersionTransform.apply(scan)), scan.getUpdatedAt().toEpochMilli());
+
+        return scan;
+    }
+
+    @GetMapping("/{scanId}/wait")
+    @Operation(
+        summary = "Waits for the status of a scan to change, then retrieves it",
+        description = "Responds immediately with scans that have already finished. Otherwise the request is held open " +
+            "until the status of the scan changes or the timeout elapses, and then responds with the scan as of then, " +
+            "so clients waiting for a scan to finish repeat the request until it has"
+    )
+    public DeferredResult<Scan> waitForScan(
+        @AuthenticationPrincipal OidcUser user,
+        @PathVariable Long scanId,
+        @RequestParam(defaultValue = "30s")
+        @DurationFormat(style = DurationFormat.Style.SIMPLE, defaultUnit = DurationFormat.Unit.SECONDS)
+        @Parameter(description = "How long to wait for the status to change, such as 30s; at most 60s")
+        Duration timeout
+    ) {
+        String userId = getUserId(user);
+        log.info("Waiting for scan: userId={} scanId={} timeout={}", userId, scanId, timeout);
+
+        if (timeout.isNegative() || timeout.isZero() || timeout.compareTo(MAX_WAIT_TIMEOUT) > 0) {
+            throw new BadRequestException(
+                String.format("Timeout must be positive and at most %s: timeout=%s", MAX_WAIT_TIMEOUT, timeout)
+            );
+        }
+
+        DeferredResult<Scan> deferredResult = new DeferredResult<>(timeout.toMillis());
+        long generation = scanStatusWaiters.getGeneration();
+        Scan scan = scanService.getScan(userId, scanId);
+        ScanResultStatus status = scan.getResult().getStatus();
+        if (status.isTerminal()) {
+            deferredResult.setResult(scan);
+            return deferredResult;
+        }
+
+        Runnable complete = () -> completeWait(deferredResult, userId, scanId);
+        deferredResult.onCompletion(scanStatusWaiters.register(scan.getResult().getId(), complete));
+        // Notifications may be lost, so the scan is read again once the wait times out rather than responding with the stale scan
+        deferredResult.onTimeout(complete);
+        // The status may have changed between reading the scan and registering the waiter, missing its notification
+        if (scanStatusWaiters.getGeneration() != generation) {
+            recheckWait(deferredResult, userId, scanId, status);
+        }
+
+        return deferredResult;
     }
 
     @PostMapping
@@ -116,6 +366,85 @@ public class ScanController implements Controller {
         return scanService.createScan(userId, request.getUrl());
     }
 
+    @PostMapping("/batch")
+    @Operation(
+        summary = "Creates scans for a batch of URLs",
+        description = "Each URL is validated and deduplicated independently, and the outcome for each URL is returned in the order of the request. " +
+            "Malformed URLs do not fail the batch"
+    )
+    public List<ScanCreation> createScans(
+        @AuthenticationPrincipal OidcUser user,
+        @RequestBody CreateScansRequest request
+    ) {
+        String userId = getUserId(user);
+        List<String> urls = Optional.ofNullable(request.getUrls()).orElse(List.of());
+        log.info("Creating scans: userId={} urlCount={}", userId, urls.size());
+        if (urls.isEmpty()) {
+            throw new BadRequestException("At least one URL must be provided");
+        }
+        if (urls.size() > MAX_CREATE_BATCH_SIZE) {
+            throw new BadRequestException(
+                String.format(
+                    "Too many URLs in batch: urlCount=%s maxBatchSize=%s", urls.size(), MAX_CREATE_BATCH_SIZE)
+            );
+        }
+
+        List<Boolean> validList = urls.stream()
+            .map(urlValidator::isValid)
+            .toList();
+        List<String> validUrls = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            if (validList.get(i)) {
+                validUrls.add(urls.get(i));
+            }
+        }
+        Iterator<ScanCreation> scanCreationIterator = scanService.createScans(userId, validUrls).iterator();
+
+        List<ScanCreation> scanCreationList = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            String url = urls.get(i);
+            scanCreationList.add(
+                validList.get(i)
+                    ? scanCreationIterator.next()
+                    : ScanCreation.builder()
+                        .url(url)
+                        .outcome(ScanCreation.Outcome.INVALID)
+                        .message(String.format("URL is malformed: url=%s", url))
+                        .build()
+            );
+        }
+        return scanCreationList;
+    }
+
+    @PostMapping("/lookup")
+    @Operation(
+        summary = "Looks up the statuses of a batch of scans by ID",
+        description = "Returns the status of each scan found, keyed by scan ID, and the details of each scan if includeScans is set. " +
+            "Scans that do not exist or belong to another user are left out rather than failing the batch"
+    )
+    public ScanLookup lookupScans(
+        @AuthenticationPrincipal OidcUser user,
+        @RequestBody LookupScansRequest request
+    ) {
+        String userId = getUserId(user);
+        List<Long> ids = Optional.ofNullable(request.getIds()).orElse(List.of());
+        log.info("Looking up scans: userId={} scanCount={}", userId, ids.size());
+        if (ids.isEmpty()) {
+            throw new BadRequestException("At least one scan ID must be provided");
+        }
+        if (ids.size() > MAX_LOOKUP_BATCH_SIZE) {
+            throw new BadRequestException(
+                String.format(
+                    "Too many scan IDs in batch: scanCount=%s maxBatchSize=%s", ids.size(), MAX_LOOKUP_BATCH_SIZE)
+            );
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException("Scan IDs must not be null");
+        }
+
+        return scanService.lookupScans(userId, ids, Boolean.TRUE.equals(request.getIncludeScans()));
+    }
+
     @DeleteMapping("/{scanId}")
     @Operation(summary = "Deletes a scan by ID")
     public Void deleteScan(
@@ -129,4 +458,48 @@ public class ScanController implements Controller {
         return null;
     }
 
+    /**
+     * Responds to a waiting request if the status of its scan is no longer the status it started waiting on
+     */
+    private void recheckWait(DeferredResult<Scan> deferredResult, String userId, Long scanId, ScanResultStatus status) {
+        try {
+            ScanVersion scanVersion = scanService.getScanVersion(userId, scanId);
+            if (scanVersion.getStatus() != status) {
+                log.info("Scan status changed while registering waiter: userId={} scanId={} scanVersion={}", userId, scanId, scanVersion);
+                completeWait(deferredResult, userId, scanId);
+            }
+        } catch (RuntimeException e) {
+            deferredResult.setErrorResult(e);
+        }
+    }
+
+    /**
+     * Responds to a waiting request with its scan as of now, unless it has already been responded to
+     */
+    private void completeWait(DeferredResult<Scan> deferredResult, String userId, Long scanId) {
+        if (deferredResult.isSetOrExpired()) {
+            return;
+        }
+
+        try {
+            Scan scan = scanService.getScan(userId, scanId);
+            log.info("Finished waiting for scan: userId={} scanId={} status={}", userId, scanId, scan.getResult().getStatus());
+            deferredResult.setResult(scan);
+        } catch (RuntimeException e) {
+            deferredResult.setErrorResult(e);
+        }
+    }
+
+    /**
+     * @return the time at which the most recently updated of the given scans was updated, in epoch milliseconds; -1 if
+     * there are no scans, which omits the Last-Modified header
+     */
+    private static long getLastModified(List<ScanSummary> scanSummaryList) {
+        return scanSummaryList.stream()
+            .map(ScanSummary::getUpdatedAt)
+            .max(Comparator.naturalOrder())
+            .map(Instant::toEpochMilli)
+            .orElse(-1L);
+    }
+
 }
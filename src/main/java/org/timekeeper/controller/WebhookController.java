@@ -0,0 +1,111 @@
+package org.timekeeper.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.validator.routines.UrlValidator;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.timekeeper.client.PublicHostValidator;
+import org.timekeeper.exception.BadRequestException;
+import org.timekeeper.model.Webhook;
+import org.timekeeper.model.request.CreateWebhookRequest;
+import org.timekeeper.service.WebhookService;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Controller for servicing REST API calls to the /webhooks endpoint
+ */
+@Slf4j
+@RestController
+@RequestMapping(value = "webhooks", produces = "application/json")
+@RequiredArgsConstructor
+public class WebhookController implements Controller {
+
+    private static final Set<String> WEBHOOK_SCHEMES = Set.of("http", "https");
+
+    private final WebhookService webhookService;
+
+    private final UrlValidator urlValidator;
+
+    private final PublicHostValidator publicHostValidator;
+
+    @GetMapping
+    @Operation(summary = "Lists the webhooks of the calling user")
+    public List<Webhook> listWebhooks(
+        @AuthenticationPrincipal OidcUser user
+    ) {
+        String userId = getUserId(user);
+        log.info("Listing webhooks: userId={}", userId);
+
+        return webhookService.listWebhooks(userId);
+    }
+
+    @PostMapping
+    @Operation(
+        summary = "Creates a webhook for the provided URL",
+        description = "Every scan of the calling user that is DONE or FAILED from then on is POSTed to the URL, batched with " +
+            "other finished scans as {\"events\": [{\"id\": ..., \"scan\": {...}}]}. Deliveries that do not receive a 2xx " +
+            "response are retried with exponential backoff, so the same event ID may be delivered more than once. " +
+            "Input URL must be a valid http or https URL whose host resolves only to public addresses"
+    )
+    public Webhook createWebhook(
+        @AuthenticationPrincipal OidcUser user,
+        @RequestBody CreateWebhookRequest request
+    ) {
+        String userId = getUserId(user);
+        log.info("Creating webhook: userId={} request={}", userId, request);
+        String url = request.getUrl();
+
+        if (
+            !urlValidator.isValid(url)
+                || !WEBHOOK_SCHEMES.contains(url.substring(0, url.indexOf(':')).toLowerCase(Locale.ROOT))
+        ) {
+            throw new BadRequestException(
+                String.format("URL is malformed: url=%s", url)
+            );
+        }
+        if (!publicHostValidator.isValid(getHost(url))) {
+            throw new BadRequestException(
+                String.format("URL host must resolve only to public addresses: url=%s", url)
+            );
+        }
+        return webhookService.createWebhook(userId, url);
+    }
+
+    @DeleteMapping("/{webhookId}")
+    @Operation(summary = "Deletes a webhook by ID, along with its pending deliveries")
+    public Void deleteWebhook(
+        @AuthenticationPrincipal OidcUser user,
+        @PathVariable Long webhookId
+    ) {
+        String userId = getUserId(user);
+        log.info("Deleting webhook: userId={} webhookId={}", userId, webhookId);
+
+        webhookService.deleteWebhook(userId, webhookId);
+        return null;
+    }
+
+    /**
+     * @return the host of the URL, or null if it cannot be parsed
+     */
+    private static String getHost(String url) {
+        try {
+            return URI.create(url).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+}
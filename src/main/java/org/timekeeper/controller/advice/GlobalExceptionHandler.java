@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+import org.timekeeper.exception.CursorExpiredException;
 import org.timekeeper.exception.DuplicateRequestException;
 import org.timekeeper.exception.BadRequestException;
 import org.timekeeper.exception.ResourceNotFoundException;
@@ -52,6 +53,13 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return handle(exception, status);
     }
 
+    @ExceptionHandler(CursorExpiredException.class)
+    public ResponseEntity<ExceptionDetails> handle(CursorExpiredException exception, WebRequest request) {
+        log.info("CursorExpiredException encountered; translating to external exception: message={}", exception.getMessage());
+
+        return handle(exception, HttpStatus.GONE);
+    }
+
     private ResponseEntity<ExceptionDetails> handle(
         RuntimeException exception,
         HttpStatus httpStatus
@@ -0,0 +1,116 @@
+package org.timekeeper.database.postgresql.listener;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Listens on the Postgres notification channels of a set of subscriptions over a single connection, and passes the
+ * payload of every notification to the subscriptions of its channel.
+ * A connection is held open for the lifetime of the listener, as notifications are only delivered to the session that
+ * issued the LISTEN, so every component of a process subscribes through the same listener rather than holding a
+ * connection of its own. Notifications are handled one at a time on the listener thread, so consumers must hand off any
+ * slow work. Notifications sent while the connection is being re-established are lost, so consumers must either not
+ * depend on receiving every notification, or catch up on what they missed once the listener is listening again
+ */
+@Slf4j
+public class NotificationListener implements SmartLifecycle {
+
+    protected static final Duration POLL_TIMEOUT = Duration.of(10, ChronoUnit.SECONDS);
+
+    protected static final Duration RECONNECT_DELAY = Duration.of(5, ChronoUnit.SECONDS);
+
+    private final DataSource dataSource;
+
+    private final List<NotificationSubscription> subscriptions;
+
+    private final Map<String, List<NotificationSubscription>> channelSubscriptions;
+
+    private volatile boolean running;
+
+    private Thread thread;
+
+    public NotificationListener(DataSource dataSource, List<NotificationSubscription> subscriptions) {
+        this.dataSource = dataSource;
+        this.subscriptions = subscriptions;
+        this.channelSubscriptions = subscriptions.stream()
+            .collect(Collectors.groupingBy(NotificationSubscription::getChannel));
+    }
+
+    @Override
+    public void start() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+
+        running = true;
+        thread = new Thread(this::listen, "notification-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Optional.ofNullable(thread).ifPresent(Thread::interrupt);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                for (String channel : channelSubscriptions.keySet()) {
+                    statement.execute(String.format("LISTEN %s", channel));
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for notifications: channels={}", channelSubscriptions.keySet());
+                // A subscription that fails to catch up is retried along with the connection
+                subscriptions.forEach(subscription -> subscription.getOnListen().run());
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) POLL_TIMEOUT.toMillis());
+                    Optional.ofNullable(notifications)
+                        .map(Arrays::stream)
+                        .ifPresent(stream -> stream.forEach(this::handle));
+                }
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Notification listener connection failed; reconnecting: channels={} delay={}", channelSubscriptions.keySet(), RECONNECT_DELAY, e);
+                subscriptions.forEach(subscription -> subscription.getOnListenLost().run());
+                try {
+                    Thread.sleep(RECONNECT_DELAY.toMillis());
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void handle(PGNotification notification) {
+        channelSubscriptions.getOrDefault(notification.getName(), List.of()).forEach(subscription -> {
+            try {
+                subscription.getConsumer().accept(notification.getParameter());
+            } catch (RuntimeException e) {
+                log.warn("Failed to handle notification; ignoring: channel={} payload={}", notification.getName(), notification.getParameter(), e);
+            }
+        });
+    }
+
+}
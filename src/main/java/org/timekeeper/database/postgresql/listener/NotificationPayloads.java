@@ -0,0 +1,55 @@
+package org.timekeeper.database.postgresql.listener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Packs lists of entries into Postgres notification payloads, and unpacks them once received through the
+ * {@link NotificationListener}, so that a batch of changes is published with as few notifications as possible
+ */
+public final class NotificationPayloads {
+
+    /**
+     * Postgres notification payloads are limited to 8000 bytes. Entries are ASCII, and the margin leaves room for a
+     * prefix added to the packed payload, such as the change feed position of a positioned notification
+     */
+    protected static final Integer MAX_PAYLOAD_LENGTH = 7000;
+
+    private static final String ENTRY_DELIMITER = ",";
+
+    /**
+     * Packs entries into as few notification payloads as fit within the Postgres payload limit
+     *
+     * @param entries the entries to publish, none of which may contain the entry delimiter
+     * @return the payloads to publish, in order
+     */
+    public static List<String> pack(List<String> entries) {
+        List<String> payloads = new ArrayList<>();
+        List<String> pendingEntries = new ArrayList<>();
+        int pendingLength = 0;
+        for (String entry : entries) {
+            if (!pendingEntries.isEmpty() && pendingLength + entry.length() + 1 > MAX_PAYLOAD_LENGTH) {
+                payloads.add(String.join(ENTRY_DELIMITER, pendingEntries));
+                pendingEntries.clear();
+                pendingLength = 0;
+            }
+            pendingEntries.add(entry);
+            pendingLength += entry.length() + 1;
+        }
+        if (!pendingEntries.isEmpty()) {
+            payloads.add(String.join(ENTRY_DELIMITER, pendingEntries));
+        }
+
+        return payloads;
+    }
+
+    /**
+     * @param payload a payload packed with {@link #pack}
+     * @return the entries of the payload, in order
+     */
+    public static List<String> unpack(String payload) {
+        return Arrays.asList(payload.split(ENTRY_DELIMITER));
+    }
+
+}
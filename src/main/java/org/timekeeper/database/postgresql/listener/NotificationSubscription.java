@@ -0,0 +1,39 @@
+package org.timekeeper.database.postgresql.listener;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.function.Consumer;
+
+/**
+ * Subscription of a component to a Postgres notification channel, through the {@link NotificationListener} shared by
+ * every component of the process
+ */
+@Value
+@Builder(toBuilder = true)
+public class NotificationSubscription {
+
+    /**
+     * Channel to listen on; several subscriptions may share a channel
+     */
+    String channel;
+
+    /**
+     * Receives the payload of every notification on the channel
+     */
+    Consumer<String> consumer;
+
+    /**
+     * Runs every time the listener starts listening, including after the connection is re-established. Notifications
+     * sent from then on are delivered once it returns
+     */
+    @Builder.Default
+    Runnable onListen = () -> {};
+
+    /**
+     * Runs every time the connection fails, from which point notifications are lost until the listener listens again
+     */
+    @Builder.Default
+    Runnable onListenLost = () -> {};
+
+}
@@ -0,0 +1,29 @@
+package org.timekeeper.database.postgresql.model;
+
+/**
+ * Projection of the outcome of creating a scan with a single statement
+ */
+public interface CreatedScan {
+
+    /**
+     * @return the ID of the most recent scan of the URL by the requesting user within the dedupe window, in which case no
+     * scan was created; null otherwise
+     */
+    Long getDuplicateScanId();
+
+    /**
+     * @return the ID of the created scan, or null if it was a duplicate
+     */
+    Long getScanId();
+
+    /**
+     * @return the ID of the scan result of the created scan, or null if it was a duplicate
+     */
+    Long getScanResultId();
+
+    /**
+     * @return true if a new scan result was created for the scan; false if it reused the scan result of another scan
+     */
+    Boolean getNewResult();
+
+}
@@ -0,0 +1,61 @@
+package org.timekeeper.database.postgresql.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.timekeeper.model.ScanResultStatus;
+
+import java.time.Instant;
+
+/**
+ * The last change of a scan, which makes up the change feed of the user that owns it. Each scan has a single row,
+ * which is moved to the position of the transaction that changed it whenever the scan is created, transitions or is
+ * deleted, so the feed is compacted to the latest change of each scan as it is written. Rows of deleted scans are kept
+ * as tombstones for the retention period of the change feed.
+ * The row is only written through native queries, in the same statement or transaction as the change it records
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Table(
+    name = "scan_change",
+    indexes = {
+        @Index(name = "scan_change_user_position_idx", columnList = "userId,position,scanId"),
+    })
+public class ScanChangeEntity {
+
+    /**
+     * ID of the scan. Not a foreign key, so that the row outlives the scan as a tombstone
+     */
+    @Id
+    private Long scanId;
+
+    @Column(length = 100, nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private ScanResultStatus status;
+
+    @Column(nullable = false)
+    private Boolean deleted;
+
+    /**
+     * Position of the change in the change feed, which is the ID of the transaction that made the change
+     * (pg_current_xact_id). Transactions are assigned IDs in the order they first write, so a change is never written
+     * behind a position that has already been read, as long as only changes below the oldest running transaction are read
+     */
+    @Column(nullable = false)
+    private Long position;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+
+}
@@ -0,0 +1,33 @@
+package org.timekeeper.database.postgresql.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The highest position of a tombstone that has been removed from the change feed of a user. A cursor at or below it
+ * may have missed the deletion the tombstone recorded, so the feed must be listed again from the start.
+ * The row is only written through native queries on
+ * {@link org.timekeeper.database.postgresql.repository.ScanChangeRepository}, along with the tombstones it removes
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Table(name = "scan_change_horizon")
+public class ScanChangeHorizonEntity {
+
+    @Id
+    @Column(length = 100)
+    private String userId;
+
+    @Column(nullable = false)
+    private Long position;
+
+}
@@ -17,6 +17,7 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.timekeeper.model.ScanResultStatus;
 
 import java.time.Instant;
 
@@ -28,7 +29,9 @@ import java.time.Instant;
 @Table(
     name = "scan",
     indexes = {
-        @Index(columnList = "userId,createdAt"),
+        @Index(name = "scan_user_created_idx", columnList = "userId,createdAt,id"),
+        @Index(name = "scan_user_status_created_idx", columnList = "userId,status,createdAt,id"),
+        @Index(name = "scan_result_idx", columnList = "result_id"),
     })
 public class ScanEntity {
 
@@ -49,6 +52,15 @@ public class ScanEntity {
     )
     private ScanResultEntity result;
 
+    /**
+     * Status of the scan result of the scan, denormalized onto the scan so that listings filtered by status are served
+     * from the (userId, status, createdAt, id) index. Updated in the same transaction as every status transition of the
+     * scan result
+     */
+    @Builder.Default
+    @Column(nullable = false)
+    private ScanResultStatus status = ScanResultStatus.SUBMITTED;
+
     @CreationTimestamp
     private Instant createdAt;
 
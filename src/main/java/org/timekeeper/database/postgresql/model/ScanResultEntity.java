@@ -5,7 +5,6 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -22,11 +21,7 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder(toBuilder = true)
-@Table(
-    name = "scan_result",
-    indexes = {
-        @Index(columnList = "url,createdAt"),
-    })
+@Table(name = "scan_result")
 public class ScanResultEntity {
 
     @Id
@@ -36,6 +31,12 @@ public class ScanResultEntity {
     @Column(nullable = false)
     private String url;
 
+    /**
+     * Fingerprint of the canonical URL, which the url_dedupe row of the URL is keyed by
+     */
+    @Column(nullable = false)
+    private Long urlFingerprint;
+
     @Column(length = 100)
     private String urlScanId;
 
@@ -55,6 +56,25 @@ public class ScanResultEntity {
     @Column
     private String statusDescription;
 
+    @Column
+    private Instant submittedAt;
+
+    @Column
+    private Instant nextCheckAt;
+
+    @Column
+    private Instant lastCheckedAt;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer checkCount = 0;
+
+    @Column(length = 100)
+    private String leaseOwner;
+
+    @Column
+    private Instant leaseExpiresAt;
+
     @CreationTimestamp
     private Instant createdAt;
 
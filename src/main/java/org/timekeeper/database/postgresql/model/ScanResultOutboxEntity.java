@@ -0,0 +1,76 @@
+package org.timekeeper.database.postgresql.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.timekeeper.model.ScanResultStatus;
+
+import java.time.Instant;
+
+/**
+ * A status transition of a scan result that is yet to be relayed to the outbox sink.
+ * Rows are inserted in the same transaction as the transition they record, with the state of the scan result after
+ * it, and deleted once relayed. Rows are leased to the relay that claimed them while it publishes them. IDs are drawn when the transition is applied, after the row lock on the scan result is
+ * taken, so the transitions of a scan result are always in ascending order of ID. The row is only inserted through
+ * native queries on {@link org.timekeeper.database.postgresql.repository.ScanResultRepository}
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Table(name = "scan_result_outbox")
+public class ScanResultOutboxEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    /**
+     * ID of the scan result that transitioned. Not a foreign key, so that transitions are relayed independently of the
+     * scan result
+     */
+    @Column(nullable = false)
+    private Long scanResultId;
+
+    @Column(length = 25, nullable = false)
+    private ScanResultStatus previousStatus;
+
+    @Column(length = 25, nullable = false)
+    private ScanResultStatus status;
+
+    @Column
+    private Integer statusCode;
+
+    @Column
+    private String statusMessage;
+
+    @Column
+    private String statusDescription;
+
+    @Column(length = 100)
+    private String urlScanId;
+
+    @Column(length = 100)
+    private String resultUrl;
+
+    /**
+     * Time of the transition, which is also the update time of the scan result
+     */
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(length = 100)
+    private String leaseOwner;
+
+    @Column
+    private Instant leaseExpiresAt;
+
+}
@@ -0,0 +1,47 @@
+package org.timekeeper.database.postgresql.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+import org.timekeeper.model.ScanResultStatus;
+
+import java.time.Instant;
+
+/**
+ * Projection of a scan joined with the columns of its scan result that are exposed on the scan, selected with a JPQL
+ * constructor expression so that retrieving a scan takes a single query
+ */
+@Value
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ScanRow {
+
+    Long id;
+
+    String userId;
+
+    Instant createdAt;
+
+    Instant updatedAt;
+
+    Long resultId;
+
+    String urlScanId;
+
+    String url;
+
+    String resultUrl;
+
+    ScanResultStatus status;
+
+    Integer statusCode;
+
+    String statusMessage;
+
+    String statusDescription;
+
+    Instant resultCreatedAt;
+
+    Instant resultUpdatedAt;
+
+}
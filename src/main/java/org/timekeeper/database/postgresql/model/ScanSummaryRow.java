@@ -0,0 +1,35 @@
+package org.timekeeper.database.postgresql.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+import org.timekeeper.model.ScanResultStatus;
+
+import java.time.Instant;
+
+/**
+ * Projection of a scan joined with the columns of its scan result that make up its summary, selected with a JPQL
+ * constructor expression so that listing scans neither loads whole entities nor their lazy scan results
+ */
+@Value
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ScanSummaryRow {
+
+    Long id;
+
+    String url;
+
+    ScanResultStatus status;
+
+    Integer statusCode;
+
+    String statusMessage;
+
+    String statusDescription;
+
+    Instant createdAt;
+
+    Instant updatedAt;
+
+}
@@ -0,0 +1,28 @@
+package org.timekeeper.database.postgresql.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+import org.timekeeper.model.ScanResultStatus;
+
+import java.time.Instant;
+
+/**
+ * Projection of the columns of a scan that version it, selected with a JPQL constructor expression so that checking
+ * whether a scan has changed reads a single scan row without joining its scan result. Carries the owner of the scan so
+ * that changed scans can be routed to the event streams of their user
+ */
+@Value
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ScanVersionRow {
+
+    Long id;
+
+    String userId;
+
+    ScanResultStatus status;
+
+    Instant updatedAt;
+
+}
@@ -0,0 +1,52 @@
+package org.timekeeper.database.postgresql.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * The scan result that new scans of a canonical URL reuse, for as long as it is within the dedupe window.
+ * Creating a scan claims the row of its URL with an upsert rather than looking for a reusable scan result first, so
+ * concurrent creations for the same URL are serialized on the row and only one of them creates a scan result.
+ * The row is only written through native queries on {@link org.timekeeper.database.postgresql.repository.ScanRepository}
+ * and {@link org.timekeeper.database.postgresql.repository.ScanResultRepository}
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Table(name = "url_dedupe")
+public class UrlDedupeEntity {
+
+    /**
+     * Fingerprint of the canonical URL. A row claimed by a different URL with the same fingerprint is taken over, so a
+     * fingerprint collision only costs the deduplication of the URLs involved
+     */
+    @Id
+    private Long urlFingerprint;
+
+    @Column(nullable = false)
+    private String url;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private ScanResultEntity scanResult;
+
+    /**
+     * Creation time of the scan result, after which it is reused until it falls out of the dedupe window
+     */
+    @Column(nullable = false)
+    private Instant createdAt;
+
+}
@@ -0,0 +1,20 @@
+package org.timekeeper.database.postgresql.model;
+
+/**
+ * Projection of the existing scan and scan result that a requested URL is deduplicated against
+ */
+public interface UrlDedupeMatch {
+
+    String getUrl();
+
+    /**
+     * @return the ID of the most recent scan result of the URL within the dedupe window across users, or null if there is none
+     */
+    Long getScanResultId();
+
+    /**
+     * @return the ID of the most recent scan of the URL by the requesting user within the dedupe window, or null if there is none
+     */
+    Long getDuplicateScanId();
+
+}
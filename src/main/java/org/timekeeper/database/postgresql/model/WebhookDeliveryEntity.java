@@ -0,0 +1,74 @@
+package org.timekeeper.database.postgresql.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+
+/**
+ * A scan that is yet to be delivered to a webhook, which serves as the durable retry queue of the webhook deliverer.
+ * Rows are enqueued in the same transaction as the status transition that finishes the scan result of the scan, and
+ * deleted once they are delivered. The row is only written through native queries on
+ * {@link org.timekeeper.database.postgresql.repository.ScanResultRepository} and
+ * {@link org.timekeeper.database.postgresql.repository.WebhookDeliveryRepository}
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Table(
+    name = "webhook_delivery",
+    indexes = {
+        @Index(name = "webhook_delivery_webhook_idx", columnList = "webhook_id"),
+    })
+public class WebhookDeliveryEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private WebhookEntity webhook;
+
+    /**
+     * ID of the scan to deliver. Not a foreign key, so that deleting a scan does not wait on its deliveries; deliveries
+     * of deleted scans are dropped when they are claimed
+     */
+    @Column(nullable = false)
+    private Long scanId;
+
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer attemptCount = 0;
+
+    /**
+     * Time at which the next attempt is due, which claiming pushes back to the expiry of the lease so that deliveries
+     * claimed by a crashed worker are retried once it expires. Null once the delivery has been given up on
+     */
+    @Column
+    private Instant nextAttemptAt;
+
+    @Column(length = 100)
+    private String leaseOwner;
+
+    @Column
+    private String lastError;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+}
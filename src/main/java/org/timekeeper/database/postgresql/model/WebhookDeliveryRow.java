@@ -0,0 +1,21 @@
+package org.timekeeper.database.postgresql.model;
+
+/**
+ * Projection of a claimed webhook delivery joined with the URL of its webhook
+ */
+public interface WebhookDeliveryRow {
+
+    Long getId();
+
+    Long getWebhookId();
+
+    String getUrl();
+
+    Long getScanId();
+
+    /**
+     * @return the number of attempts made before this one
+     */
+    Integer getAttemptCount();
+
+}
@@ -0,0 +1,48 @@
+package org.timekeeper.database.postgresql.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * An endpoint of a user that is sent the scans of the user once their scan result finishes.
+ * The unique constraint on (userId, url) also serves listing the webhooks of a user, and joining them to the scans of
+ * the user when deliveries are enqueued
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Table(
+    name = "webhook",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "webhook_user_url_key", columnNames = {"userId", "url"}),
+    })
+public class WebhookEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    @Column(length = 100, nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private String url;
+
+    @CreationTimestamp
+    private Instant createdAt;
+
+}
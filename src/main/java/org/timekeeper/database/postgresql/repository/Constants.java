@@ -2,12 +2,79 @@ package org.timekeeper.database.postgresql.repository;
 
 import org.springframework.data.domain.Sort;
 
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
 public final class Constants {
 
     public static final Sort DEFAULT_SORT = Sort.by(Sort.Direction.DESC, "createdAt");
 
-    public static final Sort DEFAULT_REVERSE_SORT = Sort.by(Sort.Direction.ASC, "createdAt");
-
     public static final Integer MAX_PAGE_SIZE = 20;
 
+    /**
+     * Maximum number of changes in a single page of a change feed, which is larger than a page of scans as the changes of
+     * a user are synced in bulk and each change is read from a single index entry
+     */
+    public static final Integer MAX_CHANGE_PAGE_SIZE = 1_000;
+
+    /**
+     * Maximum time a request may wait for the status of a scan to change, which keeps waiting requests well within the
+     * idle timeouts of proxies in front of the API server
+     */
+    public static final Duration MAX_WAIT_TIMEOUT = Duration.of(60, ChronoUnit.SECONDS);
+
+    /**
+     * How long an event stream stays open before it is completed, after which its client reconnects and resumes from
+     * the last event it received
+     */
+    public static final Duration EVENT_STREAM_TIMEOUT = Duration.of(30, ChronoUnit.MINUTES);
+
+    /**
+     * Media type of the Jackson Smile binary encoding, which clients may request in place of JSON
+     */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    /**
+     * Maximum number of URLs in a single batch scan creation request, which keeps the dedupe query well within the
+     * Postgres limit on bind parameters
+     */
+    public static final Integer MAX_CREATE_BATCH_SIZE = 10_000;
+
+    /**
+     * Maximum number of scan IDs in a single lookup request, which are all retrieved through one query on the primary
+     * key of scans
+     */
+    public static final Integer MAX_LOOKUP_BATCH_SIZE = 500;
+
+    /**
+     * Maximum number of webhooks of a single user, which bounds the deliveries enqueued for each of their finished scans
+     */
+    public static final Integer MAX_WEBHOOKS_PER_USER = 10;
+
+    /**
+     * Postgres notification channel on which the new status of a scan result is published whenever it changes
+     */
+    public static final String SCAN_RESULT_STATUS_CHANNEL = "scan_result_status";
+
+    /**
+     * Postgres notification channel on which the IDs of scan results are published whenever their status changes, to
+     * wake up the requests of every API server waiting on them
+     */
+    public static final String SCAN_RESULT_UPDATED_CHANNEL = "scan_result_updated";
+
+    /**
+     * Separates the change feed position that prefixes the payload of a positioned notification from the rest of the payload
+     */
+    public static final String NOTIFICATION_POSITION_DELIMITER = ":";
+
+    /**
+     * Postgres notification channel on which newly created scan results are published to the recent scan index of every API server
+     */
+    public static final String SCAN_RESULT_CREATED_CHANNEL = "scan_result_created";
+
+    /**
+     * Postgres notification channel on which the ID of each deleted scan is published to the terminal scan cache of every API server
+     */
+    public static final String SCAN_DELETED_CHANNEL = "scan_deleted";
+
 }
@@ -0,0 +1,110 @@
+package org.timekeeper.database.postgresql.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.timekeeper.database.postgresql.model.ScanChangeEntity;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ScanChangeRepository extends JpaRepository<ScanChangeEntity, Long> {
+
+    /**
+     * Retrieves the ID of the oldest transaction that is still running. Every change below it has committed or rolled
+     * back, and every change still to be committed is at or above it, so the change feed is complete up to it
+     */
+    @Query(
+        value = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint",
+        nativeQuery = true
+    )
+    Long findCompletePosition();
+
+    /**
+     * Retrieves the changes of the scans of the given user after a cursor and below the complete position, in ascending
+     * order of (position, scanId), resuming with a range scan of the (user_id, position, scan_id) index
+     */
+    @Query(
+        value = """
+            SELECT * FROM scan_change
+            WHERE user_id = :userId
+            AND (position, scan_id) > (:position, :scanId)
+            AND position < :completePosition
+            ORDER BY position ASC, scan_id ASC
+            LIMIT :limit
+            """,
+        nativeQuery = true
+    )
+    List<ScanChangeEntity> findChangesAfter(String userId, Long position, Long scanId, Long completePosition, Integer limit);
+
+    /**
+     * Retrieves the changes of the scans of the given user after a cursor that have not been deleted, in ascending order
+     * of (position, scanId), whether or not they are below the complete position
+     */
+    @Query(
+        value = """
+            SELECT * FROM scan_change
+            WHERE user_id = :userId
+            AND (position, scan_id) > (:position, :scanId)
+            AND deleted = FALSE
+            ORDER BY position ASC, scan_id ASC
+            LIMIT :limit
+            """,
+        nativeQuery = true
+    )
+    List<ScanChangeEntity> findLiveChangesAfter(String userId, Long position, Long scanId, Integer limit);
+
+    /**
+     * Records the current state of the given scans as their last change, at the position of the current transaction.
+     * Must be called within the transaction that changed the scans, and before deleting them when recording their deletion
+     */
+    @Modifying
+    @Query(
+        value = """
+            INSERT INTO scan_change (scan_id, user_id, status, deleted, position, changed_at)
+            SELECT s.id, s.user_id, s.status, :deleted, pg_current_xact_id()::text::bigint, :now
+            FROM scan s
+            WHERE s.id IN (:scanIds)
+            ON CONFLICT (scan_id) DO UPDATE
+            SET status = EXCLUDED.status,
+                deleted = EXCLUDED.deleted,
+                position = EXCLUDED.position,
+                changed_at = EXCLUDED.changed_at
+            """,
+        nativeQuery = true
+    )
+    int recordChanges(Collection<Long> scanIds, Boolean deleted, Instant now);
+
+    /**
+     * Removes the tombstones of the deleted scans of the given user that are older than the retention period of the
+     * change feed, and raises the horizon of the feed of the user to the highest position removed
+     */
+    @Modifying
+    @Query(
+        value = """
+            WITH removed AS (
+                DELETE FROM scan_change
+                WHERE user_id = :userId
+                AND deleted = TRUE
+                AND changed_at < :changedBefore
+                RETURNING position
+            )
+            INSERT INTO scan_change_horizon (user_id, position)
+            SELECT :userId, MAX(position) FROM removed
+            HAVING COUNT(*) > 0
+            ON CONFLICT (user_id) DO UPDATE
+            SET position = GREATEST(scan_change_horizon.position, EXCLUDED.position)
+            """,
+        nativeQuery = true
+    )
+    int deleteTombstones(String userId, Instant changedBefore);
+
+    /**
+     * Retrieves the highest position of a tombstone removed from the change feed of the given user, if any was removed
+     */
+    @Query(value = "SELECT position FROM scan_change_horizon WHERE user_id = :userId", nativeQuery = true)
+    Optional<Long> findHorizon(String userId);
+
+}
@@ -1,24 +1,306 @@
 package org.timekeeper.database.postgresql.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.timekeeper.database.postgresql.model.CreatedScan;
 import org.timekeeper.database.postgresql.model.ScanEntity;
+import org.timekeeper.database.postgresql.model.ScanRow;
+import org.timekeeper.database.postgresql.model.ScanSummaryRow;
+import org.timekeeper.database.postgresql.model.ScanVersionRow;
 import org.timekeeper.model.ScanResultStatus;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ScanRepository extends JpaRepository<ScanEntity, Long>, PagingAndSortingRepository<ScanEntity, Long> {
 
     Optional<ScanEntity> findByIdAndUserId(Long id, String userId);
 
-    Page<ScanEntity> findAllByUserId(String userId, Pageable pageable);
+    /**
+     * Retrieves a scan of the given user joined with its scan result as a single query
+     */
+    @Query("""
+        SELECT new org.timekeeper.database.postgresql.model.ScanRow(
+            s.id, s.userId, s.createdAt, s.updatedAt,
+            r.id, r.urlScanId, r.url, r.resultUrl, r.status, r.statusCode, r.statusMessage, r.statusDescription,
+            r.createdAt, r.updatedAt
+        )
+        FROM ScanEntity s
+        JOIN s.result r
+        WHERE s.id = :id
+        AND s.userId = :userId
+        """)
+    Optional<ScanRow> findScanRow(Long id, String userId);
 
-    Page<ScanEntity> findAllByUserIdAndResult_Status(String userId, ScanResultStatus status, Pageable pageable);
+    /**
+     * Retrieves the given scans joined with their scan results as a single query, for scans of any user
+     */
+    @Query("""
+        SELECT new org.timekeeper.database.postgresql.model.ScanRow(
+            s.id, s.userId, s.createdAt, s.updatedAt,
+            r.id, r.urlScanId, r.url, r.resultUrl, r.status, r.statusCode, r.statusMessage, r.statusDescription,
+            r.createdAt, r.updatedAt
+        )
+        FROM ScanEntity s
+        JOIN s.result r
+        WHERE s.id IN :ids
+        """)
+    List<ScanRow> findScanRows(Collection<Long> ids);
 
-    Optional<ScanEntity> findFirstByUserIdAndResult_UrlAndCreatedAtAfter(String userId, String url, Instant createdAt, Sort sort);
+    /**
+     * Retrieves the given scans of the given user joined with their scan results as a single query. Scans of other users
+     * are left out rather than failing the query
+     */
+    @Query("""
+        SELECT new org.timekeeper.database.postgresql.model.ScanRow(
+            s.id, s.userId, s.createdAt, s.updatedAt,
+            r.id, r.urlScanId, r.url, r.resultUrl, r.status, r.statusCode, r.statusMessage, r.statusDescription,
+            r.createdAt, r.updatedAt
+        )
+        FROM ScanEntity s
+        JOIN s.result r
+        WHERE s.id IN :ids
+        AND s.userId = :userId
+        """)
+    List<ScanRow> findScanRows(Collection<Long> ids, String userId);
+
+    /**
+     * Retrieves the version of a scan of the given user from the scan row alone, as its status is denormalized onto it
+     */
+    @Query("""
+        SELECT new org.timekeeper.database.postgresql.model.ScanVersionRow(s.id, s.userId, s.status, s.updatedAt)
+        FROM ScanEntity s
+        WHERE s.id = :id
+        AND s.userId = :userId
+        """)
+    Optional<ScanVersionRow> findScanVersionRow(Long id, String userId);
+
+    /**
+     * Retrieves the versions of the given scans of the given user from the scan rows alone, as their status is
+     * denormalized onto them. Scans of other users are left out rather than failing the query
+     */
+    @Query("""
+        SELECT new org.timekeeper.database.postgresql.model.ScanVersionRow(s.id, s.userId, s.status, s.updatedAt)
+        FROM ScanEntity s
+        WHERE s.id IN :ids
+        AND s.userId = :userId
+        """)
+    List<ScanVersionRow> findScanVersionRows(Collection<Long> ids, String userId);
+
+    /**
+     * Retrieves the versions of every scan sharing the given scan results, through the index on the scan result of scans
+     */
+    @Query("""
+        SELECT new org.timekeeper.database.postgresql.model.ScanVersionRow(s.id, s.userId, s.status, s.updatedAt)
+        FROM ScanEntity s
+        WHERE s.result.id IN :scanResultIds
+        """)
+    List<ScanVersionRow> findScanVersionRowsByScanResultIds(Collection<Long> scanResultIds);
+
+    /**
+     * Retrieves a page of the summaries of the scans of the given user joined with their scan results, as a single data
+     * query and a count query that does not join scan_result
+     */
+    @Query(
+        value = """
+            SELECT new org.timekeeper.database.postgresql.model.ScanSummaryRow(
+                s.id, r.url, s.status, r.statusCode, r.statusMessage, r.statusDescription, s.createdAt, s.updatedAt
+            )
+            FROM ScanEntity s
+            JOIN s.result r
+            WHERE s.userId = :userId
+            """,
+        countQuery = """
+            SELECT count(s) FROM ScanEntity s
+            WHERE s.userId = :userId
+            """
+    )
+    Page<ScanSummaryRow> findScanSummaryRows(String userId, Pageable pageable);
+
+    /**
+     * Retrieves a page of the summaries of the scans of the given user whose scan result has the given status, as a single
+     * data query and a count query that both filter on the status denormalized onto scan
+     */
+    @Query(
+        value = """
+            SELECT new org.timekeeper.database.postgresql.model.ScanSummaryRow(
+                s.id, r.url, s.status, r.statusCode, r.statusMessage, r.statusDescription, s.createdAt, s.updatedAt
+            )
+            FROM ScanEntity s
+            JOIN s.result r
+            WHERE s.userId = :userId
+            AND s.status = :status
+            """,
+        countQuery = """
+            SELECT count(s) FROM ScanEntity s
+            WHERE s.userId = :userId
+            AND s.status = :status
+            """
+    )
+    Page<ScanSummaryRow> findScanSummaryRows(String userId, ScanResultStatus status, Pageable pageable);
+
+    /**
+     * Retrieves the first page of the summaries of the scans of the given user in descending order of (createdAt, id),
+     * without counting the scans of the user
+     */
+    @Query("""
+        SELECT new org.timekeeper.database.postgresql.model.ScanSummaryRow(
+            s.id, r.url, s.status, r.statusCode, r.statusMessage, r.statusDescription, s.createdAt, s.updatedAt
+        )
+        FROM ScanEntity s
+        JOIN s.result r
+        WHERE s.userId = :userId
+        ORDER BY s.createdAt DESC, s.id DESC
+        """)
+    List<ScanSummaryRow> findScanSummaryRows(String userId, Limit limit);
+
+    /**
+     * Retrieves the page of the summaries of the scans of the given user that come strictly after the provided
+     * (createdAt, id) cursor in descending order, which is served from the (userId, createdAt, id) index regardless of
+     * how deep the cursor is
+     */
+    @Query("""
+        SELECT new org.timekeeper.database.postgresql.model.ScanSummaryRow(
+            s.id, r.url, s.status, r.statusCode, r.statusMessage, r.statusDescription, s.createdAt, s.updatedAt
+        )
+        FROM ScanEntity s
+        JOIN s.result r
+        WHERE s.userId = :userId
+        AND (s.createdAt, s.id) < (:createdAt, :id)
+        ORDER BY s.createdAt DESC, s.id DESC
+        """)
+    List<ScanSummaryRow> findScanSummaryRowsAfter(String userId, Instant createdAt, Long id, Limit limit);
+
+    /**
+     * Retrieves the first page of the summaries of the scans of the given user with the given status in descending
+     * order of (createdAt, id), without counting the scans of the user
+     */
+    @Query("""
+        SELECT new org.timekeeper.database.postgresql.model.ScanSummaryRow(
+            s.id, r.url, s.status, r.statusCode, r.statusMessage, r.statusDescription, s.createdAt, s.updatedAt
+        )
+        FROM ScanEntity s
+        JOIN s.result r
+        WHERE s.userId = :userId
+        AND s.status = :status
+        ORDER BY s.createdAt DESC, s.id DESC
+        """)
+    List<ScanSummaryRow> findScanSummaryRows(String userId, ScanResultStatus status, Limit limit);
+
+    /**
+     * Retrieves the page of the summaries of the scans of the given user with the given status that come strictly after
+     * the provided (createdAt, id) cursor in descending order
+     */
+    @Query("""
+        SELECT new org.timekeeper.database.postgresql.model.ScanSummaryRow(
+            s.id, r.url, s.status, r.statusCode, r.statusMessage, r.statusDescription, s.createdAt, s.updatedAt
+        )
+        FROM ScanEntity s
+        JOIN s.result r
+        WHERE s.userId = :userId
+        AND s.status = :status
+        AND (s.createdAt, s.id) < (:createdAt, :id)
+        ORDER BY s.createdAt DESC, s.id DESC
+        """)
+    List<ScanSummaryRow> findScanSummaryRowsAfter(String userId, ScanResultStatus status, Instant createdAt, Long id, Limit limit);
+
+    /**
+     * Retrieves a scan together with its scan result in a single query
+     */
+    @EntityGraph(attributePaths = "result")
+    Optional<ScanEntity> findWithResultById(Long id);
+
+    /**
+     * Creates a scan of a canonical URL for the given user as a single statement, unless the user already has a scan of the
+     * URL within the dedupe window (only checked if checkDuplicate is set).
+     * The url_dedupe row of the URL is claimed with an upsert, which waits on any concurrent creation for the same URL
+     * and always returns the row as last committed. The scan reuses the scan result of the row if it is within the dedupe
+     * window, and otherwise takes the row over for a new scan result, which is then inserted as SUBMITTED (0) along with
+     * its notifications. Concurrent creations for the same URL therefore share a single scan result.
+     * A reused scan result is read FOR SHARE when copying its status onto the new scan, which waits on any concurrent
+     * status transition of the scan result so that the transition is either seen by the new scan or fanned out to it.
+     * The new scan is recorded in the change feed of the user by the same statement, and if the reused scan result has
+     * already finished (FAILED = 2, DONE = 3), a delivery of the new scan is enqueued to every webhook of the user, as the
+     * scan result never transitions again to enqueue it.
+     * Ids are drawn from the sequences used by Hibernate, which is configured with the pooled-lo optimizer so that the ids
+     * never overlap with the blocks it allocates
+     */
+    @Query(
+        value = """
+            WITH duplicate_scan AS (
+                SELECT s.id FROM scan s
+                JOIN scan_result r ON r.id = s.result_id
+                WHERE :checkDuplicate
+                AND s.user_id = :userId
+                AND s.created_at > :dedupeCutoff
+                AND r.url_fingerprint = :urlFingerprint
+                AND r.url = :url
+                ORDER BY s.created_at DESC
+                LIMIT 1
+            ), new_id AS (
+                SELECT nextval('scan_seq') AS scan_id, nextval('scan_result_seq') AS scan_result_id
+                WHERE NOT EXISTS (SELECT 1 FROM duplicate_scan)
+            ), claimed AS (
+                INSERT INTO url_dedupe AS d (url_fingerprint, url, scan_result_id, created_at)
+                SELECT :urlFingerprint, :url, scan_result_id, :now FROM new_id
+                ON CONFLICT (url_fingerprint) DO UPDATE
+                SET url = EXCLUDED.url,
+                    scan_result_id = CASE WHEN d.created_at <= :dedupeCutoff OR d.url <> EXCLUDED.url THEN EXCLUDED.scan_result_id ELSE d.scan_result_id END,
+                    created_at = CASE WHEN d.created_at <= :dedupeCutoff OR d.url <> EXCLUDED.url THEN EXCLUDED.created_at ELSE d.created_at END
+                RETURNING d.scan_result_id
+            ), new_result AS (
+                INSERT INTO scan_result (id, url, url_fingerprint, status, check_count, created_at, updated_at)
+                SELECT c.scan_result_id, :url, :urlFingerprint, 0, 0, :now, :now FROM claimed c
+                JOIN new_id n ON n.scan_result_id = c.scan_result_id
+                RETURNING id
+            ), shared_result AS (
+                SELECT r.id, r.status FROM scan_result r
+                JOIN claimed c ON c.scan_result_id = r.id
+                FOR SHARE OF r
+            ), new_scan AS (
+                INSERT INTO scan (id, user_id, result_id, status, created_at, updated_at)
+                SELECT n.scan_id, :userId, c.scan_result_id, COALESCE(sr.status, 0), :now, :now FROM new_id n
+                CROSS JOIN claimed c
+                LEFT JOIN shared_result sr ON sr.id = c.scan_result_id
+                RETURNING id, user_id, result_id, status
+            ), new_change AS (
+                INSERT INTO scan_change (scan_id, user_id, status, deleted, position, changed_at)
+                SELECT id, user_id, status, FALSE, pg_current_xact_id()::text::bigint, :now FROM new_scan
+            ), new_delivery AS (
+                INSERT INTO webhook_delivery (id, webhook_id, scan_id, attempt_count, next_attempt_at, created_at)
+                SELECT nextval('webhook_delivery_seq'), w.id, ns.id, 0, :now, :now FROM new_scan ns
+                JOIN webhook w ON w.user_id = ns.user_id
+                WHERE ns.status IN (2, 3)
+            ), notification AS (
+                SELECT pg_notify(:statusChannel, :statusPayload), pg_notify(:createdChannel, :createdPayload) FROM new_result
+            )
+            SELECT ds.id AS "duplicateScanId", ns.id AS "scanId", ns.result_id AS "scanResultId", nr.id IS NOT NULL AS "newResult"
+            FROM (SELECT 1) AS request
+            LEFT JOIN duplicate_scan ds ON TRUE
+            LEFT JOIN new_scan ns ON TRUE
+            LEFT JOIN new_result nr ON TRUE
+            LEFT JOIN notification ON TRUE
+            """,
+        nativeQuery = true
+    )
+    CreatedScan createScan(
+        String userId,
+        String url,
+        Long urlFingerprint,
+        Instant now,
+        Instant dedupeCutoff,
+        Boolean checkDuplicate,
+        String statusChannel,
+        String statusPayload,
+        String createdChannel,
+        String createdPayload
+    );
 
 }
@@ -0,0 +1,70 @@
+package org.timekeeper.database.postgresql.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.timekeeper.database.postgresql.model.ScanResultOutboxEntity;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ScanResultOutboxRepository extends JpaRepository<ScanResultOutboxEntity, Long> {
+
+    /**
+     * Serializes claims of the outbox until the end of the transaction, so that a claim sees the leases taken by every
+     * claim that committed before it
+     */
+    @Query(
+        value = """
+            SELECT 1 FROM pg_advisory_xact_lock(hashtext('scan_result_outbox'))
+            """,
+        nativeQuery = true
+    )
+    Integer lockClaims();
+
+    /**
+     * Claims the oldest transitions in the outbox, in ascending order of ID, served by the primary key, by leasing them to
+     * the given owner. Nothing is claimed while another owner holds an unexpired lease on any transition, so that only one
+     * relay publishes at a time and the transitions of a scan result are never relayed out of order. Transitions already
+     * leased to the owner are claimed again, and rows locked by a concurrent deletion are skipped rather than waited on.
+     * Must run after {@link #lockClaims()} in the same transaction, as a separate statement, so that it sees the leases of
+     * every claim that committed while it waited for the lock
+     */
+    @Query(
+        value = """
+            WITH claimed AS (
+                UPDATE scan_result_outbox
+                SET lease_owner = :leaseOwner, lease_expires_at = :leaseExpiresAt
+                WHERE id IN (
+                    SELECT id FROM scan_result_outbox
+                    ORDER BY id ASC
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                AND NOT EXISTS (
+                    SELECT 1 FROM scan_result_outbox
+                    WHERE lease_owner <> :leaseOwner
+                    AND lease_expires_at > :now
+                )
+                RETURNING *
+            )
+            SELECT * FROM claimed
+            ORDER BY id ASC
+            """,
+        nativeQuery = true
+    )
+    List<ScanResultOutboxEntity> claimOldest(String leaseOwner, Instant leaseExpiresAt, Instant now, Integer limit);
+
+    /**
+     * Deletes the given transitions, unless they have since been claimed by another owner
+     */
+    @Modifying
+    @Query("""
+        DELETE FROM ScanResultOutboxEntity o
+        WHERE o.id IN :ids
+        AND o.leaseOwner = :leaseOwner
+        """)
+    int deleteLeased(Collection<Long> ids, String leaseOwner);
+
+}
@@ -1,20 +1,243 @@
 package org.timekeeper.database.postgresql.repository;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.timekeeper.database.postgresql.model.ScanResultEntity;
+import org.timekeeper.database.postgresql.model.UrlDedupeMatch;
 import org.timekeeper.model.ScanResultStatus;
 
 import java.time.Instant;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
-public interface ScanResultRepository extends JpaRepository<ScanResultEntity, Long>, PagingAndSortingRepository<ScanResultEntity, Long> {
+import static org.timekeeper.database.postgresql.repository.Constants.NOTIFICATION_POSITION_DELIMITER;
 
-    Optional<ScanResultEntity> findFirstByUrlAndCreatedAtAfter(String url, Instant createdAt, Sort sort);
+public interface ScanResultRepository extends JpaRepository<ScanResultEntity, Long>, PagingAndSortingRepository<ScanResultEntity, Long>, ScanResultStatusRepository {
 
-    Page<ScanResultEntity> findAllByStatus(ScanResultStatus status, Pageable pageable);
+    /**
+     * Retrieves the fingerprints of the URLs whose current dedupe scan result was created after the given time. As the
+     * current scan result of a URL is its most recent one, these are the URLs with any scan result created since then
+     */
+    @Query("""
+        SELECT d.urlFingerprint FROM UrlDedupeEntity d
+        WHERE d.createdAt > :createdAt
+        """)
+    List<Long> findUrlFingerprintsCreatedAfter(Instant createdAt);
+
+    /**
+     * Claims the first page of unleased scan results with a given status in ascending order of (createdAt, id) by taking
+     * a lease on them. Rows locked by a concurrent claim are skipped rather than waited on, and rows whose lease has
+     * expired are claimable again, so that scan results held by a crashed worker are eventually picked back up.
+     * Served by the partial work queue index on scan_result defined in init.sql
+     */
+    @Query(
+        value = """
+            WITH claimed AS (
+                UPDATE scan_result
+                SET lease_owner = :leaseOwner, lease_expires_at = :leaseExpiresAt
+                WHERE id IN (
+                    SELECT id FROM scan_result
+                    WHERE status = :#{#status.ordinal()}
+                    AND (lease_expires_at IS NULL OR lease_expires_at <= :now)
+                    ORDER BY created_at ASC, id ASC
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING *
+            )
+            SELECT * FROM claimed ORDER BY created_at ASC, id ASC
+            """,
+        nativeQuery = true
+    )
+    List<ScanResultEntity> claimWorkQueue(
+        ScanResultStatus status,
+        String leaseOwner,
+        Instant leaseExpiresAt,
+        Instant now,
+        Integer limit
+    );
+
+    /**
+     * Claims the page of unleased scan results with a given status that come strictly after the provided (createdAt, id)
+     * cursor in ascending order of (createdAt, id). See {@link #claimWorkQueue} for the semantics of the claim
+     */
+    @Query(
+        value = """
+            WITH claimed AS (
+                UPDATE scan_result
+                SET lease_owner = :leaseOwner, lease_expires_at = :leaseExpiresAt
+                WHERE id IN (
+                    SELECT id FROM scan_result
+                    WHERE status = :#{#status.ordinal()}
+                    AND (created_at, id) > (:createdAt, :id)
+                    AND (lease_expires_at IS NULL OR lease_expires_at <= :now)
+                    ORDER BY created_at ASC, id ASC
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING *
+            )
+            SELECT * FROM claimed ORDER BY created_at ASC, id ASC
+            """,
+        nativeQuery = true
+    )
+    List<ScanResultEntity> claimWorkQueueAfter(
+        ScanResultStatus status,
+        Instant createdAt,
+        Long id,
+        String leaseOwner,
+        Instant leaseExpiresAt,
+        Instant now,
+        Integer limit
+    );
+
+    /**
+     * Releases the leases held by the given owner on the given scan results, making them immediately claimable again
+     */
+    @Modifying
+    @Query("""
+        UPDATE ScanResultEntity r
+        SET r.leaseOwner = NULL, r.leaseExpiresAt = NULL
+        WHERE r.id IN :ids
+        AND r.leaseOwner = :leaseOwner
+        """)
+    int releaseLeases(Collection<Long> ids, String leaseOwner);
+
+    /**
+     * Claims unleased scan results with a given status whose next check is due, in ascending order of when the check
+     * became due. Scan results without a scheduled check are always due.
+     * Served by the partial next check index on scan_result defined in init.sql.
+     * See {@link #claimWorkQueue} for the semantics of the claim
+     */
+    @Query(
+        value = """
+            WITH claimed AS (
+                UPDATE scan_result
+                SET lease_owner = :leaseOwner, lease_expires_at = :leaseExpiresAt
+                WHERE id IN (
+                    SELECT id FROM scan_result
+                    WHERE status = :#{#status.ordinal()}
+                    AND (next_check_at IS NULL OR next_check_at <= :now)
+                    AND (lease_expires_at IS NULL OR lease_expires_at <= :now)
+                    ORDER BY next_check_at ASC NULLS FIRST, id ASC
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING *
+            )
+            SELECT * FROM claimed ORDER BY next_check_at ASC NULLS FIRST, id ASC
+            """,
+        nativeQuery = true
+    )
+    List<ScanResultEntity> claimDueWorkQueue(
+        ScanResultStatus status,
+        String leaseOwner,
+        Instant leaseExpiresAt,
+        Instant now,
+        Integer limit
+    );
+
+    /**
+     * Lists the completion times in milliseconds of the most recently finished scan results, in descending order of when
+     * they finished. As a scan result is only found finished at its next check, the completion time is measured up to its
+     * last check that found it unfinished, or zero if it was found finished at its first check.
+     * Served by the partial completion index on scan_result defined in init.sql
+     */
+    @Query(
+        value = """
+            SELECT CAST(EXTRACT(EPOCH FROM COALESCE(last_checked_at, submitted_at) - submitted_at) * 1000 AS bigint)
+            FROM scan_result
+            WHERE status = :#{#status.ordinal()}
+            AND submitted_at IS NOT NULL
+            ORDER BY updated_at DESC
+            LIMIT :limit
+            """,
+        nativeQuery = true
+    )
+    List<Long> findRecentCompletionMillis(ScanResultStatus status, Integer limit);
+
+    /**
+     * Retrieves the given scan results FOR SHARE, in order of ID so that concurrent callers lock them in the same order.
+     * The lock waits on any concurrent status transition of the scan results and blocks new ones until the transaction
+     * ends, so scans created from the scan results within the transaction copy their current status
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("""
+        SELECT r FROM ScanResultEntity r
+        WHERE r.id IN :ids
+        ORDER BY r.id
+        """)
+    List<ScanResultEntity> findAllByIdForShare(Collection<Long> ids);
+
+    /**
+     * Finds, for each of the given URLs, the current dedupe scan result if it was created after the dedupe cutoff and the
+     * most recent scan of the URL created by the given user after the dedupe cutoff, as a single set-based query.
+     * URLs without either are omitted. Served by the primary key of url_dedupe and the (user_id, created_at) index on scan
+     */
+    @Query(
+        value = """
+            WITH recent_result AS (
+                SELECT url, scan_result_id AS id FROM url_dedupe
+                WHERE url_fingerprint IN (:urlFingerprints)
+                AND url IN (:urls)
+                AND created_at > :dedupeCutoff
+            ), duplicate_scan AS (
+                SELECT DISTINCT ON (r.url) r.url, s.id FROM scan s
+                JOIN scan_result r ON r.id = s.result_id
+                WHERE s.user_id = :userId
+                AND s.created_at > :dedupeCutoff
+                AND r.url_fingerprint IN (:urlFingerprints)
+                AND r.url IN (:urls)
+                ORDER BY r.url, s.created_at DESC
+            )
+            SELECT COALESCE(rr.url, ds.url) AS "url", rr.id AS "scanResultId", ds.id AS "duplicateScanId"
+            FROM recent_result rr
+            FULL JOIN duplicate_scan ds ON ds.url = rr.url
+            """,
+        nativeQuery = true
+    )
+    List<UrlDedupeMatch> findDedupeMatches(String userId, Collection<Long> urlFingerprints, Collection<String> urls, Instant dedupeCutoff);
+
+    /**
+     * Makes the given newly created scan results the current dedupe scan results of their URLs, unless a URL already has
+     * a current scan result within the dedupe window. Of several scan results of URLs that share a fingerprint, only the
+     * most recent is claimed, as a row can only be upserted once per statement
+     */
+    @Modifying
+    @Query(
+        value = """
+            INSERT INTO url_dedupe AS d (url_fingerprint, url, scan_result_id, created_at)
+            SELECT DISTINCT ON (url_fingerprint) url_fingerprint, url, id, created_at FROM scan_result
+            WHERE id IN (:ids)
+            ORDER BY url_fingerprint, created_at DESC
+            ON CONFLICT (url_fingerprint) DO UPDATE
+            SET url = EXCLUDED.url, scan_result_id = EXCLUDED.scan_result_id, created_at = EXCLUDED.created_at
+            WHERE d.created_at <= :dedupeCutoff OR d.url <> EXCLUDED.url
+            """,
+        nativeQuery = true
+    )
+    int claimUrlDedupe(Collection<Long> ids, Instant dedupeCutoff);
+
+    /**
+     * Publishes a payload on a Postgres notification channel. Notifications sent within a transaction are only delivered
+     * to listeners once the transaction commits, and are discarded if it rolls back
+     */
+    @Query(value = "SELECT CAST(pg_notify(:channel, :payload) AS text)", nativeQuery = true)
+    String sendNotification(String channel, String payload);
+
+    /**
+     * Publishes a payload like {@link #sendNotification}, prefixed with the complete position of the change feed as of
+     * the current transaction (see {@link ScanChangeRepository#findCompletePosition}). Every transaction below that
+     * position committed before this one, and so had its notifications delivered before this one
+     */
+    @Query(
+        value = "SELECT CAST(pg_notify(:channel, pg_snapshot_xmin(pg_current_snapshot())::text || '" + NOTIFICATION_POSITION_DELIMITER + "' || :payload) AS text)",
+        nativeQuery = true
+    )
+    String sendPositionedNotification(String channel, String payload);
 
 }
@@ -0,0 +1,45 @@
+package org.timekeeper.database.postgresql.repository;
+
+import org.timekeeper.model.request.ScanResultCheckRequest;
+import org.timekeeper.model.request.ScanResultUpdateRequest;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository fragment for status transitions of scan results, which are applied with plain JDBC so that a batch of
+ * conditional updates is sent in a single round trip and reports the outcome of each update, and a batch of scheduled
+ * checks is applied with a single statement
+ */
+public interface ScanResultStatusRepository {
+
+    /**
+     * Applies a batch of status transitions, each only if the scan result still has its expected status.
+     * Applying a transition also releases the lease on the scan result, and records the submission and first check
+     * times of scan results that move to PROCESSING. The new status of each updated scan result is fanned out to every
+     * scan that shares it, and recorded in the change feed of the user owning each scan, with a single set-based
+     * statement. Each applied transition is recorded in the outbox with another batch, and the scans of scan results
+     * that finished (DONE or FAILED) are enqueued for delivery to the webhooks of their users with another statement, so
+     * it must be called within a transaction for the scans, their changes, the outbox and the deliveries to change
+     * together with their scan results
+     *
+     * @param updateRequests the status transitions to apply
+     * @param now            the time of the update
+     * @param nextCheckAt    the time at which the first status check of scan results moving to PROCESSING is due
+     * @return the number of rows updated by each transition, in the order of the update requests; 0 if the scan result
+     * does not exist or no longer has the expected status
+     */
+    int[] compareAndSetStatuses(List<ScanResultUpdateRequest> updateRequests, Instant now, Instant nextCheckAt);
+
+    /**
+     * Schedules the next check of a batch of scan results that are not yet finished with a single statement, releasing
+     * the leases held on them by the given owner. Scan results whose lease has since been taken by another worker are
+     * left untouched, and the update timestamp is left untouched as the scan results themselves have not changed
+     *
+     * @param checkRequests the next checks to schedule, at most one per scan result
+     * @param leaseOwner    the owner of the lease taken when the scan results were claimed
+     * @return the number of scan results that were scheduled
+     */
+    int scheduleNextChecks(List<ScanResultCheckRequest> checkRequests, String leaseOwner);
+
+}
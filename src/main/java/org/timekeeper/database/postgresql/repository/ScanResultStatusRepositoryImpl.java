@@ -0,0 +1,194 @@
+package org.timekeeper.database.postgresql.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.timekeeper.model.ScanResult;
+import org.timekeeper.model.ScanResultStatus;
+import org.timekeeper.model.request.ScanResultCheckRequest;
+import org.timekeeper.model.request.ScanResultUpdateRequest;
+
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class ScanResultStatusRepositoryImpl implements ScanResultStatusRepository {
+
+    /**
+     * Optional fields are only overwritten when a value is provided. The status is compared in the WHERE clause, so
+     * concurrent transitions of the same scan result are serialized by the row lock and all but the first find the status changed
+     */
+    private static final String COMPARE_AND_SET_STATUS = """
+        UPDATE scan_result
+        SET status = :status,
+            status_code = COALESCE(:statusCode, status_code),
+            status_message = COALESCE(:statusMessage, status_message),
+            status_description = COALESCE(:statusDescription, status_description),
+            url_scan_id = COALESCE(:urlScanId, url_scan_id),
+            result_url = COALESCE(:resultUrl, result_url),
+            submitted_at = COALESCE(:submittedAt, submitted_at),
+            next_check_at = COALESCE(:nextCheckAt, next_check_at),
+            lease_owner = NULL,
+            lease_expires_at = NULL,
+            updated_at = :now
+        WHERE id = :id
+        AND status = :expectedStatus
+        """;
+
+    /**
+     * Copies the status of each of the given scan results onto every scan that shares it, served by the result_id index on
+     * scan. The update time is copied along with it, so that the version of the scan changes with every transition, and
+     * each updated scan is moved to the position of the transaction in the change feed of its user
+     */
+    private static final String FAN_OUT_STATUS = """
+        WITH fanned_out AS (
+            UPDATE scan s
+            SET status = r.status,
+                updated_at = r.updated_at
+            FROM scan_result r
+            WHERE r.id IN (:ids)
+            AND s.result_id = r.id
+            AND s.status <> r.status
+            RETURNING s.id, s.user_id, s.status, s.updated_at
+        )
+        INSERT INTO scan_change (scan_id, user_id, status, deleted, position, changed_at)
+        SELECT id, user_id, status, FALSE, pg_current_xact_id()::text::bigint, updated_at FROM fanned_out
+        ON CONFLICT (scan_id) DO UPDATE
+        SET status = EXCLUDED.status,
+            deleted = EXCLUDED.deleted,
+            position = EXCLUDED.position,
+            changed_at = EXCLUDED.changed_at
+        """;
+
+    /**
+     * Enqueues a delivery of every scan that shares each of the given finished scan results to every webhook of the user
+     * owning the scan, served by the result_id index on scan and the (user_id, url) key of webhook. Ids are drawn from
+     * the sequence used by Hibernate, which is configured with the pooled-lo optimizer so that they never overlap with
+     * the blocks it allocates
+     */
+    private static final String ENQUEUE_WEBHOOK_DELIVERIES = """
+        INSERT INTO webhook_delivery (id, webhook_id, scan_id, attempt_count, next_attempt_at, created_at)
+        SELECT nextval('webhook_delivery_seq'), w.id, s.id, 0, :now, :now
+        FROM scan s
+        JOIN webhook w ON w.user_id = s.user_id
+        WHERE s.result_id IN (:ids)
+        """;
+
+    /**
+     * Records a transition of the given scan result in the outbox, with the state of the scan result after it. Ids are
+     * drawn from the sequence used by Hibernate, after the transition has locked the scan result, so the transitions of
+     * a scan result are recorded in ascending order of ID
+     */
+    private static final String RECORD_TRANSITION = """
+        INSERT INTO scan_result_outbox (id, scan_result_id, previous_status, status, status_code, status_message,
+            status_description, url_scan_id, result_url, created_at)
+        SELECT nextval('scan_result_outbox_seq'), r.id, :previousStatus, r.status, r.status_code, r.status_message,
+            r.status_description, r.url_scan_id, r.result_url, r.updated_at
+        FROM scan_result r
+        WHERE r.id = :id
+        """;
+
+    /**
+     * Schedules the next check of each of the given scan results and releases its lease, unless the lease has since been
+     * taken by another worker. The update timestamp is left untouched as the scan results themselves have not changed.
+     * The time of the check is kept as the earliest time at which the scan result can since have finished
+     */
+    private static final String SCHEDULE_NEXT_CHECKS = """
+        UPDATE scan_result r
+        SET next_check_at = c.next_check_at,
+            last_checked_at = c.checked_at,
+            check_count = r.check_count + 1,
+            lease_owner = NULL,
+            lease_expires_at = NULL
+        FROM (VALUES :checks) AS c (id, next_check_at, checked_at)
+        WHERE r.id = c.id
+        AND r.lease_owner = :leaseOwner
+        """;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Override
+    public int[] compareAndSetStatuses(List<ScanResultUpdateRequest> updateRequests, Instant now, Instant nextCheckAt) {
+        SqlParameterSource[] parameterSources = updateRequests.stream()
+            .map(updateRequest -> toParameterSource(updateRequest, now, nextCheckAt))
+            .toArray(SqlParameterSource[]::new);
+
+        int[] updateCounts = namedParameterJdbcTemplate.batchUpdate(COMPARE_AND_SET_STATUS, parameterSources);
+        List<Long> updatedIds = new ArrayList<>();
+        List<Long> finishedIds = new ArrayList<>();
+        List<SqlParameterSource> transitionParameterSources = new ArrayList<>();
+        for (int i = 0; i < updateRequests.size(); i++) {
+            if (updateCounts[i] > 0) {
+                updatedIds.add(updateRequests.get(i).getScanResultId());
+                transitionParameterSources.add(
+                    new MapSqlParameterSource()
+                        .addValue("id", updateRequests.get(i).getScanResultId(), Types.BIGINT)
+                        .addValue("previousStatus", updateRequests.get(i).getExpectedStatus().ordinal(), Types.SMALLINT)
+                );
+                if (updateRequests.get(i).getStatus().isTerminal()) {
+                    finishedIds.add(updateRequests.get(i).getScanResultId());
+                }
+            }
+        }
+        if (!updatedIds.isEmpty()) {
+            namedParameterJdbcTemplate.update(FAN_OUT_STATUS, new MapSqlParameterSource("ids", updatedIds));
+            namedParameterJdbcTemplate.batchUpdate(RECORD_TRANSITION, transitionParameterSources.toArray(SqlParameterSource[]::new));
+        }
+        if (!finishedIds.isEmpty()) {
+            namedParameterJdbcTemplate.update(
+                ENQUEUE_WEBHOOK_DELIVERIES,
+                new MapSqlParameterSource("ids", finishedIds)
+                    .addValue("now", toOffsetDateTime(now), Types.TIMESTAMP_WITH_TIMEZONE)
+            );
+        }
+
+        return updateCounts;
+    }
+
+    @Override
+    public int scheduleNextChecks(List<ScanResultCheckRequest> checkRequests, String leaseOwner) {
+        List<Object[]> checks = checkRequests.stream()
+            .map(checkRequest -> new Object[]{
+                checkRequest.getScanResultId(),
+                toOffsetDateTime(checkRequest.getNextCheckAt()),
+                toOffsetDateTime(checkRequest.getCheckedAt())
+            })
+            .toList();
+
+        return namedParameterJdbcTemplate.update(
+            SCHEDULE_NEXT_CHECKS,
+            new MapSqlParameterSource("checks", checks)
+                .addValue("leaseOwner", leaseOwner, Types.VARCHAR)
+        );
+    }
+
+    private static SqlParameterSource toParameterSource(ScanResultUpdateRequest updateRequest, Instant now, Instant nextCheckAt) {
+        boolean processing = ScanResultStatus.PROCESSING.equals(updateRequest.getStatus());
+        Optional<ScanResult.StatusDetails> statusDetails = Optional.ofNullable(updateRequest.getStatusDetails());
+
+        // Types are declared explicitly as Postgres cannot infer the type of a null parameter within COALESCE
+        return new MapSqlParameterSource()
+            .addValue("id", updateRequest.getScanResultId(), Types.BIGINT)
+            .addValue("expectedStatus", updateRequest.getExpectedStatus().ordinal(), Types.SMALLINT)
+            .addValue("status", updateRequest.getStatus().ordinal(), Types.SMALLINT)
+            .addValue("statusCode", statusDetails.map(ScanResult.StatusDetails::getCode).orElse(null), Types.INTEGER)
+            .addValue("statusMessage", statusDetails.map(ScanResult.StatusDetails::getMessage).orElse(null), Types.VARCHAR)
+            .addValue("statusDescription", statusDetails.map(ScanResult.StatusDetails::getDescription).orElse(null), Types.VARCHAR)
+            .addValue("urlScanId", updateRequest.getUrlScanId(), Types.VARCHAR)
+            .addValue("resultUrl", updateRequest.getResultUrl(), Types.VARCHAR)
+            .addValue("submittedAt", processing ? toOffsetDateTime(now) : null, Types.TIMESTAMP_WITH_TIMEZONE)
+            .addValue("nextCheckAt", processing ? toOffsetDateTime(nextCheckAt) : null, Types.TIMESTAMP_WITH_TIMEZONE)
+            .addValue("now", toOffsetDateTime(now), Types.TIMESTAMP_WITH_TIMEZONE);
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Instant instant) {
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+}
@@ -0,0 +1,94 @@
+package org.timekeeper.database.postgresql.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.timekeeper.database.postgresql.model.WebhookDeliveryEntity;
+import org.timekeeper.database.postgresql.model.WebhookDeliveryRow;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface WebhookDeliveryRepository extends JpaRepository<WebhookDeliveryEntity, Long> {
+
+    /**
+     * Claims the deliveries whose next attempt is due, in ascending order of when they became due, by pushing their next
+     * attempt back to the expiry of the lease. Rows locked by a concurrent claim are skipped rather than waited on, and a
+     * delivery held by a crashed worker becomes due again once its lease expires.
+     * Served by the partial due index on webhook_delivery defined in init.sql
+     */
+    @Query(
+        value = """
+            WITH claimed AS (
+                UPDATE webhook_delivery
+                SET lease_owner = :leaseOwner, next_attempt_at = :leaseExpiresAt
+                WHERE id IN (
+                    SELECT id FROM webhook_delivery
+                    WHERE next_attempt_at <= :now
+                    ORDER BY next_attempt_at ASC, id ASC
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING id, webhook_id, scan_id, attempt_count
+            )
+            SELECT c.id AS "id", c.webhook_id AS "webhookId", w.url AS "url", c.scan_id AS "scanId", c.attempt_count AS "attemptCount"
+            FROM claimed c
+            JOIN webhook w ON w.id = c.webhook_id
+            ORDER BY c.id ASC
+            """,
+        nativeQuery = true
+    )
+    List<WebhookDeliveryRow> claimDueDeliveries(String leaseOwner, Instant leaseExpiresAt, Instant now, Integer limit);
+
+    /**
+     * Enqueues a delivery of each of the given scans to every webhook of the user owning the scan, served by the
+     * (user_id, url) key of webhook. Used for new scans of a scan result that had already finished, which never
+     * transitions again to enqueue them. Ids are drawn from the sequence used by Hibernate, which is configured with the
+     * pooled-lo optimizer so that they never overlap with the blocks it allocates
+     */
+    @Modifying
+    @Query(
+        value = """
+            INSERT INTO webhook_delivery (id, webhook_id, scan_id, attempt_count, next_attempt_at, created_at)
+            SELECT nextval('webhook_delivery_seq'), w.id, s.id, 0, :now, :now
+            FROM scan s
+            JOIN webhook w ON w.user_id = s.user_id
+            WHERE s.id IN (:scanIds)
+            """,
+        nativeQuery = true
+    )
+    int enqueueDeliveries(Collection<Long> scanIds, Instant now);
+
+    /**
+     * Deletes the given deliveries, unless they have since been claimed by another worker
+     */
+    @Modifying
+    @Query("""
+        DELETE FROM WebhookDeliveryEntity d
+        WHERE d.id IN :ids
+        AND d.leaseOwner = :leaseOwner
+        """)
+    int deleteLeased(Collection<Long> ids, String leaseOwner);
+
+    /**
+     * Records a failed attempt of the given deliveries and schedules their next attempt, unless they have since been
+     * claimed by another worker. A null next attempt gives up on the deliveries, which drops them from the due index
+     */
+    @Modifying
+    @Query("""
+        UPDATE WebhookDeliveryEntity d
+        SET d.attemptCount = d.attemptCount + 1, d.nextAttemptAt = :nextAttemptAt, d.lastError = :lastError, d.leaseOwner = NULL
+        WHERE d.id IN :ids
+        AND d.leaseOwner = :leaseOwner
+        """)
+    int rescheduleLeased(Collection<Long> ids, Instant nextAttemptAt, String lastError, String leaseOwner);
+
+    @Modifying
+    @Query("""
+        DELETE FROM WebhookDeliveryEntity d
+        WHERE d.webhook.id = :webhookId
+        """)
+    int deleteAllByWebhookId(Long webhookId);
+
+}
@@ -0,0 +1,19 @@
+package org.timekeeper.database.postgresql.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.timekeeper.database.postgresql.model.WebhookEntity;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface WebhookRepository extends JpaRepository<WebhookEntity, Long> {
+
+    Optional<WebhookEntity> findByIdAndUserId(Long id, String userId);
+
+    Optional<WebhookEntity> findByUserIdAndUrl(String userId, String url);
+
+    List<WebhookEntity> findAllByUserIdOrderByCreatedAtAsc(String userId);
+
+    long countByUserId(String userId);
+
+}
@@ -0,0 +1,7 @@
+package org.timekeeper.exception;
+
+import lombok.experimental.StandardException;
+
+@StandardException
+public class CursorExpiredException extends RuntimeException {
+}
@@ -0,0 +1,28 @@
+package org.timekeeper.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Jacksonized
+@Builder(toBuilder = true)
+@Schema(description = "Position in the change feed of a user, used to resume the feed after the last returned change")
+public class ChangeFeedCursor {
+
+    /**
+     * Cursor of a feed that has not returned any changes yet
+     */
+    public static final ChangeFeedCursor START = ChangeFeedCursor.builder()
+        .position(0L)
+        .scanId(0L)
+        .build();
+
+    @Schema(description = "Position of the last returned change")
+    Long position;
+
+    @Schema(description = "ID of the scan of the last returned change; breaks ties between changes at the same position")
+    Long scanId;
+
+}
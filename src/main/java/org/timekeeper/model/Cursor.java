@@ -0,0 +1,22 @@
+package org.timekeeper.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.time.Instant;
+
+@Value
+@Jacksonized
+@Builder(toBuilder = true)
+@Schema(description = "Position in a list ordered by creation time, used to resume iteration after the last returned element")
+public class Cursor {
+
+    @Schema(description = "Timestamp of when the last returned element was created")
+    Instant createdAt;
+
+    @Schema(description = "ID of the last returned element; breaks ties between elements created at the same time")
+    Long id;
+
+}
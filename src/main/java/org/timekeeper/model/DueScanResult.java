@@ -0,0 +1,30 @@
+package org.timekeeper.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * A claimed scan result whose next status check is due, with the scheduling state that the status poller computes the
+ * check after it from
+ */
+@Value
+@Builder(toBuilder = true)
+public class DueScanResult {
+
+    Long id;
+
+    String urlScanId;
+
+    /**
+     * Time at which the scan was submitted to urlscan.io
+     */
+    Instant submittedAt;
+
+    /**
+     * Number of times the status of the scan has been checked without the scan being finished
+     */
+    Integer checkCount;
+
+}
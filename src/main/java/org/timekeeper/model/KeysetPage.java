@@ -0,0 +1,22 @@
+package org.timekeeper.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+@Value
+@Jacksonized
+@Schema(description = "A single page returned as part of a list iterated by an opaque cursor, without counting the full result")
+@Builder(toBuilder = true)
+public class KeysetPage<T> {
+
+    @Schema(description = "List of elements in the current page")
+    List<T> data;
+
+    @Schema(description = "Opaque cursor for retrieving the next page; absent if there are no more elements")
+    String nextCursor;
+
+}
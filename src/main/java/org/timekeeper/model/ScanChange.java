@@ -0,0 +1,28 @@
+package org.timekeeper.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.time.Instant;
+
+@Value
+@Jacksonized
+@Builder(toBuilder = true)
+@Schema(description = "Last change of a scan in the change feed of its user")
+public class ScanChange {
+
+    @Schema(description = "ID of the scan")
+    Long id;
+
+    @Schema(description = "Status of the scan result as of the change")
+    ScanResultStatus status;
+
+    @Schema(description = "Whether the scan was deleted")
+    Boolean deleted;
+
+    @Schema(description = "Timestamp of when the scan was changed")
+    Instant changedAt;
+
+}
@@ -0,0 +1,25 @@
+package org.timekeeper.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+@Value
+@Jacksonized
+@Builder(toBuilder = true)
+@Schema(description = "A page of the change feed of a user, with the last change of each scan changed since the cursor of the request")
+public class ScanChangePage {
+
+    @Schema(description = "List of changes in the current page, in the order they were made")
+    List<ScanChange> data;
+
+    @Schema(description = "Opaque cursor for retrieving the changes after this page; always present, so the feed can be resumed once more scans change")
+    String nextCursor;
+
+    @Schema(description = "Whether more changes are available right away")
+    Boolean hasMore;
+
+}
@@ -0,0 +1,41 @@
+package org.timekeeper.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+@Schema(description = "Outcome of creating a scan for a single URL of a batch")
+public class ScanCreation {
+
+    @Schema(description = "Enum of outcomes of creating a scan")
+    public enum Outcome {
+
+        @Schema(description = "Represents that a scan was created with a new scan result")
+        CREATED,
+        @Schema(description = "Represents that a scan was created reusing the scan result of another user's recent scan of the URL")
+        REUSED,
+        @Schema(description = "Represents that no scan was created as the user already scanned the URL within the dedupe window")
+        DUPLICATE,
+        @Schema(description = "Represents that no scan was created as the URL is malformed")
+        INVALID
+
+    }
+
+    @Schema(description = "URL requested to be scanned")
+    String url;
+
+    @Schema(description = "Outcome of creating the scan")
+    Outcome outcome;
+
+    @Schema(description = "The scan that was created; absent unless the outcome is CREATED or REUSED")
+    Scan scan;
+
+    @Schema(description = "ID of the existing scan of the URL; absent unless the outcome is DUPLICATE")
+    Long existingScanId;
+
+    @Schema(description = "Reason that no scan was created; absent if a scan was created")
+    String message;
+
+}
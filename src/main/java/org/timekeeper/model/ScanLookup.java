@@ -0,0 +1,22 @@
+package org.timekeeper.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.Map;
+
+@Value
+@Jacksonized
+@Builder(toBuilder = true)
+@Schema(description = "Scans found for a batch of scan IDs. Scans that do not exist or belong to another user are left out")
+public class ScanLookup {
+
+    @Schema(description = "Status of the scan result of each scan found, keyed by the ID of the scan")
+    Map<Long, ScanResultStatus> statuses;
+
+    @Schema(description = "Details of each scan found, keyed by the ID of the scan; only present if requested")
+    Map<Long, Scan> scans;
+
+}
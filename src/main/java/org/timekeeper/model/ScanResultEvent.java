@@ -0,0 +1,40 @@
+package org.timekeeper.model;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.time.Instant;
+
+/**
+ * A status transition of a scan result, with the state of the scan result after it, as relayed from the outbox
+ */
+@Value
+@Jacksonized
+@Builder(toBuilder = true)
+public class ScanResultEvent {
+
+    /**
+     * ID of the outbox entry, which increases with each transition of a scan result, so that consumers can discard a
+     * transition they already processed, or one older than the last they processed
+     */
+    Long id;
+
+    Long scanResultId;
+
+    ScanResultStatus previousStatus;
+
+    ScanResultStatus status;
+
+    /**
+     * Details of the status; present only if status is FAILED
+     */
+    ScanResult.StatusDetails statusDetails;
+
+    String urlScanId;
+
+    String resultUrl;
+
+    Instant occurredAt;
+
+}
@@ -2,6 +2,9 @@ package org.timekeeper.model;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 @Schema(description = "Enum of scan result statuses")
 public enum ScanResultStatus {
 
@@ -13,5 +16,31 @@ public enum ScanResultStatus {
     FAILED,
     @Schema(description = "Represents that the url was successfully scanned and results are ready")
     DONE,
+    ;
+
+    /**
+     * Lists the statuses that a scan result with this status may legally move to.
+     * FAILED and DONE are terminal, so that a late write from a retrying or racing worker can never reopen a finished scan result
+     *
+     * @return the statuses that this status may transition to
+     */
+    public Set<ScanResultStatus> getNextStatuses() {
+        return switch (this) {
+            case SUBMITTED -> EnumSet.of(PROCESSING, FAILED);
+            case PROCESSING -> EnumSet.of(DONE, FAILED);
+            case FAILED, DONE -> EnumSet.noneOf(ScanResultStatus.class);
+        };
+    }
+
+    public boolean canTransitionTo(ScanResultStatus status) {
+        return getNextStatuses().contains(status);
+    }
+
+    /**
+     * @return true if a scan result with this status never changes again
+     */
+    public boolean isTerminal() {
+        return getNextStatuses().isEmpty();
+    }
 
 }
@@ -0,0 +1,23 @@
+package org.timekeeper.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+@Builder(toBuilder = true)
+@Schema(description = "Version of a scan, which changes whenever any part of the scan that is returned to clients changes")
+public class ScanVersion {
+
+    @Schema(description = "ID of the scan")
+    Long id;
+
+    @Schema(description = "Status of the scan result")
+    ScanResultStatus status;
+
+    @Schema(description = "Timestamp of when the scan was last updated, including status transitions of its scan result")
+    Instant updatedAt;
+
+}
@@ -0,0 +1,22 @@
+package org.timekeeper.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Scan results whose status changed in a single transaction, as published to the API servers
+ */
+@Value
+@Builder(toBuilder = true)
+public class UpdatedScanResults {
+
+    /**
+     * Complete position of the change feed as of the transaction; every change below it was published before these
+     */
+    Long completePosition;
+
+    List<Long> scanResultIds;
+
+}
@@ -0,0 +1,28 @@
+package org.timekeeper.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+@Builder(toBuilder = true)
+@Schema(description = "Endpoint that is sent the scans of the user as soon as they are DONE or FAILED")
+public class Webhook {
+
+    @Schema(description = "ID of the webhook")
+    Long id;
+
+    @JsonIgnore
+    @Schema(description = "ID of the user that created the webhook")
+    String userId;
+
+    @Schema(description = "URL that finished scans are POSTed to")
+    String url;
+
+    @Schema(description = "Timestamp of when the webhook was created")
+    Instant createdAt;
+
+}
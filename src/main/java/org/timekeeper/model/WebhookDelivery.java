@@ -0,0 +1,26 @@
+package org.timekeeper.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * A claimed delivery of a finished scan to a webhook
+ */
+@Value
+@Builder(toBuilder = true)
+public class WebhookDelivery {
+
+    Long id;
+
+    Long webhookId;
+
+    String url;
+
+    /**
+     * Number of attempts made before this one
+     */
+    Integer attemptCount;
+
+    Scan scan;
+
+}
@@ -0,0 +1,18 @@
+package org.timekeeper.model.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+@Value
+@Jacksonized
+@Schema(description = "Request for creating scans for a batch of URLs")
+@Builder(toBuilder = true)
+public class CreateScansRequest {
+
+    @Schema(description = "URLs to scan")
+    List<String> urls;
+}
@@ -0,0 +1,14 @@
+package org.timekeeper.model.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Schema(description = "Request for creating a webhook")
+@Builder(toBuilder = true)
+public class CreateWebhookRequest {
+
+    @Schema(description = "URL to POST finished scans to")
+    String url;
+}
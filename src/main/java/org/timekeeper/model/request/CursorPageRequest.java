@@ -0,0 +1,19 @@
+package org.timekeeper.model.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import org.timekeeper.model.Cursor;
+
+@Value
+@Builder(toBuilder = true)
+@Schema(description = "Request for specifying a page to be retrieved by cursor")
+public class CursorPageRequest {
+
+    @Schema(description = "Cursor to resume after; absent to start from the beginning")
+    Cursor cursor;
+
+    @Schema(description = "Size of each page")
+    Integer pageSize;
+
+}
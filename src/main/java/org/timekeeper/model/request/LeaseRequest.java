@@ -0,0 +1,20 @@
+package org.timekeeper.model.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+@Value
+@Builder(toBuilder = true)
+@Schema(description = "Request for specifying the lease to take on claimed resources")
+public class LeaseRequest {
+
+    @Schema(description = "Unique identifier of the worker taking the lease")
+    String owner;
+
+    @Schema(description = "Duration after which the lease expires and the resources can be claimed by another worker")
+    Duration duration;
+
+}
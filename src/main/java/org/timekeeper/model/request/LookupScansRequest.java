@@ -0,0 +1,21 @@
+package org.timekeeper.model.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+@Value
+@Jacksonized
+@Schema(description = "Request for looking up a batch of scans by ID")
+@Builder(toBuilder = true)
+public class LookupScansRequest {
+
+    @Schema(description = "IDs of the scans to look up")
+    List<Long> ids;
+
+    @Schema(description = "Whether to return the full details of each scan alongside its status")
+    Boolean includeScans;
+}
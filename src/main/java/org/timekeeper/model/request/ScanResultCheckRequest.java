@@ -0,0 +1,23 @@
+package org.timekeeper.model.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+@Builder(toBuilder = true)
+@Schema(description = "Request for scheduling the next status check of a single unfinished scan result as part of a batch")
+public class ScanResultCheckRequest {
+
+    @Schema(description = "Unique identifier of the scan result to schedule")
+    Long scanResultId;
+
+    @Schema(description = "The time at which the next status check of the scan result is due")
+    Instant nextCheckAt;
+
+    @Schema(description = "The time at which the scan result was last found to not be finished")
+    Instant checkedAt;
+
+}
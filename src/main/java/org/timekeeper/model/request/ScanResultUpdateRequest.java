@@ -0,0 +1,32 @@
+package org.timekeeper.model.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import org.timekeeper.model.ScanResult;
+import org.timekeeper.model.ScanResultStatus;
+
+@Value
+@Builder(toBuilder = true)
+@Schema(description = "Request for updating the status of a single scan result as part of a batch")
+public class ScanResultUpdateRequest {
+
+    @Schema(description = "Unique identifier of the scan result to update")
+    Long scanResultId;
+
+    @Schema(description = "The status the scan result is expected to have; the update is not applied if the status has since changed")
+    ScanResultStatus expectedStatus;
+
+    @Schema(description = "The updated status of the scan result")
+    ScanResultStatus status;
+
+    @Schema(description = "Details of the status returned by urlscan.io; left unchanged if absent")
+    ScanResult.StatusDetails statusDetails;
+
+    @Schema(description = "Unique identifier of the scan on urlscan.io; left unchanged if absent")
+    String urlScanId;
+
+    @Schema(description = "URL of the scan result on urlscan.io; left unchanged if absent")
+    String resultUrl;
+
+}
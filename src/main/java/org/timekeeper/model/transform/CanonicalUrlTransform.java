@@ -0,0 +1,74 @@
+package org.timekeeper.model.transform;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Transforms a URL into its canonical form, so that equivalent URLs are deduplicated against each other.
+ * The scheme and host are lowercased, the default port of the scheme is removed, dot segments are removed from the path
+ * (an empty path becomes /), query parameters are sorted by name while keeping the order of repeated names, and the
+ * fragment is removed, as it is never sent to the server and so does not change the page that is scanned.
+ * URLs that cannot be parsed as hierarchical URIs with a host are returned unchanged
+ */
+@Slf4j
+public final class CanonicalUrlTransform {
+
+    private static final Map<String, Integer> DEFAULT_PORTS = Map.of(
+        "http", 80,
+        "https", 443
+    );
+
+    private static final String QUERY_PARAMETER_DELIMITER = "&";
+
+    public static String apply(String from) {
+        URI uri;
+        try {
+            uri = new URI(from);
+        } catch (URISyntaxException e) {
+            log.info("URL could not be parsed; leaving as is: url={}", from);
+
+            return from;
+        }
+        if (!uri.isAbsolute() || uri.isOpaque() || uri.getHost() == null) {
+            return from;
+        }
+
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        StringBuilder canonicalUrl = new StringBuilder()
+            .append(scheme)
+            .append("://");
+        Optional.ofNullable(uri.getRawUserInfo())
+            .ifPresent(userInfo -> canonicalUrl.append(userInfo).append('@'));
+        canonicalUrl.append(uri.getHost().toLowerCase(Locale.ROOT));
+        if (uri.getPort() != -1 && !DEFAULT_PORTS.getOrDefault(scheme, -1).equals(uri.getPort())) {
+            canonicalUrl.append(':').append(uri.getPort());
+        }
+        String path = uri.normalize().getRawPath();
+        canonicalUrl.append(path == null || path.isEmpty() ? "/" : path);
+        Optional.ofNullable(uri.getRawQuery())
+            .map(CanonicalUrlTransform::sortQuery)
+            .filter(query -> !query.isEmpty())
+            .ifPresent(query -> canonicalUrl.append('?').append(query));
+
+        return canonicalUrl.toString();
+    }
+
+    /**
+     * Sorts query parameters by name; the sort is stable, so repeated parameters keep their relative order
+     */
+    private static String sortQuery(String query) {
+        return Arrays.stream(query.split(QUERY_PARAMETER_DELIMITER))
+            .filter(parameter -> !parameter.isEmpty())
+            .sorted(Comparator.comparing(parameter -> parameter.split("=", 2)[0]))
+            .collect(Collectors.joining(QUERY_PARAMETER_DELIMITER));
+    }
+
+}
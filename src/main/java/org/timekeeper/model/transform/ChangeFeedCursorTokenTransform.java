@@ -0,0 +1,21 @@
+package org.timekeeper.model.transform;
+
+import org.timekeeper.model.ChangeFeedCursor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Transforms into the opaque token representation of a ChangeFeedCursor that is handed to clients
+ */
+public final class ChangeFeedCursorTokenTransform {
+
+    public static String apply(ChangeFeedCursor from) {
+        String value = from.getPosition() + CursorTokenTransform.SEPARATOR + from.getScanId();
+
+        return Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
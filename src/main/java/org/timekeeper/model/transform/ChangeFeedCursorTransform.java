@@ -0,0 +1,33 @@
+package org.timekeeper.model.transform;
+
+import org.timekeeper.model.ChangeFeedCursor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Transforms into the internal ChangeFeedCursor representation
+ */
+public final class ChangeFeedCursorTransform {
+
+    /**
+     * Decodes a change feed cursor from the opaque token produced by {@link ChangeFeedCursorTokenTransform}
+     *
+     * @param from The opaque token handed to the client
+     * @return The change feed cursor encoded in the token
+     * @throws IllegalArgumentException if the token was not produced by {@link ChangeFeedCursorTokenTransform}
+     */
+    public static ChangeFeedCursor apply(String from) {
+        String value = new String(Base64.getUrlDecoder().decode(from), StandardCharsets.UTF_8);
+        String[] parts = value.split(CursorTokenTransform.SEPARATOR, -1);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Change feed cursor token has an unexpected number of parts");
+        }
+
+        return ChangeFeedCursor.builder()
+            .position(Long.parseLong(parts[0]))
+            .scanId(Long.parseLong(parts[1]))
+            .build();
+    }
+
+}
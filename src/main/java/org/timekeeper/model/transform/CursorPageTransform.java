@@ -0,0 +1,45 @@
+package org.timekeeper.model.transform;
+
+import org.timekeeper.model.Cursor;
+import org.timekeeper.model.CursorPage;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Transforms into the internal CursorPage representation
+ */
+public final class CursorPageTransform {
+
+    /**
+     * Helper function that transforms a list of database models retrieved by cursor into the internal CursorPage representation.
+     * A next cursor is only provided when the list fills the requested page, as a partial page means there are no more elements.
+     *
+     * @param from            The list of items retrieved for the page
+     * @param pageSize        The number of items that were requested for the page
+     * @param valueTransform  The function to use to transform from the database model into an internal model
+     * @param cursorTransform The function to use to derive the cursor of an item
+     * @param <T>             The class of the item in the list
+     * @param <R>             The class of the internal representation of an item
+     * @return An internal CursorPage that represents the list
+     */
+    public static <T, R> CursorPage<R> apply(
+        List<T> from,
+        Integer pageSize,
+        Function<T, R> valueTransform,
+        Function<T, Cursor> cursorTransform
+    ) {
+        Cursor nextCursor = from.size() < pageSize || from.isEmpty()
+            ? null
+            : cursorTransform.apply(from.get(from.size() - 1));
+
+        return CursorPage.<R>builder()
+            .data(
+                from.stream()
+                    .map(valueTransform)
+                    .toList()
+            ).nextCursor(nextCursor)
+            .build();
+    }
+
+}
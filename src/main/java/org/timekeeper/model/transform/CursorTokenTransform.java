@@ -0,0 +1,23 @@
+package org.timekeeper.model.transform;
+
+import org.timekeeper.model.Cursor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Transforms into the opaque token representation of a Cursor that is handed to clients
+ */
+public final class CursorTokenTransform {
+
+    static final String SEPARATOR = ",";
+
+    public static String apply(Cursor from) {
+        String value = from.getCreatedAt() + SEPARATOR + from.getId();
+
+        return Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
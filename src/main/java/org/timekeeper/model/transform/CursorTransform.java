@@ -0,0 +1,55 @@
+package org.timekeeper.model.transform;
+
+import org.timekeeper.database.postgresql.model.ScanResultEntity;
+import org.timekeeper.database.postgresql.model.ScanSummaryRow;
+import org.timekeeper.model.Cursor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Transforms into the internal Cursor representation
+ */
+public final class CursorTransform {
+
+    public static Cursor apply(ScanResultEntity from) {
+        return Cursor.builder()
+            .createdAt(from.getCreatedAt())
+            .id(from.getId())
+            .build();
+    }
+
+    public static Cursor apply(ScanSummaryRow from) {
+        return Cursor.builder()
+            .createdAt(from.getCreatedAt())
+            .id(from.getId())
+            .build();
+    }
+
+    /**
+     * Decodes a cursor from the opaque token produced by {@link CursorTokenTransform}
+     *
+     * @param from The opaque token handed to the client
+     * @return The cursor encoded in the token
+     * @throws IllegalArgumentException if the token was not produced by {@link CursorTokenTransform}
+     */
+    public static Cursor apply(String from) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(from), StandardCharsets.UTF_8);
+            String[] parts = value.split(CursorTokenTransform.SEPARATOR, -1);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Cursor token has an unexpected number of parts");
+            }
+
+            return Cursor.builder()
+                .createdAt(Instant.parse(parts[0]))
+                .id(Long.parseLong(parts[1]))
+                .build();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor token has an invalid timestamp", e);
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package org.timekeeper.model.transform;
+
+import org.timekeeper.database.postgresql.model.ScanResultEntity;
+import org.timekeeper.model.DueScanResult;
+
+/**
+ * Transforms into the internal DueScanResult representation
+ */
+public final class DueScanResultTransform {
+
+    public static DueScanResult apply(ScanResultEntity from) {
+        return DueScanResult.builder()
+            .id(from.getId())
+            .urlScanId(from.getUrlScanId())
+            .submittedAt(from.getSubmittedAt())
+            .checkCount(from.getCheckCount())
+            .build();
+    }
+
+}
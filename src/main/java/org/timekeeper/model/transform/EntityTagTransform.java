@@ -0,0 +1,62 @@
+package org.timekeeper.model.transform;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.timekeeper.model.KeysetPage;
+import org.timekeeper.model.Page;
+import org.timekeeper.model.ScanSummary;
+import org.timekeeper.model.ScanVersion;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Transforms versions of scans into weak entity tags for conditional requests.
+ * Tags are weak because they are computed before the response encoding is negotiated, so the JSON, Smile and CBOR
+ * representations of a scan share a tag while differing byte for byte.
+ * Tags of pages cover the version of every scan on the page along with the page metadata, so that a page changes its tag
+ * when a scan on it changes, or when scans are created or deleted
+ */
+public final class EntityTagTransform {
+
+    public static String apply(ScanVersion from) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        putScanVersion(hasher, from);
+
+        return toEntityTag(hasher);
+    }
+
+    public static String apply(Page<ScanSummary> from) {
+        Hasher hasher = Hashing.murmur3_128().newHasher()
+            .putInt(from.getPage())
+            .putInt(from.getTotalPages())
+            .putLong(from.getTotalElements());
+        from.getData().stream()
+            .map(ScanVersionTransform::apply)
+            .forEach(scanVersion -> putScanVersion(hasher, scanVersion));
+
+        return toEntityTag(hasher);
+    }
+
+    public static String apply(KeysetPage<ScanSummary> from) {
+        Hasher hasher = Hashing.murmur3_128().newHasher()
+            .putString(Objects.toString(from.getNextCursor(), ""), StandardCharsets.UTF_8);
+        from.getData().stream()
+            .map(ScanVersionTransform::apply)
+            .forEach(scanVersion -> putScanVersion(hasher, scanVersion));
+
+        return toEntityTag(hasher);
+    }
+
+    private static void putScanVersion(Hasher hasher, ScanVersion scanVersion) {
+        hasher.putLong(scanVersion.getId())
+            .putInt(scanVersion.getStatus().ordinal())
+            .putLong(scanVersion.getUpdatedAt().getEpochSecond())
+            .putInt(scanVersion.getUpdatedAt().getNano());
+    }
+
+    private static String toEntityTag(Hasher hasher) {
+        return String.format("W/\"%s\"", hasher.hash());
+    }
+
+}
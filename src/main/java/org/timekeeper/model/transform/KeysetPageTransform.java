@@ -0,0 +1,24 @@
+package org.timekeeper.model.transform;
+
+import org.timekeeper.model.CursorPage;
+import org.timekeeper.model.KeysetPage;
+
+import java.util.Optional;
+
+/**
+ * Transforms into the external KeysetPage representation
+ */
+public final class KeysetPageTransform {
+
+    public static <T> KeysetPage<T> apply(CursorPage<T> from) {
+        return KeysetPage.<T>builder()
+            .data(from.getData())
+            .nextCursor(
+                Optional.ofNullable(from.getNextCursor())
+                    .map(CursorTokenTransform::apply)
+                    .orElse(null)
+            )
+            .build();
+    }
+
+}
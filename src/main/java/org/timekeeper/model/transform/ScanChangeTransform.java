@@ -0,0 +1,20 @@
+package org.timekeeper.model.transform;
+
+import org.timekeeper.database.postgresql.model.ScanChangeEntity;
+import org.timekeeper.model.ScanChange;
+
+/**
+ * Transforms into the internal ScanChange representation
+ */
+public final class ScanChangeTransform {
+
+    public static ScanChange apply(ScanChangeEntity from) {
+        return ScanChange.builder()
+            .id(from.getScanId())
+            .status(from.getStatus())
+            .deleted(from.getDeleted())
+            .changedAt(from.getChangedAt())
+            .build();
+    }
+
+}
@@ -0,0 +1,31 @@
+package org.timekeeper.model.transform;
+
+import org.timekeeper.database.postgresql.model.ScanResultOutboxEntity;
+import org.timekeeper.model.ScanResultEvent;
+
+/**
+ * Transforms into the internal ScanResultEvent representation
+ */
+public final class ScanResultEventTransform {
+
+    public static ScanResultEvent apply(ScanResultOutboxEntity from) {
+        return ScanResultEvent.builder()
+            .id(from.getId())
+            .scanResultId(from.getScanResultId())
+            .previousStatus(from.getPreviousStatus())
+            .status(from.getStatus())
+            .statusDetails(
+                ScanResultStatusDetailsTransform.apply(
+                    from.getStatus(),
+                    from.getStatusCode(),
+                    from.getStatusMessage(),
+                    from.getStatusDescription()
+                ).orElse(null)
+            )
+            .urlScanId(from.getUrlScanId())
+            .resultUrl(from.getResultUrl())
+            .occurredAt(from.getCreatedAt())
+            .build();
+    }
+
+}
@@ -12,12 +12,16 @@ import java.util.Optional;
 public final class ScanResultStatusDetailsTransform {
 
     public static Optional<ScanResult.StatusDetails> apply(ScanResultEntity from) {
-        if (ScanResultStatus.FAILED.equals(from.getStatus())) {
+        return apply(from.getStatus(), from.getStatusCode(), from.getStatusMessage(), from.getStatusDescription());
+    }
+
+    public static Optional<ScanResult.StatusDetails> apply(ScanResultStatus status, Integer code, String message, String description) {
+        if (ScanResultStatus.FAILED.equals(status)) {
             return Optional.of(
                 ScanResult.StatusDetails.builder()
-                .code(from.getStatusCode())
-                .message(from.getStatusMessage())
-                .description(from.getStatusDescription())
+                .code(code)
+                .message(message)
+                .description(description)
                 .build()
             );
         }
@@ -1,22 +1,22 @@
 package org.timekeeper.model.transform;
 
-import org.timekeeper.database.postgresql.model.ScanEntity;
-import org.timekeeper.database.postgresql.model.ScanResultEntity;
+import org.timekeeper.database.postgresql.model.ScanSummaryRow;
 import org.timekeeper.model.ScanSummary;
 
 /**
- * Transforms into the internal Scan representation
+ * Transforms into the internal ScanSummary representation
  */
 public final class ScanSummaryTransform {
 
-    public static ScanSummary apply(ScanEntity from) {
-        ScanResultEntity result = from.getResult();
-
+    public static ScanSummary apply(ScanSummaryRow from) {
         return ScanSummary.builder()
             .id(from.getId())
-            .url(result.getUrl())
-            .status(result.getStatus())
-            .statusDetails(ScanResultStatusDetailsTransform.apply(result).orElse(null))
+            .url(from.getUrl())
+            .status(from.getStatus())
+            .statusDetails(
+                ScanResultStatusDetailsTransform.apply(from.getStatus(), from.getStatusCode(), from.getStatusMessage(), from.getStatusDescription())
+                    .orElse(null)
+            )
             .createdAt(from.getCreatedAt())
             .updatedAt(from.getUpdatedAt())
             .build();
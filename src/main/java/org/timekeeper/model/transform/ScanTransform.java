@@ -1,7 +1,9 @@
 package org.timekeeper.model.transform;
 
 import org.timekeeper.database.postgresql.model.ScanEntity;
+import org.timekeeper.database.postgresql.model.ScanRow;
 import org.timekeeper.model.Scan;
+import org.timekeeper.model.ScanResult;
 
 /**
  * Transforms into the internal Scan representation
@@ -18,4 +20,28 @@ public final class ScanTransform {
             .build();
     }
 
+    public static Scan apply(ScanRow from) {
+        return Scan.builder()
+            .id(from.getId())
+            .userId(from.getUserId())
+            .result(
+                ScanResult.builder()
+                    .id(from.getResultId())
+                    .url(from.getUrl())
+                    .urlScanId(from.getUrlScanId())
+                    .resultUrl(from.getResultUrl())
+                    .status(from.getStatus())
+                    .statusDetails(
+                        ScanResultStatusDetailsTransform.apply(from.getStatus(), from.getStatusCode(), from.getStatusMessage(), from.getStatusDescription())
+                            .orElse(null)
+                    )
+                    .createdAt(from.getResultCreatedAt())
+                    .updatedAt(from.getResultUpdatedAt())
+                    .build()
+            )
+            .createdAt(from.getCreatedAt())
+            .updatedAt(from.getUpdatedAt())
+            .build();
+    }
+
 }
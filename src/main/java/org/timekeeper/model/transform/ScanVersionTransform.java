@@ -0,0 +1,49 @@
+package org.timekeeper.model.transform;
+
+import org.timekeeper.database.postgresql.model.ScanChangeEntity;
+import org.timekeeper.database.postgresql.model.ScanVersionRow;
+import org.timekeeper.model.Scan;
+import org.timekeeper.model.ScanSummary;
+import org.timekeeper.model.ScanVersion;
+
+/**
+ * Transforms into the internal ScanVersion representation
+ */
+public final class ScanVersionTransform {
+
+    public static ScanVersion apply(ScanVersionRow from) {
+        return ScanVersion.builder()
+            .id(from.getId())
+            .status(from.getStatus())
+            .updatedAt(from.getUpdatedAt())
+            .build();
+    }
+
+    /**
+     * The change of a scan is recorded with the update time of the scan as of the change
+     */
+    public static ScanVersion apply(ScanChangeEntity from) {
+        return ScanVersion.builder()
+            .id(from.getScanId())
+            .status(from.getStatus())
+            .updatedAt(from.getChangedAt())
+            .build();
+    }
+
+    public static ScanVersion apply(Scan from) {
+        return ScanVersion.builder()
+            .id(from.getId())
+            .status(from.getResult().getStatus())
+            .updatedAt(from.getUpdatedAt())
+            .build();
+    }
+
+    public static ScanVersion apply(ScanSummary from) {
+        return ScanVersion.builder()
+            .id(from.getId())
+            .status(from.getStatus())
+            .updatedAt(from.getUpdatedAt())
+            .build();
+    }
+
+}
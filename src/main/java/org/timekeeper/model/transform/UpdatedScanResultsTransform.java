@@ -0,0 +1,37 @@
+package org.timekeeper.model.transform;
+
+import org.timekeeper.database.postgresql.listener.NotificationPayloads;
+import org.timekeeper.model.UpdatedScanResults;
+
+import static org.timekeeper.database.postgresql.repository.Constants.NOTIFICATION_POSITION_DELIMITER;
+
+/**
+ * Transforms into the internal UpdatedScanResults representation
+ */
+public final class UpdatedScanResultsTransform {
+
+    /**
+     * Decodes the payload of a notification published with
+     * {@link org.timekeeper.database.postgresql.repository.ScanResultRepository#sendPositionedNotification}
+     *
+     * @param from The payload of the notification
+     * @return The complete position the notification was sent at, and the IDs of the scan results it was sent for
+     * @throws IllegalArgumentException if the payload is not a positioned list of scan result IDs
+     */
+    public static UpdatedScanResults apply(String from) {
+        String[] parts = from.split(NOTIFICATION_POSITION_DELIMITER, 2);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Notification payload is not prefixed with a position");
+        }
+
+        return UpdatedScanResults.builder()
+            .completePosition(Long.parseLong(parts[0]))
+            .scanResultIds(
+                NotificationPayloads.unpack(parts[1]).stream()
+                    .map(Long::parseLong)
+                    .toList()
+            )
+            .build();
+    }
+
+}
@@ -0,0 +1,17 @@
+package org.timekeeper.model.transform;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Transforms a canonical URL into a 64-bit fingerprint, which keys dedupe lookups with a small fixed-width value instead
+ * of the full URL
+ */
+public final class UrlFingerprintTransform {
+
+    public static Long apply(String from) {
+        return Hashing.murmur3_128().hashString(from, StandardCharsets.UTF_8).asLong();
+    }
+
+}
@@ -0,0 +1,20 @@
+package org.timekeeper.model.transform;
+
+import org.timekeeper.database.postgresql.model.WebhookEntity;
+import org.timekeeper.model.Webhook;
+
+/**
+ * Transforms into the internal Webhook representation
+ */
+public final class WebhookTransform {
+
+    public static Webhook apply(WebhookEntity from) {
+        return Webhook.builder()
+            .id(from.getId())
+            .userId(from.getUserId())
+            .url(from.getUrl())
+            .createdAt(from.getCreatedAt())
+            .build();
+    }
+
+}
@@ -0,0 +1,55 @@
+package org.timekeeper.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import org.timekeeper.client.model.ScanResultEventPayload;
+import org.timekeeper.configuration.outbox.OutboxSinkConfig;
+import org.timekeeper.model.ScanResultEvent;
+
+import java.util.List;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+/**
+ * POSTs each batch of transitions to a single URL as {@link ScanResultEventPayload}. Responses other than 2xx, and
+ * failures to connect or read the response, are thrown as a {@link org.springframework.web.client.RestClientException}
+ */
+@Slf4j
+public class HttpOutboxSink implements OutboxSink {
+
+    private final RestClient client;
+
+    private final String url;
+
+    /**
+     * @param builder builder of the client, which is expected to be configured with the message converters of the API
+     *                server, so that transitions are sent in the same format as API responses
+     * @param config  the URL and timeouts of the sink
+     */
+    public HttpOutboxSink(RestClient.Builder builder, OutboxSinkConfig config) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(config.getConnectTimeout());
+        requestFactory.setReadTimeout(config.getReadTimeout());
+        this.client = builder
+            .requestFactory(requestFactory)
+            .build();
+        this.url = config.getUrl();
+    }
+
+    @Override
+    public void publish(List<ScanResultEvent> events) {
+        client.post()
+            .uri(url)
+            .contentType(APPLICATION_JSON)
+            .body(
+                ScanResultEventPayload.builder()
+                    .events(events)
+                    .build()
+            )
+            .retrieve()
+            .toBodilessEntity();
+        log.info("Published scan result events: url={} events={}", url, events.size());
+    }
+
+}
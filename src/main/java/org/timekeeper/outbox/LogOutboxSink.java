@@ -0,0 +1,33 @@
+package org.timekeeper.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.timekeeper.model.ScanResultEvent;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Writes each transition as a line of JSON to a dedicated logger, which can be routed to its own file through the
+ * logging configuration of the relay
+ */
+@Slf4j(topic = "org.timekeeper.outbox.events")
+@RequiredArgsConstructor
+public class LogOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void publish(List<ScanResultEvent> events) {
+        for (ScanResultEvent event : events) {
+            try {
+                log.info(objectMapper.writeValueAsString(event));
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+}
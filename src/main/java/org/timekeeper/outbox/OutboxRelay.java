@@ -0,0 +1,72 @@
+package org.timekeeper.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.timekeeper.model.ScanResultEvent;
+import org.timekeeper.model.request.LeaseRequest;
+import org.timekeeper.scheduler.RunOutcome;
+import org.timekeeper.service.OutboxService;
+
+import java.util.List;
+
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    protected static final Integer PAGE_SIZE = 500;
+
+    /**
+     * Bounds how many pages are relayed in a single run, so that the scheduler re-evaluates between runs
+     */
+    protected static final Integer MAX_PAGES_PER_RUN = 10;
+
+    private final OutboxService outboxService;
+
+    private final OutboxSink outboxSink;
+
+    private final LeaseRequest outboxRelayLease;
+
+    /**
+     * Relays the outbox to the sink in ascending order of ID, a page per batch, up to a bounded number of pages per run.
+     * Each page is claimed under a lease, published outside of any transaction, and then removed from the outbox in a
+     * transaction of its own. A page that the sink fails to publish ends the run and stays leased to this relay, so that
+     * it is relayed again by the next run and no later transition is relayed ahead of it
+     *
+     * @return the outcome of the run, which reports a backlog if the run stopped before the outbox was drained
+     */
+    public RunOutcome relay() {
+        int processed = 0;
+        int pages = 0;
+        boolean backlog;
+        do {
+            List<ScanResultEvent> events;
+            try {
+                events = outboxService.claimEvents(PAGE_SIZE, outboxRelayLease);
+                if (!events.isEmpty()) {
+                    outboxSink.publish(events);
+                    outboxService.completeEvents(
+                        events.stream()
+                            .map(ScanResultEvent::getId)
+                            .toList(),
+                        outboxRelayLease
+                    );
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to relay scan result events; retrying next run: processed={}", processed, e);
+                return RunOutcome.builder()
+                    .processed(processed)
+                    .backlog(false)
+                    .build();
+            }
+            pages++;
+            backlog = events.size() >= PAGE_SIZE;
+            processed += events.size();
+        } while (backlog && pages < MAX_PAGES_PER_RUN);
+
+        return RunOutcome.builder()
+            .processed(processed)
+            .backlog(backlog)
+            .build();
+    }
+
+}
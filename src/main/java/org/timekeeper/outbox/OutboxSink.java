@@ -0,0 +1,21 @@
+package org.timekeeper.outbox;
+
+import org.timekeeper.model.ScanResultEvent;
+
+import java.util.List;
+
+/**
+ * Destination that the outbox relay streams status transitions of scan results to
+ */
+public interface OutboxSink {
+
+    /**
+     * Publishes a batch of transitions, outside of any transaction. The batch is removed from the outbox only if this
+     * returns, so a sink must throw if any transition of the batch was not published, and may be sent a batch again if
+     * the relay fails to remove it before its lease expires
+     *
+     * @param events the transitions to publish, in ascending order of ID
+     */
+    void publish(List<ScanResultEvent> events);
+
+}
@@ -0,0 +1,100 @@
+package org.timekeeper.poller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Synchronized;
+import lombok.extern.slf4j.Slf4j;
+import org.timekeeper.model.DueScanResult;
+import org.timekeeper.service.ScanService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Decides when the status of a scan that is not yet finished should next be checked with urlscan.io.
+ * Checks are aimed at the completion time percentiles of recently finished scans, so that most scans are found finished
+ * within one or two checks. Once a scan has outlived every percentile, or while there are too few finished scans to
+ * estimate percentiles from, checks back off exponentially.
+ * Completion times are read from the database, so that every replica estimates percentiles from the same finished scans,
+ * and are cached for the refresh interval. Synchronization is required as the cache can be refreshed while next checks
+ * are being computed
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class StatusCheckScheduler {
+
+    protected static final List<Double> PERCENTILES = List.of(0.5, 0.75, 0.9, 0.99);
+
+    protected static final Integer MAX_SAMPLES = 1000;
+
+    protected static final Integer MIN_SAMPLES = 20;
+
+    protected static final Duration REFRESH_INTERVAL = Duration.of(1, ChronoUnit.MINUTES);
+
+    protected static final Duration MIN_DELAY = Duration.of(5, ChronoUnit.SECONDS);
+
+    protected static final Duration BASE_BACKOFF = Duration.of(10, ChronoUnit.SECONDS);
+
+    protected static final Duration MAX_BACKOFF = Duration.of(5, ChronoUnit.MINUTES);
+
+    private final ScanService scanService;
+
+    private List<Duration> completionTimes = List.of();
+
+    private Instant refreshedAt;
+
+    /**
+     * Computes the time at which the status of an unfinished scan should next be checked
+     *
+     * @param scanResult the scan result that was found to not be finished
+     * @param now        the time at which the scan result was found to not be finished
+     * @return the time at which the next check is due
+     */
+    public Instant getNextCheckAt(DueScanResult scanResult, Instant now) {
+        Duration elapsed = Optional.ofNullable(scanResult.getSubmittedAt())
+            .map(submittedAt -> Duration.between(submittedAt, now))
+            .orElse(Duration.ZERO);
+        int checkCount = Optional.ofNullable(scanResult.getCheckCount()).orElse(0);
+
+        Duration delay = getNextPercentile(elapsed, now)
+            .map(percentile -> percentile.minus(elapsed))
+            .orElseGet(() -> getBackoff(checkCount));
+        if (delay.compareTo(MIN_DELAY) < 0) {
+            delay = MIN_DELAY;
+        }
+        log.info("Computed next check: scanResultId={} elapsed={} checkCount={} delay={}", scanResult.getId(), elapsed, checkCount, delay);
+
+        return now.plus(delay);
+    }
+
+    /**
+     * Finds the lowest completion time percentile that the scan has not yet outlived
+     */
+    @Synchronized
+    private Optional<Duration> getNextPercentile(Duration elapsed, Instant now) {
+        if (refreshedAt == null || !now.isBefore(refreshedAt.plus(REFRESH_INTERVAL))) {
+            completionTimes = scanService.listRecentCompletionTimes(MAX_SAMPLES).stream()
+                .sorted()
+                .toList();
+            refreshedAt = now;
+            log.info("Refreshed completion times: count={}", completionTimes.size());
+        }
+        if (completionTimes.size() < MIN_SAMPLES) {
+            return Optional.empty();
+        }
+
+        return PERCENTILES.stream()
+            .map(percentile -> completionTimes.get((int) Math.min(completionTimes.size() - 1, Math.ceil(percentile * completionTimes.size()) - 1)))
+            .filter(percentile -> percentile.compareTo(elapsed) > 0)
+            .findFirst();
+    }
+
+    private Duration getBackoff(int checkCount) {
+        Duration backoff = BASE_BACKOFF.multipliedBy(1L << Math.min(checkCount, 16));
+
+        return backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff;
+    }
+
+}
@@ -1,25 +1,26 @@
 package org.timekeeper.poller;
 
-import lombok.Builder;
-import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import lombok.Synchronized;
-import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.timekeeper.client.UrlScanClient;
+import org.timekeeper.client.UrlScanRateLimiter;
 import org.timekeeper.client.model.GetResultResponse;
-import org.timekeeper.model.Page;
+import org.timekeeper.model.DueScanResult;
 import org.timekeeper.model.ScanResult;
 import org.timekeeper.model.ScanResultStatus;
-import org.timekeeper.model.request.PageRequest;
+import org.timekeeper.model.request.LeaseRequest;
+import org.timekeeper.model.request.ScanResultCheckRequest;
+import org.timekeeper.model.request.ScanResultUpdateRequest;
+import org.timekeeper.scheduler.RunOutcome;
 import org.timekeeper.service.ScanService;
 
 import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,94 +33,135 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class StatusPoller {
 
-    /**
-     * Class for representing a delay to a specific time.
-     * Synchronization is required on the setter in case multiple threads run the same process function at the same time
-     */
-    @Getter
-    @ToString
-    @Builder(toBuilder = true)
-    public static class Delay {
-
-        @Builder.Default
-        private Optional<Instant> time = Optional.empty();
-
-        @Synchronized
-        public void setTime(Instant newTime) {
-            if (
-                time.filter(existingTime -> existingTime.isAfter(newTime))
-                    .isPresent()
-            ) {
-                return;
-            }
-
-            time = Optional.of(newTime);
-        }
-
-    }
-
     protected static final ScanResultStatus STATUS = ScanResultStatus.PROCESSING;
 
     protected static final Integer PAGE_SIZE = 20;
 
+    /**
+     * Bounds how many pages are checked in a single run, so that the scheduler re-evaluates between runs
+     */
+    protected static final Integer MAX_PAGES_PER_RUN = 10;
+
+    protected static final UrlScanRateLimiter.Action ACTION = UrlScanRateLimiter.Action.RESULT;
+
     private final ScanService scanService;
 
     private final UrlScanClient urlScanClient;
 
-    private final Delay delay;
+    private final LeaseRequest statusPollerLease;
+
+    private final StatusCheckScheduler statusCheckScheduler;
 
     private final Clock clock;
 
-    public void poll() {
+    /**
+     * Checks the status of due scan results with urlscan.io, up to a bounded number of pages per run. Once a check is
+     * throttled, the throttled scan result and the rest of its page are released, so that they can be claimed again
+     * once the rate limit resets without waiting for their leases to expire
+     *
+     * @return the outcome of the run, which reports a backlog if the run stopped before all due scan results were checked
+     */
+    public RunOutcome poll() {
         Instant now = clock.instant();
-        Optional<Instant> delayTime = delay.getTime();
+        Optional<Instant> delayTime = urlScanClient.getThrottleReset(ACTION);
         log.info("Polling for scan results to update scan status: status={} now={}", STATUS, now);
         if (
             delayTime.map(time -> time.isAfter(now))
                 .orElse(false)
         ) {
-            log.info("Requested delay has not been met; cancelling: delay={} now={}", delayTime, now);
+            log.info("Rate limit has not reset; cancelling: delay={} now={}", delayTime, now);
 
-            return;
+            return RunOutcome.builder()
+                .processed(0)
+                .backlog(true)
+                .throttledUntil(delayTime.get())
+                .build();
         }
 
-        Integer totalPages;
-        Integer page = 0;
+        // Claimed scan results leave the set of due scan results, either through a status update, a newly scheduled
+        // check or their lease, so the next claim always picks up where the previous one left off
+        int processed = 0;
+        int pages = 0;
+        List<DueScanResult> scanResultList;
         do {
-            PageRequest pageRequest = PageRequest.builder()
-                .page(page)
-                .pageSize(PAGE_SIZE)
-                .build();
-            Page<ScanResult> scanResultPage = scanService.listScanResults(STATUS, pageRequest);
-            List<ScanResult> scanResultList = scanResultPage.getData();
-            log.info("Retrieved scan results for checking scan status: scanResultList={}", scanResultList);
-            for (ScanResult scanResult : scanResultList) {
-                Optional<Instant> delayUntil = process(scanResult);
-                if (delayUntil.isPresent()) {
-                    delay.setTime(delayUntil.get());
-                    return;
+            scanResultList = scanService.claimDueScanResults(STATUS, PAGE_SIZE, statusPollerLease);
+            pages++;
+            log.info("Claimed due scan results for checking scan status: scanResultList={}", scanResultList);
+            List<ScanResultUpdateRequest> updateRequests = new ArrayList<>();
+            List<ScanResultCheckRequest> checkRequests = new ArrayList<>();
+            Optional<Instant> throttledUntil = Optional.empty();
+            List<DueScanResult> uncheckedScanResultList = List.of();
+            try {
+                for (int i = 0; i < scanResultList.size(); i++) {
+                    // The rate limiter holds back further requests until the reset time, so the run only needs to stop polling
+                    throttledUntil = processUnlessFailed(scanResultList.get(i), updateRequests, checkRequests);
+                    if (throttledUntil.isPresent()) {
+                        uncheckedScanResultList = scanResultList.subList(i, scanResultList.size());
+                        break;
+                    }
                 }
+            } finally {
+                // Updates and next checks of scan results checked so far are applied even if the run stops early
+                scanService.updateScanResults(updateRequests, checkRequests, statusPollerLease);
             }
+            // Only checks that recorded an update or scheduled a next check count as processed
+            processed += updateRequests.size() + checkRequests.size();
+            if (throttledUntil.isPresent()) {
+                List<Long> uncheckedScanResultIds = uncheckedScanResultList.stream()
+                    .map(DueScanResult::getId)
+                    .toList();
+                log.info("Throttled during status checks; releasing unchecked scan results: scanResultIds={}", uncheckedScanResultIds);
+                scanService.releaseScanResults(uncheckedScanResultIds, statusPollerLease);
+
+                return RunOutcome.builder()
+                    .processed(processed)
+                    .backlog(true)
+                    .throttledUntil(throttledUntil.get())
+                    .build();
+            }
+        } while (scanResultList.size() >= PAGE_SIZE && pages < MAX_PAGES_PER_RUN);
 
+        return RunOutcome.builder()
+            .processed(processed)
+            .backlog(scanResultList.size() >= PAGE_SIZE)
+            .build();
+    }
 
-            totalPages = scanResultPage.getTotalPages();
-            page++;
-        } while (page < totalPages);
+    /**
+     * Checks a scan result, so that a failed check does not stop the checks of the rest of the page. A scan result whose
+     * check failed keeps its lease, and is checked again once the lease expires
+     */
+    private Optional<Instant> processUnlessFailed(
+        DueScanResult scanResult,
+        List<ScanResultUpdateRequest> updateRequests,
+        List<ScanResultCheckRequest> checkRequests
+    ) {
+        try {
+            return process(scanResult, updateRequests, checkRequests);
+        } catch (RuntimeException e) {
+            log.warn("Failed to check scan status; retrying once lease expires: scanResultId={}", scanResult.getId(), e);
+
+            return Optional.empty();
+        }
     }
 
-    private Optional<Instant> process(ScanResult scanResult) {
+    private Optional<Instant> process(
+        DueScanResult scanResult,
+        List<ScanResultUpdateRequest> updateRequests,
+        List<ScanResultCheckRequest> checkRequests
+    ) {
         ResponseEntity<GetResultResponse> responseEntity = urlScanClient.getResult(scanResult.getUrlScanId());
         HttpStatusCode statusCode = responseEntity.getStatusCode();
         GetResultResponse response = responseEntity.getBody();
 
         // If the status was a 200, then the report is now ready
         if (HttpStatus.OK.equals(statusCode)) {
-            scanService.updateScanResult(
-                scanResult.getId(),
-                ScanResultStatus.DONE,
-                Optional.empty(),
-                Optional.empty(),
-                Optional.empty()
+            updateRequests.add(
+                ScanResultUpdateRequest.builder()
+                    .scanResultId(scanResult.getId())
+                    .expectedStatus(STATUS)
+                    .status(ScanResultStatus.DONE)
+                    .build()
             );
 
             return Optional.empty();
@@ -133,25 +175,34 @@ public class StatusPoller {
             return resetTime;
         }
 
-        // If the result is still in progress, then wait to retry later
+        // If the result is still in progress, then schedule when to check again
         if (urlScanClient.isInProgress(responseEntity)) {
+            Instant checkedAt = clock.instant();
+            checkRequests.add(
+                ScanResultCheckRequest.builder()
+                    .scanResultId(scanResult.getId())
+                    .nextCheckAt(statusCheckScheduler.getNextCheckAt(scanResult, checkedAt))
+                    .checkedAt(checkedAt)
+                    .build()
+            );
+
             return Optional.empty();
         }
 
         // If it is a standard 4xx error, then the scanning has failed
         if (statusCode.is4xxClientError()) {
-            scanService.updateScanResult(
-                scanResult.getId(),
-                ScanResultStatus.FAILED,
-                Optional.of(
-                    ScanResult.StatusDetails.builder()
-                        .code(response.getStatus())
-                        .message(response.getMessage())
-                        .description(response.getDescription())
-                        .build()
-                ),
-                Optional.empty(),
-                Optional.empty()
+            updateRequests.add(
+                ScanResultUpdateRequest.builder()
+                    .scanResultId(scanResult.getId())
+                    .expectedStatus(STATUS)
+                    .status(ScanResultStatus.FAILED)
+                    .statusDetails(
+                        ScanResult.StatusDetails.builder()
+                            .code(response.getStatus())
+                            .message(response.getMessage())
+                            .description(response.getDescription())
+                            .build()
+                    ).build()
             );
 
             return Optional.empty();
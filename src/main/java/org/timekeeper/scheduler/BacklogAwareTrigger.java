@@ -0,0 +1,62 @@
+package org.timekeeper.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs a worker and schedules its next run based on the outcome of the last run:
+ * immediately while a backlog remains, at the idle interval once the backlog is drained, and never before urlscan.io
+ * requests stop being throttled.
+ * A run which fails is treated as having drained its backlog, so that a persistent failure does not spin the worker
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BacklogAwareTrigger implements Trigger, Runnable {
+
+    private final Supplier<RunOutcome> worker;
+
+    private final Duration idleInterval;
+
+    private final Clock clock;
+
+    private final AtomicReference<RunOutcome> lastOutcome = new AtomicReference<>();
+
+    @Override
+    public void run() {
+        lastOutcome.set(null);
+        lastOutcome.set(worker.get());
+    }
+
+    @Override
+    public Instant nextExecution(TriggerContext triggerContext) {
+        Instant lastCompletion = triggerContext.lastCompletion();
+        if (lastCompletion == null) {
+            return clock.instant();
+        }
+
+        Instant nextExecution = getNextExecution(Optional.ofNullable(lastOutcome.get()), lastCompletion);
+        log.info("Scheduling next run: lastOutcome={} lastCompletion={} nextExecution={}", lastOutcome.get(), lastCompletion, nextExecution);
+
+        return nextExecution;
+    }
+
+    private Instant getNextExecution(Optional<RunOutcome> outcome, Instant lastCompletion) {
+        Instant nextExecution = outcome.map(RunOutcome::getBacklog).orElse(false)
+            ? lastCompletion
+            : lastCompletion.plus(idleInterval);
+
+        return outcome.flatMap(RunOutcome::getThrottledUntil)
+            .filter(throttledUntil -> throttledUntil.isAfter(nextExecution))
+            .orElse(nextExecution);
+    }
+
+}
@@ -0,0 +1,64 @@
+package org.timekeeper.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Runs a worker task shortly after being woken up, in addition to its regular schedule.
+ * Wakeups that arrive while a run is already pending are coalesced into that run, so that a burst of wakeups results
+ * in a single run. A wakeup that arrives while the task is running schedules one more run, as the running task may
+ * have already passed over the work that caused the wakeup.
+ * The task is run on the same single threaded executor as its regular schedule, so runs never overlap.
+ * A run that leaves a backlog without being throttled is followed immediately by another run, while throttled runs
+ * leave it to the regular schedule to resume once the throttle resets
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CoalescingWakeup {
+
+    private final ScheduledExecutorService executor;
+
+    private final Supplier<RunOutcome> task;
+
+    /**
+     * How long to wait after a wakeup before running the task, during which further wakeups are coalesced
+     */
+    private final Duration delay;
+
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+
+    public void wakeup() {
+        if (!pending.compareAndSet(false, true)) {
+            log.debug("Run already pending; coalescing wakeup");
+
+            return;
+        }
+
+        log.info("Woken up; scheduling run: delay={}", delay);
+        executor.schedule(this::run, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void run() {
+        pending.set(false);
+        RunOutcome outcome;
+        try {
+            outcome = task.get();
+        } catch (RuntimeException e) {
+            log.error("Run after wakeup failed", e);
+
+            return;
+        }
+
+        if (outcome.getBacklog() && outcome.getThrottledUntil().isEmpty() && pending.compareAndSet(false, true)) {
+            log.info("Backlog remains after wakeup; running again: outcome={}", outcome);
+            executor.execute(this::run);
+        }
+    }
+
+}
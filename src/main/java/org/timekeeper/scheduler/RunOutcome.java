@@ -0,0 +1,36 @@
+package org.timekeeper.scheduler;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Outcome of a single run of a worker, used to decide when the worker should run next
+ */
+@Value
+@Builder(toBuilder = true)
+public class RunOutcome {
+
+    /**
+     * Number of items that were handled during the run, counting only those whose outcome was recorded (ex: an updated
+     * status or a scheduled next check), and not those whose request failed or was throttled
+     */
+    Integer processed;
+
+    /**
+     * Whether the run stopped while there were still scan results pending
+     */
+    Boolean backlog;
+
+    /**
+     * Time until which urlscan.io requests are held back, if the run was throttled
+     */
+    Instant throttledUntil;
+
+    public Optional<Instant> getThrottledUntil() {
+        return Optional.ofNullable(throttledUntil);
+    }
+
+}
@@ -0,0 +1,69 @@
+package org.timekeeper.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.timekeeper.database.postgresql.model.ScanResultOutboxEntity;
+import org.timekeeper.database.postgresql.repository.ScanResultOutboxRepository;
+import org.timekeeper.model.ScanResultEvent;
+import org.timekeeper.model.request.LeaseRequest;
+import org.timekeeper.model.transform.ScanResultEventTransform;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service layer responsible for handling business logic related to the outbox of scan result status transitions
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final Clock clock;
+
+    private final ScanResultOutboxRepository scanResultOutboxRepository;
+
+    /**
+     * Claims the oldest transitions in the outbox, in ascending order of ID, by leasing them to the requesting relay until
+     * they are completed or the lease expires. Nothing is claimed while another relay holds an unexpired lease, so that
+     * relays take turns without holding a transaction open while they publish, and transitions claimed by a relay that
+     * failed to publish them are claimed again by the same relay, or by any relay once the lease expires
+     *
+     * @param limit        the maximum number of transitions to claim
+     * @param leaseRequest the owner and duration of the lease to take on claimed transitions
+     * @return the claimed transitions in ascending order of ID
+     */
+    @Transactional
+    public List<ScanResultEvent> claimEvents(Integer limit, LeaseRequest leaseRequest) {
+        Instant now = clock.instant();
+        Instant leaseExpiresAt = now.plus(leaseRequest.getDuration());
+        scanResultOutboxRepository.lockClaims();
+        List<ScanResultOutboxEntity> outboxEntityList = scanResultOutboxRepository.claimOldest(leaseRequest.getOwner(), leaseExpiresAt, now, limit);
+
+        return outboxEntityList.stream()
+            .map(ScanResultEventTransform::apply)
+            .toList();
+    }
+
+    /**
+     * Removes relayed transitions from the outbox with a single statement. Transitions which have since been claimed by
+     * another relay are left untouched
+     *
+     * @param eventIds     IDs of the relayed transitions
+     * @param leaseRequest the lease that was taken when the transitions were claimed
+     */
+    @Transactional
+    public void completeEvents(Collection<Long> eventIds, LeaseRequest leaseRequest) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+
+        int deleted = scanResultOutboxRepository.deleteLeased(eventIds, leaseRequest.getOwner());
+        log.info("Relayed scan result events: count={} deleted={}", eventIds.size(), deleted);
+    }
+
+}
@@ -0,0 +1,123 @@
+package org.timekeeper.service;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.timekeeper.database.postgresql.listener.NotificationPayloads;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-process index of the URLs that scan results were created for within a retention period, used to skip the check for
+ * a duplicate scan of the user when creating scans.
+ * URLs are keyed by the 64-bit fingerprint of their canonical form. A bloom filter answers whether a URL may have been
+ * scanned at all, so that URLs that have not been scanned (the common case) skip the check entirely.
+ * Bloom filters cannot forget entries, so two generations are kept and rotated once per retention period, which keeps
+ * every entry for at least the retention period and at most twice it.
+ * Until the index is marked ready (once it has been loaded with the scan results already in Postgres), every URL is
+ * reported as possibly scanned, so that callers fall back to the check. The index is marked not ready whenever it may
+ * have missed a notification, and is ready again once it has been reloaded
+ */
+@Slf4j
+public class RecentScanIndex {
+
+    private static final Double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    @Value
+    private static class Generations {
+
+        BloomFilter<Long> current;
+
+        BloomFilter<Long> previous;
+
+        Instant startedAt;
+
+    }
+
+    private final Clock clock;
+
+    private final Duration retention;
+
+    private final Long expectedInsertions;
+
+    private final AtomicReference<Generations> generations;
+
+    private volatile boolean ready;
+
+    public RecentScanIndex(Clock clock, Duration retention, Long expectedInsertions) {
+        this.clock = clock;
+        this.retention = retention;
+        this.expectedInsertions = expectedInsertions;
+        this.generations = new AtomicReference<>(
+            new Generations(newBloomFilter(), newBloomFilter(), clock.instant())
+        );
+    }
+
+    public void markReady() {
+        ready = true;
+        log.info("Recent scan index is ready: approximateIndexedUrls={}", generations.get().getCurrent().approximateElementCount());
+    }
+
+    public void markNotReady() {
+        if (ready) {
+            ready = false;
+            log.info("Recent scan index is not ready; falling back to duplicate scan checks");
+        }
+    }
+
+    /**
+     * @param urlFingerprint the fingerprint of the URL to check
+     * @return false if no scan result has been created for the URL within the retention period; true if one may have been
+     */
+    public boolean mightContain(Long urlFingerprint) {
+        if (!ready) {
+            return true;
+        }
+
+        Generations current = rotateIfExpired();
+        return current.getCurrent().mightContain(urlFingerprint) || current.getPrevious().mightContain(urlFingerprint);
+    }
+
+    /**
+     * Records the URLs of scan results published through {@link NotificationPayloads#pack}
+     */
+    public void handleNotification(String payload) {
+        NotificationPayloads.unpack(payload).stream()
+            .map(entry -> Long.parseUnsignedLong(entry, 16))
+            .forEach(this::record);
+    }
+
+    /**
+     * Formats the URL of a created scan result as a notification entry, to be published with {@link NotificationPayloads#pack}
+     */
+    public static String toNotificationEntry(Long urlFingerprint) {
+        return Long.toHexString(urlFingerprint);
+    }
+
+    public void record(Long urlFingerprint) {
+        rotateIfExpired().getCurrent().put(urlFingerprint);
+    }
+
+    private Generations rotateIfExpired() {
+        Generations current = generations.get();
+        Instant now = clock.instant();
+        if (current.getStartedAt().plus(retention).isAfter(now)) {
+            return current;
+        }
+
+        Generations rotated = new Generations(newBloomFilter(), current.getCurrent(), now);
+        if (generations.compareAndSet(current, rotated)) {
+            log.info("Rotated recent scan index bloom filter: startedAt={}", now);
+        }
+        return generations.get();
+    }
+
+    private BloomFilter<Long> newBloomFilter() {
+        return BloomFilter.create(Funnels.longFunnel(), expectedInsertions, FALSE_POSITIVE_PROBABILITY);
+    }
+
+}
@@ -0,0 +1,192 @@
+package org.timekeeper.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.timekeeper.model.ChangeFeedCursor;
+import org.timekeeper.model.ScanVersion;
+import org.timekeeper.model.UpdatedScanResults;
+import org.timekeeper.model.transform.ChangeFeedCursorTokenTransform;
+import org.timekeeper.model.transform.UpdatedScanResultsTransform;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Streams the status changes of scans to the event streams of the users that own them, as server-sent events.
+ * The IDs of updated scan results are published through {@link #handleNotification}; the scans sharing them are then
+ * retrieved with a single query per notification and routed to every event stream of their users, so the cost of a
+ * status change does not grow with the number of connected users.
+ * Publishing, resuming and registering event streams all run on a single publisher thread, so that an event stream
+ * resuming from the last event its client received is registered for new events exactly once its missed events have
+ * been read, and so that no event is older than an event published before it. Sending runs on a separate executor with
+ * a bounded buffer per event stream (see {@link ScanEventSubscription}).
+ * Each status event carries a change feed cursor as its ID (see {@link ScanService#listScanChanges}), which clients send
+ * back as the Last-Event-ID header when they reconnect. The cursor is the complete position of the change feed as of
+ * the change, rather than the position of the change itself, as changes may commit out of order: every change below it
+ * was published before the event. Changes at or above it are sent again on resume; events are the latest status of a
+ * scan, so clients may apply a repeated event again
+ */
+@Slf4j
+public class ScanEventBroadcaster {
+
+    protected static final String STATUS_EVENT = "status";
+
+    /**
+     * Sent instead of missed events when too many scans changed while the client was disconnected, telling it to list
+     * its scans again rather than expect every change
+     */
+    protected static final String RESET_EVENT = "reset";
+
+    protected static final String HEARTBEAT_COMMENT = "heartbeat";
+
+    private final ScanService scanService;
+
+    private final Executor publisher;
+
+    private final Executor sender;
+
+    private final Integer bufferCapacity;
+
+    private final Map<String, Set<ScanEventSubscription>> subscriptions = new ConcurrentHashMap<>();
+
+    public ScanEventBroadcaster(ScanService scanService, Executor publisher, Executor sender, Integer bufferCapacity) {
+        this.scanService = scanService;
+        this.publisher = publisher;
+        this.sender = sender;
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    /**
+     * Streams the status changes of the scans of a user to an emitter until it completes
+     *
+     * @param userId          the ID of the user whose scans are streamed
+     * @param emitter         the emitter of the event stream of the client
+     * @param lastEventCursor the position of the last event the client received, if it is resuming its event stream
+     */
+    public void subscribe(String userId, SseEmitter emitter, Optional<ChangeFeedCursor> lastEventCursor) {
+        ScanEventSubscription subscription = new ScanEventSubscription(userId, emitter, sender, bufferCapacity);
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(e -> unsubscribe(subscription));
+
+        publisher.execute(() -> {
+            lastEventCursor.ifPresent(cursor -> resume(subscription, cursor));
+            subscriptions.compute(userId, (id, userSubscriptions) -> {
+                if (subscription.isClosed()) {
+                    return userSubscriptions;
+                }
+
+                Set<ScanEventSubscription> updatedSubscriptions = userSubscriptions == null
+                    ? ConcurrentHashMap.newKeySet()
+                    : userSubscriptions;
+                updatedSubscriptions.add(subscription);
+                return updatedSubscriptions;
+            });
+            log.info("Subscribed to scan events: userId={} lastEventCursor={}", userId, lastEventCursor);
+        });
+    }
+
+    /**
+     * Publishes the status changes of the scans of the scan results whose IDs are published as the notification payload
+     */
+    public void handleNotification(String payload) {
+        UpdatedScanResults updatedScanResults = UpdatedScanResultsTransform.apply(payload);
+        publisher.execute(() -> publish(updatedScanResults));
+    }
+
+    /**
+     * Sends a comment on every event stream, which keeps idle streams open through proxies and detects clients that
+     * have gone away without closing their connection
+     */
+    public void sendHeartbeats() {
+        subscriptions.values().forEach(userSubscriptions ->
+            userSubscriptions.forEach(subscription -> subscription.offer(SseEmitter.event().comment(HEARTBEAT_COMMENT)))
+        );
+    }
+
+    /**
+     * @return the number of open event streams across all users
+     */
+    public int size() {
+        return subscriptions.values().stream()
+            .mapToInt(Set::size)
+            .sum();
+    }
+
+    private void publish(UpdatedScanResults updatedScanResults) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+
+        List<Long> scanResultIds = updatedScanResults.getScanResultIds();
+        String eventId = toEventId(updatedScanResults.getCompletePosition());
+        Map<String, List<ScanVersion>> scanVersionsByUser;
+        try {
+            scanVersionsByUser = scanService.listScanVersionsByUser(scanResultIds);
+        } catch (RuntimeException e) {
+            log.error("Failed to retrieve updated scans; dropping events: scanResultIds={}", scanResultIds, e);
+            return;
+        }
+
+        scanVersionsByUser.forEach((userId, scanVersionList) ->
+            Optional.ofNullable(subscriptions.get(userId))
+                .ifPresent(userSubscriptions -> userSubscriptions.forEach(subscription ->
+                    scanVersionList.forEach(scanVersion -> subscription.offer(toStatusEvent(scanVersion, eventId)))
+                ))
+        );
+    }
+
+    private void resume(ScanEventSubscription subscription, ChangeFeedCursor lastEventCursor) {
+        String userId = subscription.getUserId();
+        // Half of the buffer is left for the events published while the missed events are being sent
+        int resumeLimit = bufferCapacity / 2;
+        String eventId;
+        List<ScanVersion> scanVersionList;
+        try {
+            // Read before the missed changes, so that every change below it is visible to them
+            eventId = toEventId(scanService.getCompleteChangePosition());
+            scanVersionList = scanService.listScanVersionsChangedAfter(userId, lastEventCursor, resumeLimit + 1);
+        } catch (RuntimeException e) {
+            log.error("Failed to retrieve missed scan events; resetting event stream: userId={}", userId, e);
+            subscription.offer(SseEmitter.event().name(RESET_EVENT).data(""));
+            return;
+        }
+
+        log.info("Resuming scan events: userId={} lastEventCursor={} missedEvents={}", userId, lastEventCursor, scanVersionList.size());
+        if (scanVersionList.size() > resumeLimit) {
+            subscription.offer(SseEmitter.event().name(RESET_EVENT).data(""));
+            return;
+        }
+        scanVersionList.forEach(scanVersion -> subscription.offer(toStatusEvent(scanVersion, eventId)));
+    }
+
+    private void unsubscribe(ScanEventSubscription subscription) {
+        subscription.close();
+        subscriptions.computeIfPresent(subscription.getUserId(), (id, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+    }
+
+    private static String toEventId(Long completePosition) {
+        return ChangeFeedCursorTokenTransform.apply(
+            ChangeFeedCursor.builder()
+                .position(completePosition)
+                .scanId(0L)
+                .build()
+        );
+    }
+
+    private static SseEmitter.SseEventBuilder toStatusEvent(ScanVersion scanVersion, String eventId) {
+        return SseEmitter.event()
+            .id(eventId)
+            .name(STATUS_EVENT)
+            .data(scanVersion, MediaType.APPLICATION_JSON);
+    }
+
+}
@@ -0,0 +1,102 @@
+package org.timekeeper.service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The event stream of a single client, buffering the events published to it until they are sent.
+ * Events are sent on a shared executor, at most one drain per subscription at a time, so that a client that reads slowly
+ * only holds up its own events. The buffer is bounded; a client that falls so far behind that its buffer fills up is
+ * evicted by completing its stream, and is expected to reconnect and resume from the last event it received
+ */
+@Slf4j
+class ScanEventSubscription {
+
+    @Getter
+    private final String userId;
+
+    private final SseEmitter emitter;
+
+    private final Executor sender;
+
+    private final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    private volatile boolean evicted;
+
+    private volatile boolean closed;
+
+    ScanEventSubscription(String userId, SseEmitter emitter, Executor sender, Integer bufferCapacity) {
+        this.userId = userId;
+        this.emitter = emitter;
+        this.sender = sender;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+    }
+
+    /**
+     * Buffers an event to be sent, evicting the subscription if its buffer is full
+     */
+    void offer(SseEmitter.SseEventBuilder event) {
+        if (closed || evicted) {
+            return;
+        }
+
+        if (!buffer.offer(event)) {
+            log.warn("Event stream buffer is full; evicting slow consumer: userId={} bufferedEvents={}", userId, buffer.size());
+            evicted = true;
+            buffer.clear();
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Stops sending events once the stream has completed, dropping any events that are still buffered
+     */
+    void close() {
+        closed = true;
+        buffer.clear();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            sender.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!closed && !evicted && (event = buffer.poll()) != null) {
+                emitter.send(event);
+            }
+            if (evicted && !closed) {
+                closed = true;
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client has gone away, which the container reports to the completion callbacks of the emitter
+            log.debug("Failed to send event; closing event stream: userId={}", userId, e);
+            close();
+        } finally {
+            draining.set(false);
+        }
+
+        // Events buffered after the last poll but before draining was reset would otherwise wait for the next event
+        if (!closed && !buffer.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+}
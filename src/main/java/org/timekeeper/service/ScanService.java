@@ -2,34 +2,80 @@ package org.timekeeper.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.timekeeper.database.postgresql.listener.NotificationPayloads;
+import org.timekeeper.database.postgresql.model.CreatedScan;
+import org.timekeeper.database.postgresql.model.ScanChangeEntity;
 import org.timekeeper.database.postgresql.model.ScanEntity;
 import org.timekeeper.database.postgresql.model.ScanResultEntity;
+import org.timekeeper.database.postgresql.model.ScanRow;
+import org.timekeeper.database.postgresql.model.ScanSummaryRow;
+import org.timekeeper.database.postgresql.model.ScanVersionRow;
+import org.timekeeper.database.postgresql.model.UrlDedupeMatch;
 import org.timekeeper.database.postgresql.model.transform.PageRequestTransform;
+import org.timekeeper.database.postgresql.repository.ScanChangeRepository;
 import org.timekeeper.database.postgresql.repository.ScanRepository;
 import org.timekeeper.database.postgresql.repository.ScanResultRepository;
+import org.timekeeper.database.postgresql.repository.WebhookDeliveryRepository;
+import org.timekeeper.exception.CursorExpiredException;
 import org.timekeeper.exception.DuplicateRequestException;
+import org.timekeeper.exception.IllegalStatusTransitionException;
 import org.timekeeper.exception.ResourceNotFoundException;
+import org.timekeeper.model.ChangeFeedCursor;
+import org.timekeeper.model.Cursor;
+import org.timekeeper.model.CursorPage;
+import org.timekeeper.model.DueScanResult;
 import org.timekeeper.model.Page;
 import org.timekeeper.model.Scan;
+import org.timekeeper.model.ScanChangePage;
+import org.timekeeper.model.ScanCreation;
+import org.timekeeper.model.ScanLookup;
 import org.timekeeper.model.ScanResult;
 import org.timekeeper.model.ScanResultStatus;
 import org.timekeeper.model.ScanSummary;
+import org.timekeeper.model.ScanVersion;
+import org.timekeeper.model.request.CursorPageRequest;
+import org.timekeeper.model.request.LeaseRequest;
 import org.timekeeper.model.request.PageRequest;
+import org.timekeeper.model.request.ScanResultCheckRequest;
+import org.timekeeper.model.request.ScanResultUpdateRequest;
+import org.timekeeper.model.transform.CanonicalUrlTransform;
+import org.timekeeper.model.transform.ChangeFeedCursorTokenTransform;
+import org.timekeeper.model.transform.CursorPageTransform;
+import org.timekeeper.model.transform.CursorTransform;
+import org.timekeeper.model.transform.DueScanResultTransform;
 import org.timekeeper.model.transform.PageTransform;
+import org.timekeeper.model.transform.ScanChangeTransform;
 import org.timekeeper.model.transform.ScanResultTransform;
 import org.timekeeper.model.transform.ScanSummaryTransform;
 import org.timekeeper.model.transform.ScanTransform;
+import org.timekeeper.model.transform.ScanVersionTransform;
+import org.timekeeper.model.transform.UrlFingerprintTransform;
 
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
-import static org.timekeeper.database.postgresql.repository.Constants.DEFAULT_REVERSE_SORT;
 import static org.timekeeper.database.postgresql.repository.Constants.DEFAULT_SORT;
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_DELETED_CHANNEL;
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_RESULT_CREATED_CHANNEL;
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_RESULT_STATUS_CHANNEL;
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_RESULT_UPDATED_CHANNEL;
 
 /**
  * Service layer responsible for handling business logic related to scans
@@ -39,7 +85,24 @@ import static org.timekeeper.database.postgresql.repository.Constants.DEFAULT_SO
 @RequiredArgsConstructor
 public class ScanService {
 
-    protected static final Duration SCAN_DEDUPE_DURATION = Duration.of(1, ChronoUnit.HOURS);
+    public static final Duration SCAN_DEDUPE_DURATION = Duration.of(1, ChronoUnit.HOURS);
+
+    /**
+     * The recent scan index holds the URLs of scan results for two dedupe windows, as a scan within the dedupe window may
+     * reuse a scan result created up to a window before it
+     */
+    public static final Duration RECENT_SCAN_RETENTION = SCAN_DEDUPE_DURATION.multipliedBy(2);
+
+    /**
+     * urlscan.io does not finish scans in less than 10 seconds, so the first status check is not due until then
+     */
+    public static final Duration INITIAL_CHECK_DELAY = Duration.of(10, ChronoUnit.SECONDS);
+
+    /**
+     * How long the tombstones of deleted scans are kept in the change feed, and therefore how long a change feed cursor
+     * may at least be resumed from without missing a deletion
+     */
+    public static final Duration CHANGE_FEED_RETENTION = Duration.of(7, ChronoUnit.DAYS);
 
     private final Clock clock;
 
@@ -47,10 +110,22 @@ public class ScanService {
 
     private final ScanResultRepository scanResultRepository;
 
+    private final ScanChangeRepository scanChangeRepository;
+
+    private final WebhookDeliveryRepository webhookDeliveryRepository;
+
+    private final RecentScanIndex recentScanIndex;
+
+    private final TerminalScanCache terminalScanCache;
+
     /**
      * Creates a scan for the given user with the requested URL.
      * Prevents the creation of multiple URL scans from the same user within the dedupe period
      * Reuses scan results for the same url across users within the dedupe period
+     * URLs are canonicalized before deduplication, so that equivalent spellings of a URL share scans and scan results
+     * The scan is created with a single statement that claims the URL for deduplication, so concurrent requests for the
+     * same URL share a single scan result. URLs that the recent scan index has not seen within the dedupe period skip the
+     * check for a duplicate scan of the user
      *
      * @param userId the ID of the user that is making the request
      * @param url    the URL that is requested to be scanned
@@ -64,50 +139,202 @@ public class ScanService {
     ) {
         Instant now = clock.instant();
         Instant dedupeCutoff = now.minus(SCAN_DEDUPE_DURATION);
-        log.info("Creating scan: userId={} url={} dedupeCutoff={}", userId, url, dedupeCutoff);
+        String canonicalUrl = CanonicalUrlTransform.apply(url);
+        Long urlFingerprint = UrlFingerprintTransform.apply(canonicalUrl);
+        boolean checkDuplicate = recentScanIndex.mightContain(urlFingerprint);
+        log.info("Creating scan: userId={} url={} canonicalUrl={} dedupeCutoff={} checkDuplicate={}", userId, url, canonicalUrl, dedupeCutoff, checkDuplicate);
+        CreatedScan createdScan = scanRepository.createScan(
+            userId,
+            canonicalUrl,
+            urlFingerprint,
+            now,
+            dedupeCutoff,
+            checkDuplicate,
+            SCAN_RESULT_STATUS_CHANNEL,
+            ScanResultStatus.SUBMITTED.name(),
+            SCAN_RESULT_CREATED_CHANNEL,
+            RecentScanIndex.toNotificationEntry(urlFingerprint)
+        );
+        // Recorded without waiting for the notification, which may be missed. If the transaction rolls back, the URL is
+        // only a false positive of the index, which falls back to the check for a duplicate scan
+        recentScanIndex.record(urlFingerprint);
         // If the user has already submitted a scan request with the same URL, throw a duplicate request exception
-        scanRepository.findFirstByUserIdAndResult_UrlAndCreatedAtAfter(userId, url, dedupeCutoff, DEFAULT_SORT)
-            .ifPresent(scan -> {
-                throw new DuplicateRequestException(
-                    String.format(
-                        "Duplicate scan request scan found: url=%s scanId=%s", url, scan.getId()
-                    )
-                );
-            });
-        // If there is a scan result that was submitted within the dedupe window across users, use that result
-        Optional<ScanResultEntity> scanResultEntityOptional = scanResultRepository
-            .findFirstByUrlAndCreatedAtAfter(url, dedupeCutoff, DEFAULT_SORT);
-        if (scanResultEntityOptional.isPresent()) {
-            ScanResultEntity scanResultEntity = scanResultEntityOptional.get();
-            log.info("Existing scan result within deduplication window was found; using instead of creating new result: result={} dedupeCutoff={}", scanResultEntity, dedupeCutoff);
-
-            ScanEntity scanEntity = scanRepository.save(
-                ScanEntity.builder()
-                    .userId(userId)
-                    .result(scanResultEntity)
-                    .build()
+        if (createdScan.getDuplicateScanId() != null) {
+            throw new DuplicateRequestException(
+                String.format(
+                    "Duplicate scan request scan found: url=%s scanId=%s", canonicalUrl, createdScan.getDuplicateScanId()
+                )
             );
-            log.info("Successfully created scan: scanEntity={}", scanEntity);
-
-            return ScanTransform.apply(scanEntity);
         }
 
-        ScanEntity scanEntity = scanRepository.save(
-            ScanEntity.builder()
+        if (createdScan.getNewResult()) {
+            // Every column of a new scan and scan result is known, so the scan is not read back
+            ScanEntity scanEntity = ScanEntity.builder()
+                .id(createdScan.getScanId())
                 .userId(userId)
                 .result(
                     ScanResultEntity.builder()
+                        .id(createdScan.getScanResultId())
+                        .url(canonicalUrl)
+                        .urlFingerprint(urlFingerprint)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build()
+                )
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+            log.info("Successfully created scan: scanEntity={}", scanEntity);
+
+            return ScanTransform.apply(scanEntity);
+        }
+
+        // The scan reused a scan result that was submitted within the dedupe window across users
+        ScanEntity scanEntity = scanRepository.findWithResultById(createdScan.getScanId())
+            .orElseThrow(() ->
+                new ResourceNotFoundException(
+                    String.format("Scan not found: scanId=%s", createdScan.getScanId())
+                )
+            );
+        log.info("Existing scan result within deduplication window was used instead of creating new result: scanEntity={} dedupeCutoff={}", scanEntity, dedupeCutoff);
+
+        return ScanTransform.apply(scanEntity);
+    }
+
+    /**
+     * Creates scans for the given user for a batch of URLs, with the same deduplication as {@link #createScan} applied to
+     * each URL. Existing scans and scan results of the URLs are looked up with a single set-based query, and the new scans
+     * and scan results are inserted in JDBC batches rather than one statement per URL, then claimed for deduplication of
+     * later scans with a single upsert. New scans of reused scan results that have already finished are delivered to
+     * the webhooks of the user. Unlike {@link #createScan}, URLs are not claimed before they are looked up, so
+     * a concurrent request for the same URL may still create a second scan result.
+     * A URL that is repeated within the batch, including as an equivalent spelling of the same canonical URL, is created
+     * once, with later occurrences reported as duplicates of it.
+     *
+     * @param userId the ID of the user that is making the request
+     * @param urls   the URLs that are requested to be scanned
+     * @return the outcome for each URL, in the order of the requested URLs
+     */
+    @Transactional
+    public List<ScanCreation> createScans(
+        String userId,
+        List<String> urls
+    ) {
+        if (urls.isEmpty()) {
+            return List.of();
+        }
+
+        Instant now = clock.instant();
+        Instant dedupeCutoff = now.minus(SCAN_DEDUPE_DURATION);
+        Map<String, String> canonicalUrlMap = urls.stream()
+            .distinct()
+            .collect(Collectors.toMap(Function.identity(), CanonicalUrlTransform::apply));
+        Map<String, Long> urlFingerprintMap = new LinkedHashMap<>();
+        urls.stream()
+            .map(canonicalUrlMap::get)
+            .forEach(canonicalUrl -> urlFingerprintMap.computeIfAbsent(canonicalUrl, UrlFingerprintTransform::apply));
+        Set<String> distinctUrls = urlFingerprintMap.keySet();
+        log.info("Creating scans: userId={} urlCount={} distinctUrlCount={} dedupeCutoff={}", userId, urls.size(), distinctUrls.size(), dedupeCutoff);
+        Map<String, UrlDedupeMatch> dedupeMatchMap = scanResultRepository.findDedupeMatches(userId, Set.copyOf(urlFingerprintMap.values()), distinctUrls, dedupeCutoff).stream()
+            .collect(Collectors.toMap(UrlDedupeMatch::getUrl, Function.identity()));
+        // Scan results within the dedupe window across users are reused, unless the user already scanned the URL
+        List<Long> reusedScanResultIds = dedupeMatchMap.values().stream()
+            .filter(dedupeMatch -> dedupeMatch.getDuplicateScanId() == null)
+            .map(UrlDedupeMatch::getScanResultId)
+            .filter(Objects::nonNull)
+            .toList();
+        Map<Long, ScanResultEntity> reusedScanResultEntityMap = reusedScanResultIds.isEmpty()
+            ? Map.of()
+            : scanResultRepository.findAllByIdForShare(reusedScanResultIds).stream()
+                .collect(Collectors.toMap(ScanResultEntity::getId, Function.identity()));
+
+        Map<String, ScanEntity> scanEntityMap = new LinkedHashMap<>();
+        distinctUrls.stream()
+            .filter(url -> Optional.ofNullable(dedupeMatchMap.get(url)).map(UrlDedupeMatch::getDuplicateScanId).isEmpty())
+            .forEach(url -> {
+                ScanResultEntity scanResultEntity = Optional.ofNullable(dedupeMatchMap.get(url))
+                    .map(UrlDedupeMatch::getScanResultId)
+                    .map(reusedScanResultEntityMap::get)
+                    .orElseGet(() -> ScanResultEntity.builder()
                         .url(url)
+                        .urlFingerprint(urlFingerprintMap.get(url))
                         .build()
-                ).build()
+                    );
+                scanEntityMap.put(
+                    url,
+                    ScanEntity.builder()
+                        .userId(userId)
+                        .result(scanResultEntity)
+                        .status(scanResultEntity.getStatus())
+                        .build()
+                );
+            });
+        scanRepository.saveAllAndFlush(scanEntityMap.values());
+        scanChangeRepository.recordChanges(
+            scanEntityMap.values().stream().map(ScanEntity::getId).toList(),
+            false,
+            now
         );
-        log.info("Successfully created scan: scanEntity={}", scanEntity);
+        // A reused scan result that has already finished never transitions again, so its new scans are delivered here
+        List<Long> finishedScanIds = scanEntityMap.values().stream()
+            .filter(scanEntity -> reusedScanResultEntityMap.containsKey(scanEntity.getResult().getId()))
+            .filter(scanEntity -> scanEntity.getResult().getStatus().isTerminal())
+            .map(ScanEntity::getId)
+            .toList();
+        if (!finishedScanIds.isEmpty()) {
+            webhookDeliveryRepository.enqueueDeliveries(finishedScanIds, now);
+        }
+        List<ScanResultEntity> newScanResultEntityList = scanEntityMap.values().stream()
+            .map(ScanEntity::getResult)
+            .filter(scanResultEntity -> !reusedScanResultEntityMap.containsKey(scanResultEntity.getId()))
+            .toList();
+        if (!newScanResultEntityList.isEmpty()) {
+            scanResultRepository.claimUrlDedupe(
+                newScanResultEntityList.stream().map(ScanResultEntity::getId).toList(),
+                dedupeCutoff
+            );
+            sendStatusNotification(ScanResultStatus.SUBMITTED);
+            sendCreatedNotifications(newScanResultEntityList);
+            newScanResultEntityList.forEach(scanResultEntity -> recentScanIndex.record(scanResultEntity.getUrlFingerprint()));
+        }
 
-        return ScanTransform.apply(scanEntity);
+        Set<String> seenUrls = new HashSet<>();
+        List<ScanCreation> scanCreationList = urls.stream()
+            .map(url -> {
+                String canonicalUrl = canonicalUrlMap.get(url);
+                Optional<Long> duplicateScanId = Optional.ofNullable(dedupeMatchMap.get(canonicalUrl))
+                    .map(UrlDedupeMatch::getDuplicateScanId)
+                    .or(() -> seenUrls.add(canonicalUrl) ? Optional.empty() : Optional.of(scanEntityMap.get(canonicalUrl).getId()));
+                if (duplicateScanId.isPresent()) {
+                    return ScanCreation.builder()
+                        .url(url)
+                        .outcome(ScanCreation.Outcome.DUPLICATE)
+                        .existingScanId(duplicateScanId.get())
+                        .message(String.format("Duplicate scan request scan found: url=%s scanId=%s", url, duplicateScanId.get()))
+                        .build();
+                }
+
+                ScanEntity scanEntity = scanEntityMap.get(canonicalUrl);
+                return ScanCreation.builder()
+                    .url(url)
+                    .outcome(
+                        reusedScanResultEntityMap.containsKey(scanEntity.getResult().getId())
+                            ? ScanCreation.Outcome.REUSED
+                            : ScanCreation.Outcome.CREATED
+                    )
+                    .scan(ScanTransform.apply(scanEntity))
+                    .build();
+            })
+            .toList();
+        log.info("Successfully created scans: userId={} scanCount={}", userId, scanEntityMap.size());
+
+        return scanCreationList;
     }
 
     /**
-     * Retrieves the details of a scan by the given scan ID
+     * Retrieves the details of a scan by the given scan ID.
+     * Scans whose scan result has reached a terminal status are served from the terminal scan cache once retrieved, as
+     * they never change again
      *
      * @param userId The ID of the user that's making the request
      * @param scanId The ID of the scan that is to be retrieved
@@ -118,15 +345,213 @@ public class ScanService {
     public Scan getScan(String userId, Long scanId) {
         log.info("Retrieving scan: userId={} scanId={}", userId, scanId);
 
-        Optional<ScanEntity> scanEntityOptional = scanRepository.findByIdAndUserId(scanId, userId);
-        log.info("Retrieved scan: userId={} scanId={} scanEntity={}", userId, scanId, scanEntityOptional);
-        return scanEntityOptional
+        Optional<Scan> cachedScanOptional = terminalScanCache.get(scanId);
+        if (cachedScanOptional.isPresent()) {
+            log.info("Retrieved scan from cache: userId={} scanId={}", userId, scanId);
+            return cachedScanOptional
+                .filter(scan -> scan.getUserId().equals(userId))
+                .orElseThrow(() ->
+                    new ResourceNotFoundException(
+                        String.format("Scan not found: scanId=%s", scanId)
+                    )
+                );
+        }
+
+        Optional<ScanRow> scanRowOptional = scanRepository.findScanRow(scanId, userId);
+        log.info("Retrieved scan: userId={} scanId={} scanRow={}", userId, scanId, scanRowOptional);
+        Scan scan = scanRowOptional
             .map(ScanTransform::apply)
             .orElseThrow(() ->
                 new ResourceNotFoundException(
                     String.format("Scan not found: scanId=%s", scanId)
                 )
             );
+        terminalScanCache.putIfTerminal(scan);
+
+        return scan;
+    }
+
+    /**
+     * Retrieves the version of a scan by the given scan ID, which is cheaper than retrieving the scan itself: cached
+     * scans are versioned without querying Postgres, and other scans from the scan row alone
+     *
+     * @param userId The ID of the user that's making the request
+     * @param scanId The ID of the scan whose version is to be retrieved
+     * @return the version of the scan with the provided ID
+     * @throws ResourceNotFoundException if either the user does not have access to the scan or the scan does not exist
+     */
+    public ScanVersion getScanVersion(String userId, Long scanId) {
+        Optional<Scan> cachedScanOptional = terminalScanCache.get(scanId);
+        Optional<ScanVersion> scanVersionOptional = cachedScanOptional.isPresent()
+            ? cachedScanOptional.filter(scan -> scan.getUserId().equals(userId)).map(ScanVersionTransform::apply)
+            : scanRepository.findScanVersionRow(scanId, userId).map(ScanVersionTransform::apply);
+        log.info("Retrieved scan version: userId={} scanId={} scanVersion={}", userId, scanId, scanVersionOptional);
+
+        return scanVersionOptional.orElseThrow(() ->
+            new ResourceNotFoundException(
+                String.format("Scan not found: scanId=%s", scanId)
+            )
+        );
+    }
+
+    /**
+     * Looks up a batch of scans by ID with a single query on the primary key of scans, rather than a request per scan.
+     * Scans in the terminal scan cache are served from it, and the rest are retrieved from the scan rows alone unless
+     * their details are requested, as the status of each scan is denormalized onto it
+     *
+     * @param userId       The ID of the user that's making the request
+     * @param scanIds      The IDs of the scans that are to be looked up
+     * @param includeScans Whether to retrieve the details of each scan alongside its status
+     * @return the statuses of the scans found, and their details if requested, in the order of the given IDs. Scans that
+     * either do not exist or belong to another user are left out, without distinguishing between the two
+     */
+    public ScanLookup lookupScans(String userId, List<Long> scanIds, Boolean includeScans) {
+        List<Long> distinctScanIds = scanIds.stream().distinct().toList();
+        log.info("Looking up scans: userId={} scanCount={} includeScans={}", userId, distinctScanIds.size(), includeScans);
+
+        Map<Long, Scan> scanMap = new HashMap<>();
+        List<Long> uncachedScanIds = new ArrayList<>();
+        distinctScanIds.forEach(scanId -> terminalScanCache.get(scanId).ifPresentOrElse(
+            scan -> scanMap.put(scanId, scan),
+            () -> uncachedScanIds.add(scanId)
+        ));
+        scanMap.values().removeIf(scan -> !scan.getUserId().equals(userId));
+
+        Map<Long, ScanResultStatus> statusMap = new HashMap<>();
+        if (!uncachedScanIds.isEmpty()) {
+            if (includeScans) {
+                scanRepository.findScanRows(uncachedScanIds, userId).stream()
+                    .map(ScanTransform::apply)
+                    .forEach(scan -> {
+                        terminalScanCache.putIfTerminal(scan);
+                        scanMap.put(scan.getId(), scan);
+                    });
+            } else {
+                scanRepository.findScanVersionRows(uncachedScanIds, userId)
+                    .forEach(scanVersionRow -> statusMap.put(scanVersionRow.getId(), scanVersionRow.getStatus()));
+            }
+        }
+        scanMap.values().forEach(scan -> statusMap.put(scan.getId(), scan.getResult().getStatus()));
+        log.info("Looked up scans: userId={} scanCount={} foundCount={}", userId, distinctScanIds.size(), statusMap.size());
+
+        Map<Long, ScanResultStatus> statuses = new LinkedHashMap<>();
+        Map<Long, Scan> scans = new LinkedHashMap<>();
+        for (Long scanId : distinctScanIds) {
+            if (statusMap.containsKey(scanId)) {
+                statuses.put(scanId, statusMap.get(scanId));
+            }
+            if (includeScans && scanMap.containsKey(scanId)) {
+                scans.put(scanId, scanMap.get(scanId));
+            }
+        }
+        return ScanLookup.builder()
+            .statuses(statuses)
+            .scans(includeScans ? scans : null)
+            .build();
+    }
+
+    /**
+     * Retrieves the versions of every scan sharing the given scan results with a single query, grouped by the user that
+     * owns each scan, so that the changes of a scan result can be routed to the event streams of every affected user
+     *
+     * @param scanResultIds IDs of the scan results whose scans are to be retrieved
+     * @return the versions of the scans of the scan results, keyed by the ID of the user that owns them
+     */
+    public Map<String, List<ScanVersion>> listScanVersionsByUser(Collection<Long> scanResultIds) {
+        if (scanResultIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return scanRepository.findScanVersionRowsByScanResultIds(scanResultIds).stream()
+            .collect(Collectors.groupingBy(
+                ScanVersionRow::getUserId,
+                Collectors.mapping(ScanVersionTransform::apply, Collectors.toList())
+            ));
+    }
+
+    /**
+     * Retrieves the complete position of the change feed; see {@link ScanChangeRepository#findCompletePosition}
+     */
+    public Long getCompleteChangePosition() {
+        return scanChangeRepository.findCompletePosition();
+    }
+
+    /**
+     * Lists the versions of the scans of a user that changed after a position of the change feed, in the order the
+     * changes were made, so that an event stream can resume from the last event its client received. Unlike
+     * {@link #listScanChanges}, changes above the complete position are listed too, as every change that commits after
+     * the listing is published to the event stream, and deleted scans are left out
+     *
+     * @param userId the ID of the user whose scans are to be listed
+     * @param cursor the position after which to list changed scans
+     * @param limit  the maximum number of scan versions to return
+     * @return the versions of the changed scans in the order they were changed
+     */
+    public List<ScanVersion> listScanVersionsChangedAfter(String userId, ChangeFeedCursor cursor, Integer limit) {
+        return scanChangeRepository.findLiveChangesAfter(userId, cursor.getPosition(), cursor.getScanId(), limit).stream()
+            .map(ScanVersionTransform::apply)
+            .toList();
+    }
+
+    /**
+     * Lists the last change of each scan of a user that changed after the given cursor, in the order the changes were
+     * made. Changes are positioned by the transaction that made them, and only changes below the oldest running
+     * transaction are listed, so a change committed after a page was listed never lands behind its cursor. Once the
+     * listed changes catch up with the feed, the returned cursor resumes from that position rather than the last change
+     *
+     * @param userId         The ID of the user whose changes are to be listed
+     * @param cursorOptional the cursor to resume after, or empty to list the feed from the start
+     * @param limit          the maximum number of changes to return
+     * @return a page of changes, with a cursor to resume the feed after them
+     * @throws CursorExpiredException if a tombstone after the cursor has been removed from the feed, in which case
+     *                                deletions may have been missed
+     */
+    public ScanChangePage listScanChanges(String userId, Optional<ChangeFeedCursor> cursorOptional, Integer limit) {
+        ChangeFeedCursor cursor = cursorOptional.orElse(ChangeFeedCursor.START);
+        log.info("Listing scan changes: userId={} cursor={} limit={}", userId, cursor, limit);
+
+        Long completePosition = scanChangeRepository.findCompletePosition();
+        List<ScanChangeEntity> scanChangeEntityList = scanChangeRepository.findChangesAfter(
+            userId,
+            cursor.getPosition(),
+            cursor.getScanId(),
+            completePosition,
+            limit + 1
+        );
+        // Checked after the changes are read, so that tombstones removed while they were read expire the cursor too
+        Optional<Long> horizonOptional = cursorOptional.isPresent()
+            ? scanChangeRepository.findHorizon(userId)
+            : Optional.empty();
+        if (horizonOptional.isPresent() && cursor.getPosition() <= horizonOptional.get()) {
+            throw new CursorExpiredException(
+                String.format("Tombstones after the cursor have been removed; list changes again from the start: position=%s horizon=%s", cursor.getPosition(), horizonOptional.get())
+            );
+        }
+
+        boolean hasMore = scanChangeEntityList.size() > limit;
+        List<ScanChangeEntity> pageEntityList = hasMore ? scanChangeEntityList.subList(0, limit) : scanChangeEntityList;
+
+        ChangeFeedCursor nextCursor;
+        if (hasMore) {
+            ScanChangeEntity lastEntity = pageEntityList.get(pageEntityList.size() - 1);
+            nextCursor = ChangeFeedCursor.builder()
+                .position(lastEntity.getPosition())
+                .scanId(lastEntity.getScanId())
+                .build();
+        } else {
+            // Every change below the complete position has been listed, so the feed resumes from it
+            nextCursor = ChangeFeedCursor.builder()
+                .position(Math.max(cursor.getPosition(), completePosition))
+                .scanId(completePosition > cursor.getPosition() ? 0L : cursor.getScanId())
+                .build();
+        }
+        log.info("Successfully listed scan changes: userId={} cursor={} count={} nextCursor={}", userId, cursor, pageEntityList.size(), nextCursor);
+
+        return ScanChangePage.builder()
+            .data(pageEntityList.stream().map(ScanChangeTransform::apply).toList())
+            .nextCursor(ChangeFeedCursorTokenTransform.apply(nextCursor))
+            .hasMore(hasMore)
+            .build();
     }
 
     /**
@@ -147,31 +572,80 @@ public class ScanService {
         org.springframework.data.domain.PageRequest sortedPageRequest = PageRequestTransform.apply(pageRequest)
             .withSort(DEFAULT_SORT);
 
-        org.springframework.data.domain.Page<ScanEntity> scanEntityPage = statusOptional
-            .map(status -> scanRepository.findAllByUserIdAndResult_Status(userId, status, sortedPageRequest))
-            .orElseGet(() -> scanRepository.findAllByUserId(userId, sortedPageRequest));
+        org.springframework.data.domain.Page<ScanSummaryRow> scanSummaryRowPage = statusOptional
+            .map(status -> scanRepository.findScanSummaryRows(userId, status, sortedPageRequest))
+            .orElseGet(() -> scanRepository.findScanSummaryRows(userId, sortedPageRequest));
 
-        log.info("Successfully listed scan summaries: userId={} status={} pageRequest={} scanEntityPage={}", userId, statusOptional, pageRequest, scanEntityPage);
+        log.info("Successfully listed scan summaries: userId={} status={} pageRequest={} scanSummaryRowPage={}", userId, statusOptional, pageRequest, scanSummaryRowPage);
         return PageTransform.apply(
-            scanEntityPage,
+            scanSummaryRowPage,
             ScanSummaryTransform::apply
         );
     }
 
+    /**
+     * Lists scans for a given user in descending order of when the scan was created, resuming after the provided cursor.
+     * Optionally filters the results by the status of the scan.
+     * Unlike page offsets, each page is read from the index starting at the cursor and the scans of the user are not counted,
+     * so the cost of retrieving a page does not depend on how deep into the list it is
+     *
+     * @param userId            The ID of the user that scans are to be retrieved for
+     * @param statusOptional    An optional status to filter the results for
+     * @param cursorPageRequest the cursor to resume after and the number of scans to return
+     * @return A page of scans meeting the filter criteria, with a cursor for the next page if more may exist
+     */
+    public CursorPage<ScanSummary> listScanSummaries(
+        String userId,
+        Optional<ScanResultStatus> statusOptional,
+        CursorPageRequest cursorPageRequest
+    ) {
+        log.info("Listing scan summaries by cursor: userId={} status={} cursorPageRequest={}", userId, statusOptional, cursorPageRequest);
+        Integer pageSize = cursorPageRequest.getPageSize();
+        Limit limit = Limit.of(pageSize);
+        Optional<Cursor> cursorOptional = Optional.ofNullable(cursorPageRequest.getCursor());
+
+        List<ScanSummaryRow> scanSummaryRowList = statusOptional
+            .map(status -> cursorOptional
+                .map(cursor -> scanRepository.findScanSummaryRowsAfter(userId, status, cursor.getCreatedAt(), cursor.getId(), limit))
+                .orElseGet(() -> scanRepository.findScanSummaryRows(userId, status, limit))
+            ).orElseGet(() -> cursorOptional
+                .map(cursor -> scanRepository.findScanSummaryRowsAfter(userId, cursor.getCreatedAt(), cursor.getId(), limit))
+                .orElseGet(() -> scanRepository.findScanSummaryRows(userId, limit))
+            );
+
+        log.info("Successfully listed scan summaries by cursor: userId={} status={} cursorPageRequest={} count={}", userId, statusOptional, cursorPageRequest, scanSummaryRowList.size());
+        return CursorPageTransform.apply(
+            scanSummaryRowList,
+            pageSize,
+            ScanSummaryTransform::apply,
+            CursorTransform::apply
+        );
+    }
+
     /**
      * Deletes a scan for a specific user.
      * Users are not allowed to delete scans which are not created by them.
      * In order to maintain idempotency for multiple deletes of the same scan,
-     * no exception will be thrown if the scan does not exist or if the user does not have access to the scan
+     * no exception will be thrown if the scan does not exist or if the user does not have access to the scan.
+     * The deletion is published to the terminal scan cache of every API server once committed, and recorded as a
+     * tombstone in the change feed of the user, whose tombstones older than the retention period of the feed are removed
+     * along with it
      *
      * @param userId The ID of the requesting user
      * @param scanId The ID of the requested scan
      */
+    @Transactional
     public void deleteScan(String userId, Long scanId) {
         log.info("Deleting scan: userId={} scanId={}", userId, scanId);
         scanRepository.findByIdAndUserId(scanId, userId)
             .ifPresentOrElse(scan -> {
+                    Instant now = clock.instant();
+                    scanChangeRepository.recordChanges(List.of(scan.getId()), true, now);
                     scanRepository.deleteById(scan.getId());
+                    scanChangeRepository.deleteTombstones(userId, now.minus(CHANGE_FEED_RETENTION));
+                    terminalScanCache.invalidate(scan.getId());
+                    // Delivered on commit, which also invalidates any copy cached locally while the delete was in flight
+                    scanResultRepository.sendNotification(SCAN_DELETED_CHANNEL, scan.getId().toString());
 
                     log.info("Successfully deleted scan: userId={} scanId={}", userId, scanId);
                 },
@@ -180,63 +654,295 @@ public class ScanService {
     }
 
     /**
-     * Updates a scan result with additional information.
+     * Loads the URLs of the scan results created within the retention period of the recent scan index into it, then marks
+     * the index as ready so that it starts to skip duplicate scan checks. Scan results created while loading are published
+     * to the index through notifications, so none are missed as long as the index is listening before it is loaded.
+     * Called every time the index starts listening, so that scan results missed while it was not listening are recovered
+     */
+    public void loadRecentScanIndex() {
+        Instant createdAfter = clock.instant().minus(RECENT_SCAN_RETENTION);
+        log.info("Loading recent scan index: createdAfter={}", createdAfter);
+        List<Long> urlFingerprintList = scanResultRepository.findUrlFingerprintsCreatedAfter(createdAfter);
+        urlFingerprintList.forEach(recentScanIndex::record);
+        recentScanIndex.markReady();
+        log.info("Successfully loaded recent scan index: urlCount={}", urlFingerprintList.size());
+    }
+
+    /**
+     * Updates a scan result with additional information, provided it still has the expected status.
+     * The update is applied as a single conditional statement, so a worker racing another worker for the same scan
+     * result loses cleanly instead of overwriting the status set by the winner.
      *
-     * @param scanResultId ID of the scan result to update
-     * @param status       the updated status of the scan result
-     * @return The scan result after updates were applied
-     * @throws ResourceNotFoundException if a scan result with the provided ID does not exist
+     * @param scanResultId   ID of the scan result to update
+     * @param expectedStatus the status the scan result is expected to have
+     * @param status         the updated status of the scan result
+     * @return true if the update was applied, false if the scan result no longer has the expected status
+     * @throws IllegalStatusTransitionException if the expected status may not transition to the updated status
+     * @throws ResourceNotFoundException        if a scan result with the provided ID does not exist
      */
     @Transactional
-    public ScanResult updateScanResult(
+    public boolean updateScanResult(
         Long scanResultId,
+        ScanResultStatus expectedStatus,
         ScanResultStatus status,
         Optional<ScanResult.StatusDetails> statusDetails,
         Optional<String> urlScanId,
         Optional<String> resultUrl
     ) {
-        log.info("Updating scan result: scanResultId={} status={} urlScanId={} resultUrl={}", scanResultId, status, urlScanId, resultUrl);
-        ScanResultEntity previousScanResultEntity = scanResultRepository.findById(scanResultId)
-            .orElseThrow(() ->
-                new ResourceNotFoundException(
-                    String.format("Scan result not found: scanResultId=%s", scanResultId)
-                )
+        List<Long> updatedScanResultIds = updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(scanResultId)
+                .expectedStatus(expectedStatus)
+                .status(status)
+                .statusDetails(statusDetails.orElse(null))
+                .urlScanId(urlScanId.orElse(null))
+                .resultUrl(resultUrl.orElse(null))
+                .build()
+        ));
+        if (updatedScanResultIds.isEmpty() && !scanResultRepository.existsById(scanResultId)) {
+            throw new ResourceNotFoundException(
+                String.format("Scan result not found: scanResultId=%s", scanResultId)
             );
+        }
+
+        return !updatedScanResultIds.isEmpty();
+    }
+
+    /**
+     * Updates a batch of scan results in a single round trip.
+     * Each update is a compare-and-set on the status of the scan result, applied only if the scan result still has the
+     * expected status of its update request. Updates that lose a race with another worker, or target a scan result that
+     * no longer exists, are skipped without affecting the rest of the batch.
+     * The IDs of the updated scan results are published to the requests waiting on them through {@link ScanStatusWaiters}.
+     *
+     * @param updateRequests the updates to apply, at most one per scan result
+     * @return the IDs of the scan results that were updated, in the order of the update requests
+     * @throws IllegalStatusTransitionException if any update request moves between statuses that may not transition,
+     *                                          in which case no updates are applied
+     */
+    @Transactional
+    public List<Long> updateScanResults(List<ScanResultUpdateRequest> updateRequests) {
+        if (updateRequests.isEmpty()) {
+            return List.of();
+        }
+
+        updateRequests.stream()
+            .filter(updateRequest -> !updateRequest.getExpectedStatus().canTransitionTo(updateRequest.getStatus()))
+            .findFirst()
+            .ifPresent(updateRequest -> {
+                throw new IllegalStatusTransitionException(
+                    String.format(
+                        "Illegal scan result status transition: scanResultId=%s expectedStatus=%s status=%s",
+                        updateRequest.getScanResultId(),
+                        updateRequest.getExpectedStatus(),
+                        updateRequest.getStatus()
+                    )
+                );
+            });
 
-        ScanResultEntity.ScanResultEntityBuilder newScanResultEntityBuilder = previousScanResultEntity.toBuilder();
-        newScanResultEntityBuilder.status(status);
-        urlScanId.ifPresent(newScanResultEntityBuilder::urlScanId);
-        resultUrl.ifPresent(newScanResultEntityBuilder::resultUrl);
-        statusDetails.ifPresent(details -> {
-                newScanResultEntityBuilder.statusCode(details.getCode());
-                newScanResultEntityBuilder.statusDescription(details.getDescription());
-                newScanResultEntityBuilder.statusMessage(details.getMessage());
+        log.info("Updating scan results: scanResultIds={}", updateRequests.stream().map(ScanResultUpdateRequest::getScanResultId).toList());
+        Instant now = clock.instant();
+        int[] updateCounts = scanResultRepository.compareAndSetStatuses(updateRequests, now, now.plus(INITIAL_CHECK_DELAY));
+        List<ScanResultUpdateRequest> appliedUpdateRequests = new ArrayList<>();
+        for (int i = 0; i < updateRequests.size(); i++) {
+            ScanResultUpdateRequest updateRequest = updateRequests.get(i);
+            if (updateCounts[i] > 0) {
+                appliedUpdateRequests.add(updateRequest);
+            } else {
+                log.info("Scan result no longer has expected status; skipping update: scanResultId={} expectedStatus={} status={}",
+                    updateRequest.getScanResultId(), updateRequest.getExpectedStatus(), updateRequest.getStatus());
             }
-        );
+        }
+        appliedUpdateRequests.stream()
+            .map(ScanResultUpdateRequest::getStatus)
+            .distinct()
+            .forEach(this::sendStatusNotification);
+        List<Long> updatedScanResultIds = appliedUpdateRequests.stream()
+            .map(ScanResultUpdateRequest::getScanResultId)
+            .toList();
+        sendUpdatedNotifications(updatedScanResultIds);
+        log.info("Successfully updated scan results: scanResultIds={}", updatedScanResultIds);
 
-        ScanResultEntity newscanResultEntity = scanResultRepository.save(newScanResultEntityBuilder.build());
-        log.info("Successfully updated scan result: scanResultId={} scanResultEntity={}", scanResultId, newscanResultEntity);
-        return ScanResultTransform.apply(newscanResultEntity);
+        return updatedScanResultIds;
     }
 
     /**
-     * Lists all scan results with a given status sorted in ascending order of when the scan result was created.
+     * Updates a batch of scan results like {@link #updateScanResults(List)}, and in the same transaction schedules the next
+     * status check of a batch of scan results that have not finished yet with a single statement, releasing the leases
+     * taken when they were claimed. Scan results whose lease has since been taken by another worker are not scheduled.
      *
-     * @param status      the status of scan results to filter on
-     * @param pageRequest the pagination scheme to use
-     * @return A page of scan results meeting the filter criteria sorted in ascending order of when the scan result was created
+     * @param updateRequests the updates to apply, at most one per scan result
+     * @param checkRequests  the next checks to schedule, at most one per scan result
+     * @param leaseRequest   the lease that was taken when the scan results were claimed
+     * @return the IDs of the scan results that were updated, in the order of the update requests
+     * @throws IllegalStatusTransitionException if any update request moves between statuses that may not transition,
+     *                                          in which case no updates are applied and no checks are scheduled
      */
-    public Page<ScanResult> listScanResults(
+    @Transactional
+    public List<Long> updateScanResults(
+        List<ScanResultUpdateRequest> updateRequests,
+        List<ScanResultCheckRequest> checkRequests,
+        LeaseRequest leaseRequest
+    ) {
+        List<Long> updatedScanResultIds = updateScanResults(updateRequests);
+        if (!checkRequests.isEmpty()) {
+            String leaseOwner = leaseRequest.getOwner();
+            log.info("Scheduling next checks of scan results: checkRequests={} leaseOwner={}", checkRequests, leaseOwner);
+            int scheduled = scanResultRepository.scheduleNextChecks(checkRequests, leaseOwner);
+            log.info("Successfully scheduled next checks of scan results: leaseOwner={} count={}", leaseOwner, scheduled);
+        }
+
+        return updatedScanResultIds;
+    }
+
+    /**
+     * Claims scan results with a given status in ascending order of when the scan result was created, resuming after the provided cursor.
+     * Claimed scan results are leased to the requesting worker until either their status is updated or the lease expires,
+     * so that concurrent workers never claim the same scan result and scan results claimed by a crashed worker become claimable again.
+     *
+     * @param status            the status of scan results to filter on
+     * @param cursorPageRequest the cursor to resume after and the maximum number of scan results to claim
+     * @param leaseRequest      the owner and duration of the lease to take on claimed scan results
+     * @return A page of claimed scan results, with a cursor for the next page if more may exist
+     */
+    @Transactional
+    public CursorPage<ScanResult> claimScanResults(
         ScanResultStatus status,
-        PageRequest pageRequest
+        CursorPageRequest cursorPageRequest,
+        LeaseRequest leaseRequest
     ) {
-        return PageTransform.apply(
-            scanResultRepository.findAllByStatus(
+        Instant now = clock.instant();
+        Instant leaseExpiresAt = now.plus(leaseRequest.getDuration());
+        String leaseOwner = leaseRequest.getOwner();
+        Integer pageSize = cursorPageRequest.getPageSize();
+        log.info("Claiming scan results: status={} cursorPageRequest={} leaseOwner={} leaseExpiresAt={}", status, cursorPageRequest, leaseOwner, leaseExpiresAt);
+
+        List<ScanResultEntity> scanResultEntityList = Optional.ofNullable(cursorPageRequest.getCursor())
+            .map(cursor -> scanResultRepository.claimWorkQueueAfter(
+                status,
+                cursor.getCreatedAt(),
+                cursor.getId(),
+                leaseOwner,
+                leaseExpiresAt,
+                now,
+                pageSize
+            )).orElseGet(() -> scanResultRepository.claimWorkQueue(
                 status,
-                PageRequestTransform.apply(pageRequest).withSort(DEFAULT_REVERSE_SORT)
-            ),
-            ScanResultTransform::apply
+                leaseOwner,
+                leaseExpiresAt,
+                now,
+                pageSize
+            ));
+        log.info("Successfully claimed scan results: status={} leaseOwner={} count={}", status, leaseOwner, scanResultEntityList.size());
+
+        return CursorPageTransform.apply(
+            scanResultEntityList,
+            pageSize,
+            ScanResultTransform::apply,
+            CursorTransform::apply
         );
     }
 
+    /**
+     * Releases the leases held on scan results that were claimed but not handled, so that they can be claimed again
+     * without waiting for the leases to expire. Leases which have since been taken by another worker are left untouched.
+     *
+     * @param scanResultIds IDs of the scan results to release
+     * @param leaseRequest  the lease that was taken when the scan results were claimed
+     */
+    @Transactional
+    public void releaseScanResults(
+        List<Long> scanResultIds,
+        LeaseRequest leaseRequest
+    ) {
+        if (scanResultIds.isEmpty()) {
+            return;
+        }
+
+        String leaseOwner = leaseRequest.getOwner();
+        log.info("Releasing scan results: scanResultIds={} leaseOwner={}", scanResultIds, leaseOwner);
+        int released = scanResultRepository.releaseLeases(scanResultIds, leaseOwner);
+        log.info("Successfully released scan results: leaseOwner={} count={}", leaseOwner, released);
+    }
+
+    /**
+     * Claims scan results with a given status whose next check is due, in ascending order of when the check became due.
+     * See {@link #claimScanResults} for the semantics of the lease taken on claimed scan results.
+     *
+     * @param status       the status of scan results to filter on
+     * @param pageSize     the maximum number of scan results to claim
+     * @param leaseRequest the owner and duration of the lease to take on claimed scan results
+     * @return The list of claimed scan results
+     */
+    @Transactional
+    public List<DueScanResult> claimDueScanResults(
+        ScanResultStatus status,
+        Integer pageSize,
+        LeaseRequest leaseRequest
+    ) {
+        Instant now = clock.instant();
+        Instant leaseExpiresAt = now.plus(leaseRequest.getDuration());
+        String leaseOwner = leaseRequest.getOwner();
+        log.info("Claiming due scan results: status={} pageSize={} leaseOwner={} leaseExpiresAt={}", status, pageSize, leaseOwner, leaseExpiresAt);
+
+        List<ScanResultEntity> scanResultEntityList = scanResultRepository.claimDueWorkQueue(
+            status,
+            leaseOwner,
+            leaseExpiresAt,
+            now,
+            pageSize
+        );
+        log.info("Successfully claimed due scan results: status={} leaseOwner={} count={}", status, leaseOwner, scanResultEntityList.size());
+
+        return scanResultEntityList.stream()
+            .map(DueScanResultTransform::apply)
+            .toList();
+    }
+
+    /**
+     * Lists the completion times of the most recently finished scans, measured from their submission to urlscan.io up to
+     * their last check that found them unfinished; see {@link ScanResultRepository#findRecentCompletionMillis}
+     *
+     * @param limit the maximum number of completion times to return
+     * @return the completion times of the most recently finished scans
+     */
+    public List<Duration> listRecentCompletionTimes(Integer limit) {
+        return scanResultRepository.findRecentCompletionMillis(ScanResultStatus.DONE, limit).stream()
+            .map(Duration::ofMillis)
+            .toList();
+    }
+
+    /**
+     * Publishes newly created scan results to the recent scan index of every API server, including this one, once the
+     * transaction commits. Other API servers therefore never index scan results of a rolled back transaction
+     */
+    private void sendCreatedNotifications(List<ScanResultEntity> scanResultEntityList) {
+        List<String> entries = scanResultEntityList.stream()
+            .map(scanResultEntity -> RecentScanIndex.toNotificationEntry(scanResultEntity.getUrlFingerprint()))
+            .toList();
+        NotificationPayloads.pack(entries)
+            .forEach(payload -> scanResultRepository.sendNotification(SCAN_RESULT_CREATED_CHANNEL, payload));
+    }
+
+    /**
+     * Wakes up requests waiting on the updated scan results on every API server, including this one, once the
+     * transaction commits, so waiters never read a scan result before its update is visible to them. The notifications
+     * carry the complete position of the change feed, from which event streams resume
+     */
+    private void sendUpdatedNotifications(List<Long> scanResultIds) {
+        List<String> entries = scanResultIds.stream()
+            .map(ScanStatusWaiters::toNotificationEntry)
+            .toList();
+        NotificationPayloads.pack(entries)
+            .forEach(payload -> scanResultRepository.sendPositionedNotification(SCAN_RESULT_UPDATED_CHANNEL, payload));
+    }
+
+    /**
+     * Wakes up workers listening for scan results with the given status. The notification is delivered once the
+     * surrounding transaction commits, so workers never wake up before the scan result is visible to them
+     */
+    private void sendStatusNotification(ScanResultStatus status) {
+        scanResultRepository.sendNotification(SCAN_RESULT_STATUS_CHANNEL, status.name());
+    }
+
 }
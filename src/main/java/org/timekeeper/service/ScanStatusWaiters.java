@@ -0,0 +1,97 @@
+package org.timekeeper.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.timekeeper.database.postgresql.listener.NotificationPayloads;
+import org.timekeeper.model.transform.UpdatedScanResultsTransform;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process registry of requests waiting for the status of a scan result to change, keyed by scan result ID.
+ * Waiters are parked as callbacks rather than threads, so tens of thousands of waiting requests hold neither a request
+ * thread nor a database connection. When the IDs of updated scan results are published through {@link #handleNotification},
+ * every waiter on them is removed and run on the executor, which bounds how many waiters re-read their scan at once.
+ * Notifications may be lost while a listener reconnects, so waiters must fall back to re-reading their scan eventually.
+ * A waiter registered just after a notification for its scan result was handled would miss it, so every notification
+ * advances a generation: waiters that observe a different generation after registering than before reading their scan
+ * must re-check it themselves
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ScanStatusWaiters {
+
+    private final Executor executor;
+
+    private final Map<Long, Set<Runnable>> waiters = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @return the number of notifications handled so far, to be compared before reading a scan and after registering a waiter on it
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Registers a waiter to run once the status of the scan result changes. Each waiter runs at most once
+     *
+     * @param scanResultId the ID of the scan result to wait on
+     * @param waiter       the callback to run on the executor once the scan result is updated
+     * @return a callback that removes the waiter if it has not run yet, to be run once the waiting request completes
+     */
+    public Runnable register(Long scanResultId, Runnable waiter) {
+        waiters.compute(scanResultId, (id, scanResultWaiters) -> {
+            Set<Runnable> updatedWaiters = scanResultWaiters == null ? ConcurrentHashMap.newKeySet() : scanResultWaiters;
+            updatedWaiters.add(waiter);
+            return updatedWaiters;
+        });
+
+        return () -> waiters.computeIfPresent(scanResultId, (id, scanResultWaiters) -> {
+            scanResultWaiters.remove(waiter);
+            return scanResultWaiters.isEmpty() ? null : scanResultWaiters;
+        });
+    }
+
+    /**
+     * Runs the waiters on the scan results whose IDs are published as the notification payload
+     */
+    public void handleNotification(String payload) {
+        // Advanced before waiters are removed, so that a waiter registered after the removal observes the new generation
+        generation.incrementAndGet();
+        UpdatedScanResultsTransform.apply(payload).getScanResultIds()
+            .forEach(this::wakeup);
+    }
+
+    /**
+     * Formats the ID of an updated scan result as a notification entry, to be published with {@link NotificationPayloads#pack}
+     */
+    public static String toNotificationEntry(Long scanResultId) {
+        return scanResultId.toString();
+    }
+
+    /**
+     * @return the number of registered waiters across all scan results
+     */
+    public int size() {
+        return waiters.values().stream()
+            .mapToInt(Set::size)
+            .sum();
+    }
+
+    private void wakeup(Long scanResultId) {
+        Set<Runnable> scanResultWaiters = waiters.remove(scanResultId);
+        if (scanResultWaiters == null) {
+            return;
+        }
+
+        log.debug("Waking up waiters on scan result: scanResultId={} count={}", scanResultId, scanResultWaiters.size());
+        scanResultWaiters.forEach(executor::execute);
+    }
+
+}
@@ -0,0 +1,97 @@
+package org.timekeeper.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.timekeeper.model.Scan;
+import org.timekeeper.model.ScanResult;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * In-process cache of scans whose scan result has reached a terminal status, keyed by scan ID, used to serve repeated
+ * reads of finished scans without querying Postgres.
+ * Terminal scan results never change again, so cached scans only become stale when they are deleted. Deletions are
+ * invalidated locally and published to every API server through {@link #handleNotification}; as notifications may be
+ * lost while a listener reconnects, entries also expire after a fixed time to bound how long a deleted scan may be served.
+ * The cache is bounded by the approximate size in bytes of the cached scans rather than their count, as scans vary
+ * widely in size with the length of their URLs and status details
+ */
+@Slf4j
+public class TerminalScanCache {
+
+    /**
+     * Approximate size of a cached scan excluding its strings: the scan, its scan result, their timestamps and the
+     * cache entry itself
+     */
+    protected static final Integer BASE_ENTRY_WEIGHT = 400;
+
+    private final Cache<Long, Scan> cache;
+
+    public TerminalScanCache(Long maxWeightBytes, Duration expireAfterWrite) {
+        this.cache = CacheBuilder.newBuilder()
+            .maximumWeight(maxWeightBytes)
+            .weigher((Long scanId, Scan scan) -> weigh(scan))
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * @param scanId the ID of the scan to look up
+     * @return the cached scan, regardless of which user it belongs to; empty on a cache miss
+     */
+    public Optional<Scan> get(Long scanId) {
+        return Optional.ofNullable(cache.getIfPresent(scanId));
+    }
+
+    /**
+     * Caches a scan if its scan result has reached a terminal status; scans that may still change are ignored
+     */
+    public void putIfTerminal(Scan scan) {
+        if (scan.getResult().getStatus().isTerminal()) {
+            cache.put(scan.getId(), scan);
+        }
+    }
+
+    public void invalidate(Long scanId) {
+        cache.invalidate(scanId);
+    }
+
+    /**
+     * Invalidates the scan whose ID is published as the notification payload
+     */
+    public void handleNotification(String payload) {
+        invalidate(Long.parseLong(payload));
+    }
+
+    public Cache<Long, Scan> getCache() {
+        return cache;
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static int weigh(Scan scan) {
+        ScanResult result = scan.getResult();
+        Optional<ScanResult.StatusDetails> statusDetails = Optional.ofNullable(result.getStatusDetails());
+        int characters = Stream.of(
+                scan.getUserId(),
+                result.getUrl(),
+                result.getUrlScanId(),
+                result.getResultUrl(),
+                statusDetails.map(ScanResult.StatusDetails::getMessage).orElse(null),
+                statusDetails.map(ScanResult.StatusDetails::getDescription).orElse(null)
+            )
+            .mapToInt(value -> value == null ? 0 : value.length())
+            .sum();
+
+        // Strings hold at most 2 bytes per character
+        return BASE_ENTRY_WEIGHT + 2 * characters;
+    }
+
+}
@@ -0,0 +1,205 @@
+package org.timekeeper.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.timekeeper.database.postgresql.model.ScanRow;
+import org.timekeeper.database.postgresql.model.WebhookDeliveryRow;
+import org.timekeeper.database.postgresql.model.WebhookEntity;
+import org.timekeeper.database.postgresql.repository.ScanRepository;
+import org.timekeeper.database.postgresql.repository.WebhookDeliveryRepository;
+import org.timekeeper.database.postgresql.repository.WebhookRepository;
+import org.timekeeper.exception.BadRequestException;
+import org.timekeeper.model.Scan;
+import org.timekeeper.model.Webhook;
+import org.timekeeper.model.WebhookDelivery;
+import org.timekeeper.model.request.LeaseRequest;
+import org.timekeeper.model.transform.ScanTransform;
+import org.timekeeper.model.transform.WebhookTransform;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.timekeeper.database.postgresql.repository.Constants.MAX_WEBHOOKS_PER_USER;
+
+/**
+ * Service layer responsible for handling business logic related to webhooks and their deliveries
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WebhookService {
+
+    private final Clock clock;
+
+    private final WebhookRepository webhookRepository;
+
+    private final WebhookDeliveryRepository webhookDeliveryRepository;
+
+    private final ScanRepository scanRepository;
+
+    /**
+     * Creates a webhook for the given user, which is sent every scan of the user that finishes from then on.
+     * Creating a webhook with the URL of an existing webhook of the user returns the existing webhook
+     *
+     * @param userId the ID of the user that is making the request
+     * @param url    the URL to POST finished scans to
+     * @return the webhook that was created
+     * @throws BadRequestException if the user already has the maximum number of webhooks
+     */
+    @Transactional
+    public Webhook createWebhook(String userId, String url) {
+        log.info("Creating webhook: userId={} url={}", userId, url);
+        Optional<WebhookEntity> existingWebhookOptional = webhookRepository.findByUserIdAndUrl(userId, url);
+        if (existingWebhookOptional.isPresent()) {
+            log.info("Webhook already exists; returning existing webhook: userId={} webhookId={}", userId, existingWebhookOptional.get().getId());
+            return WebhookTransform.apply(existingWebhookOptional.get());
+        }
+
+        if (webhookRepository.countByUserId(userId) >= MAX_WEBHOOKS_PER_USER) {
+            throw new BadRequestException(
+                String.format("Too many webhooks: maxWebhooks=%s", MAX_WEBHOOKS_PER_USER)
+            );
+        }
+
+        WebhookEntity webhookEntity = webhookRepository.saveAndFlush(
+            WebhookEntity.builder()
+                .userId(userId)
+                .url(url)
+                .build()
+        );
+        log.info("Successfully created webhook: userId={} webhookId={}", userId, webhookEntity.getId());
+
+        return WebhookTransform.apply(webhookEntity);
+    }
+
+    /**
+     * Lists the webhooks of a user in ascending order of when they were created
+     *
+     * @param userId The ID of the user that webhooks are to be retrieved for
+     * @return the webhooks of the user
+     */
+    public List<Webhook> listWebhooks(String userId) {
+        return webhookRepository.findAllByUserIdOrderByCreatedAtAsc(userId).stream()
+            .map(WebhookTransform::apply)
+            .toList();
+    }
+
+    /**
+     * Deletes a webhook of a user along with its pending deliveries.
+     * In order to maintain idempotency for multiple deletes of the same webhook,
+     * no exception will be thrown if the webhook does not exist or if the user does not have access to the webhook.
+     *
+     * @param userId    The ID of the requesting user
+     * @param webhookId The ID of the requested webhook
+     */
+    @Transactional
+    public void deleteWebhook(String userId, Long webhookId) {
+        log.info("Deleting webhook: userId={} webhookId={}", userId, webhookId);
+        webhookRepository.findByIdAndUserId(webhookId, userId)
+            .ifPresentOrElse(webhook -> {
+                    int deleted = webhookDeliveryRepository.deleteAllByWebhookId(webhook.getId());
+                    webhookRepository.deleteById(webhook.getId());
+
+                    log.info("Successfully deleted webhook: userId={} webhookId={} deliveries={}", userId, webhookId, deleted);
+                },
+                () -> log.info("Webhook not found; ignoring: userId={} webhookId={}", userId, webhookId)
+            );
+    }
+
+    /**
+     * Claims webhook deliveries whose next attempt is due, in ascending order of when they became due, together with their
+     * scans. Claimed deliveries are leased to the requesting worker until they are completed, rescheduled or the lease
+     * expires, so that concurrent workers never claim the same delivery and deliveries claimed by a crashed worker are
+     * retried. Deliveries of scans that have since been deleted are dropped rather than returned
+     *
+     * @param pageSize     the maximum number of deliveries to claim
+     * @param leaseRequest the owner and duration of the lease to take on claimed deliveries
+     * @return the claimed deliveries in ascending order of ID
+     */
+    @Transactional
+    public List<WebhookDelivery> claimDeliveries(Integer pageSize, LeaseRequest leaseRequest) {
+        Instant now = clock.instant();
+        Instant leaseExpiresAt = now.plus(leaseRequest.getDuration());
+        String leaseOwner = leaseRequest.getOwner();
+        List<WebhookDeliveryRow> webhookDeliveryRowList = webhookDeliveryRepository.claimDueDeliveries(leaseOwner, leaseExpiresAt, now, pageSize);
+        if (webhookDeliveryRowList.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Scan> scans = scanRepository.findScanRows(
+                webhookDeliveryRowList.stream().map(WebhookDeliveryRow::getScanId).distinct().toList()
+            ).stream()
+            .map(ScanTransform::apply)
+            .collect(Collectors.toMap(Scan::getId, Function.identity()));
+        List<Long> deletedScanDeliveryIds = webhookDeliveryRowList.stream()
+            .filter(webhookDeliveryRow -> !scans.containsKey(webhookDeliveryRow.getScanId()))
+            .map(WebhookDeliveryRow::getId)
+            .toList();
+        if (!deletedScanDeliveryIds.isEmpty()) {
+            log.info("Dropping deliveries of deleted scans: deliveryIds={}", deletedScanDeliveryIds);
+            webhookDeliveryRepository.deleteLeased(deletedScanDeliveryIds, leaseOwner);
+        }
+        log.info("Successfully claimed webhook deliveries: leaseOwner={} count={}", leaseOwner, webhookDeliveryRowList.size());
+
+        return webhookDeliveryRowList.stream()
+            .filter(webhookDeliveryRow -> scans.containsKey(webhookDeliveryRow.getScanId()))
+            .map(webhookDeliveryRow -> WebhookDelivery.builder()
+                .id(webhookDeliveryRow.getId())
+                .webhookId(webhookDeliveryRow.getWebhookId())
+                .url(webhookDeliveryRow.getUrl())
+                .attemptCount(webhookDeliveryRow.getAttemptCount())
+                .scan(scans.get(webhookDeliveryRow.getScanId()))
+                .build()
+            ).toList();
+    }
+
+    /**
+     * Removes delivered deliveries from the retry queue with a single statement. Deliveries which have since been claimed
+     * by another worker are left untouched
+     *
+     * @param deliveryIds  IDs of the delivered deliveries
+     * @param leaseRequest the lease that was taken when the deliveries were claimed
+     */
+    @Transactional
+    public void completeDeliveries(Collection<Long> deliveryIds, LeaseRequest leaseRequest) {
+        if (deliveryIds.isEmpty()) {
+            return;
+        }
+
+        int deleted = webhookDeliveryRepository.deleteLeased(deliveryIds, leaseRequest.getOwner());
+        log.info("Successfully completed webhook deliveries: deliveryIds={} count={}", deliveryIds, deleted);
+    }
+
+    /**
+     * Records a failed attempt of deliveries and schedules their next attempt with a single statement, releasing the lease
+     * taken when they were claimed. Deliveries which have since been claimed by another worker are left untouched
+     *
+     * @param deliveryIds   IDs of the failed deliveries
+     * @param nextAttemptAt the time at which the next attempt is due; empty to give up on the deliveries
+     * @param lastError     description of the failure, kept for troubleshooting deliveries that are given up on
+     * @param leaseRequest  the lease that was taken when the deliveries were claimed
+     */
+    @Transactional
+    public void rescheduleDeliveries(
+        Collection<Long> deliveryIds,
+        Optional<Instant> nextAttemptAt,
+        String lastError,
+        LeaseRequest leaseRequest
+    ) {
+        if (deliveryIds.isEmpty()) {
+            return;
+        }
+
+        int rescheduled = webhookDeliveryRepository.rescheduleLeased(deliveryIds, nextAttemptAt.orElse(null), lastError, leaseRequest.getOwner());
+        log.info("Rescheduled webhook deliveries: deliveryIds={} nextAttemptAt={} lastError={} count={}", deliveryIds, nextAttemptAt, lastError, rescheduled);
+    }
+
+}
@@ -1,119 +1,239 @@
 package org.timekeeper.submitter;
 
-import lombok.Builder;
-import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import lombok.Synchronized;
-import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.timekeeper.client.UrlScanClient;
+import org.timekeeper.client.UrlScanRateLimiter;
 import org.timekeeper.client.model.SubmitScanResponse;
-import org.timekeeper.model.Page;
+import org.timekeeper.model.Cursor;
+import org.timekeeper.model.CursorPage;
 import org.timekeeper.model.ScanResult;
 import org.timekeeper.model.ScanResultStatus;
-import org.timekeeper.model.request.PageRequest;
+import org.timekeeper.model.request.CursorPageRequest;
+import org.timekeeper.model.request.LeaseRequest;
+import org.timekeeper.model.request.ScanResultUpdateRequest;
+import org.timekeeper.scheduler.RunOutcome;
 import org.timekeeper.service.ScanService;
 
 import java.time.Clock;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ScanSubmitter {
 
-    /**
-     * Class for representing a delay to a specific time.
-     * Synchronization is required on the setter in case multiple threads run the same process function at the same time
-     */
-    @Getter
-    @ToString
-    @Builder(toBuilder = true)
-    public static class Delay {
-
-        @Builder.Default
-        private Optional<Instant> time = Optional.empty();
-
-        @Synchronized
-        public void setTime(Instant newTime) {
-            if (
-                time.filter(existingTime -> existingTime.isAfter(newTime))
-                    .isPresent()
-            ) {
-                return;
-            }
-
-            time = Optional.of(newTime);
-        }
-
-    }
-
     protected static final ScanResultStatus STATUS = ScanResultStatus.SUBMITTED;
 
     protected static final Integer PAGE_SIZE = 20;
 
+    protected static final UrlScanRateLimiter.Action ACTION = UrlScanRateLimiter.Action.SCAN;
+
+    /**
+     * Bounds how many pages are submitted in a single run, so that the scheduler re-evaluates between runs
+     */
+    protected static final Integer MAX_PAGES_PER_RUN = 10;
+
     private final ScanService scanService;
 
     private final UrlScanClient urlScanClient;
 
-    private final Delay delay;
+    private final LeaseRequest scanSubmitterLease;
+
+    private final TaskExecutor scanSubmitterExecutor;
+
+    private final TaskExecutor scanSubmitterPrefetchExecutor;
 
     private final Clock clock;
 
-    public void submit() {
+    /**
+     * Submits pending scan results to urlscan.io, up to a bounded number of pages per run.
+     * Submissions for a page of scan results are run concurrently on the scan submitter executor, which bounds the number
+     * of submissions in flight, while the next page is claimed in the background on the prefetch executor. Once a
+     * submission is throttled, the throttled scan result and the submissions that have not yet been sent are skipped, and
+     * their scan results are released along with the next page.
+     *
+     * @return the outcome of the run, which reports a backlog if the run stopped before all pending scan results were submitted
+     */
+    public RunOutcome submit() {
         Instant now = clock.instant();
-        Optional<Instant> delayTime = delay.getTime();
+        Optional<Instant> delayTime = urlScanClient.getThrottleReset(ACTION);
         log.info("Polling for scan results to submit: status={} now={}", STATUS, now);
         if (
             delayTime.map(time -> time.isAfter(now))
                 .orElse(false)
         ) {
-            log.info("Requested delay has not been met; cancelling: delay={} now={}", delayTime, now);
+            log.info("Rate limit has not reset; cancelling: delay={} now={}", delayTime, now);
 
-            return;
+            return RunOutcome.builder()
+                .processed(0)
+                .backlog(true)
+                .throttledUntil(delayTime.get())
+                .build();
         }
 
-        Integer totalPages;
-        Integer page = 0;
+        AtomicReference<Instant> throttledUntil = new AtomicReference<>();
+        int processed = 0;
+        int pages = 0;
+        Optional<Cursor> cursor = Optional.empty();
+        CompletableFuture<CursorPage<ScanResult>> nextScanResultPage = claim(cursor);
         do {
-            PageRequest pageRequest = PageRequest.builder()
-                .page(page)
-                .pageSize(PAGE_SIZE)
-                .build();
-            Page<ScanResult> scanResultPage = scanService.listScanResults(STATUS, pageRequest);
+            CursorPage<ScanResult> scanResultPage = nextScanResultPage.join();
             List<ScanResult> scanResultList = scanResultPage.getData();
-            log.info("Retrieved scan results for requesting scans: scanResultList={}", scanResultList);
-            for (ScanResult scanResult : scanResultList) {
-                Optional<Instant> delayUntil = process(scanResult);
-                if (delayUntil.isPresent()) {
-                    delay.setTime(delayUntil.get());
-                    return;
+            pages++;
+            log.info("Claimed scan results for requesting scans: cursor={} scanResultList={}", cursor, scanResultList);
+
+            // Prefetch the next page while submissions for the current page are in flight, unless this is the last page of the run
+            cursor = Optional.ofNullable(scanResultPage.getNextCursor());
+            nextScanResultPage = cursor.isPresent() && pages < MAX_PAGES_PER_RUN
+                ? claim(cursor)
+                : CompletableFuture.completedFuture(CursorPage.<ScanResult>builder().data(List.of()).build());
+
+            List<ScanResultUpdateRequest> updateRequests = Collections.synchronizedList(new ArrayList<>());
+            List<ScanResult> skippedScanResultList;
+            try {
+                try {
+                    skippedScanResultList = submitAll(scanResultList, throttledUntil, updateRequests);
+                } finally {
+                    // Scan results accepted by urlscan.io must leave SUBMITTED even if the run stops early, or they would be
+                    // submitted again once their lease expires
+                    scanService.updateScanResults(updateRequests);
                 }
+            } catch (RuntimeException e) {
+                // The prefetched page will not be submitted by this run, so it is released rather than left leased
+                releaseScanResults(nextScanResultPage);
+                throw e;
+            }
+            // Only submissions that recorded an update count as processed, not those that failed or were throttled
+            processed += updateRequests.size();
+            if (throttledUntil.get() != null) {
+                List<Long> unsubmittedScanResultIds = Stream.concat(
+                        skippedScanResultList.stream(),
+                        nextScanResultPage.join().getData().stream()
+                    ).map(ScanResult::getId)
+                    .toList();
+                log.info("Throttled during submission; releasing unsubmitted scan results: scanResultIds={}", unsubmittedScanResultIds);
+                scanService.releaseScanResults(unsubmittedScanResultIds, scanSubmitterLease);
+
+                return RunOutcome.builder()
+                    .processed(processed)
+                    .backlog(true)
+                    .throttledUntil(throttledUntil.get())
+                    .build();
             }
+        } while (cursor.isPresent() && pages < MAX_PAGES_PER_RUN);
 
-            totalPages = scanResultPage.getTotalPages();
-            page++;
-        } while (page < totalPages);
+        return RunOutcome.builder()
+            .processed(processed)
+            .backlog(cursor.isPresent())
+            .build();
+    }
+
+    private void releaseScanResults(CompletableFuture<CursorPage<ScanResult>> scanResultPage) {
+        try {
+            List<Long> scanResultIds = scanResultPage.join().getData().stream()
+                .map(ScanResult::getId)
+                .toList();
+            log.info("Run failed; releasing prefetched scan results: scanResultIds={}", scanResultIds);
+            scanService.releaseScanResults(scanResultIds, scanSubmitterLease);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release prefetched scan results; retrying once lease expires", e);
+        }
+    }
+
+    private CompletableFuture<CursorPage<ScanResult>> claim(Optional<Cursor> cursor) {
+        CursorPageRequest cursorPageRequest = CursorPageRequest.builder()
+            .cursor(cursor.orElse(null))
+            .pageSize(PAGE_SIZE)
+            .build();
+
+        return CompletableFuture.supplyAsync(
+            () -> scanService.claimScanResults(STATUS, cursorPageRequest, scanSubmitterLease),
+            scanSubmitterPrefetchExecutor
+        );
+    }
+
+    /**
+     * Submits a page of scan results concurrently and waits for all submissions to complete
+     *
+     * @param scanResultList the scan results to submit
+     * @param throttledUntil shared across submissions in the run, and set to the throttle reset time once a submission is throttled
+     * @param updateRequests collects the status updates of submitted scan results, so that they can be applied as a single batch
+     * @return the scan results which were throttled, or skipped because a submission was throttled before they were sent
+     */
+    private List<ScanResult> submitAll(
+        List<ScanResult> scanResultList,
+        AtomicReference<Instant> throttledUntil,
+        List<ScanResultUpdateRequest> updateRequests
+    ) {
+        List<CompletableFuture<Optional<ScanResult>>> submissions = scanResultList.stream()
+            .map(scanResult -> CompletableFuture.supplyAsync(
+                () -> submitUnlessThrottled(scanResult, throttledUntil, updateRequests),
+                scanSubmitterExecutor
+            )).toList();
+        CompletableFuture.allOf(submissions.toArray(CompletableFuture[]::new)).join();
+
+        return submissions.stream()
+            .map(CompletableFuture::join)
+            .flatMap(Optional::stream)
+            .toList();
+    }
+
+    private Optional<ScanResult> submitUnlessThrottled(
+        ScanResult scanResult,
+        AtomicReference<Instant> throttledUntil,
+        List<ScanResultUpdateRequest> updateRequests
+    ) {
+        if (throttledUntil.get() != null) {
+            return Optional.of(scanResult);
+        }
+
+        Optional<Instant> delayUntil;
+        try {
+            delayUntil = process(scanResult, updateRequests);
+        } catch (RuntimeException e) {
+            // The request may have reached urlscan.io before failing (ex: a read timeout), so the scan result keeps its
+            // lease rather than being released for an immediate resubmission
+            log.warn("Failed to submit scan; retrying once lease expires: scanResultId={}", scanResult.getId(), e);
+
+            return Optional.empty();
+        }
+
+        // The rate limiter holds back further requests until the reset time, so the run only needs to stop submitting
+        if (delayUntil.isPresent()) {
+            throttledUntil.compareAndSet(null, delayUntil.get());
+            return Optional.of(scanResult);
+        }
+
+        return Optional.empty();
     }
 
-    private Optional<Instant> process(ScanResult scanResult) {
+    private Optional<Instant> process(ScanResult scanResult, List<ScanResultUpdateRequest> updateRequests) {
         ResponseEntity<SubmitScanResponse> responseEntity = urlScanClient.submitScan(scanResult.getUrl());
         HttpStatusCode statusCode = responseEntity.getStatusCode();
         SubmitScanResponse response = responseEntity.getBody();
 
         if (HttpStatus.OK.equals(statusCode)) {
-            scanService.updateScanResult(
-                scanResult.getId(),
-                ScanResultStatus.PROCESSING,
-                Optional.empty(),
-                Optional.ofNullable(response.getUuid()),
-                Optional.ofNullable(response.getResult())
+            updateRequests.add(
+                ScanResultUpdateRequest.builder()
+                    .scanResultId(scanResult.getId())
+                    .expectedStatus(STATUS)
+                    .status(ScanResultStatus.PROCESSING)
+                    .urlScanId(response.getUuid())
+                    .resultUrl(response.getResult())
+                    .build()
             );
 
             return Optional.empty();
@@ -127,18 +247,18 @@ public class ScanSubmitter {
         }
 
         if (statusCode.is4xxClientError()) {
-            scanService.updateScanResult(
-                scanResult.getId(),
-                ScanResultStatus.FAILED,
-                Optional.of(
-                    ScanResult.StatusDetails.builder()
-                        .code(response.getStatus())
-                        .message(response.getMessage())
-                        .description(response.getDescription())
-                        .build()
-                ),
-                Optional.empty(),
-                Optional.empty()
+            updateRequests.add(
+                ScanResultUpdateRequest.builder()
+                    .scanResultId(scanResult.getId())
+                    .expectedStatus(STATUS)
+                    .status(ScanResultStatus.FAILED)
+                    .statusDetails(
+                        ScanResult.StatusDetails.builder()
+                            .code(response.getStatus())
+                            .message(response.getMessage())
+                            .description(response.getDescription())
+                            .build()
+                    ).build()
             );
 
             return Optional.empty();
@@ -0,0 +1,281 @@
+package org.timekeeper.webhook;
+
+import lombok.Builder;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+import org.timekeeper.client.WebhookClient;
+import org.timekeeper.client.model.WebhookEvent;
+import org.timekeeper.client.model.WebhookPayload;
+import org.timekeeper.model.WebhookDelivery;
+import org.timekeeper.model.request.LeaseRequest;
+import org.timekeeper.scheduler.RunOutcome;
+import org.timekeeper.service.WebhookService;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+@Slf4j
+@RequiredArgsConstructor
+public class WebhookDeliverer {
+
+    protected static final Integer PAGE_SIZE = 100;
+
+    /**
+     * Maximum number of events sent to a webhook in a single request
+     */
+    protected static final Integer MAX_BATCH_SIZE = 20;
+
+    /**
+     * Bounds how many pages are delivered in a single run, so that the scheduler re-evaluates between runs
+     */
+    protected static final Integer MAX_PAGES_PER_RUN = 10;
+
+    /**
+     * Number of attempts after which a delivery is given up on. With the backoff below, deliveries are retried for about
+     * an hour and a half before they are given up on
+     */
+    protected static final Integer MAX_ATTEMPTS = 10;
+
+    protected static final Duration BASE_BACKOFF = Duration.of(10, ChronoUnit.SECONDS);
+
+    protected static final Duration MAX_BACKOFF = Duration.of(1, ChronoUnit.HOURS);
+
+    protected static final String SKIPPED_ERROR = "Skipped after a failed delivery to the same endpoint";
+
+    private final WebhookService webhookService;
+
+    private final WebhookClient webhookClient;
+
+    private final LeaseRequest webhookDelivererLease;
+
+    private final TaskExecutor webhookDelivererExecutor;
+
+    private final Integer endpointConcurrency;
+
+    private final Clock clock;
+
+    @Value
+    @Builder(toBuilder = true)
+    private static class BatchOutcome {
+
+        List<WebhookDelivery> batch;
+
+        /**
+         * Description of why the batch was not delivered, or null if it was delivered
+         */
+        String error;
+
+    }
+
+    /**
+     * Deliveries that failed with the same error after the same number of attempts, which are rescheduled together
+     */
+    @Value
+    @Builder(toBuilder = true)
+    private static class RetryGroup {
+
+        Integer attemptCount;
+
+        String error;
+
+    }
+
+    /**
+     * Delivers due webhook deliveries, up to a bounded number of pages per run.
+     * The deliveries of a page are batched per webhook into requests of up to {@link #MAX_BATCH_SIZE} events. The batches
+     * of each endpoint are split into at most endpointConcurrency lanes, each of which sends its batches one after another,
+     * and lanes run concurrently on the webhook deliverer executor, which bounds the number of requests in flight across
+     * endpoints. Once a batch to an endpoint fails, the rest of its lane is not sent and is retried along with it.
+     * Delivered deliveries are removed and failed deliveries rescheduled with exponential backoff, each with a single
+     * statement per page
+     *
+     * @return the outcome of the run, which reports a backlog if the run stopped before all due deliveries were delivered
+     */
+    public RunOutcome deliver() {
+        int processed = 0;
+        int pages = 0;
+        boolean backlog;
+        do {
+            List<WebhookDelivery> deliveryList = webhookService.claimDeliveries(PAGE_SIZE, webhookDelivererLease);
+            pages++;
+            log.info("Claimed webhook deliveries: count={}", deliveryList.size());
+            backlog = deliveryList.size() >= PAGE_SIZE;
+
+            deliverAll(deliveryList);
+            processed += deliveryList.size();
+        } while (backlog && pages < MAX_PAGES_PER_RUN);
+
+        return RunOutcome.builder()
+            .processed(processed)
+            .backlog(backlog)
+            .build();
+    }
+
+    /**
+     * Computes when a delivery that failed should next be attempted
+     *
+     * @param attemptCount the number of attempts made before the one that failed
+     * @param now          the current time
+     * @return the time at which the next attempt is due, or empty if the delivery is to be given up on
+     */
+    protected static Optional<Instant> getNextAttemptAt(int attemptCount, Instant now) {
+        int attempts = attemptCount + 1;
+        if (attempts >= MAX_ATTEMPTS) {
+            return Optional.empty();
+        }
+
+        Duration backoff = BASE_BACKOFF.multipliedBy(1L << Math.min(attempts - 1, 16));
+
+        return Optional.of(now.plus(backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff));
+    }
+
+    private void deliverAll(List<WebhookDelivery> deliveryList) {
+        if (deliveryList.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<List<BatchOutcome>>> lanes = toLanes(deliveryList).stream()
+            .map(lane -> CompletableFuture.supplyAsync(() -> deliverLane(lane), webhookDelivererExecutor))
+            .toList();
+        CompletableFuture.allOf(lanes.toArray(CompletableFuture[]::new)).join();
+        List<BatchOutcome> batchOutcomes = lanes.stream()
+            .map(CompletableFuture::join)
+            .flatMap(List::stream)
+            .toList();
+
+        List<Long> deliveredIds = batchOutcomes.stream()
+            .filter(batchOutcome -> batchOutcome.getError() == null)
+            .flatMap(batchOutcome -> batchOutcome.getBatch().stream())
+            .map(WebhookDelivery::getId)
+            .toList();
+        webhookService.completeDeliveries(deliveredIds, webhookDelivererLease);
+
+        Instant now = clock.instant();
+        Map<RetryGroup, List<Long>> failedIds = new LinkedHashMap<>();
+        batchOutcomes.stream()
+            .filter(batchOutcome -> batchOutcome.getError() != null)
+            .forEach(batchOutcome -> batchOutcome.getBatch().forEach(delivery ->
+                failedIds.computeIfAbsent(
+                    RetryGroup.builder()
+                        .attemptCount(delivery.getAttemptCount())
+                        .error(batchOutcome.getError())
+                        .build(),
+                    retryGroup -> new ArrayList<>()
+                ).add(delivery.getId())
+            ));
+        failedIds.forEach((retryGroup, deliveryIds) -> webhookService.rescheduleDeliveries(
+            deliveryIds,
+            getNextAttemptAt(retryGroup.getAttemptCount(), now),
+            retryGroup.getError(),
+            webhookDelivererLease
+        ));
+    }
+
+    /**
+     * Batches deliveries per webhook, then deals the batches of each endpoint round-robin into at most endpointConcurrency
+     * lanes, so that the requests in flight to an endpoint are bounded however many webhooks share it
+     */
+    private List<List<List<WebhookDelivery>>> toLanes(List<WebhookDelivery> deliveryList) {
+        Map<String, List<List<WebhookDelivery>>> batchesByEndpoint = new LinkedHashMap<>();
+        deliveryList.stream()
+            .collect(Collectors.groupingBy(WebhookDelivery::getWebhookId, LinkedHashMap::new, Collectors.toList()))
+            .values()
+            .forEach(webhookDeliveryList -> {
+                List<List<WebhookDelivery>> batches = batchesByEndpoint.computeIfAbsent(
+                    getEndpoint(webhookDeliveryList.get(0).getUrl()),
+                    endpoint -> new ArrayList<>()
+                );
+                for (int i = 0; i < webhookDeliveryList.size(); i += MAX_BATCH_SIZE) {
+                    batches.add(webhookDeliveryList.subList(i, Math.min(i + MAX_BATCH_SIZE, webhookDeliveryList.size())));
+                }
+            });
+
+        List<List<List<WebhookDelivery>>> lanes = new ArrayList<>();
+        batchesByEndpoint.values().forEach(batches -> {
+            int laneCount = Math.min(endpointConcurrency, batches.size());
+            List<List<List<WebhookDelivery>>> endpointLanes = new ArrayList<>();
+            for (int i = 0; i < laneCount; i++) {
+                endpointLanes.add(new ArrayList<>());
+            }
+            for (int i = 0; i < batches.size(); i++) {
+                endpointLanes.get(i % laneCount).add(batches.get(i));
+            }
+            lanes.addAll(endpointLanes);
+        });
+
+        return lanes;
+    }
+
+    private List<BatchOutcome> deliverLane(List<List<WebhookDelivery>> lane) {
+        List<BatchOutcome> batchOutcomes = new ArrayList<>();
+        boolean failed = false;
+        for (List<WebhookDelivery> batch : lane) {
+            String error = failed ? SKIPPED_ERROR : deliverBatch(batch);
+            failed = failed || error != null;
+            batchOutcomes.add(
+                BatchOutcome.builder()
+                    .batch(batch)
+                    .error(error)
+                    .build()
+            );
+        }
+
+        return batchOutcomes;
+    }
+
+    /**
+     * @return a description of why the batch was not delivered, or null if it was delivered
+     */
+    private String deliverBatch(List<WebhookDelivery> batch) {
+        String url = batch.get(0).getUrl();
+        WebhookPayload payload = WebhookPayload.builder()
+            .events(
+                batch.stream()
+                    .map(delivery -> WebhookEvent.builder()
+                        .id(delivery.getId())
+                        .scan(delivery.getScan())
+                        .build()
+                    ).toList()
+            ).build();
+
+        try {
+            ResponseEntity<Void> response = webhookClient.deliver(url, payload);
+            if (response.getStatusCode().is2xxSuccessful()) {
+                return null;
+            }
+
+            log.info("Webhook rejected delivery; retrying later: webhookId={} status={}", batch.get(0).getWebhookId(), response.getStatusCode());
+            return String.format("Webhook responded with status %s", response.getStatusCode().value());
+        } catch (RestClientException e) {
+            log.info("Failed to deliver to webhook; retrying later: webhookId={} message={}", batch.get(0).getWebhookId(), e.getMessage());
+            return String.format("Failed to deliver to webhook: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * @return the scheme, host and port of the URL, or the URL itself if it cannot be parsed
+     */
+    private static String getEndpoint(String url) {
+        try {
+            URI uri = URI.create(url);
+            return String.format("%s://%s", uri.getScheme(), uri.getRawAuthority());
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+}
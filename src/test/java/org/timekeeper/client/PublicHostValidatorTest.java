@@ -0,0 +1,64 @@
+package org.timekeeper.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PublicHostValidatorTest {
+
+    private final PublicHostValidator publicHostValidator = new PublicHostValidator();
+
+    @Test
+    public void testIsValid_withPublicAddresses_returnsTrue() {
+        assertTrue(publicHostValidator.isValid("93.184.216.34"));
+        assertTrue(publicHostValidator.isValid("[2606:2800:220:1:248:1893:25c8:1946]"));
+    }
+
+    @Test
+    public void testIsValid_withNonPublicAddresses_returnsFalse() {
+        assertFalse(publicHostValidator.isValid("127.0.0.1"));
+        assertFalse(publicHostValidator.isValid("[::1]"));
+        assertFalse(publicHostValidator.isValid("0.0.0.0"));
+        assertFalse(publicHostValidator.isValid("10.1.2.3"));
+        assertFalse(publicHostValidator.isValid("172.16.0.1"));
+        assertFalse(publicHostValidator.isValid("192.168.1.1"));
+        assertFalse(publicHostValidator.isValid("169.254.169.254"));
+        assertFalse(publicHostValidator.isValid("100.100.100.200"));
+        assertFalse(publicHostValidator.isValid("[fe80::1]"));
+        assertFalse(publicHostValidator.isValid("[fd00:ec2::254]"));
+        assertFalse(publicHostValidator.isValid("[::ffff:127.0.0.1]"));
+    }
+
+    @Test
+    public void testIsValid_withAnyNonPublicAddress_returnsFalse() {
+        PublicHostValidator rebindingValidator = new PublicHostValidator() {
+            @Override
+            protected InetAddress[] lookup(String host) throws UnknownHostException {
+                return new InetAddress[]{
+                    InetAddress.getByName("93.184.216.34"),
+                    InetAddress.getByName("127.0.0.1")
+                };
+            }
+        };
+
+        assertFalse(rebindingValidator.isValid("example.com"));
+    }
+
+    @Test
+    public void testIsValid_withUnresolvableHost_returnsFalse() {
+        PublicHostValidator unresolvableValidator = new PublicHostValidator() {
+            @Override
+            protected InetAddress[] lookup(String host) throws UnknownHostException {
+                throw new UnknownHostException(host);
+            }
+        };
+
+        assertFalse(unresolvableValidator.isValid("example.invalid"));
+        assertFalse(publicHostValidator.isValid(null));
+    }
+
+}
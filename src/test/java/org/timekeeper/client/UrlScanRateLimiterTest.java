@@ -0,0 +1,161 @@
+package org.timekeeper.client;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+import static org.timekeeper.client.UrlScanRateLimiter.LIMIT_HEADER;
+import static org.timekeeper.client.UrlScanRateLimiter.REMAINING_HEADER;
+import static org.timekeeper.client.UrlScanRateLimiter.RESET_HEADER;
+import static org.timekeeper.client.UrlScanRateLimiter.SCOPE_HEADER;
+import static org.timekeeper.client.UrlScanRateLimiter.WINDOW_HEADER;
+
+@ExtendWith(MockitoExtension.class)
+public class UrlScanRateLimiterTest {
+
+    private static final Instant NOW = Instant.now();
+
+    private static final Instant MINUTE_RESET = NOW.plus(1, ChronoUnit.MINUTES);
+
+    private static final Instant HOUR_RESET = NOW.plus(1, ChronoUnit.HOURS);
+
+    private static final String MINUTE = "minute";
+
+    private static final String HOUR = "hour";
+
+    private static final String SCOPE = "team";
+
+    @Mock
+    private Clock clock;
+
+    private UrlScanRateLimiter rateLimiter;
+
+    @BeforeEach
+    public void setupEach() {
+        lenient().when(clock.instant()).thenReturn(NOW);
+        rateLimiter = new UrlScanRateLimiter(clock);
+    }
+
+    private static HttpHeaders headers(String window, Integer remaining, Instant reset) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(WINDOW_HEADER, window);
+        headers.set(SCOPE_HEADER, SCOPE);
+        headers.set(LIMIT_HEADER, "60");
+        headers.set(REMAINING_HEADER, Integer.toString(remaining));
+        headers.set(RESET_HEADER, reset.toString());
+
+        return headers;
+    }
+
+    @Test
+    public void testTryAcquire_withoutKnownWindows_acquires() {
+        assertEquals(Optional.empty(), rateLimiter.tryAcquire(UrlScanRateLimiter.Action.SCAN));
+    }
+
+    @Test
+    public void testTryAcquire_withRemainingInAllWindows_acquiresUntilExhausted() {
+        rateLimiter.update(UrlScanRateLimiter.Action.SCAN, HttpStatus.OK, headers(MINUTE, 2, MINUTE_RESET));
+        rateLimiter.update(UrlScanRateLimiter.Action.SCAN, HttpStatus.OK, headers(HOUR, 1, HOUR_RESET));
+
+        assertEquals(Optional.empty(), rateLimiter.tryAcquire(UrlScanRateLimiter.Action.SCAN));
+        assertEquals(Optional.of(HOUR_RESET), rateLimiter.tryAcquire(UrlScanRateLimiter.Action.SCAN));
+    }
+
+    @Test
+    public void testTryAcquire_withRemainingInWindow_pacesPermitsAcrossWindow() {
+        rateLimiter.update(UrlScanRateLimiter.Action.SCAN, HttpStatus.OK, headers(MINUTE, 3, MINUTE_RESET));
+
+        assertEquals(Optional.empty(), rateLimiter.tryAcquire(UrlScanRateLimiter.Action.SCAN));
+        assertEquals(Optional.of(NOW.plus(20, ChronoUnit.SECONDS)), rateLimiter.tryAcquire(UrlScanRateLimiter.Action.SCAN));
+
+        when(clock.instant()).thenReturn(NOW.plus(20, ChronoUnit.SECONDS));
+        assertEquals(Optional.empty(), rateLimiter.tryAcquire(UrlScanRateLimiter.Action.SCAN));
+        assertEquals(Optional.of(NOW.plus(40, ChronoUnit.SECONDS)), rateLimiter.getAvailableAt(UrlScanRateLimiter.Action.SCAN));
+    }
+
+    @Test
+    public void testTryAcquire_withUsageByOtherProcesses_pacesShareOfRemaining() {
+        rateLimiter.update(UrlScanRateLimiter.Action.SCAN, HttpStatus.OK, headers(MINUTE, 40, MINUTE_RESET));
+        rateLimiter.tryAcquire(UrlScanRateLimiter.Action.SCAN);
+        // 10 used since the window was first seen, of which 1 by this process, leaves it 30 * 2 / 11 = 5 of the remaining permits
+        rateLimiter.update(UrlScanRateLimiter.Action.SCAN, HttpStatus.OK, headers(MINUTE, 30, MINUTE_RESET));
+        when(clock.instant()).thenReturn(NOW.plus(10, ChronoUnit.SECONDS));
+
+        assertEquals(Optional.empty(), rateLimiter.tryAcquire(UrlScanRateLimiter.Action.SCAN));
+        assertEquals(Optional.of(NOW.plus(20, ChronoUnit.SECONDS)), rateLimiter.getAvailableAt(UrlScanRateLimiter.Action.SCAN));
+    }
+
+    @Test
+    public void testUpdate_withWindowsOfDifferentScopes_tracksWindowsSeparately() {
+        HttpHeaders ipHeaders = headers(MINUTE, 5, MINUTE_RESET);
+        ipHeaders.set(SCOPE_HEADER, "ip");
+
+        rateLimiter.update(UrlScanRateLimiter.Action.SCAN, HttpStatus.OK, headers(MINUTE, 0, MINUTE_RESET));
+        rateLimiter.update(UrlScanRateLimiter.Action.SCAN, HttpStatus.OK, ipHeaders);
+
+        assertEquals(Optional.of(MINUTE_RESET), rateLimiter.getAvailableAt(UrlScanRateLimiter.Action.SCAN));
+    }
+
+    @Test
+    public void testTryAcquire_withExhaustedWindowOfOtherAction_acquires() {
+        rateLimiter.update(UrlScanRateLimiter.Action.RESULT, HttpStatus.OK, headers(MINUTE, 0, MINUTE_RESET));
+
+        assertEquals(Optional.empty(), rateLimiter.tryAcquire(UrlScanRateLimiter.Action.SCAN));
+        assertEquals(Optional.of(MINUTE_RESET), rateLimiter.getAvailableAt(UrlScanRateLimiter.Action.RESULT));
+    }
+
+    @Test
+    public void testTryAcquire_withExhaustedWindowThatHasReset_acquires() {
+        rateLimiter.update(UrlScanRateLimiter.Action.SCAN, HttpStatus.OK, headers(MINUTE, 0, MINUTE_RESET));
+        lenient().when(clock.instant()).thenReturn(MINUTE_RESET);
+
+        assertEquals(Optional.empty(), rateLimiter.tryAcquire(UrlScanRateLimiter.Action.SCAN));
+    }
+
+    @Test
+    public void testUpdate_withThrottledResponse_exhaustsWindow() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(RESET_HEADER, MINUTE_RESET.toString());
+
+        rateLimiter.update(UrlScanRateLimiter.Action.SCAN, HttpStatus.TOO_MANY_REQUESTS, headers);
+
+        assertEquals(Optional.of(MINUTE_RESET), rateLimiter.tryAcquire(UrlScanRateLimiter.Action.SCAN));
+    }
+
+    @Test
+    public void testUpdate_withStaleRemainingInSameWindow_keepsTrackedRemaining() {
+        rateLimiter.update(UrlScanRateLimiter.Action.SCAN, HttpStatus.OK, headers(MINUTE, 1, MINUTE_RESET));
+        rateLimiter.tryAcquire(UrlScanRateLimiter.Action.SCAN);
+
+        rateLimiter.update(UrlScanRateLimiter.Action.SCAN, HttpStatus.OK, headers(MINUTE, 5, MINUTE_RESET));
+
+        assertEquals(Optional.of(MINUTE_RESET), rateLimiter.getAvailableAt(UrlScanRateLimiter.Action.SCAN));
+    }
+
+    @Test
+    public void testUpdate_withMissingOrMalformedHeaders_ignoresResponse() {
+        HttpHeaders malformedReset = headers(MINUTE, 0, MINUTE_RESET);
+        malformedReset.set(RESET_HEADER, "malformed");
+        HttpHeaders malformedRemaining = headers(MINUTE, 0, MINUTE_RESET);
+        malformedRemaining.set(REMAINING_HEADER, "malformed");
+
+        rateLimiter.update(UrlScanRateLimiter.Action.SCAN, HttpStatus.OK, new HttpHeaders());
+        rateLimiter.update(UrlScanRateLimiter.Action.SCAN, HttpStatus.OK, malformedReset);
+        rateLimiter.update(UrlScanRateLimiter.Action.SCAN, HttpStatus.OK, malformedRemaining);
+
+        assertEquals(Optional.empty(), rateLimiter.getAvailableAt(UrlScanRateLimiter.Action.SCAN));
+    }
+
+}
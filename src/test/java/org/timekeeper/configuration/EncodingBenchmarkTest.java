@@ -0,0 +1,103 @@
+package org.timekeeper.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.timekeeper.model.Page;
+import org.timekeeper.model.ScanResult;
+import org.timekeeper.model.ScanResultStatus;
+import org.timekeeper.model.ScanSummary;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the payload size and encoding cost of each encoding of a large page of scan summaries, as pulled in bulk by
+ * internal consumers. Tagged as a benchmark, so it is left out of the build; run it alone with
+ * {@code mvn test -Dsurefire.excludedGroups= -Dtest=EncodingBenchmarkTest} for stable timings. Only the payload sizes
+ * are asserted, as timings vary with the machine
+ */
+@Slf4j
+@Tag("benchmark")
+public class EncodingBenchmarkTest {
+
+    private static final Integer PAGE_SIZE = 1_000;
+
+    private static final Integer WARMUP_ITERATIONS = 200;
+
+    private static final Integer MEASURED_ITERATIONS = 500;
+
+    private static final Instant CREATED_AT = Instant.parse("2024-01-02T03:04:05.123456Z");
+
+    private static final Page<ScanSummary> SCAN_SUMMARY_PAGE = Page.<ScanSummary>builder()
+        .data(IntStream.range(0, PAGE_SIZE)
+            .mapToObj(EncodingBenchmarkTest::scanSummary)
+            .toList())
+        .page(0)
+        .totalPages(10)
+        .totalElements(10L * PAGE_SIZE)
+        .build();
+
+    private final EncodingConfig encodingConfig = new EncodingConfig();
+
+    @Test
+    public void testEncodings_withLargeScanSummaryPage_binaryEncodingsAreSmallerThanJson() throws Exception {
+        Map<String, ObjectMapper> objectMappers = new LinkedHashMap<>();
+        objectMappers.put("json", EncodingConfigTest.objectMapperBuilder().build());
+        objectMappers.put("smile", encodingConfig.smileHttpMessageConverter(EncodingConfigTest.objectMapperBuilder()).getObjectMapper());
+        objectMappers.put("cbor", encodingConfig.cborHttpMessageConverter(EncodingConfigTest.objectMapperBuilder()).getObjectMapper());
+
+        Map<String, Integer> payloadSizes = new LinkedHashMap<>();
+        for (Map.Entry<String, ObjectMapper> entry : objectMappers.entrySet()) {
+            ObjectMapper objectMapper = entry.getValue();
+            byte[] payload = objectMapper.writeValueAsBytes(SCAN_SUMMARY_PAGE);
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                objectMapper.readTree(objectMapper.writeValueAsBytes(SCAN_SUMMARY_PAGE));
+            }
+
+            long writeStartNanos = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                objectMapper.writeValueAsBytes(SCAN_SUMMARY_PAGE);
+            }
+            long writeNanos = (System.nanoTime() - writeStartNanos) / MEASURED_ITERATIONS;
+
+            long readStartNanos = System.nanoTime();
+            for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+                objectMapper.readTree(payload);
+            }
+            long readNanos = (System.nanoTime() - readStartNanos) / MEASURED_ITERATIONS;
+
+            payloadSizes.put(entry.getKey(), payload.length);
+            log.info("Encoded scan summary page: encoding={} scanCount={} payloadBytes={} writeMicros={} readMicros={}",
+                entry.getKey(), PAGE_SIZE, payload.length, writeNanos / 1_000, readNanos / 1_000);
+        }
+
+        assertTrue(payloadSizes.get("smile") < payloadSizes.get("json"));
+        assertTrue(payloadSizes.get("cbor") < payloadSizes.get("json"));
+    }
+
+    private static ScanSummary scanSummary(int i) {
+        boolean failed = i % 10 == 0;
+        return ScanSummary.builder()
+            .id(1_000_000L + i)
+            .url(String.format("https://www.example%s.com/path/to/page?query=%s", i % 50, i))
+            .status(failed ? ScanResultStatus.FAILED : ScanResultStatus.DONE)
+            .statusDetails(failed
+                ? ScanResult.StatusDetails.builder()
+                    .code(400)
+                    .message("DNS Error - Could not resolve domain")
+                    .description("The domain could not be resolved to a valid IPv4/IPv6 address")
+                    .build()
+                : null)
+            .createdAt(CREATED_AT.plus(i, ChronoUnit.SECONDS))
+            .updatedAt(CREATED_AT.plus(i, ChronoUnit.SECONDS).plus(90, ChronoUnit.SECONDS))
+            .build();
+    }
+
+}
@@ -0,0 +1,121 @@
+package org.timekeeper.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.timekeeper.controller.advice.GlobalExceptionHandler;
+import org.timekeeper.exception.ResourceNotFoundException;
+import org.timekeeper.model.Page;
+import org.timekeeper.model.ScanResult;
+import org.timekeeper.model.ScanResultStatus;
+import org.timekeeper.model.ScanSummary;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.timekeeper.database.postgresql.repository.Constants.APPLICATION_SMILE_VALUE;
+
+@ExtendWith(MockitoExtension.class)
+public class EncodingConfigTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2024-01-02T03:04:05.123456Z");
+
+    private static final Page<ScanSummary> SCAN_SUMMARY_PAGE = Page.<ScanSummary>builder()
+        .data(List.of(
+            ScanSummary.builder()
+                .id(1L)
+                .url("https://example.com/")
+                .status(ScanResultStatus.FAILED)
+                .statusDetails(
+                    ScanResult.StatusDetails.builder()
+                        .code(400)
+                        .message("message")
+                        .description("description")
+                        .build()
+                )
+                .createdAt(CREATED_AT)
+                .updatedAt(CREATED_AT.plus(1, ChronoUnit.MINUTES))
+                .build()
+        ))
+        .page(0)
+        .totalPages(1)
+        .totalElements(1L)
+        .build();
+
+    private static final GlobalExceptionHandler.ExceptionDetails EXCEPTION_DETAILS = GlobalExceptionHandler.ExceptionDetails.builder()
+        .type(ResourceNotFoundException.class)
+        .message("message")
+        .build();
+
+    private final EncodingConfig encodingConfig = new EncodingConfig();
+
+    private final ObjectMapper jsonObjectMapper = objectMapperBuilder().build();
+
+    @Test
+    public void testSmileHttpMessageConverter_withScanSummaryPage_encodesSameFieldsAsJson() throws Exception {
+        AbstractJackson2HttpMessageConverter converter = encodingConfig.smileHttpMessageConverter(objectMapperBuilder());
+
+        assertTrue(converter.canWrite(Page.class, MediaType.parseMediaType(APPLICATION_SMILE_VALUE)));
+        assertEquals(
+            jsonObjectMapper.readTree(jsonObjectMapper.writeValueAsBytes(SCAN_SUMMARY_PAGE)),
+            converter.getObjectMapper().readTree(converter.getObjectMapper().writeValueAsBytes(SCAN_SUMMARY_PAGE))
+        );
+    }
+
+    @Test
+    public void testCborHttpMessageConverter_withScanSummaryPage_encodesSameFieldsAsJson() throws Exception {
+        AbstractJackson2HttpMessageConverter converter = encodingConfig.cborHttpMessageConverter(objectMapperBuilder());
+
+        assertTrue(converter.canWrite(Page.class, MediaType.APPLICATION_CBOR));
+        assertEquals(
+            jsonObjectMapper.readTree(jsonObjectMapper.writeValueAsBytes(SCAN_SUMMARY_PAGE)),
+            converter.getObjectMapper().readTree(converter.getObjectMapper().writeValueAsBytes(SCAN_SUMMARY_PAGE))
+        );
+    }
+
+    @Test
+    public void testSmileHttpMessageConverter_withExceptionDetails_encodesSameFieldsAsJson() throws Exception {
+        AbstractJackson2HttpMessageConverter converter = encodingConfig.smileHttpMessageConverter(objectMapperBuilder());
+
+        assertTrue(converter.canWrite(GlobalExceptionHandler.ExceptionDetails.class, MediaType.parseMediaType(APPLICATION_SMILE_VALUE)));
+        assertEquals(
+            jsonObjectMapper.readTree(jsonObjectMapper.writeValueAsBytes(EXCEPTION_DETAILS)),
+            converter.getObjectMapper().readTree(converter.getObjectMapper().writeValueAsBytes(EXCEPTION_DETAILS))
+        );
+    }
+
+    @Test
+    public void testBinaryHttpMessageConverters_withScanSummaryPages_encodeSmallerPayloadsThanJson() throws Exception {
+        Page<ScanSummary> scanSummaryPage = SCAN_SUMMARY_PAGE.toBuilder()
+            .data(Collections.nCopies(100, SCAN_SUMMARY_PAGE.getData().get(0)))
+            .build();
+        int jsonPayloadLength = jsonObjectMapper.writeValueAsBytes(scanSummaryPage).length;
+
+        assertTrue(
+            encodingConfig.smileHttpMessageConverter(objectMapperBuilder()).getObjectMapper()
+                .writeValueAsBytes(scanSummaryPage).length < jsonPayloadLength
+        );
+        assertTrue(
+            encodingConfig.cborHttpMessageConverter(objectMapperBuilder()).getObjectMapper()
+                .writeValueAsBytes(scanSummaryPage).length < jsonPayloadLength
+        );
+    }
+
+    /**
+     * Builds mappers with the same defaults as the builder Spring Boot provides to the service
+     */
+    static Jackson2ObjectMapperBuilder objectMapperBuilder() {
+        return new Jackson2ObjectMapperBuilder()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+    }
+
+}
@@ -4,31 +4,71 @@ import org.apache.commons.validator.routines.UrlValidator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.timekeeper.exception.BadRequestException;
+import org.timekeeper.model.ChangeFeedCursor;
+import org.timekeeper.model.Cursor;
+import org.timekeeper.model.CursorPage;
+import org.timekeeper.model.KeysetPage;
 import org.timekeeper.model.Page;
 import org.timekeeper.model.Scan;
+import org.timekeeper.model.ScanChangePage;
+import org.timekeeper.model.ScanCreation;
+import org.timekeeper.model.ScanLookup;
 import org.timekeeper.model.ScanResult;
 import org.timekeeper.model.ScanResultStatus;
 import org.timekeeper.model.ScanSummary;
+import org.timekeeper.model.ScanVersion;
 import org.timekeeper.model.request.CreateScanRequest;
+import org.timekeeper.model.request.CreateScansRequest;
+import org.timekeeper.model.request.CursorPageRequest;
+import org.timekeeper.model.request.LookupScansRequest;
 import org.timekeeper.model.request.PageRequest;
+import org.timekeeper.model.transform.ChangeFeedCursorTokenTransform;
+import org.timekeeper.model.transform.CursorTokenTransform;
+import org.timekeeper.model.transform.EntityTagTransform;
+import org.timekeeper.model.transform.KeysetPageTransform;
+import org.timekeeper.model.transform.ScanVersionTransform;
+import org.timekeeper.service.ScanEventBroadcaster;
 import org.timekeeper.service.ScanService;
+import org.timekeeper.service.ScanStatusWaiters;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.timekeeper.database.postgresql.repository.Constants.MAX_CHANGE_PAGE_SIZE;
+import static org.timekeeper.database.postgresql.repository.Constants.MAX_CREATE_BATCH_SIZE;
+import static org.timekeeper.database.postgresql.repository.Constants.MAX_LOOKUP_BATCH_SIZE;
 import static org.timekeeper.database.postgresql.repository.Constants.MAX_PAGE_SIZE;
+import static org.timekeeper.database.postgresql.repository.Constants.MAX_WAIT_TIMEOUT;
 
 @ExtendWith(MockitoExtension.class)
 public class ScanControllerTest {
@@ -71,6 +111,8 @@ public class ScanControllerTest {
 
     private static final ScanResultStatus STATUS = ScanResultStatus.SUBMITTED;
 
+    private static final Duration WAIT_TIMEOUT = Duration.of(30, ChronoUnit.SECONDS);
+
     private static final ScanResult.StatusDetails SCAN_RESULT_STATUS_DETAILS = ScanResult.StatusDetails.builder()
         .code(STATUS_CODE)
         .message(STATUS_MESSAGE)
@@ -103,6 +145,12 @@ public class ScanControllerTest {
         .updatedAt(SCAN_UPDATED_AT)
         .build();
 
+    private static final ScanVersion SCAN_VERSION = ScanVersion.builder()
+        .id(SCAN_ID)
+        .status(STATUS)
+        .updatedAt(SCAN_UPDATED_AT)
+        .build();
+
     private static final PageRequest PAGE_REQUEST = PageRequest.builder()
         .page(PAGE)
         .pageSize(PAGE_SIZE)
@@ -115,6 +163,32 @@ public class ScanControllerTest {
         .totalPages(TOTAL_PAGES)
         .build();
 
+    private static final Cursor CURSOR = Cursor.builder()
+        .createdAt(SCAN_CREATED_AT)
+        .id(SCAN_ID)
+        .build();
+
+    private static final CursorPageRequest CURSOR_PAGE_REQUEST = CursorPageRequest.builder()
+        .cursor(CURSOR)
+        .pageSize(PAGE_SIZE)
+        .build();
+
+    private static final CursorPage<ScanSummary> SCAN_SUMMARY_CURSOR_PAGE = CursorPage.<ScanSummary>builder()
+        .data(List.of(SCAN_SUMMARY))
+        .nextCursor(CURSOR)
+        .build();
+
+    private static final ChangeFeedCursor CHANGE_FEED_CURSOR = ChangeFeedCursor.builder()
+        .position(TOTAL_ELEMENTS)
+        .scanId(SCAN_ID)
+        .build();
+
+    private static final ScanChangePage SCAN_CHANGE_PAGE = ScanChangePage.builder()
+        .data(List.of())
+        .nextCursor(ChangeFeedCursorTokenTransform.apply(CHANGE_FEED_CURSOR))
+        .hasMore(false)
+        .build();
+
     @Mock
     private OidcUser user;
 
@@ -124,12 +198,30 @@ public class ScanControllerTest {
     @Mock
     UrlValidator urlValidator;
 
+    @Mock
+    private ScanStatusWaiters scanStatusWaiters;
+
+    @Mock
+    private ScanEventBroadcaster scanEventBroadcaster;
+
+    @Captor
+    private ArgumentCaptor<Runnable> waiterCaptor;
+
     @InjectMocks
     private ScanController scanController;
 
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    private ServletWebRequest webRequest;
+
     @BeforeEach
     public void setupEach() {
         when(user.getSubject()).thenReturn(USER_ID);
+        request = new MockHttpServletRequest("GET", "/scans");
+        response = new MockHttpServletResponse();
+        webRequest = new ServletWebRequest(request, response);
     }
 
     @Test
@@ -137,14 +229,26 @@ public class ScanControllerTest {
         when(scanService.listScanSummaries(USER_ID, Optional.of(STATUS), PAGE_REQUEST))
             .thenReturn(SCAN_SUMMARY_PAGE);
 
-        assertEquals(SCAN_SUMMARY_PAGE, scanController.listScanSummaries(user, Optional.of(STATUS), PAGE, PAGE_SIZE));
+        assertEquals(SCAN_SUMMARY_PAGE, scanController.listScanSummaries(user, Optional.of(STATUS), PAGE, PAGE_SIZE, webRequest));
+        assertEquals(EntityTagTransform.apply(SCAN_SUMMARY_PAGE), response.getHeader(HttpHeaders.ETAG));
+        assertEquals(SCAN_UPDATED_AT.toEpochMilli() / 1000 * 1000, response.getDateHeader(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    public void testListScanSummaries_withMatchingEntityTag_respondsNotModified() {
+        when(scanService.listScanSummaries(USER_ID, Optional.of(STATUS), PAGE_REQUEST))
+            .thenReturn(SCAN_SUMMARY_PAGE);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, EntityTagTransform.apply(SCAN_SUMMARY_PAGE));
+
+        assertNull(scanController.listScanSummaries(user, Optional.of(STATUS), PAGE, PAGE_SIZE, webRequest));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
     }
 
     @Test
     public void testListScanSummaries_withInvalidPage_throwsBadRequestException() {
         assertThrows(
             BadRequestException.class,
-            () -> scanController.listScanSummaries(user, Optional.of(STATUS), -1, PAGE_SIZE)
+            () -> scanController.listScanSummaries(user, Optional.of(STATUS), -1, PAGE_SIZE, webRequest)
         );
 
         verifyNoInteractions(scanService);
@@ -154,7 +258,7 @@ public class ScanControllerTest {
     public void testListScanSummaries_withInvalidPageSize_throwsBadRequestException() {
         assertThrows(
             BadRequestException.class,
-            () -> scanController.listScanSummaries(user, Optional.of(STATUS), PAGE, -1)
+            () -> scanController.listScanSummaries(user, Optional.of(STATUS), PAGE, -1, webRequest)
         );
 
         verifyNoInteractions(scanService);
@@ -165,14 +269,249 @@ public class ScanControllerTest {
         when(scanService.listScanSummaries(USER_ID, Optional.of(STATUS), PAGE_REQUEST.toBuilder().pageSize(MAX_PAGE_SIZE).build()))
             .thenReturn(SCAN_SUMMARY_PAGE);
 
-        assertEquals(SCAN_SUMMARY_PAGE, scanController.listScanSummaries(user, Optional.of(STATUS), PAGE, MAX_PAGE_SIZE + 1));
+        assertEquals(SCAN_SUMMARY_PAGE, scanController.listScanSummaries(user, Optional.of(STATUS), PAGE, MAX_PAGE_SIZE + 1, webRequest));
+    }
+
+    @Test
+    public void testListScanSummariesByCursor_withCursor_returnsPageAfterCursor() {
+        when(scanService.listScanSummaries(USER_ID, Optional.of(STATUS), CURSOR_PAGE_REQUEST))
+            .thenReturn(SCAN_SUMMARY_CURSOR_PAGE);
+
+        assertEquals(
+            KeysetPage.<ScanSummary>builder()
+                .data(List.of(SCAN_SUMMARY))
+                .nextCursor(CursorTokenTransform.apply(CURSOR))
+                .build(),
+            scanController.listScanSummariesByCursor(user, Optional.of(STATUS), CursorTokenTransform.apply(CURSOR), PAGE_SIZE, webRequest)
+        );
+    }
+
+    @Test
+    public void testListScanSummariesByCursor_withEmptyCursor_returnsFirstPage() {
+        when(scanService.listScanSummaries(USER_ID, Optional.empty(), CURSOR_PAGE_REQUEST.toBuilder().cursor(null).build()))
+            .thenReturn(CursorPage.<ScanSummary>builder().data(List.of()).build());
+
+        assertEquals(
+            KeysetPage.<ScanSummary>builder()
+                .data(List.of())
+                .build(),
+            scanController.listScanSummariesByCursor(user, Optional.empty(), "", PAGE_SIZE, webRequest)
+        );
+    }
+
+    @Test
+    public void testListScanSummariesByCursor_withMatchingEntityTag_respondsNotModified() {
+        when(scanService.listScanSummaries(USER_ID, Optional.of(STATUS), CURSOR_PAGE_REQUEST))
+            .thenReturn(SCAN_SUMMARY_CURSOR_PAGE);
+        request.addHeader(
+            HttpHeaders.IF_NONE_MATCH,
+            EntityTagTransform.apply(KeysetPageTransform.apply(SCAN_SUMMARY_CURSOR_PAGE))
+        );
+
+        assertNull(
+            scanController.listScanSummariesByCursor(user, Optional.of(STATUS), CursorTokenTransform.apply(CURSOR), PAGE_SIZE, webRequest)
+        );
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+    }
+
+    @Test
+    public void testListScanSummariesByCursor_withMalformedCursor_throwsBadRequestException() {
+        assertThrows(
+            BadRequestException.class,
+            () -> scanController.listScanSummariesByCursor(user, Optional.of(STATUS), "not a cursor", PAGE_SIZE, webRequest)
+        );
+
+        verifyNoInteractions(scanService);
+    }
+
+    @Test
+    public void testListScanSummariesByCursor_withInvalidPageSize_throwsBadRequestException() {
+        assertThrows(
+            BadRequestException.class,
+            () -> scanController.listScanSummariesByCursor(user, Optional.of(STATUS), "", -1, webRequest)
+        );
+
+        verifyNoInteractions(scanService);
+    }
+
+    @Test
+    public void testListScanChanges_withCursor_returnsChangesSinceCursor() {
+        when(scanService.listScanChanges(USER_ID, Optional.of(CHANGE_FEED_CURSOR), PAGE_SIZE)).thenReturn(SCAN_CHANGE_PAGE);
+
+        assertEquals(
+            SCAN_CHANGE_PAGE,
+            scanController.listScanChanges(user, ChangeFeedCursorTokenTransform.apply(CHANGE_FEED_CURSOR), PAGE_SIZE)
+        );
+    }
+
+    @Test
+    public void testListScanChanges_withEmptyCursor_returnsChangesFromStart() {
+        when(scanService.listScanChanges(USER_ID, Optional.empty(), PAGE_SIZE)).thenReturn(SCAN_CHANGE_PAGE);
+
+        assertEquals(SCAN_CHANGE_PAGE, scanController.listScanChanges(user, "", PAGE_SIZE));
+    }
+
+    @Test
+    public void testListScanChanges_withPageSizeGreaterThanMaxPageSize_reducesPageSize() {
+        when(scanService.listScanChanges(USER_ID, Optional.empty(), MAX_CHANGE_PAGE_SIZE)).thenReturn(SCAN_CHANGE_PAGE);
+
+        assertEquals(SCAN_CHANGE_PAGE, scanController.listScanChanges(user, "", MAX_CHANGE_PAGE_SIZE + 1));
+    }
+
+    @Test
+    public void testListScanChanges_withMalformedCursor_throwsBadRequestException() {
+        assertThrows(
+            BadRequestException.class,
+            () -> scanController.listScanChanges(user, "not a cursor", PAGE_SIZE)
+        );
+
+        verifyNoInteractions(scanService);
+    }
+
+    @Test
+    public void testListScanChanges_withInvalidPageSize_throwsBadRequestException() {
+        assertThrows(
+            BadRequestException.class,
+            () -> scanController.listScanChanges(user, "", 0)
+        );
+
+        verifyNoInteractions(scanService);
+    }
+
+    @Test
+    public void testStreamScanEvents_withoutLastEventId_subscribesFromNow() {
+        SseEmitter actual = scanController.streamScanEvents(user, Optional.empty());
+
+        verify(scanEventBroadcaster).subscribe(USER_ID, actual, Optional.empty());
+    }
+
+    @Test
+    public void testStreamScanEvents_withLastEventId_subscribesFromLastEvent() {
+        SseEmitter actual = scanController.streamScanEvents(
+            user,
+            Optional.of(ChangeFeedCursorTokenTransform.apply(CHANGE_FEED_CURSOR))
+        );
+
+        verify(scanEventBroadcaster).subscribe(USER_ID, actual, Optional.of(CHANGE_FEED_CURSOR));
+    }
+
+    @Test
+    public void testStreamScanEvents_withMalformedLastEventId_throwsBadRequestException() {
+        assertThrows(
+            BadRequestException.class,
+            () -> scanController.streamScanEvents(user, Optional.of("not an event ID"))
+        );
+
+        verifyNoInteractions(scanEventBroadcaster);
     }
 
     @Test
     public void testGetScan_withValidInput_shouldSucceed() {
         when(scanService.getScan(USER_ID, SCAN_ID)).thenReturn(SCAN);
 
-        assertEquals(SCAN, scanController.getScan(user, SCAN_ID));
+        assertEquals(SCAN, scanController.getScan(user, SCAN_ID, webRequest));
+        assertEquals(EntityTagTransform.apply(ScanVersionTransform.apply(SCAN)), response.getHeader(HttpHeaders.ETAG));
+        verify(scanService, never()).getScanVersion(USER_ID, SCAN_ID);
+    }
+
+    @Test
+    public void testGetScan_withMatchingEntityTag_respondsNotModifiedWithoutGettingScan() {
+        when(scanService.getScanVersion(USER_ID, SCAN_ID)).thenReturn(SCAN_VERSION);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, EntityTagTransform.apply(SCAN_VERSION));
+
+        assertNull(scanController.getScan(user, SCAN_ID, webRequest));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+        verify(scanService, never()).getScan(USER_ID, SCAN_ID);
+    }
+
+    @Test
+    public void testGetScan_withStaleEntityTag_returnsScan() {
+        when(scanService.getScanVersion(USER_ID, SCAN_ID)).thenReturn(SCAN_VERSION);
+        when(scanService.getScan(USER_ID, SCAN_ID)).thenReturn(SCAN);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"stale\"");
+
+        assertEquals(SCAN, scanController.getScan(user, SCAN_ID, webRequest));
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals(EntityTagTransform.apply(SCAN_VERSION), response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void testGetScan_withUnmodifiedSince_respondsNotModified() {
+        when(scanService.getScanVersion(USER_ID, SCAN_ID)).thenReturn(SCAN_VERSION);
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, SCAN_UPDATED_AT.plus(1, ChronoUnit.SECONDS).toEpochMilli());
+
+        assertNull(scanController.getScan(user, SCAN_ID, webRequest));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+    }
+
+    @Test
+    public void testWaitForScan_withFinishedScan_respondsImmediately() {
+        Scan doneScan = SCAN.toBuilder()
+            .result(SCAN_RESULT.toBuilder().status(ScanResultStatus.DONE).build())
+            .build();
+        when(scanService.getScan(USER_ID, SCAN_ID)).thenReturn(doneScan);
+
+        DeferredResult<Scan> actual = scanController.waitForScan(user, SCAN_ID, WAIT_TIMEOUT);
+
+        assertEquals(doneScan, actual.getResult());
+        verify(scanStatusWaiters, never()).register(any(), any());
+    }
+
+    @Test
+    public void testWaitForScan_withUnfinishedScan_respondsOnceStatusChanges() {
+        Scan processingScan = SCAN.toBuilder()
+            .result(SCAN_RESULT.toBuilder().status(ScanResultStatus.PROCESSING).build())
+            .build();
+        when(scanService.getScan(USER_ID, SCAN_ID)).thenReturn(SCAN, processingScan);
+        when(scanStatusWaiters.register(eq(SCAN_RESULT_ID), waiterCaptor.capture())).thenReturn(() -> {});
+
+        DeferredResult<Scan> actual = scanController.waitForScan(user, SCAN_ID, WAIT_TIMEOUT);
+
+        assertFalse(actual.hasResult());
+        verify(scanService, never()).getScanVersion(USER_ID, SCAN_ID);
+
+        waiterCaptor.getValue().run();
+
+        assertEquals(processingScan, actual.getResult());
+    }
+
+    @Test
+    public void testWaitForScan_withStatusChangedWhileRegistering_respondsImmediately() {
+        Scan processingScan = SCAN.toBuilder()
+            .result(SCAN_RESULT.toBuilder().status(ScanResultStatus.PROCESSING).build())
+            .build();
+        when(scanStatusWaiters.getGeneration()).thenReturn(1L, 2L);
+        when(scanService.getScan(USER_ID, SCAN_ID)).thenReturn(SCAN, processingScan);
+        when(scanService.getScanVersion(USER_ID, SCAN_ID)).thenReturn(
+            SCAN_VERSION.toBuilder().status(ScanResultStatus.PROCESSING).build()
+        );
+        when(scanStatusWaiters.register(eq(SCAN_RESULT_ID), any())).thenReturn(() -> {});
+
+        assertEquals(processingScan, scanController.waitForScan(user, SCAN_ID, WAIT_TIMEOUT).getResult());
+    }
+
+    @Test
+    public void testWaitForScan_withUnchangedStatusWhileRegistering_keepsWaiting() {
+        when(scanStatusWaiters.getGeneration()).thenReturn(1L, 2L);
+        when(scanService.getScan(USER_ID, SCAN_ID)).thenReturn(SCAN);
+        when(scanService.getScanVersion(USER_ID, SCAN_ID)).thenReturn(SCAN_VERSION);
+        when(scanStatusWaiters.register(eq(SCAN_RESULT_ID), any())).thenReturn(() -> {});
+
+        assertFalse(scanController.waitForScan(user, SCAN_ID, WAIT_TIMEOUT).hasResult());
+    }
+
+    @Test
+    public void testWaitForScan_withTimeoutGreaterThanMaxWaitTimeout_throwsBadRequestException() {
+        assertThrows(
+            BadRequestException.class,
+            () -> scanController.waitForScan(user, SCAN_ID, MAX_WAIT_TIMEOUT.plus(1, ChronoUnit.SECONDS))
+        );
+        assertThrows(
+            BadRequestException.class,
+            () -> scanController.waitForScan(user, SCAN_ID, Duration.ZERO)
+        );
+
+        verifyNoInteractions(scanService);
     }
 
     @Test
@@ -196,6 +535,120 @@ public class ScanControllerTest {
         verifyNoInteractions(scanService);
     }
 
+    @Test
+    public void testCreateScans_withInvalidUrl_reportsInvalidUrlWithoutFailingBatch() {
+        String invalidUrl = "invalidUrl";
+        ScanCreation scanCreation = ScanCreation.builder()
+            .url(URL)
+            .outcome(ScanCreation.Outcome.CREATED)
+            .scan(SCAN)
+            .build();
+
+        when(urlValidator.isValid(URL)).thenReturn(true);
+        when(urlValidator.isValid(invalidUrl)).thenReturn(false);
+        when(scanService.createScans(USER_ID, List.of(URL))).thenReturn(List.of(scanCreation));
+
+        List<ScanCreation> actual = scanController.createScans(
+            user,
+            CreateScansRequest.builder().urls(List.of(invalidUrl, URL)).build()
+        );
+
+        assertEquals(
+            List.of(
+                ScanCreation.builder()
+                    .url(invalidUrl)
+                    .outcome(ScanCreation.Outcome.INVALID)
+                    .message(String.format("URL is malformed: url=%s", invalidUrl))
+                    .build(),
+                scanCreation
+            ),
+            actual
+        );
+    }
+
+    @Test
+    public void testCreateScans_withoutUrls_throwsBadRequestException() {
+        assertThrows(
+            BadRequestException.class,
+            () -> scanController.createScans(user, CreateScansRequest.builder().urls(List.of()).build())
+        );
+
+        verifyNoInteractions(scanService);
+    }
+
+    @Test
+    public void testCreateScans_withMoreThanMaxBatchSize_throwsBadRequestException() {
+        assertThrows(
+            BadRequestException.class,
+            () -> scanController.createScans(
+                user,
+                CreateScansRequest.builder().urls(Collections.nCopies(MAX_CREATE_BATCH_SIZE + 1, URL)).build()
+            )
+        );
+
+        verifyNoInteractions(scanService);
+    }
+
+    @Test
+    public void testLookupScans_withValidInput_shouldSucceed() {
+        ScanLookup scanLookup = ScanLookup.builder()
+            .statuses(Map.of(SCAN_ID, STATUS))
+            .build();
+        when(scanService.lookupScans(USER_ID, List.of(SCAN_ID), false)).thenReturn(scanLookup);
+
+        assertEquals(
+            scanLookup,
+            scanController.lookupScans(user, LookupScansRequest.builder().ids(List.of(SCAN_ID)).build())
+        );
+    }
+
+    @Test
+    public void testLookupScans_withIncludeScans_returnsScans() {
+        ScanLookup scanLookup = ScanLookup.builder()
+            .statuses(Map.of(SCAN_ID, STATUS))
+            .scans(Map.of(SCAN_ID, SCAN))
+            .build();
+        when(scanService.lookupScans(USER_ID, List.of(SCAN_ID), true)).thenReturn(scanLookup);
+
+        assertEquals(
+            scanLookup,
+            scanController.lookupScans(user, LookupScansRequest.builder().ids(List.of(SCAN_ID)).includeScans(true).build())
+        );
+    }
+
+    @Test
+    public void testLookupScans_withoutIds_throwsBadRequestException() {
+        assertThrows(
+            BadRequestException.class,
+            () -> scanController.lookupScans(user, LookupScansRequest.builder().build())
+        );
+
+        verifyNoInteractions(scanService);
+    }
+
+    @Test
+    public void testLookupScans_withNullId_throwsBadRequestException() {
+        assertThrows(
+            BadRequestException.class,
+            () -> scanController.lookupScans(user, LookupScansRequest.builder().ids(Arrays.asList(SCAN_ID, null)).build())
+        );
+
+        verifyNoInteractions(scanService);
+    }
+
+    @Test
+    public void testLookupScans_withMoreThanMaxBatchSize_throwsBadRequestException() {
+        assertThrows(
+            BadRequestException.class,
+            () -> scanController.lookupScans(
+                user,
+                LookupScansRequest.builder().ids(Collections.nCopies(MAX_LOOKUP_BATCH_SIZE + 1, SCAN_ID)).build()
+            )
+        );
+
+        verifyNoInteractions(scanService);
+    }
+
     @Test
     public void testDeleteScan_withValidInput_shouldSucceed() {
         scanController.deleteScan(user, SCAN_ID);
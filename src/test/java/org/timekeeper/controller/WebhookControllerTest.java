@@ -0,0 +1,125 @@
+package org.timekeeper.controller;
+
+import org.apache.commons.validator.routines.UrlValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.timekeeper.client.PublicHostValidator;
+import org.timekeeper.exception.BadRequestException;
+import org.timekeeper.model.Webhook;
+import org.timekeeper.model.request.CreateWebhookRequest;
+import org.timekeeper.service.WebhookService;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class WebhookControllerTest {
+
+    private static final Long WEBHOOK_ID = 1L;
+
+    private static final String USER_ID = "userId";
+
+    private static final String URL = "https://example.com/hooks";
+
+    private static final Webhook WEBHOOK = Webhook.builder()
+        .id(WEBHOOK_ID)
+        .userId(USER_ID)
+        .url(URL)
+        .createdAt(Instant.now())
+        .build();
+
+    @Mock
+    private OidcUser user;
+
+    @Mock
+    private WebhookService webhookService;
+
+    @Mock
+    UrlValidator urlValidator;
+
+    @Mock
+    PublicHostValidator publicHostValidator;
+
+    @InjectMocks
+    private WebhookController webhookController;
+
+    @BeforeEach
+    public void setupEach() {
+        when(user.getSubject()).thenReturn(USER_ID);
+    }
+
+    @Test
+    public void testListWebhooks_shouldSucceed() {
+        when(webhookService.listWebhooks(USER_ID)).thenReturn(List.of(WEBHOOK));
+
+        assertEquals(List.of(WEBHOOK), webhookController.listWebhooks(user));
+    }
+
+    @Test
+    public void testCreateWebhook_withValidInput_shouldSucceed() {
+        when(urlValidator.isValid(URL)).thenReturn(true);
+        when(publicHostValidator.isValid("example.com")).thenReturn(true);
+        when(webhookService.createWebhook(USER_ID, URL)).thenReturn(WEBHOOK);
+
+        assertEquals(WEBHOOK, webhookController.createWebhook(user, CreateWebhookRequest.builder().url(URL).build()));
+    }
+
+    @Test
+    public void testCreateWebhook_withInvalidUrl_throwsBadRequestException() {
+        when(urlValidator.isValid(URL)).thenReturn(false);
+
+        assertThrows(
+            BadRequestException.class,
+            () -> webhookController.createWebhook(user, CreateWebhookRequest.builder().url(URL).build())
+        );
+
+        verifyNoInteractions(webhookService);
+    }
+
+    @Test
+    public void testCreateWebhook_withNonHttpUrl_throwsBadRequestException() {
+        String ftpUrl = "ftp://example.com/hooks";
+        when(urlValidator.isValid(ftpUrl)).thenReturn(true);
+
+        assertThrows(
+            BadRequestException.class,
+            () -> webhookController.createWebhook(user, CreateWebhookRequest.builder().url(ftpUrl).build())
+        );
+
+        verifyNoInteractions(webhookService);
+    }
+
+    @Test
+    public void testCreateWebhook_withNonPublicHost_throwsBadRequestException() {
+        String metadataUrl = "http://169.254.169.254/latest/meta-data";
+        when(urlValidator.isValid(metadataUrl)).thenReturn(true);
+        when(publicHostValidator.isValid("169.254.169.254")).thenReturn(false);
+
+        assertThrows(
+            BadRequestException.class,
+            () -> webhookController.createWebhook(user, CreateWebhookRequest.builder().url(metadataUrl).build())
+        );
+
+        verifyNoInteractions(webhookService);
+    }
+
+    @Test
+    public void testDeleteWebhook_shouldSucceed() {
+        assertNull(webhookController.deleteWebhook(user, WEBHOOK_ID));
+
+        verify(webhookService).deleteWebhook(USER_ID, WEBHOOK_ID);
+    }
+
+}
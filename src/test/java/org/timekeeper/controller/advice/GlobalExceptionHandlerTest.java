@@ -6,6 +6,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.timekeeper.exception.BadRequestException;
+import org.timekeeper.exception.CursorExpiredException;
 import org.timekeeper.exception.DuplicateRequestException;
 import org.timekeeper.exception.ResourceNotFoundException;
 
@@ -69,4 +70,21 @@ public class GlobalExceptionHandlerTest {
         );
     }
 
+    @Test
+    public void testHandle_withCursorExpiredException_returnsGoneStatus() {
+        CursorExpiredException exception = new CursorExpiredException(EXCEPTION_MESSAGE);
+        ResponseEntity<GlobalExceptionHandler.ExceptionDetails> expected = new ResponseEntity<>(
+            GlobalExceptionHandler.ExceptionDetails.builder()
+                .type(CursorExpiredException.class)
+                .message(EXCEPTION_MESSAGE)
+                .build(),
+            HttpStatus.GONE
+        );
+
+        assertEquals(
+            expected,
+            HANDLER.handle(exception, null)
+        );
+    }
+
 }
@@ -0,0 +1,41 @@
+package org.timekeeper.database.postgresql.listener;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.timekeeper.database.postgresql.listener.NotificationPayloads.MAX_PAYLOAD_LENGTH;
+
+public class NotificationPayloadsTest {
+
+    private static final String ENTRY = "7f3a9c21d4e8b605";
+
+    @Test
+    public void testPack_withEntriesWithinPayloadLimit_packsSinglePayload() {
+        List<String> payloads = NotificationPayloads.pack(List.of(ENTRY, "1"));
+
+        assertEquals(1, payloads.size());
+        assertEquals(List.of(ENTRY, "1"), NotificationPayloads.unpack(payloads.get(0)));
+    }
+
+    @Test
+    public void testPack_withEntriesExceedingPayloadLimit_splitsPayloads() {
+        int entriesPerPayload = MAX_PAYLOAD_LENGTH / (ENTRY.length() + 1);
+        List<String> entries = Collections.nCopies(entriesPerPayload + 1, ENTRY);
+
+        List<String> payloads = NotificationPayloads.pack(entries);
+
+        assertEquals(2, payloads.size());
+        assertTrue(payloads.stream().allMatch(payload -> payload.length() <= MAX_PAYLOAD_LENGTH));
+        assertEquals(entries, payloads.stream().flatMap(payload -> NotificationPayloads.unpack(payload).stream()).toList());
+    }
+
+    @Test
+    public void testPack_withoutEntries_packsNoPayloads() {
+        assertEquals(List.of(), NotificationPayloads.pack(List.of()));
+    }
+
+}
@@ -0,0 +1,42 @@
+package org.timekeeper.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ScanResultStatusTest {
+
+    @Test
+    public void testCanTransitionTo_withForwardTransition_allowsTransition() {
+        assertTrue(ScanResultStatus.SUBMITTED.canTransitionTo(ScanResultStatus.PROCESSING));
+        assertTrue(ScanResultStatus.SUBMITTED.canTransitionTo(ScanResultStatus.FAILED));
+        assertTrue(ScanResultStatus.PROCESSING.canTransitionTo(ScanResultStatus.DONE));
+        assertTrue(ScanResultStatus.PROCESSING.canTransitionTo(ScanResultStatus.FAILED));
+    }
+
+    @Test
+    public void testCanTransitionTo_withBackwardOrSkippedTransition_rejectsTransition() {
+        assertFalse(ScanResultStatus.SUBMITTED.canTransitionTo(ScanResultStatus.SUBMITTED));
+        assertFalse(ScanResultStatus.SUBMITTED.canTransitionTo(ScanResultStatus.DONE));
+        assertFalse(ScanResultStatus.PROCESSING.canTransitionTo(ScanResultStatus.SUBMITTED));
+        assertFalse(ScanResultStatus.PROCESSING.canTransitionTo(ScanResultStatus.PROCESSING));
+    }
+
+    @Test
+    public void testCanTransitionTo_fromTerminalStatus_rejectsTransition() {
+        for (ScanResultStatus status : ScanResultStatus.values()) {
+            assertFalse(ScanResultStatus.DONE.canTransitionTo(status));
+            assertFalse(ScanResultStatus.FAILED.canTransitionTo(status));
+        }
+    }
+
+    @Test
+    public void testIsTerminal_onlyForFinishedStatuses() {
+        assertFalse(ScanResultStatus.SUBMITTED.isTerminal());
+        assertFalse(ScanResultStatus.PROCESSING.isTerminal());
+        assertTrue(ScanResultStatus.FAILED.isTerminal());
+        assertTrue(ScanResultStatus.DONE.isTerminal());
+    }
+
+}
@@ -0,0 +1,51 @@
+package org.timekeeper.model.transform;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CanonicalUrlTransformTest {
+
+    @Test
+    public void testApply_withUppercaseHostAndTrailingSlash_matchesBareHost() {
+        assertEquals("http://a.com/", CanonicalUrlTransform.apply("http://A.com/"));
+        assertEquals("http://a.com/", CanonicalUrlTransform.apply("HTTP://a.COM"));
+    }
+
+    @Test
+    public void testApply_withDefaultPort_stripsPort() {
+        assertEquals("http://a.com/", CanonicalUrlTransform.apply("http://a.com:80/"));
+        assertEquals("https://a.com/", CanonicalUrlTransform.apply("https://a.com:443"));
+        assertEquals("https://a.com:8443/", CanonicalUrlTransform.apply("https://a.com:8443/"));
+        assertEquals("http://a.com:443/", CanonicalUrlTransform.apply("http://a.com:443/"));
+    }
+
+    @Test
+    public void testApply_withDotSegments_normalizesPath() {
+        assertEquals("https://a.com/b/d", CanonicalUrlTransform.apply("https://a.com/b/./c/../d"));
+    }
+
+    @Test
+    public void testApply_withQuery_sortsParametersByName() {
+        assertEquals("https://a.com/p?a=2&b=1&c=3&c=1", CanonicalUrlTransform.apply("https://a.com/p?c=3&b=1&&a=2&c=1"));
+        assertEquals("https://a.com/p", CanonicalUrlTransform.apply("https://a.com/p?"));
+    }
+
+    @Test
+    public void testApply_withEncodedCharacters_preservesThem() {
+        assertEquals("https://user@a.com/a%20b?q=%26", CanonicalUrlTransform.apply("https://user@A.com/a%20b?q=%26"));
+    }
+
+    @Test
+    public void testApply_withFragment_removesFragment() {
+        assertEquals("https://a.com/p?q=1", CanonicalUrlTransform.apply("https://a.com/p?q=1#Frag"));
+        assertEquals("https://a.com/", CanonicalUrlTransform.apply("https://a.com#"));
+    }
+
+    @Test
+    public void testApply_withUnparseableUrl_returnsUrl() {
+        assertEquals("url", CanonicalUrlTransform.apply("url"));
+        assertEquals("http://a b.com", CanonicalUrlTransform.apply("http://a b.com"));
+    }
+
+}
@@ -0,0 +1,43 @@
+package org.timekeeper.model.transform;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.timekeeper.model.ChangeFeedCursor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+public class ChangeFeedCursorTokenTransformTest {
+
+    private static final ChangeFeedCursor CHANGE_FEED_CURSOR = ChangeFeedCursor.builder()
+        .position(1L)
+        .scanId(2L)
+        .build();
+
+    @Test
+    public void testApply_withChangeFeedCursor_roundTripsThroughToken() {
+        assertEquals(
+            CHANGE_FEED_CURSOR,
+            ChangeFeedCursorTransform.apply(ChangeFeedCursorTokenTransform.apply(CHANGE_FEED_CURSOR))
+        );
+    }
+
+    @Test
+    public void testApply_withMalformedToken_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> ChangeFeedCursorTransform.apply("not a cursor"));
+    }
+
+    @Test
+    public void testApply_withScanCursorToken_throwsIllegalArgumentException() {
+        String token = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("2024-01-02T03:04:05.123456Z,1".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> ChangeFeedCursorTransform.apply(token));
+    }
+
+}
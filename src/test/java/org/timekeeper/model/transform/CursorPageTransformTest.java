@@ -0,0 +1,67 @@
+package org.timekeeper.model.transform;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.timekeeper.model.Cursor;
+import org.timekeeper.model.CursorPage;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(MockitoExtension.class)
+public class CursorPageTransformTest {
+
+    private static final Integer CONTENT_1 = 1;
+
+    private static final Integer CONTENT_2 = 2;
+
+    private static final Instant NOW = Instant.now();
+
+    private static Cursor toCursor(Integer value) {
+        return Cursor.builder()
+            .createdAt(NOW)
+            .id(value.longValue())
+            .build();
+    }
+
+    @Test
+    public void testApply_withFullPage_returnsCursorOfLastElement() {
+        CursorPage<String> expected = CursorPage.<String>builder()
+            .data(List.of(Integer.toString(CONTENT_1), Integer.toString(CONTENT_2)))
+            .nextCursor(toCursor(CONTENT_2))
+            .build();
+
+        assertEquals(
+            expected,
+            CursorPageTransform.apply(List.of(CONTENT_1, CONTENT_2), 2, value -> Integer.toString(value), CursorPageTransformTest::toCursor)
+        );
+    }
+
+    @Test
+    public void testApply_withPartialPage_returnsNoCursor() {
+        CursorPage<String> expected = CursorPage.<String>builder()
+            .data(List.of(Integer.toString(CONTENT_1)))
+            .build();
+
+        assertEquals(
+            expected,
+            CursorPageTransform.apply(List.of(CONTENT_1), 2, value -> Integer.toString(value), CursorPageTransformTest::toCursor)
+        );
+    }
+
+    @Test
+    public void testApply_withEmptyPage_returnsNoCursor() {
+        CursorPage<String> expected = CursorPage.<String>builder()
+            .data(List.of())
+            .build();
+
+        assertEquals(
+            expected,
+            CursorPageTransform.apply(List.<Integer>of(), 0, value -> Integer.toString(value), CursorPageTransformTest::toCursor)
+        );
+    }
+
+}
@@ -0,0 +1,43 @@
+package org.timekeeper.model.transform;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.timekeeper.model.Cursor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(MockitoExtension.class)
+public class CursorTokenTransformTest {
+
+    private static final Cursor CURSOR = Cursor.builder()
+        .createdAt(Instant.parse("2024-01-02T03:04:05.123456Z"))
+        .id(1L)
+        .build();
+
+    @Test
+    public void testApply_withCursor_roundTripsThroughToken() {
+        assertEquals(
+            CURSOR,
+            CursorTransform.apply(CursorTokenTransform.apply(CURSOR))
+        );
+    }
+
+    @Test
+    public void testApply_withMalformedToken_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> CursorTransform.apply("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> CursorTransform.apply(encode("2024-01-02T03:04:05Z")));
+        assertThrows(IllegalArgumentException.class, () -> CursorTransform.apply(encode("yesterday,1")));
+        assertThrows(IllegalArgumentException.class, () -> CursorTransform.apply(encode("2024-01-02T03:04:05Z,one")));
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,47 @@
+package org.timekeeper.model.transform;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.timekeeper.database.postgresql.model.ScanResultEntity;
+import org.timekeeper.model.DueScanResult;
+import org.timekeeper.model.ScanResultStatus;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(MockitoExtension.class)
+public class DueScanResultTransformTest {
+
+    private static final Long ID = 1L;
+
+    private static final String URL_SCAN_ID = "urlScanId";
+
+    private static final Instant SUBMITTED_AT = Instant.now();
+
+    private static final Integer CHECK_COUNT = 3;
+
+    @Test
+    public void testApply_withProcessingScanResult_includesSchedulingState() {
+        ScanResultEntity scanResultEntity = ScanResultEntity.builder()
+            .id(ID)
+            .url("url")
+            .status(ScanResultStatus.PROCESSING)
+            .urlScanId(URL_SCAN_ID)
+            .submittedAt(SUBMITTED_AT)
+            .checkCount(CHECK_COUNT)
+            .build();
+
+        assertEquals(
+            DueScanResult.builder()
+                .id(ID)
+                .urlScanId(URL_SCAN_ID)
+                .submittedAt(SUBMITTED_AT)
+                .checkCount(CHECK_COUNT)
+                .build(),
+            DueScanResultTransform.apply(scanResultEntity)
+        );
+    }
+
+}
@@ -0,0 +1,94 @@
+package org.timekeeper.model.transform;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.timekeeper.model.KeysetPage;
+import org.timekeeper.model.Page;
+import org.timekeeper.model.ScanResultStatus;
+import org.timekeeper.model.ScanSummary;
+import org.timekeeper.model.ScanVersion;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+public class EntityTagTransformTest {
+
+    private static final Instant UPDATED_AT = Instant.parse("2024-01-02T03:04:05.123456Z");
+
+    private static final ScanVersion SCAN_VERSION = ScanVersion.builder()
+        .id(1L)
+        .status(ScanResultStatus.SUBMITTED)
+        .updatedAt(UPDATED_AT)
+        .build();
+
+    private static final ScanSummary SCAN_SUMMARY = ScanSummary.builder()
+        .id(1L)
+        .url("url")
+        .status(ScanResultStatus.SUBMITTED)
+        .createdAt(UPDATED_AT)
+        .updatedAt(UPDATED_AT)
+        .build();
+
+    private static final Page<ScanSummary> PAGE = Page.<ScanSummary>builder()
+        .data(List.of(SCAN_SUMMARY))
+        .page(0)
+        .totalPages(1)
+        .totalElements(1L)
+        .build();
+
+    private static final KeysetPage<ScanSummary> KEYSET_PAGE = KeysetPage.<ScanSummary>builder()
+        .data(List.of(SCAN_SUMMARY))
+        .nextCursor("nextCursor")
+        .build();
+
+    @Test
+    public void testApply_withScanVersion_returnsWeakEntityTag() {
+        String entityTag = EntityTagTransform.apply(SCAN_VERSION);
+
+        assertTrue(entityTag.matches("^W/\"[0-9a-f]+\"$"));
+        assertEquals(entityTag, EntityTagTransform.apply(SCAN_VERSION.toBuilder().build()));
+    }
+
+    @Test
+    public void testApply_withChangedScanVersion_returnsDifferentEntityTag() {
+        String entityTag = EntityTagTransform.apply(SCAN_VERSION);
+
+        assertNotEquals(entityTag, EntityTagTransform.apply(SCAN_VERSION.toBuilder().status(ScanResultStatus.PROCESSING).build()));
+        assertNotEquals(entityTag, EntityTagTransform.apply(SCAN_VERSION.toBuilder().updatedAt(UPDATED_AT.plus(1, ChronoUnit.MICROS)).build()));
+    }
+
+    @Test
+    public void testApply_withPageOfSameScanVersions_returnsSameEntityTag() {
+        assertEquals(
+            EntityTagTransform.apply(PAGE),
+            EntityTagTransform.apply(PAGE.toBuilder().data(List.of(SCAN_SUMMARY.toBuilder().url("otherUrl").build())).build())
+        );
+    }
+
+    @Test
+    public void testApply_withChangedPage_returnsDifferentEntityTag() {
+        String entityTag = EntityTagTransform.apply(PAGE);
+
+        assertNotEquals(entityTag, EntityTagTransform.apply(PAGE.toBuilder().totalElements(2L).build()));
+        assertNotEquals(
+            entityTag,
+            EntityTagTransform.apply(PAGE.toBuilder().data(List.of(SCAN_SUMMARY.toBuilder().status(ScanResultStatus.DONE).build())).build())
+        );
+    }
+
+    @Test
+    public void testApply_withChangedKeysetPage_returnsDifferentEntityTag() {
+        String entityTag = EntityTagTransform.apply(KEYSET_PAGE);
+
+        assertNotEquals(entityTag, EntityTagTransform.apply(KEYSET_PAGE.toBuilder().nextCursor(null).build()));
+        assertNotEquals(entityTag, EntityTagTransform.apply(KEYSET_PAGE.toBuilder().data(List.of()).build()));
+    }
+
+}
@@ -0,0 +1,49 @@
+package org.timekeeper.model.transform;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.timekeeper.database.postgresql.model.ScanChangeEntity;
+import org.timekeeper.model.ScanChange;
+import org.timekeeper.model.ScanResultStatus;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(MockitoExtension.class)
+public class ScanChangeTransformTest {
+
+    private static final Long SCAN_ID = 2L;
+
+    private static final Long POSITION = 3L;
+
+    private static final String USER_ID = "userId";
+
+    private static final ScanResultStatus STATUS = ScanResultStatus.DONE;
+
+    private static final Instant CHANGED_AT = Instant.now();
+
+    @Test
+    public void testApply_withScanChangeEntity_shouldSucceed() {
+        assertEquals(
+            ScanChange.builder()
+                .id(SCAN_ID)
+                .status(STATUS)
+                .deleted(true)
+                .changedAt(CHANGED_AT)
+                .build(),
+            ScanChangeTransform.apply(
+                ScanChangeEntity.builder()
+                    .scanId(SCAN_ID)
+                    .userId(USER_ID)
+                    .status(STATUS)
+                    .deleted(true)
+                    .position(POSITION)
+                    .changedAt(CHANGED_AT)
+                    .build()
+            )
+        );
+    }
+
+}
@@ -0,0 +1,90 @@
+package org.timekeeper.model.transform;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.timekeeper.database.postgresql.model.ScanResultOutboxEntity;
+import org.timekeeper.model.ScanResult;
+import org.timekeeper.model.ScanResultEvent;
+import org.timekeeper.model.ScanResultStatus;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(MockitoExtension.class)
+public class ScanResultEventTransformTest {
+
+    private static final Long ID = 1L;
+
+    private static final Long SCAN_RESULT_ID = 2L;
+
+    private static final Integer STATUS_CODE = 3;
+
+    private static final String STATUS_MESSAGE = "statusMessage";
+
+    private static final String STATUS_DESCRIPTION = "statusDescription";
+
+    private static final String URL_SCAN_ID = "urlScanId";
+
+    private static final String RESULT_URL = "resultUrl";
+
+    private static final Instant CREATED_AT = Instant.now();
+
+    private static final ScanResultOutboxEntity OUTBOX_ENTITY = ScanResultOutboxEntity.builder()
+        .id(ID)
+        .scanResultId(SCAN_RESULT_ID)
+        .previousStatus(ScanResultStatus.PROCESSING)
+        .status(ScanResultStatus.DONE)
+        .urlScanId(URL_SCAN_ID)
+        .resultUrl(RESULT_URL)
+        .createdAt(CREATED_AT)
+        .build();
+
+    @Test
+    public void testApply_withValidInput_shouldSucceed() {
+        assertEquals(
+            ScanResultEvent.builder()
+                .id(ID)
+                .scanResultId(SCAN_RESULT_ID)
+                .previousStatus(ScanResultStatus.PROCESSING)
+                .status(ScanResultStatus.DONE)
+                .urlScanId(URL_SCAN_ID)
+                .resultUrl(RESULT_URL)
+                .occurredAt(CREATED_AT)
+                .build(),
+            ScanResultEventTransform.apply(OUTBOX_ENTITY)
+        );
+    }
+
+    @Test
+    public void testApply_withFailedStatus_includesStatusDetails() {
+        assertEquals(
+            ScanResultEvent.builder()
+                .id(ID)
+                .scanResultId(SCAN_RESULT_ID)
+                .previousStatus(ScanResultStatus.PROCESSING)
+                .status(ScanResultStatus.FAILED)
+                .statusDetails(
+                    ScanResult.StatusDetails.builder()
+                        .code(STATUS_CODE)
+                        .message(STATUS_MESSAGE)
+                        .description(STATUS_DESCRIPTION)
+                        .build()
+                )
+                .urlScanId(URL_SCAN_ID)
+                .resultUrl(RESULT_URL)
+                .occurredAt(CREATED_AT)
+                .build(),
+            ScanResultEventTransform.apply(
+                OUTBOX_ENTITY.toBuilder()
+                    .status(ScanResultStatus.FAILED)
+                    .statusCode(STATUS_CODE)
+                    .statusMessage(STATUS_MESSAGE)
+                    .statusDescription(STATUS_DESCRIPTION)
+                    .build()
+            )
+        );
+    }
+
+}
@@ -5,6 +5,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.timekeeper.database.postgresql.model.ScanEntity;
 import org.timekeeper.database.postgresql.model.ScanResultEntity;
+import org.timekeeper.database.postgresql.model.ScanRow;
 import org.timekeeper.model.ScanResultStatus;
 
 import java.time.Instant;
@@ -64,6 +65,23 @@ public class ScanTransformTest {
         .updatedAt(SCAN_UPDATED_AT)
         .build();
 
+    private static final ScanRow SCAN_ROW = ScanRow.builder()
+        .id(SCAN_ID)
+        .userId(USER_ID)
+        .createdAt(SCAN_CREATED_AT)
+        .updatedAt(SCAN_UPDATED_AT)
+        .resultId(SCAN_RESULT_ID)
+        .urlScanId(URL_SCAN_ID)
+        .url(URL)
+        .resultUrl(RESULT_URL)
+        .status(STATUS)
+        .statusCode(STATUS_CODE)
+        .statusMessage(STATUS_MESSAGE)
+        .statusDescription(STATUS_DESCRIPTION)
+        .resultCreatedAt(RESULT_CREATED_AT)
+        .resultUpdatedAt(RESULT_UPDATED_AT)
+        .build();
+
     private static final org.timekeeper.model.Scan SCAN = org.timekeeper.model.Scan.builder()
         .id(SCAN_ID)
         .userId(USER_ID)
@@ -80,4 +98,12 @@ public class ScanTransformTest {
         );
     }
 
+    @Test
+    public void testApply_withScanRow_shouldSucceed() {
+        assertEquals(
+            SCAN,
+            ScanTransform.apply(SCAN_ROW)
+        );
+    }
+
 }
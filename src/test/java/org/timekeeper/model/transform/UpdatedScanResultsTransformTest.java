@@ -0,0 +1,29 @@
+package org.timekeeper.model.transform;
+
+import org.junit.jupiter.api.Test;
+import org.timekeeper.model.UpdatedScanResults;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UpdatedScanResultsTransformTest {
+
+    @Test
+    public void testApply_withPositionedPayload_returnsPositionAndScanResultIds() {
+        assertEquals(
+            UpdatedScanResults.builder()
+                .completePosition(5L)
+                .scanResultIds(List.of(1L, 2L))
+                .build(),
+            UpdatedScanResultsTransform.apply("5:1,2")
+        );
+    }
+
+    @Test
+    public void testApply_withoutPosition_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> UpdatedScanResultsTransform.apply("1,2"));
+    }
+
+}
@@ -0,0 +1,20 @@
+package org.timekeeper.model.transform;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class UrlFingerprintTransformTest {
+
+    @Test
+    public void testApply_withSameUrl_returnsSameFingerprint() {
+        assertEquals(UrlFingerprintTransform.apply("https://a.com/"), UrlFingerprintTransform.apply("https://a.com/"));
+    }
+
+    @Test
+    public void testApply_withDifferentUrls_returnsDifferentFingerprints() {
+        assertNotEquals(UrlFingerprintTransform.apply("https://a.com/"), UrlFingerprintTransform.apply("https://b.com/"));
+    }
+
+}
@@ -0,0 +1,109 @@
+package org.timekeeper.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.timekeeper.configuration.outbox.OutboxSinkConfig;
+import org.timekeeper.model.ScanResultEvent;
+import org.timekeeper.model.ScanResultStatus;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Publishes to a stub receiver served on a local port
+ */
+public class HttpOutboxSinkTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final List<ScanResultEvent> EVENTS = List.of(
+        ScanResultEvent.builder()
+            .id(1L)
+            .scanResultId(3L)
+            .previousStatus(ScanResultStatus.SUBMITTED)
+            .status(ScanResultStatus.PROCESSING)
+            .build(),
+        ScanResultEvent.builder()
+            .id(2L)
+            .scanResultId(3L)
+            .previousStatus(ScanResultStatus.PROCESSING)
+            .status(ScanResultStatus.DONE)
+            .build()
+    );
+
+    private HttpServer server;
+
+    private List<JsonNode> requests;
+
+    private volatile int responseStatus;
+
+    @BeforeEach
+    public void setupEach() throws IOException {
+        requests = Collections.synchronizedList(new ArrayList<>());
+        responseStatus = 200;
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            try {
+                requests.add(OBJECT_MAPPER.readTree(exchange.getRequestBody()));
+                exchange.sendResponseHeaders(responseStatus, -1);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void teardownEach() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testPublish_withSuccessfulResponse_postsEventsInOrder() {
+        httpOutboxSink().publish(EVENTS);
+
+        assertEquals(1, requests.size());
+        JsonNode events = requests.get(0).get("events");
+        assertEquals(2, events.size());
+        assertEquals(1L, events.get(0).get("id").asLong());
+        assertEquals(ScanResultStatus.PROCESSING.name(), events.get(0).get("status").asText());
+        assertEquals(2L, events.get(1).get("id").asLong());
+        assertEquals(ScanResultStatus.PROCESSING.name(), events.get(1).get("previousStatus").asText());
+    }
+
+    @Test
+    public void testPublish_withUnsuccessfulResponse_throws() {
+        responseStatus = 503;
+
+        assertThrows(RestClientException.class, () -> httpOutboxSink().publish(EVENTS));
+    }
+
+    @Test
+    public void testPublish_withUnreachableSink_throws() {
+        server.stop(0);
+
+        assertThrows(RestClientException.class, () -> httpOutboxSink().publish(EVENTS));
+    }
+
+    private HttpOutboxSink httpOutboxSink() {
+        OutboxSinkConfig config = new OutboxSinkConfig();
+        config.setType(OutboxSinkConfig.Type.HTTP);
+        config.setUrl(String.format("http://localhost:%s/events", server.getAddress().getPort()));
+
+        return new HttpOutboxSink(RestClient.builder(), config);
+    }
+
+}
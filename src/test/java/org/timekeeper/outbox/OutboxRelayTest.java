@@ -0,0 +1,117 @@
+package org.timekeeper.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.timekeeper.model.ScanResultEvent;
+import org.timekeeper.model.request.LeaseRequest;
+import org.timekeeper.scheduler.RunOutcome;
+import org.timekeeper.service.OutboxService;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.timekeeper.outbox.OutboxRelay.MAX_PAGES_PER_RUN;
+import static org.timekeeper.outbox.OutboxRelay.PAGE_SIZE;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTest {
+
+    private static final LeaseRequest LEASE = LeaseRequest.builder()
+        .owner("leaseOwner")
+        .duration(Duration.of(1, ChronoUnit.MINUTES))
+        .build();
+
+    private static final List<ScanResultEvent> FULL_PAGE = events(1, PAGE_SIZE);
+
+    private static final List<ScanResultEvent> PARTIAL_PAGE = events(PAGE_SIZE + 1, 3);
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private OutboxSink outboxSink;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    public void setupEach() {
+        outboxRelay = new OutboxRelay(outboxService, outboxSink, LEASE);
+    }
+
+    private static List<ScanResultEvent> events(long firstId, int count) {
+        return LongStream.range(firstId, firstId + count)
+            .mapToObj(id -> ScanResultEvent.builder().id(id).build())
+            .toList();
+    }
+
+    private static List<Long> ids(List<ScanResultEvent> events) {
+        return events.stream()
+            .map(ScanResultEvent::getId)
+            .toList();
+    }
+
+    @Test
+    public void testRelay_withPartialPage_publishesThenCompletesWithoutBacklog() {
+        when(outboxService.claimEvents(PAGE_SIZE, LEASE))
+            .thenReturn(FULL_PAGE)
+            .thenReturn(PARTIAL_PAGE);
+
+        assertEquals(RunOutcome.builder().processed(PAGE_SIZE + 3).backlog(false).build(), outboxRelay.relay());
+        InOrder inOrder = inOrder(outboxService, outboxSink);
+        inOrder.verify(outboxService).claimEvents(PAGE_SIZE, LEASE);
+        inOrder.verify(outboxSink).publish(FULL_PAGE);
+        inOrder.verify(outboxService).completeEvents(ids(FULL_PAGE), LEASE);
+        inOrder.verify(outboxService).claimEvents(PAGE_SIZE, LEASE);
+        inOrder.verify(outboxSink).publish(PARTIAL_PAGE);
+        inOrder.verify(outboxService).completeEvents(ids(PARTIAL_PAGE), LEASE);
+    }
+
+    @Test
+    public void testRelay_withFullPages_stopsAtMaxPagesWithBacklog() {
+        when(outboxService.claimEvents(PAGE_SIZE, LEASE)).thenReturn(FULL_PAGE);
+
+        assertEquals(
+            RunOutcome.builder().processed(PAGE_SIZE * MAX_PAGES_PER_RUN).backlog(true).build(),
+            outboxRelay.relay()
+        );
+        verify(outboxService, times(MAX_PAGES_PER_RUN)).claimEvents(PAGE_SIZE, LEASE);
+        verify(outboxService, times(MAX_PAGES_PER_RUN)).completeEvents(ids(FULL_PAGE), LEASE);
+    }
+
+    @Test
+    public void testRelay_withEmptyOutbox_doesNotPublish() {
+        when(outboxService.claimEvents(PAGE_SIZE, LEASE)).thenReturn(List.of());
+
+        assertEquals(RunOutcome.builder().processed(0).backlog(false).build(), outboxRelay.relay());
+        verifyNoInteractions(outboxSink);
+        verify(outboxService, never()).completeEvents(any(), any());
+    }
+
+    @Test
+    public void testRelay_whenSinkFails_keepsPageLeasedAndEndsRunWithoutBacklog() {
+        when(outboxService.claimEvents(PAGE_SIZE, LEASE))
+            .thenReturn(FULL_PAGE)
+            .thenReturn(PARTIAL_PAGE);
+        doNothing().doThrow(new IllegalStateException("sink unavailable")).when(outboxSink).publish(any());
+
+        assertEquals(RunOutcome.builder().processed(PAGE_SIZE).backlog(false).build(), outboxRelay.relay());
+        verify(outboxService).completeEvents(ids(FULL_PAGE), LEASE);
+        verify(outboxService, never()).completeEvents(ids(PARTIAL_PAGE), LEASE);
+    }
+
+}
@@ -0,0 +1,132 @@
+package org.timekeeper.poller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.timekeeper.model.DueScanResult;
+import org.timekeeper.service.ScanService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.timekeeper.poller.StatusCheckScheduler.MAX_BACKOFF;
+import static org.timekeeper.poller.StatusCheckScheduler.MAX_SAMPLES;
+import static org.timekeeper.poller.StatusCheckScheduler.MIN_DELAY;
+import static org.timekeeper.poller.StatusCheckScheduler.REFRESH_INTERVAL;
+
+@ExtendWith(MockitoExtension.class)
+public class StatusCheckSchedulerTest {
+
+    private static final Instant NOW = Instant.now();
+
+    @Mock
+    private ScanService scanService;
+
+    private StatusCheckScheduler statusCheckScheduler;
+
+    @BeforeEach
+    public void setupEach() {
+        statusCheckScheduler = new StatusCheckScheduler(scanService);
+    }
+
+    @Test
+    public void testGetNextCheckAt_withoutCompletions_backsOffExponentially() {
+        when(scanService.listRecentCompletionTimes(MAX_SAMPLES)).thenReturn(List.of());
+
+        assertEquals(NOW.plus(10, ChronoUnit.SECONDS), statusCheckScheduler.getNextCheckAt(scanResult(30, 0), NOW));
+        assertEquals(NOW.plus(40, ChronoUnit.SECONDS), statusCheckScheduler.getNextCheckAt(scanResult(30, 2), NOW));
+        assertEquals(NOW.plus(MAX_BACKOFF), statusCheckScheduler.getNextCheckAt(scanResult(30, 10), NOW));
+    }
+
+    @Test
+    public void testGetNextCheckAt_withCompletions_targetsNextPercentile() {
+        stubCompletions();
+
+        // p50 = 50s, p75 = 75s
+        assertEquals(NOW.plus(20, ChronoUnit.SECONDS), statusCheckScheduler.getNextCheckAt(scanResult(30, 0), NOW));
+        assertEquals(NOW.plus(15, ChronoUnit.SECONDS), statusCheckScheduler.getNextCheckAt(scanResult(60, 1), NOW));
+    }
+
+    @Test
+    public void testGetNextCheckAt_withPercentileImminent_waitsMinimumDelay() {
+        stubCompletions();
+
+        // p99 = 99s
+        assertEquals(NOW.plus(MIN_DELAY), statusCheckScheduler.getNextCheckAt(scanResult(98, 3), NOW));
+    }
+
+    @Test
+    public void testGetNextCheckAt_withAllPercentilesOutlived_backsOffExponentially() {
+        stubCompletions();
+
+        assertEquals(NOW.plus(20, ChronoUnit.SECONDS), statusCheckScheduler.getNextCheckAt(scanResult(120, 1), NOW));
+    }
+
+    @Test
+    public void testGetNextCheckAt_withoutSubmittedAt_targetsFirstPercentile() {
+        stubCompletions();
+        DueScanResult scanResult = DueScanResult.builder()
+            .id(1L)
+            .build();
+
+        assertEquals(NOW.plus(50, ChronoUnit.SECONDS), statusCheckScheduler.getNextCheckAt(scanResult, NOW));
+    }
+
+    @Test
+    public void testGetNextCheckAt_withinRefreshInterval_reusesCompletionTimes() {
+        stubCompletions();
+
+        statusCheckScheduler.getNextCheckAt(scanResult(30, 0), NOW);
+        statusCheckScheduler.getNextCheckAt(scanResult(30, 0), NOW.plus(REFRESH_INTERVAL).minusMillis(1));
+
+        verify(scanService).listRecentCompletionTimes(MAX_SAMPLES);
+    }
+
+    @Test
+    public void testGetNextCheckAt_afterRefreshInterval_refreshesCompletionTimes() {
+        stubCompletions();
+        statusCheckScheduler.getNextCheckAt(scanResult(30, 0), NOW);
+        when(scanService.listRecentCompletionTimes(MAX_SAMPLES))
+            .thenReturn(Collections.nCopies(MAX_SAMPLES, Duration.of(200, ChronoUnit.SECONDS)));
+
+        Instant later = NOW.plus(REFRESH_INTERVAL);
+
+        assertEquals(later.plus(170, ChronoUnit.SECONDS), statusCheckScheduler.getNextCheckAt(scanResult(later, 30, 0), later));
+        verify(scanService, times(2)).listRecentCompletionTimes(MAX_SAMPLES);
+    }
+
+    /**
+     * Returns completion times of 100s down to 1s, most recent first, making the nth percentile n seconds
+     */
+    private void stubCompletions() {
+        when(scanService.listRecentCompletionTimes(MAX_SAMPLES)).thenReturn(
+            LongStream.rangeClosed(1, 100)
+                .map(i -> 101 - i)
+                .mapToObj(Duration::ofSeconds)
+                .toList()
+        );
+    }
+
+    private DueScanResult scanResult(long elapsedSeconds, int checkCount) {
+        return scanResult(NOW, elapsedSeconds, checkCount);
+    }
+
+    private DueScanResult scanResult(Instant now, long elapsedSeconds, int checkCount) {
+        return DueScanResult.builder()
+            .id(1L)
+            .submittedAt(now.minus(elapsedSeconds, ChronoUnit.SECONDS))
+            .checkCount(checkCount)
+            .build();
+    }
+
+}
@@ -8,27 +8,36 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
 import org.timekeeper.client.UrlScanClient;
 import org.timekeeper.client.model.GetResultResponse;
-import org.timekeeper.model.Page;
+import org.timekeeper.model.DueScanResult;
 import org.timekeeper.model.ScanResult;
 import org.timekeeper.model.ScanResultStatus;
-import org.timekeeper.model.request.PageRequest;
+import org.timekeeper.model.request.LeaseRequest;
+import org.timekeeper.model.request.ScanResultCheckRequest;
+import org.timekeeper.model.request.ScanResultUpdateRequest;
+import org.timekeeper.scheduler.RunOutcome;
 import org.timekeeper.service.ScanService;
 
 import java.time.Clock;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.timekeeper.poller.StatusPoller.ACTION;
+import static org.timekeeper.poller.StatusPoller.MAX_PAGES_PER_RUN;
 import static org.timekeeper.poller.StatusPoller.PAGE_SIZE;
 import static org.timekeeper.poller.StatusPoller.STATUS;
 
@@ -39,8 +48,6 @@ public class StatusPollerTest {
 
     private static final Long SCAN_RESULT_ID_2 = 3L;
 
-    private static final Integer TOTAL_PAGES = 2;
-
     private static final Integer STATUS_CODE = 4;
 
     private static final String URL_SCAN_ID_1 = "urlScanId1";
@@ -53,21 +60,16 @@ public class StatusPollerTest {
 
     private static final Instant NOW = Instant.now();
 
-    private static final ScanResult SCAN_RESULT_1 = ScanResult.builder()
+    private static final DueScanResult SCAN_RESULT_1 = DueScanResult.builder()
         .id(SCAN_RESULT_ID_1)
         .urlScanId(URL_SCAN_ID_1)
         .build();
 
-    private static final ScanResult SCAN_RESULT_2 = ScanResult.builder()
+    private static final DueScanResult SCAN_RESULT_2 = DueScanResult.builder()
         .id(SCAN_RESULT_ID_2)
         .urlScanId(URL_SCAN_ID_2)
         .build();
 
-    private static final PageRequest PAGE_REQUEST_1 = PageRequest.builder()
-        .page(0)
-        .pageSize(PAGE_SIZE)
-        .build();
-
     @Mock
     private ScanService scanService;
 
@@ -75,7 +77,10 @@ public class StatusPollerTest {
     private UrlScanClient urlScanClient;
 
     @Mock
-    private StatusPoller.Delay delay;
+    private LeaseRequest lease;
+
+    @Mock
+    private StatusCheckScheduler statusCheckScheduler;
 
     @Mock
     private Clock clock;
@@ -85,25 +90,10 @@ public class StatusPollerTest {
 
     @BeforeEach
     public void setupEach() {
-        PageRequest pageRequest2 = PAGE_REQUEST_1.toBuilder()
-            .page(1)
-            .build();
-        Page<ScanResult> page1 = Page.<ScanResult>builder()
-            .data(List.of(SCAN_RESULT_1))
-            .page(0)
-            .totalPages(TOTAL_PAGES)
-            .build();
-        Page<ScanResult> page2 = page1.toBuilder()
-            .data(List.of(SCAN_RESULT_2))
-            .page(1)
-            .build();
-
-        lenient().when(scanService.listScanResults(STATUS, PAGE_REQUEST_1))
-            .thenReturn(page1);
-        lenient().when(scanService.listScanResults(STATUS, pageRequest2))
-            .thenReturn(page2);
+        lenient().when(scanService.claimDueScanResults(STATUS, PAGE_SIZE, lease))
+            .thenReturn(List.of(SCAN_RESULT_1, SCAN_RESULT_2));
         lenient().when(clock.instant()).thenReturn(NOW);
-        lenient().when(delay.getTime()).thenReturn(Optional.empty());
+        lenient().when(urlScanClient.getThrottleReset(ACTION)).thenReturn(Optional.empty());
     }
 
     @Test
@@ -113,37 +103,124 @@ public class StatusPollerTest {
         when(urlScanClient.getResult(URL_SCAN_ID_1)).thenReturn(responseEntity1);
         when(urlScanClient.getResult(URL_SCAN_ID_2)).thenReturn(responseEntity2);
 
-        statusPoller.poll();
+        RunOutcome actual = statusPoller.poll();
 
-        verify(scanService).updateScanResult(
-            SCAN_RESULT_ID_1,
-            ScanResultStatus.DONE,
-            Optional.empty(),
-            Optional.empty(),
-            Optional.empty()
-            );
-        verify(scanService).updateScanResult(
-            SCAN_RESULT_ID_2,
-            ScanResultStatus.DONE,
-            Optional.empty(),
-            Optional.empty(),
-            Optional.empty()
+        assertEquals(
+            RunOutcome.builder()
+                .processed(2)
+                .backlog(false)
+                .build(),
+            actual
+        );
+        verify(scanService).updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_1)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.DONE)
+                .build(),
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_2)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.DONE)
+                .build()
+        ), List.of(), lease);
+        verifyNoInteractions(statusCheckScheduler);
+    }
+
+    @Test
+    public void testPoll_withRequestException_checksRemainingScanResults() {
+        ResponseEntity<GetResultResponse> responseEntity2 = new ResponseEntity<>(HttpStatus.OK);
+        when(urlScanClient.getResult(URL_SCAN_ID_1)).thenThrow(new ResourceAccessException("timeout"));
+        when(urlScanClient.getResult(URL_SCAN_ID_2)).thenReturn(responseEntity2);
+
+        RunOutcome actual = statusPoller.poll();
+
+        assertEquals(
+            RunOutcome.builder()
+                .processed(1)
+                .backlog(false)
+                .build(),
+            actual
         );
+        verify(scanService).updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_2)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.DONE)
+                .build()
+        ), List.of(), lease);
     }
 
     @Test
-    public void testPoll_withRequestInProgress_doesNotUpdateScanStatus() {
+    public void testPoll_withRequestInProgress_schedulesNextCheck() {
         ResponseEntity<GetResultResponse> responseEntity1 = new ResponseEntity<>(HttpStatus.NOT_FOUND);
         ResponseEntity<GetResultResponse> responseEntity2 = new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        Instant nextCheckAt1 = NOW.plus(10, ChronoUnit.SECONDS);
+        Instant nextCheckAt2 = NOW.plus(20, ChronoUnit.SECONDS);
 
         when(urlScanClient.getResult(URL_SCAN_ID_1)).thenReturn(responseEntity1);
         when(urlScanClient.getResult(URL_SCAN_ID_2)).thenReturn(responseEntity2);
         when(urlScanClient.isInProgress(responseEntity1)).thenReturn(true);
         when(urlScanClient.isInProgress(responseEntity2)).thenReturn(true);
+        when(statusCheckScheduler.getNextCheckAt(SCAN_RESULT_1, NOW)).thenReturn(nextCheckAt1);
+        when(statusCheckScheduler.getNextCheckAt(SCAN_RESULT_2, NOW)).thenReturn(nextCheckAt2);
+
+        RunOutcome actual = statusPoller.poll();
+
+        assertEquals(
+            RunOutcome.builder()
+                .processed(2)
+                .backlog(false)
+                .build(),
+            actual
+        );
+        verify(scanService).updateScanResults(
+            List.of(),
+            List.of(
+                ScanResultCheckRequest.builder()
+                    .scanResultId(SCAN_RESULT_ID_1)
+                    .nextCheckAt(nextCheckAt1)
+                    .checkedAt(NOW)
+                    .build(),
+                ScanResultCheckRequest.builder()
+                    .scanResultId(SCAN_RESULT_ID_2)
+                    .nextCheckAt(nextCheckAt2)
+                    .checkedAt(NOW)
+                    .build()
+            ),
+            lease
+        );
+    }
+
+    @Test
+    public void testPoll_withFullPage_claimsAgain() {
+        ResponseEntity<GetResultResponse> responseEntity = new ResponseEntity<>(HttpStatus.OK);
+        List<DueScanResult> fullPage = Collections.nCopies(PAGE_SIZE, SCAN_RESULT_1);
+
+        when(scanService.claimDueScanResults(STATUS, PAGE_SIZE, lease))
+            .thenReturn(fullPage)
+            .thenReturn(List.of(SCAN_RESULT_2));
+        when(urlScanClient.getResult(URL_SCAN_ID_1)).thenReturn(responseEntity);
+        when(urlScanClient.getResult(URL_SCAN_ID_2)).thenReturn(responseEntity);
 
         statusPoller.poll();
 
-        verify(scanService, never()).updateScanResult(any(), any(), any(), any(), any());
+        verify(scanService, times(2)).claimDueScanResults(STATUS, PAGE_SIZE, lease);
+        verify(scanService).updateScanResults(Collections.nCopies(
+            PAGE_SIZE,
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_1)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.DONE)
+                .build()
+        ), List.of(), lease);
+        verify(scanService).updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_2)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.DONE)
+                .build()
+        ), List.of(), lease);
     }
 
     @Test
@@ -175,50 +252,109 @@ public class StatusPollerTest {
 
         statusPoller.poll();
 
-        verify(scanService).updateScanResult(
-            SCAN_RESULT_ID_1,
-            ScanResultStatus.FAILED,
-            Optional.of(
-                ScanResult.StatusDetails.builder()
-                    .code(STATUS_CODE)
-                    .message(STATUS_MESSAGE)
-                    .description(STATUS_DESCRIPTION)
-                    .build()
-            ),
-            Optional.empty(),
-            Optional.empty()
-        );
-        verify(scanService).updateScanResult(
-            SCAN_RESULT_ID_2,
-            ScanResultStatus.FAILED,
-            Optional.of(
-                ScanResult.StatusDetails.builder()
-                    .code(status2)
-                    .message(message2)
-                    .description(description2)
-                    .build()
-            ),
-            Optional.empty(),
-            Optional.empty()
-        );
+        verify(scanService).updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_1)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.FAILED)
+                .statusDetails(
+                    ScanResult.StatusDetails.builder()
+                        .code(STATUS_CODE)
+                        .message(STATUS_MESSAGE)
+                        .description(STATUS_DESCRIPTION)
+                        .build()
+                ).build(),
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_2)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.FAILED)
+                .statusDetails(
+                    ScanResult.StatusDetails.builder()
+                        .code(status2)
+                        .message(message2)
+                        .description(description2)
+                        .build()
+                ).build()
+        ), List.of(), lease);
     }
 
     @Test
-    public void testPoll_withClientThrottling_stopsProcessing() {
+    public void testPoll_withClientThrottling_stopsProcessingAndReleasesUncheckedScanResults() {
         ResponseEntity<GetResultResponse> responseEntity1 = new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
         Optional<Instant> throttleReset = Optional.of(Instant.now());
 
         when(urlScanClient.getResult(URL_SCAN_ID_1)).thenReturn(responseEntity1);
         when(urlScanClient.getThrottleReset(responseEntity1)).thenReturn(throttleReset);
 
-        statusPoller.poll();
+        RunOutcome actual = statusPoller.poll();
 
+        assertEquals(
+            RunOutcome.builder()
+                .processed(0)
+                .backlog(true)
+                .throttledUntil(throttleReset.get())
+                .build(),
+            actual
+        );
         verify(urlScanClient).getResult(URL_SCAN_ID_1);
+        verify(urlScanClient).getThrottleReset(ACTION);
         verifyNoMoreInteractions(urlScanClient);
-        verify(scanService).listScanResults(STATUS, PAGE_REQUEST_1);
+        verify(scanService).claimDueScanResults(STATUS, PAGE_SIZE, lease);
+        verify(scanService).updateScanResults(List.of(), List.of(), lease);
+        verify(scanService).releaseScanResults(List.of(SCAN_RESULT_ID_1, SCAN_RESULT_ID_2), lease);
         verifyNoMoreInteractions(scanService);
     }
 
+    @Test
+    public void testPoll_withClientThrottlingAfterCheck_appliesCheckedAndReleasesRemainder() {
+        ResponseEntity<GetResultResponse> responseEntity1 = new ResponseEntity<>(HttpStatus.OK);
+        ResponseEntity<GetResultResponse> responseEntity2 = new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
+        Optional<Instant> throttleReset = Optional.of(NOW.plus(1, ChronoUnit.MINUTES));
+
+        when(urlScanClient.getResult(URL_SCAN_ID_1)).thenReturn(responseEntity1);
+        when(urlScanClient.getResult(URL_SCAN_ID_2)).thenReturn(responseEntity2);
+        when(urlScanClient.getThrottleReset(responseEntity2)).thenReturn(throttleReset);
+
+        RunOutcome actual = statusPoller.poll();
+
+        assertEquals(
+            RunOutcome.builder()
+                .processed(1)
+                .backlog(true)
+                .throttledUntil(throttleReset.get())
+                .build(),
+            actual
+        );
+        verify(scanService).updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_1)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.DONE)
+                .build()
+        ), List.of(), lease);
+        verify(scanService).releaseScanResults(List.of(SCAN_RESULT_ID_2), lease);
+    }
+
+    @Test
+    public void testPoll_withBacklogBeyondPageLimit_stopsAndReportsBacklog() {
+        ResponseEntity<GetResultResponse> responseEntity = new ResponseEntity<>(HttpStatus.OK);
+
+        when(scanService.claimDueScanResults(STATUS, PAGE_SIZE, lease))
+            .thenReturn(Collections.nCopies(PAGE_SIZE, SCAN_RESULT_1));
+        when(urlScanClient.getResult(URL_SCAN_ID_1)).thenReturn(responseEntity);
+
+        RunOutcome actual = statusPoller.poll();
+
+        assertEquals(
+            RunOutcome.builder()
+                .processed(PAGE_SIZE * MAX_PAGES_PER_RUN)
+                .backlog(true)
+                .build(),
+            actual
+        );
+        verify(scanService, times(MAX_PAGES_PER_RUN)).claimDueScanResults(STATUS, PAGE_SIZE, lease);
+    }
+
     @Test
     public void testPoll_withNonClientFailures_doesNotUpdateScanStatus() {
         ResponseEntity<GetResultResponse> responseEntity1 = new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
@@ -229,19 +365,35 @@ public class StatusPollerTest {
         when(urlScanClient.isInProgress(responseEntity1)).thenReturn(false);
         when(urlScanClient.isInProgress(responseEntity2)).thenReturn(false);
 
-        statusPoller.poll();
+        RunOutcome actual = statusPoller.poll();
 
-        verify(scanService, never()).updateScanResult(any(), any(), any(), any(), any());
+        assertEquals(
+            RunOutcome.builder()
+                .processed(0)
+                .backlog(false)
+                .build(),
+            actual
+        );
+        verify(scanService).updateScanResults(List.of(), List.of(), lease);
     }
 
     @Test
     public void testPoll_withDelayInFuture_doesNothing() {
-        when(delay.getTime()).thenReturn(Optional.of(NOW.plus(1, ChronoUnit.MINUTES)));
+        when(urlScanClient.getThrottleReset(ACTION)).thenReturn(Optional.of(NOW.plus(1, ChronoUnit.MINUTES)));
 
-        statusPoller.poll();
+        RunOutcome actual = statusPoller.poll();
 
+        assertEquals(
+            RunOutcome.builder()
+                .processed(0)
+                .backlog(true)
+                .throttledUntil(NOW.plus(1, ChronoUnit.MINUTES))
+                .build(),
+            actual
+        );
         verifyNoInteractions(scanService);
-        verifyNoInteractions(urlScanClient);
+        verify(urlScanClient).getThrottleReset(ACTION);
+        verifyNoMoreInteractions(urlScanClient);
     }
 
     @Test
@@ -249,26 +401,24 @@ public class StatusPollerTest {
         ResponseEntity<GetResultResponse> responseEntity1 = new ResponseEntity<>(HttpStatus.OK);
         ResponseEntity<GetResultResponse> responseEntity2 = new ResponseEntity<>(HttpStatus.OK);
 
-        when(delay.getTime()).thenReturn(Optional.of(NOW.minus(1, ChronoUnit.MINUTES)));
+        when(urlScanClient.getThrottleReset(ACTION)).thenReturn(Optional.of(NOW.minus(1, ChronoUnit.MINUTES)));
         when(urlScanClient.getResult(URL_SCAN_ID_1)).thenReturn(responseEntity1);
         when(urlScanClient.getResult(URL_SCAN_ID_2)).thenReturn(responseEntity2);
 
         statusPoller.poll();
 
-        verify(scanService).updateScanResult(
-            SCAN_RESULT_ID_1,
-            ScanResultStatus.DONE,
-            Optional.empty(),
-            Optional.empty(),
-            Optional.empty()
-        );
-        verify(scanService).updateScanResult(
-            SCAN_RESULT_ID_2,
-            ScanResultStatus.DONE,
-            Optional.empty(),
-            Optional.empty(),
-            Optional.empty()
-        );
+        verify(scanService).updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_1)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.DONE)
+                .build(),
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_2)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.DONE)
+                .build()
+        ), List.of(), lease);
     }
 
 }
@@ -0,0 +1,115 @@
+package org.timekeeper.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TriggerContext;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BacklogAwareTriggerTest {
+
+    private static final Instant NOW = Instant.now();
+
+    private static final Instant LAST_COMPLETION = NOW.minus(1, ChronoUnit.SECONDS);
+
+    private static final Duration IDLE_INTERVAL = Duration.of(10, ChronoUnit.SECONDS);
+
+    @Mock
+    private Supplier<RunOutcome> worker;
+
+    @Mock
+    private Clock clock;
+
+    @Mock
+    private TriggerContext triggerContext;
+
+    private BacklogAwareTrigger trigger;
+
+    @BeforeEach
+    public void setupEach() {
+        trigger = new BacklogAwareTrigger(worker, IDLE_INTERVAL, clock);
+    }
+
+    @Test
+    public void testNextExecution_withoutPreviousRun_runsNow() {
+        when(clock.instant()).thenReturn(NOW);
+
+        assertEquals(NOW, trigger.nextExecution(triggerContext));
+    }
+
+    @Test
+    public void testNextExecution_withBacklog_runsImmediately() {
+        assertEquals(LAST_COMPLETION, nextExecutionAfter(outcome(true)));
+    }
+
+    @Test
+    public void testNextExecution_withoutBacklog_waitsIdleInterval() {
+        assertEquals(LAST_COMPLETION.plus(IDLE_INTERVAL), nextExecutionAfter(outcome(false)));
+    }
+
+    @Test
+    public void testNextExecution_withThrottledBacklog_waitsForThrottleReset() {
+        Instant throttledUntil = NOW.plus(1, ChronoUnit.MINUTES);
+
+        assertEquals(
+            throttledUntil,
+            nextExecutionAfter(
+                outcome(true).toBuilder()
+                    .throttledUntil(throttledUntil)
+                    .build()
+            )
+        );
+    }
+
+    @Test
+    public void testNextExecution_withThrottleResetBeforeIdleInterval_waitsIdleInterval() {
+        assertEquals(
+            LAST_COMPLETION.plus(IDLE_INTERVAL),
+            nextExecutionAfter(
+                outcome(false).toBuilder()
+                    .throttledUntil(NOW)
+                    .build()
+            )
+        );
+    }
+
+    @Test
+    public void testNextExecution_afterFailedRun_waitsIdleInterval() {
+        when(worker.get()).thenReturn(outcome(true)).thenThrow(new RuntimeException());
+        when(triggerContext.lastCompletion()).thenReturn(LAST_COMPLETION);
+
+        trigger.run();
+        assertThrows(RuntimeException.class, trigger::run);
+
+        assertEquals(LAST_COMPLETION.plus(IDLE_INTERVAL), trigger.nextExecution(triggerContext));
+    }
+
+    private Instant nextExecutionAfter(RunOutcome outcome) {
+        when(worker.get()).thenReturn(outcome);
+        when(triggerContext.lastCompletion()).thenReturn(LAST_COMPLETION);
+
+        trigger.run();
+
+        return trigger.nextExecution(triggerContext);
+    }
+
+    private static RunOutcome outcome(boolean backlog) {
+        return RunOutcome.builder()
+            .processed(1)
+            .backlog(backlog)
+            .build();
+    }
+
+}
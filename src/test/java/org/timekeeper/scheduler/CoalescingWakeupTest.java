@@ -0,0 +1,137 @@
+package org.timekeeper.scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CoalescingWakeupTest {
+
+    private static final Duration DELAY = Duration.of(100, ChronoUnit.MILLIS);
+
+    private static final RunOutcome DRAINED = RunOutcome.builder()
+        .processed(1)
+        .backlog(false)
+        .build();
+
+    private static final RunOutcome BACKLOG = RunOutcome.builder()
+        .processed(1)
+        .backlog(true)
+        .build();
+
+    @Mock
+    private ScheduledExecutorService executor;
+
+    @Mock
+    private Supplier<RunOutcome> task;
+
+    @Captor
+    private ArgumentCaptor<Runnable> runCaptor;
+
+    private CoalescingWakeup coalescingWakeup;
+
+    @BeforeEach
+    public void setupEach() {
+        coalescingWakeup = new CoalescingWakeup(executor, task, DELAY);
+    }
+
+    @Test
+    public void testWakeup_withoutPendingRun_schedulesRun() {
+        when(task.get()).thenReturn(DRAINED);
+
+        coalescingWakeup.wakeup();
+
+        verify(executor).schedule(runCaptor.capture(), eq(DELAY.toMillis()), eq(TimeUnit.MILLISECONDS));
+        verifyNoInteractions(task);
+
+        runCaptor.getValue().run();
+
+        verify(task).get();
+        verifyNoMoreInteractions(executor);
+    }
+
+    @Test
+    public void testWakeup_withPendingRun_coalescesIntoPendingRun() {
+        coalescingWakeup.wakeup();
+        coalescingWakeup.wakeup();
+        coalescingWakeup.wakeup();
+
+        verify(executor).schedule(any(Runnable.class), eq(DELAY.toMillis()), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testWakeup_afterPendingRunStarted_schedulesAnotherRun() {
+        when(task.get()).thenReturn(DRAINED);
+
+        coalescingWakeup.wakeup();
+        verify(executor).schedule(runCaptor.capture(), eq(DELAY.toMillis()), eq(TimeUnit.MILLISECONDS));
+        runCaptor.getValue().run();
+
+        coalescingWakeup.wakeup();
+
+        verify(executor, times(2)).schedule(any(Runnable.class), eq(DELAY.toMillis()), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testWakeup_withFailingRun_schedulesAnotherRun() {
+        when(task.get()).thenThrow(new RuntimeException());
+
+        coalescingWakeup.wakeup();
+        verify(executor).schedule(runCaptor.capture(), eq(DELAY.toMillis()), eq(TimeUnit.MILLISECONDS));
+        runCaptor.getValue().run();
+
+        coalescingWakeup.wakeup();
+
+        verify(executor, times(2)).schedule(any(Runnable.class), eq(DELAY.toMillis()), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testWakeup_withBacklogRemaining_runsAgainImmediately() {
+        when(task.get()).thenReturn(BACKLOG).thenReturn(DRAINED);
+
+        coalescingWakeup.wakeup();
+        verify(executor).schedule(runCaptor.capture(), eq(DELAY.toMillis()), eq(TimeUnit.MILLISECONDS));
+        runCaptor.getValue().run();
+
+        verify(executor).execute(runCaptor.capture());
+        runCaptor.getValue().run();
+
+        verify(task, times(2)).get();
+        verifyNoMoreInteractions(executor);
+    }
+
+    @Test
+    public void testWakeup_withThrottledBacklog_leavesBacklogToSchedule() {
+        when(task.get()).thenReturn(
+            BACKLOG.toBuilder()
+                .throttledUntil(Instant.now())
+                .build()
+        );
+
+        coalescingWakeup.wakeup();
+        verify(executor).schedule(runCaptor.capture(), eq(DELAY.toMillis()), eq(TimeUnit.MILLISECONDS));
+        runCaptor.getValue().run();
+
+        verifyNoMoreInteractions(executor);
+    }
+
+}
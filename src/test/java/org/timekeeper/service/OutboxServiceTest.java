@@ -0,0 +1,106 @@
+package org.timekeeper.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.timekeeper.database.postgresql.model.ScanResultOutboxEntity;
+import org.timekeeper.database.postgresql.repository.ScanResultOutboxRepository;
+import org.timekeeper.model.ScanResultStatus;
+import org.timekeeper.model.request.LeaseRequest;
+import org.timekeeper.model.transform.ScanResultEventTransform;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxServiceTest {
+
+    private static final Integer LIMIT = 10;
+
+    private static final String LEASE_OWNER = "leaseOwner";
+
+    private static final Duration LEASE_DURATION = Duration.of(1, ChronoUnit.MINUTES);
+
+    private static final Instant NOW = Instant.now();
+
+    private static final ScanResultOutboxEntity OUTBOX_ENTITY_1 = ScanResultOutboxEntity.builder()
+        .id(1L)
+        .scanResultId(3L)
+        .previousStatus(ScanResultStatus.SUBMITTED)
+        .status(ScanResultStatus.PROCESSING)
+        .createdAt(NOW)
+        .build();
+
+    private static final ScanResultOutboxEntity OUTBOX_ENTITY_2 = ScanResultOutboxEntity.builder()
+        .id(2L)
+        .scanResultId(3L)
+        .previousStatus(ScanResultStatus.PROCESSING)
+        .status(ScanResultStatus.DONE)
+        .createdAt(NOW)
+        .build();
+
+    private static final LeaseRequest LEASE = LeaseRequest.builder()
+        .owner(LEASE_OWNER)
+        .duration(LEASE_DURATION)
+        .build();
+
+    @Mock
+    private Clock clock;
+
+    @Mock
+    private ScanResultOutboxRepository scanResultOutboxRepository;
+
+    @InjectMocks
+    private OutboxService outboxService;
+
+    @Test
+    public void testClaimEvents_withOutboxEntries_claimsUnderLeaseInOrder() {
+        when(clock.instant()).thenReturn(NOW);
+        when(scanResultOutboxRepository.claimOldest(LEASE_OWNER, NOW.plus(LEASE_DURATION), NOW, LIMIT))
+            .thenReturn(List.of(OUTBOX_ENTITY_1, OUTBOX_ENTITY_2));
+
+        assertEquals(
+            List.of(ScanResultEventTransform.apply(OUTBOX_ENTITY_1), ScanResultEventTransform.apply(OUTBOX_ENTITY_2)),
+            outboxService.claimEvents(LIMIT, LEASE)
+        );
+        InOrder inOrder = inOrder(scanResultOutboxRepository);
+        inOrder.verify(scanResultOutboxRepository).lockClaims();
+        inOrder.verify(scanResultOutboxRepository).claimOldest(LEASE_OWNER, NOW.plus(LEASE_DURATION), NOW, LIMIT);
+    }
+
+    @Test
+    public void testClaimEvents_withEmptyOutbox_returnsEmptyList() {
+        when(clock.instant()).thenReturn(NOW);
+        when(scanResultOutboxRepository.claimOldest(LEASE_OWNER, NOW.plus(LEASE_DURATION), NOW, LIMIT))
+            .thenReturn(List.of());
+
+        assertEquals(List.of(), outboxService.claimEvents(LIMIT, LEASE));
+    }
+
+    @Test
+    public void testCompleteEvents_withEventIds_deletesLeased() {
+        outboxService.completeEvents(List.of(1L, 2L), LEASE);
+
+        verify(scanResultOutboxRepository).deleteLeased(List.of(1L, 2L), LEASE_OWNER);
+    }
+
+    @Test
+    public void testCompleteEvents_withoutEventIds_doesNotDelete() {
+        outboxService.completeEvents(List.of(), LEASE);
+
+        verifyNoInteractions(scanResultOutboxRepository);
+    }
+
+}
@@ -0,0 +1,95 @@
+package org.timekeeper.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.timekeeper.database.postgresql.listener.NotificationPayloads;
+import org.timekeeper.model.transform.UrlFingerprintTransform;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RecentScanIndexTest {
+
+    private static final Duration RETENTION = Duration.of(2, ChronoUnit.HOURS);
+
+    private static final Instant NOW = Instant.now();
+
+    private static final Long URL_FINGERPRINT = UrlFingerprintTransform.apply("https://example.com/");
+
+    private static final Long OTHER_URL_FINGERPRINT = UrlFingerprintTransform.apply("https://example.org/");
+
+    @Mock
+    private Clock clock;
+
+    private RecentScanIndex recentScanIndex;
+
+    @BeforeEach
+    public void setupEach() {
+        when(clock.instant()).thenReturn(NOW);
+        recentScanIndex = new RecentScanIndex(clock, RETENTION, 1_000L);
+    }
+
+    @Test
+    public void testMightContain_beforeReady_reportsEveryUrl() {
+        assertTrue(recentScanIndex.mightContain(URL_FINGERPRINT));
+    }
+
+    @Test
+    public void testMightContain_withUnseenUrl_reportsUrlNotSeen() {
+        recentScanIndex.record(URL_FINGERPRINT);
+        recentScanIndex.markReady();
+
+        assertTrue(recentScanIndex.mightContain(URL_FINGERPRINT));
+        assertFalse(recentScanIndex.mightContain(OTHER_URL_FINGERPRINT));
+    }
+
+    @Test
+    public void testMightContain_afterMarkedNotReady_reportsEveryUrl() {
+        recentScanIndex.markReady();
+        recentScanIndex.markNotReady();
+
+        assertTrue(recentScanIndex.mightContain(OTHER_URL_FINGERPRINT));
+    }
+
+    @Test
+    public void testMightContain_afterRetention_keepsUrlForOneMoreGeneration() {
+        recentScanIndex.record(URL_FINGERPRINT);
+        recentScanIndex.markReady();
+
+        when(clock.instant()).thenReturn(NOW.plus(RETENTION));
+        assertTrue(recentScanIndex.mightContain(URL_FINGERPRINT));
+
+        when(clock.instant()).thenReturn(NOW.plus(RETENTION.multipliedBy(2)));
+        assertFalse(recentScanIndex.mightContain(URL_FINGERPRINT));
+    }
+
+    @Test
+    public void testHandleNotification_withPublishedEntries_recordsUrls() {
+        Long negativeUrlFingerprint = -1L;
+        List<String> notifications = NotificationPayloads.pack(List.of(
+            RecentScanIndex.toNotificationEntry(URL_FINGERPRINT),
+            RecentScanIndex.toNotificationEntry(negativeUrlFingerprint)
+        ));
+
+        assertEquals(1, notifications.size());
+        notifications.forEach(recentScanIndex::handleNotification);
+        recentScanIndex.markReady();
+
+        assertTrue(recentScanIndex.mightContain(URL_FINGERPRINT));
+        assertTrue(recentScanIndex.mightContain(negativeUrlFingerprint));
+        assertFalse(recentScanIndex.mightContain(OTHER_URL_FINGERPRINT));
+    }
+
+}
@@ -0,0 +1,185 @@
+package org.timekeeper.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.timekeeper.model.ChangeFeedCursor;
+import org.timekeeper.model.ScanResultStatus;
+import org.timekeeper.model.ScanVersion;
+import org.timekeeper.model.transform.ChangeFeedCursorTokenTransform;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ScanEventBroadcasterTest {
+
+    private static final String USER_ID = "userId";
+
+    private static final Long SCAN_RESULT_ID = 1L;
+
+    private static final Integer BUFFER_CAPACITY = 4;
+
+    private static final Instant NOW = Instant.now();
+
+    private static final Long COMPLETE_POSITION = 5L;
+
+    private static final String NOTIFICATION_PAYLOAD =
+        COMPLETE_POSITION + ":" + ScanStatusWaiters.toNotificationEntry(SCAN_RESULT_ID);
+
+    private static final String EVENT_ID = ChangeFeedCursorTokenTransform.apply(
+        ChangeFeedCursor.builder()
+            .position(COMPLETE_POSITION)
+            .scanId(0L)
+            .build()
+    );
+
+    private static final ScanVersion SCAN_VERSION = ScanVersion.builder()
+        .id(2L)
+        .status(ScanResultStatus.PROCESSING)
+        .updatedAt(NOW)
+        .build();
+
+    private static final ChangeFeedCursor LAST_EVENT_CURSOR = ChangeFeedCursor.builder()
+        .position(3L)
+        .scanId(0L)
+        .build();
+
+    /**
+     * Records the events sent to it instead of writing them to a response
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new ArrayList<>();
+
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            events.add(
+                builder.build().stream()
+                    .map(ResponseBodyEmitter.DataWithMediaType::getData)
+                    .map(Object::toString)
+                    .collect(Collectors.joining())
+            );
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+    }
+
+    @Mock
+    private ScanService scanService;
+
+    private List<Runnable> pendingSends;
+
+    private ScanEventBroadcaster scanEventBroadcaster;
+
+    @BeforeEach
+    public void setupEach() {
+        pendingSends = new ArrayList<>();
+        scanEventBroadcaster = new ScanEventBroadcaster(scanService, Runnable::run, Runnable::run, BUFFER_CAPACITY);
+    }
+
+    @Test
+    public void testHandleNotification_withSubscribedUser_sendsStatusEvents() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        RecordingEmitter otherEmitter = new RecordingEmitter();
+        scanEventBroadcaster.subscribe(USER_ID, emitter, Optional.empty());
+        scanEventBroadcaster.subscribe("otherUserId", otherEmitter, Optional.empty());
+        when(scanService.listScanVersionsByUser(List.of(SCAN_RESULT_ID))).thenReturn(Map.of(USER_ID, List.of(SCAN_VERSION)));
+
+        scanEventBroadcaster.handleNotification(NOTIFICATION_PAYLOAD);
+
+        assertEquals(1, emitter.events.size());
+        assertTrue(emitter.events.get(0).contains("event:status"));
+        assertTrue(emitter.events.get(0).contains("id:" + EVENT_ID));
+        assertTrue(emitter.events.get(0).contains(SCAN_VERSION.toString()));
+        assertEquals(List.of(), otherEmitter.events);
+    }
+
+    @Test
+    public void testHandleNotification_withoutSubscriptions_skipsQuery() {
+        scanEventBroadcaster.handleNotification(NOTIFICATION_PAYLOAD);
+
+        verifyNoInteractions(scanService);
+    }
+
+    @Test
+    public void testSubscribe_withLastEventCursor_sendsMissedEventsWithCompletePosition() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        when(scanService.getCompleteChangePosition()).thenReturn(COMPLETE_POSITION);
+        when(scanService.listScanVersionsChangedAfter(USER_ID, LAST_EVENT_CURSOR, BUFFER_CAPACITY / 2 + 1))
+            .thenReturn(List.of(SCAN_VERSION));
+
+        scanEventBroadcaster.subscribe(USER_ID, emitter, Optional.of(LAST_EVENT_CURSOR));
+
+        assertEquals(1, emitter.events.size());
+        assertTrue(emitter.events.get(0).contains("id:" + EVENT_ID));
+        assertTrue(emitter.events.get(0).contains(SCAN_VERSION.toString()));
+        assertEquals(1, scanEventBroadcaster.size());
+    }
+
+    @Test
+    public void testSubscribe_withTooManyMissedEvents_sendsResetEvent() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        when(scanService.getCompleteChangePosition()).thenReturn(COMPLETE_POSITION);
+        when(scanService.listScanVersionsChangedAfter(eq(USER_ID), any(), eq(BUFFER_CAPACITY / 2 + 1)))
+            .thenReturn(List.of(SCAN_VERSION, SCAN_VERSION, SCAN_VERSION));
+
+        scanEventBroadcaster.subscribe(USER_ID, emitter, Optional.of(LAST_EVENT_CURSOR));
+
+        assertEquals(1, emitter.events.size());
+        assertTrue(emitter.events.get(0).contains("event:reset"));
+    }
+
+    @Test
+    public void testHandleNotification_withSlowConsumer_evictsConsumer() {
+        scanEventBroadcaster = new ScanEventBroadcaster(scanService, Runnable::run, pendingSends::add, BUFFER_CAPACITY);
+        RecordingEmitter emitter = new RecordingEmitter();
+        scanEventBroadcaster.subscribe(USER_ID, emitter, Optional.empty());
+        when(scanService.listScanVersionsByUser(List.of(SCAN_RESULT_ID)))
+            .thenReturn(Map.of(USER_ID, List.of(SCAN_VERSION, SCAN_VERSION, SCAN_VERSION)));
+
+        scanEventBroadcaster.handleNotification(NOTIFICATION_PAYLOAD);
+        assertFalse(emitter.completed);
+        scanEventBroadcaster.handleNotification(NOTIFICATION_PAYLOAD);
+        pendingSends.forEach(Runnable::run);
+
+        assertTrue(emitter.completed);
+        assertEquals(List.of(), emitter.events);
+    }
+
+    @Test
+    public void testSendHeartbeats_withSubscription_sendsComment() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        scanEventBroadcaster.subscribe(USER_ID, emitter, Optional.empty());
+
+        scanEventBroadcaster.sendHeartbeats();
+
+        assertEquals(List.of(":heartbeat\n\n"), emitter.events);
+        verify(scanService, never()).listScanVersionsByUser(any());
+    }
+
+}
@@ -2,41 +2,82 @@ package org.timekeeper.service;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.timekeeper.database.postgresql.model.CreatedScan;
+import org.timekeeper.database.postgresql.model.ScanChangeEntity;
 import org.timekeeper.database.postgresql.model.ScanEntity;
 import org.timekeeper.database.postgresql.model.ScanResultEntity;
+import org.timekeeper.database.postgresql.model.ScanRow;
+import org.timekeeper.database.postgresql.model.ScanSummaryRow;
+import org.timekeeper.database.postgresql.model.ScanVersionRow;
+import org.timekeeper.database.postgresql.model.UrlDedupeMatch;
 import org.timekeeper.database.postgresql.model.transform.PageRequestTransform;
+import org.timekeeper.database.postgresql.repository.ScanChangeRepository;
 import org.timekeeper.database.postgresql.repository.ScanRepository;
 import org.timekeeper.database.postgresql.repository.ScanResultRepository;
+import org.timekeeper.database.postgresql.repository.WebhookDeliveryRepository;
+import org.timekeeper.exception.CursorExpiredException;
 import org.timekeeper.exception.DuplicateRequestException;
+import org.timekeeper.exception.IllegalStatusTransitionException;
 import org.timekeeper.exception.ResourceNotFoundException;
+import org.timekeeper.model.ChangeFeedCursor;
+import org.timekeeper.model.Cursor;
+import org.timekeeper.model.CursorPage;
+import org.timekeeper.model.DueScanResult;
 import org.timekeeper.model.Page;
 import org.timekeeper.model.Scan;
+import org.timekeeper.model.ScanChangePage;
+import org.timekeeper.model.ScanCreation;
+import org.timekeeper.model.ScanLookup;
 import org.timekeeper.model.ScanResult;
 import org.timekeeper.model.ScanResultStatus;
 import org.timekeeper.model.ScanSummary;
+import org.timekeeper.model.request.CursorPageRequest;
+import org.timekeeper.model.request.LeaseRequest;
 import org.timekeeper.model.request.PageRequest;
+import org.timekeeper.model.request.ScanResultCheckRequest;
+import org.timekeeper.model.request.ScanResultUpdateRequest;
+import org.timekeeper.model.transform.ChangeFeedCursorTokenTransform;
+import org.timekeeper.model.transform.ChangeFeedCursorTransform;
+import org.timekeeper.model.transform.ScanChangeTransform;
 import org.timekeeper.model.transform.ScanTransform;
+import org.timekeeper.model.transform.ScanVersionTransform;
+import org.timekeeper.model.transform.UrlFingerprintTransform;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
-import static org.timekeeper.database.postgresql.repository.Constants.DEFAULT_REVERSE_SORT;
 import static org.timekeeper.database.postgresql.repository.Constants.DEFAULT_SORT;
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_DELETED_CHANNEL;
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_RESULT_CREATED_CHANNEL;
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_RESULT_STATUS_CHANNEL;
+import static org.timekeeper.database.postgresql.repository.Constants.SCAN_RESULT_UPDATED_CHANNEL;
+import static org.timekeeper.service.ScanService.CHANGE_FEED_RETENTION;
 import static org.timekeeper.service.ScanService.SCAN_DEDUPE_DURATION;
 
 @ExtendWith(MockitoExtension.class)
@@ -54,6 +95,8 @@ public class ScanServiceTest {
 
     private static final String URL = "url";
 
+    private static final Long URL_FINGERPRINT = UrlFingerprintTransform.apply(URL);
+
     private static final String URL_SCAN_ID = "urlScanId";
 
     private static final String RESULT_URL = "resultUrl1";
@@ -62,6 +105,10 @@ public class ScanServiceTest {
 
     private static final String STATUS_DESCRIPTION = "statusDescription";
 
+    private static final String LEASE_OWNER = "leaseOwner";
+
+    private static final Duration LEASE_DURATION = Duration.of(1, ChronoUnit.MINUTES);
+
     private static final Instant NOW = Instant.now();
 
     private static final Instant DEDUPE_CUTOFF = NOW.minus(SCAN_DEDUPE_DURATION);
@@ -79,6 +126,7 @@ public class ScanServiceTest {
     private static final ScanResultEntity SCAN_RESULT_ENTITY = ScanResultEntity.builder()
         .id(SCAN_RESULT_ID)
         .url(URL)
+        .urlFingerprint(URL_FINGERPRINT)
         .status(STATUS)
         .statusCode(STATUS_CODE)
         .statusMessage(STATUS_MESSAGE)
@@ -97,6 +145,35 @@ public class ScanServiceTest {
         .updatedAt(SCAN_UPDATED_AT)
         .build();
 
+    private static final ScanVersionRow SCAN_VERSION_ROW = ScanVersionRow.builder()
+        .id(SCAN_ID)
+        .userId(USER_ID)
+        .status(STATUS)
+        .updatedAt(SCAN_UPDATED_AT)
+        .build();
+
+    private static final ScanRow SCAN_ROW = ScanRow.builder()
+        .id(SCAN_ID)
+        .userId(USER_ID)
+        .createdAt(SCAN_CREATED_AT)
+        .updatedAt(SCAN_UPDATED_AT)
+        .resultId(SCAN_RESULT_ID)
+        .urlScanId(URL_SCAN_ID)
+        .url(URL)
+        .resultUrl(RESULT_URL)
+        .status(STATUS)
+        .resultCreatedAt(RESULT_CREATED_AT)
+        .resultUpdatedAt(RESULT_UPDATED_AT)
+        .build();
+
+    private static final ScanSummaryRow SCAN_SUMMARY_ROW = ScanSummaryRow.builder()
+        .id(SCAN_ID)
+        .url(URL)
+        .status(STATUS)
+        .createdAt(SCAN_CREATED_AT)
+        .updatedAt(SCAN_UPDATED_AT)
+        .build();
+
     private static final ScanResult SCAN_RESULT = ScanResult.builder()
         .id(SCAN_RESULT_ID)
         .url(URL)
@@ -123,16 +200,18 @@ public class ScanServiceTest {
         .updatedAt(SCAN_UPDATED_AT)
         .build();
 
+    private static final LeaseRequest LEASE_REQUEST = LeaseRequest.builder()
+        .owner(LEASE_OWNER)
+        .duration(LEASE_DURATION)
+        .build();
+
     private static final PageRequest PAGE_REQUEST = PageRequest.builder()
         .page(0)
         .pageSize(PAGE_SIZE)
         .build();
 
     @Mock
-    org.springframework.data.domain.Page<ScanEntity> scanEntityPage;
-
-    @Mock
-    org.springframework.data.domain.Page<ScanResultEntity> scanResultEntityPage;
+    org.springframework.data.domain.Page<ScanSummaryRow> scanSummaryRowPage;
 
     @Mock
     Pageable pageable;
@@ -146,70 +225,378 @@ public class ScanServiceTest {
     @Mock
     private ScanResultRepository scanResultRepository;
 
+    @Mock
+    private ScanChangeRepository scanChangeRepository;
+
+    @Mock
+    private WebhookDeliveryRepository webhookDeliveryRepository;
+
+    @Mock
+    private RecentScanIndex recentScanIndex;
+
+    @Mock
+    private TerminalScanCache terminalScanCache;
+
     @InjectMocks
     private ScanService scanService;
 
     @Test
-    public void testCreateScan_withoutPreviousScanNorScanResult_createsScan() {
-        ScanEntity newScanEntity = ScanEntity.builder()
-            .userId(USER_ID)
-            .result(
-                ScanResultEntity.builder()
-                    .url(URL)
-                    .build()
-            ).build();
+    public void testCreateScan_withNewScanResult_returnsScanWithoutReadingItBack() {
+        when(clock.instant()).thenReturn(NOW);
+        when(recentScanIndex.mightContain(URL_FINGERPRINT)).thenReturn(true);
+        when(createScan(URL, URL_FINGERPRINT, true)).thenReturn(createdScan(null, SCAN_ID, SCAN_RESULT_ID, true));
+
+        Scan actual = scanService.createScan(USER_ID, URL);
+
+        assertEquals(
+            Scan.builder()
+                .id(SCAN_ID)
+                .userId(USER_ID)
+                .result(
+                    ScanResult.builder()
+                        .id(SCAN_RESULT_ID)
+                        .url(URL)
+                        .status(ScanResultStatus.SUBMITTED)
+                        .createdAt(NOW)
+                        .updatedAt(NOW)
+                        .build()
+                )
+                .createdAt(NOW)
+                .updatedAt(NOW)
+                .build(),
+            actual
+        );
+        verifyNoMoreInteractions(scanRepository);
+        verifyNoInteractions(scanResultRepository);
+    }
 
+    @Test
+    public void testCreateScan_withUnseenUrl_skipsDuplicateCheck() {
         when(clock.instant()).thenReturn(NOW);
-        when(scanRepository.findFirstByUserIdAndResult_UrlAndCreatedAtAfter(USER_ID, URL, DEDUPE_CUTOFF, DEFAULT_SORT)).thenReturn(Optional.empty());
-        when(scanResultRepository.findFirstByUrlAndCreatedAtAfter(URL, DEDUPE_CUTOFF, DEFAULT_SORT)).thenReturn(Optional.empty());
-        when(scanRepository.save(newScanEntity)).thenReturn(newScanEntity);
+        when(recentScanIndex.mightContain(URL_FINGERPRINT)).thenReturn(false);
+        when(createScan(URL, URL_FINGERPRINT, false)).thenReturn(createdScan(null, SCAN_ID, SCAN_RESULT_ID, true));
 
         Scan actual = scanService.createScan(USER_ID, URL);
 
-        assertEquals(ScanTransform.apply(newScanEntity), actual);
-        verify(scanRepository).save(newScanEntity);
+        assertEquals(SCAN_ID, actual.getId());
+        verify(scanRepository).createScan(any(), any(), any(), any(), any(), eq(false), any(), any(), any(), any());
+        verify(recentScanIndex).record(URL_FINGERPRINT);
+    }
+
+    @Test
+    public void testCreateScan_withNonCanonicalUrl_createsScanOfCanonicalUrl() {
+        String canonicalUrl = "https://example.com/";
+        Long urlFingerprint = UrlFingerprintTransform.apply(canonicalUrl);
+
+        when(clock.instant()).thenReturn(NOW);
+        when(recentScanIndex.mightContain(urlFingerprint)).thenReturn(true);
+        when(createScan(canonicalUrl, urlFingerprint, true)).thenReturn(createdScan(null, SCAN_ID, SCAN_RESULT_ID, true));
+
+        Scan actual = scanService.createScan(USER_ID, "HTTPS://Example.com:443");
+
+        assertEquals(canonicalUrl, actual.getResult().getUrl());
+    }
+
+    @Test
+    public void testCreateScan_withReusedScanResult_readsBackScan() {
+        when(clock.instant()).thenReturn(NOW);
+        when(recentScanIndex.mightContain(URL_FINGERPRINT)).thenReturn(true);
+        when(createScan(URL, URL_FINGERPRINT, true)).thenReturn(createdScan(null, SCAN_ID, SCAN_RESULT_ID, false));
+        when(scanRepository.findWithResultById(SCAN_ID)).thenReturn(Optional.of(SCAN_ENTITY));
+
+        Scan actual = scanService.createScan(USER_ID, URL);
+
+        assertEquals(SCAN, actual);
     }
 
     @Test
     public void testCreateScan_withPreviousScan_throwsDuplicateRequestException() {
         when(clock.instant()).thenReturn(NOW);
-        when(scanRepository.findFirstByUserIdAndResult_UrlAndCreatedAtAfter(USER_ID, URL, DEDUPE_CUTOFF, DEFAULT_SORT)).thenReturn(Optional.of(SCAN_ENTITY));
+        when(recentScanIndex.mightContain(URL_FINGERPRINT)).thenReturn(true);
+        when(createScan(URL, URL_FINGERPRINT, true)).thenReturn(createdScan(SCAN_ID, null, null, false));
 
         assertThrows(
             DuplicateRequestException.class,
             () -> scanService.createScan(USER_ID, URL)
         );
-        verify(scanRepository, never()).save(any());
-        verifyNoInteractions(scanResultRepository);
+        verify(scanRepository, never()).findWithResultById(any());
     }
 
     @Test
-    public void testCreateScan_withPreviousScanResult_reusesScanResult() {
-        ScanEntity newScanEntity = ScanEntity.builder()
-            .userId(USER_ID)
-            .result(SCAN_RESULT_ENTITY)
+    public void testLoadRecentScanIndex_withRecentScanResults_recordsUrlsAndMarksReady() {
+        when(clock.instant()).thenReturn(NOW);
+        when(scanResultRepository.findUrlFingerprintsCreatedAfter(NOW.minus(ScanService.RECENT_SCAN_RETENTION)))
+            .thenReturn(List.of(URL_FINGERPRINT));
+
+        scanService.loadRecentScanIndex();
+
+        InOrder inOrder = inOrder(recentScanIndex);
+        inOrder.verify(recentScanIndex).record(URL_FINGERPRINT);
+        inOrder.verify(recentScanIndex).markReady();
+    }
+
+    @Test
+    public void testCreateScans_withMixedUrls_reportsOutcomePerUrl() {
+        String newUrl = "newUrl";
+        String duplicateUrl = "duplicateUrl";
+        Long duplicateScanId = SCAN_ID + 1;
+        Long newScanId = SCAN_ID + 2;
+
+        when(clock.instant()).thenReturn(NOW);
+        when(scanResultRepository.findDedupeMatches(
+            USER_ID,
+            Set.of(UrlFingerprintTransform.apply(newUrl), URL_FINGERPRINT, UrlFingerprintTransform.apply(duplicateUrl)),
+            Set.of(newUrl, URL, duplicateUrl),
+            DEDUPE_CUTOFF
+        )).thenReturn(List.of(
+            dedupeMatch(URL, SCAN_RESULT_ID, null),
+            dedupeMatch(duplicateUrl, SCAN_RESULT_ID + 1, duplicateScanId)
+        ));
+        when(scanResultRepository.findAllByIdForShare(List.of(SCAN_RESULT_ID))).thenReturn(List.of(SCAN_RESULT_ENTITY));
+        when(scanRepository.saveAllAndFlush(any())).thenAnswer(invocation -> {
+            List<ScanEntity> scanEntityList = new ArrayList<>();
+            invocation.<Iterable<ScanEntity>>getArgument(0).forEach(scanEntityList::add);
+            for (int i = 0; i < scanEntityList.size(); i++) {
+                scanEntityList.get(i).setId(newScanId + i);
+            }
+            return scanEntityList;
+        });
+
+        List<ScanCreation> actual = scanService.createScans(USER_ID, List.of(newUrl, URL, duplicateUrl, newUrl));
+
+        assertEquals(
+            List.of(
+                ScanCreation.builder()
+                    .url(newUrl)
+                    .outcome(ScanCreation.Outcome.CREATED)
+                    .scan(
+                        Scan.builder()
+                            .id(newScanId)
+                            .userId(USER_ID)
+                            .result(
+                                ScanResult.builder()
+                                    .url(newUrl)
+                                    .status(ScanResultStatus.SUBMITTED)
+                                    .build()
+                            )
+                            .build()
+                    )
+                    .build(),
+                ScanCreation.builder()
+                    .url(URL)
+                    .outcome(ScanCreation.Outcome.REUSED)
+                    .scan(
+                        Scan.builder()
+                            .id(newScanId + 1)
+                            .userId(USER_ID)
+                            .result(SCAN_RESULT)
+                            .build()
+                    )
+                    .build(),
+                ScanCreation.builder()
+                    .url(duplicateUrl)
+                    .outcome(ScanCreation.Outcome.DUPLICATE)
+                    .existingScanId(duplicateScanId)
+                    .message(String.format("Duplicate scan request scan found: url=%s scanId=%s", duplicateUrl, duplicateScanId))
+                    .build(),
+                ScanCreation.builder()
+                    .url(newUrl)
+                    .outcome(ScanCreation.Outcome.DUPLICATE)
+                    .existingScanId(newScanId)
+                    .message(String.format("Duplicate scan request scan found: url=%s scanId=%s", newUrl, newScanId))
+                    .build()
+            ),
+            actual
+        );
+        verify(scanRepository).saveAllAndFlush(any());
+        verify(scanChangeRepository).recordChanges(List.of(newScanId, newScanId + 1), false, NOW);
+        verifyNoInteractions(webhookDeliveryRepository);
+        verify(scanResultRepository).claimUrlDedupe(any(), eq(DEDUPE_CUTOFF));
+        verify(scanResultRepository).sendNotification(SCAN_RESULT_STATUS_CHANNEL, ScanResultStatus.SUBMITTED.name());
+    }
+
+    @Test
+    public void testCreateScans_withReusedScanResult_copiesStatusOntoScan() {
+        ScanResultEntity processingScanResultEntity = SCAN_RESULT_ENTITY.toBuilder()
+            .status(ScanResultStatus.PROCESSING)
             .build();
+        List<ScanEntity> savedScanEntityList = new ArrayList<>();
 
         when(clock.instant()).thenReturn(NOW);
-        when(scanRepository.findFirstByUserIdAndResult_UrlAndCreatedAtAfter(USER_ID, URL, DEDUPE_CUTOFF, DEFAULT_SORT)).thenReturn(Optional.empty());
-        when(scanResultRepository.findFirstByUrlAndCreatedAtAfter(URL, DEDUPE_CUTOFF, DEFAULT_SORT)).thenReturn(Optional.of(SCAN_RESULT_ENTITY));
-        when(scanRepository.save(newScanEntity)).thenReturn(newScanEntity);
+        when(scanResultRepository.findDedupeMatches(USER_ID, Set.of(URL_FINGERPRINT), Set.of(URL), DEDUPE_CUTOFF))
+            .thenReturn(List.of(dedupeMatch(URL, SCAN_RESULT_ID, null)));
+        when(scanResultRepository.findAllByIdForShare(List.of(SCAN_RESULT_ID))).thenReturn(List.of(processingScanResultEntity));
+        when(scanRepository.saveAllAndFlush(any())).thenAnswer(invocation -> {
+            invocation.<Iterable<ScanEntity>>getArgument(0).forEach(savedScanEntityList::add);
+            return savedScanEntityList;
+        });
+
+        List<ScanCreation> actual = scanService.createScans(USER_ID, List.of(URL));
+
+        assertEquals(ScanCreation.Outcome.REUSED, actual.get(0).getOutcome());
+        assertEquals(ScanResultStatus.PROCESSING, savedScanEntityList.get(0).getStatus());
+        verify(scanResultRepository, never()).claimUrlDedupe(any(), any());
+        verifyNoInteractions(webhookDeliveryRepository);
+    }
 
-        Scan actual = scanService.createScan(USER_ID, URL);
-        assertEquals(ScanTransform.apply(newScanEntity), actual);
-        verify(scanRepository).save(newScanEntity);
+    @Test
+    public void testCreateScans_withReusedFinishedScanResult_enqueuesWebhookDeliveries() {
+        ScanResultEntity doneScanResultEntity = SCAN_RESULT_ENTITY.toBuilder()
+            .status(ScanResultStatus.DONE)
+            .build();
+        Long newScanId = SCAN_ID + 1;
+
+        when(clock.instant()).thenReturn(NOW);
+        when(scanResultRepository.findDedupeMatches(USER_ID, Set.of(URL_FINGERPRINT), Set.of(URL), DEDUPE_CUTOFF))
+            .thenReturn(List.of(dedupeMatch(URL, SCAN_RESULT_ID, null)));
+        when(scanResultRepository.findAllByIdForShare(List.of(SCAN_RESULT_ID))).thenReturn(List.of(doneScanResultEntity));
+        when(scanRepository.saveAllAndFlush(any())).thenAnswer(invocation -> {
+            List<ScanEntity> scanEntityList = new ArrayList<>();
+            invocation.<Iterable<ScanEntity>>getArgument(0).forEach(scanEntityList::add);
+            scanEntityList.forEach(scanEntity -> scanEntity.setId(newScanId));
+            return scanEntityList;
+        });
+
+        List<ScanCreation> actual = scanService.createScans(USER_ID, List.of(URL));
+
+        assertEquals(ScanCreation.Outcome.REUSED, actual.get(0).getOutcome());
+        verify(webhookDeliveryRepository).enqueueDeliveries(List.of(newScanId), NOW);
+    }
+
+    @Test
+    public void testCreateScans_withEquivalentUrls_reportsLaterUrlsAsDuplicates() {
+        String url = "https://example.com/";
+        String equivalentUrl = "HTTPS://Example.com:443";
+        Long newScanId = SCAN_ID + 1;
+
+        when(clock.instant()).thenReturn(NOW);
+        when(scanResultRepository.findDedupeMatches(USER_ID, Set.of(UrlFingerprintTransform.apply(url)), Set.of(url), DEDUPE_CUTOFF))
+            .thenReturn(List.of());
+        when(scanRepository.saveAllAndFlush(any())).thenAnswer(invocation -> {
+            List<ScanEntity> scanEntityList = new ArrayList<>();
+            invocation.<Iterable<ScanEntity>>getArgument(0).forEach(scanEntityList::add);
+            scanEntityList.forEach(scanEntity -> {
+                scanEntity.setId(newScanId);
+                scanEntity.getResult().setId(SCAN_RESULT_ID);
+            });
+            return scanEntityList;
+        });
+
+        List<ScanCreation> actual = scanService.createScans(USER_ID, List.of(url, equivalentUrl));
+
+        assertEquals(2, actual.size());
+        assertEquals(ScanCreation.Outcome.CREATED, actual.get(0).getOutcome());
+        assertEquals(
+            ScanCreation.builder()
+                .url(equivalentUrl)
+                .outcome(ScanCreation.Outcome.DUPLICATE)
+                .existingScanId(newScanId)
+                .message(String.format("Duplicate scan request scan found: url=%s scanId=%s", equivalentUrl, newScanId))
+                .build(),
+            actual.get(1)
+        );
+    }
+
+    @Test
+    public void testCreateScans_withOnlyReusedScanResults_skipsNotification() {
+        when(clock.instant()).thenReturn(NOW);
+        when(scanResultRepository.findDedupeMatches(USER_ID, Set.of(URL_FINGERPRINT), Set.of(URL), DEDUPE_CUTOFF))
+            .thenReturn(List.of(dedupeMatch(URL, SCAN_RESULT_ID, null)));
+        when(scanResultRepository.findAllByIdForShare(List.of(SCAN_RESULT_ID))).thenReturn(List.of(SCAN_RESULT_ENTITY));
+
+        List<ScanCreation> actual = scanService.createScans(USER_ID, List.of(URL));
+
+        assertEquals(1, actual.size());
+        assertEquals(ScanCreation.Outcome.REUSED, actual.get(0).getOutcome());
+        verify(scanResultRepository, never()).sendNotification(any(), any());
+    }
+
+    @Test
+    public void testCreateScans_withoutUrls_doesNothing() {
+        assertEquals(List.of(), scanService.createScans(USER_ID, List.of()));
+
+        verifyNoInteractions(scanRepository, scanResultRepository);
+    }
+
+    @Test
+    public void testListScanSummariesByCursor_withoutCursor_returnsFirstPage() {
+        CursorPageRequest cursorPageRequest = CursorPageRequest.builder()
+            .pageSize(1)
+            .build();
+
+        when(scanRepository.findScanSummaryRows(USER_ID, Limit.of(1)))
+            .thenReturn(List.of(SCAN_SUMMARY_ROW));
+
+        CursorPage<ScanSummary> actual = scanService.listScanSummaries(USER_ID, Optional.empty(), cursorPageRequest);
+
+        assertEquals(
+            CursorPage.builder()
+                .data(List.of(SCAN_SUMMARY))
+                .nextCursor(
+                    Cursor.builder()
+                        .createdAt(SCAN_CREATED_AT)
+                        .id(SCAN_ID)
+                        .build()
+                )
+                .build(),
+            actual
+        );
+    }
+
+    @Test
+    public void testListScanSummariesByCursor_withCursorAndStatus_returnsPageAfterCursor() {
+        Cursor cursor = Cursor.builder()
+            .createdAt(NOW)
+            .id(SCAN_ID)
+            .build();
+        CursorPageRequest cursorPageRequest = CursorPageRequest.builder()
+            .cursor(cursor)
+            .pageSize(PAGE_SIZE)
+            .build();
+
+        when(scanRepository.findScanSummaryRowsAfter(USER_ID, STATUS, NOW, SCAN_ID, Limit.of(PAGE_SIZE)))
+            .thenReturn(List.of(SCAN_SUMMARY_ROW));
+
+        CursorPage<ScanSummary> actual = scanService.listScanSummaries(USER_ID, Optional.of(STATUS), cursorPageRequest);
+
+        assertEquals(
+            CursorPage.builder()
+                .data(List.of(SCAN_SUMMARY))
+                .build(),
+            actual
+        );
     }
 
     @Test
     public void testGetScan_withExistingScan_returnsScan() {
-        when(scanRepository.findByIdAndUserId(SCAN_ID, USER_ID)).thenReturn(Optional.of(SCAN_ENTITY));
+        when(scanRepository.findScanRow(SCAN_ID, USER_ID)).thenReturn(Optional.of(SCAN_ROW));
 
         assertEquals(SCAN, scanService.getScan(USER_ID, SCAN_ID));
+        verify(terminalScanCache).putIfTerminal(SCAN);
+    }
+
+    @Test
+    public void testGetScan_withCachedScan_returnsScanWithoutQuerying() {
+        when(terminalScanCache.get(SCAN_ID)).thenReturn(Optional.of(SCAN));
+
+        assertEquals(SCAN, scanService.getScan(USER_ID, SCAN_ID));
+        verifyNoInteractions(scanRepository);
+    }
+
+    @Test
+    public void testGetScan_withCachedScanOfOtherUser_throwsResourceNotFoundException() {
+        when(terminalScanCache.get(SCAN_ID)).thenReturn(Optional.of(SCAN));
+
+        assertThrows(
+            ResourceNotFoundException.class,
+            () -> scanService.getScan("otherUserId", SCAN_ID)
+        );
+        verifyNoInteractions(scanRepository);
     }
 
     @Test
     public void testGetScan_withoutExistingScan_throwsResourceNotFoundException() {
-        when(scanRepository.findByIdAndUserId(SCAN_ID, USER_ID)).thenReturn(Optional.empty());
+        when(scanRepository.findScanRow(SCAN_ID, USER_ID)).thenReturn(Optional.empty());
 
         assertThrows(
             ResourceNotFoundException.class,
@@ -217,6 +604,239 @@ public class ScanServiceTest {
         );
     }
 
+    @Test
+    public void testGetScanVersion_withExistingScan_returnsVersionOfScanRow() {
+        when(scanRepository.findScanVersionRow(SCAN_ID, USER_ID)).thenReturn(Optional.of(SCAN_VERSION_ROW));
+
+        assertEquals(ScanVersionTransform.apply(SCAN_VERSION_ROW), scanService.getScanVersion(USER_ID, SCAN_ID));
+    }
+
+    @Test
+    public void testGetScanVersion_withCachedScan_returnsVersionWithoutQuerying() {
+        when(terminalScanCache.get(SCAN_ID)).thenReturn(Optional.of(SCAN));
+
+        assertEquals(ScanVersionTransform.apply(SCAN), scanService.getScanVersion(USER_ID, SCAN_ID));
+        verifyNoInteractions(scanRepository);
+    }
+
+    @Test
+    public void testGetScanVersion_withCachedScanOfOtherUser_throwsResourceNotFoundException() {
+        when(terminalScanCache.get(SCAN_ID)).thenReturn(Optional.of(SCAN));
+
+        assertThrows(
+            ResourceNotFoundException.class,
+            () -> scanService.getScanVersion("otherUserId", SCAN_ID)
+        );
+        verifyNoInteractions(scanRepository);
+    }
+
+    @Test
+    public void testGetScanVersion_withoutExistingScan_throwsResourceNotFoundException() {
+        when(scanRepository.findScanVersionRow(SCAN_ID, USER_ID)).thenReturn(Optional.empty());
+
+        assertThrows(
+            ResourceNotFoundException.class,
+            () -> scanService.getScanVersion(USER_ID, SCAN_ID)
+        );
+    }
+
+    @Test
+    public void testLookupScans_withoutScans_returnsStatusesOfScanRowsInOrderOfIds() {
+        Long otherScanId = SCAN_ID + 1;
+        Long missingScanId = SCAN_ID + 2;
+        when(scanRepository.findScanVersionRows(List.of(otherScanId, missingScanId, SCAN_ID), USER_ID)).thenReturn(List.of(
+            SCAN_VERSION_ROW,
+            SCAN_VERSION_ROW.toBuilder().id(otherScanId).status(ScanResultStatus.DONE).build()
+        ));
+
+        ScanLookup actual = scanService.lookupScans(USER_ID, List.of(otherScanId, missingScanId, SCAN_ID, otherScanId), false);
+
+        assertEquals(List.of(otherScanId, SCAN_ID), List.copyOf(actual.getStatuses().keySet()));
+        assertEquals(ScanResultStatus.DONE, actual.getStatuses().get(otherScanId));
+        assertEquals(STATUS, actual.getStatuses().get(SCAN_ID));
+        assertNull(actual.getScans());
+        verify(scanRepository, never()).findScanRows(any(), any());
+    }
+
+    @Test
+    public void testLookupScans_withScans_returnsScansAndCachesTerminalScans() {
+        when(scanRepository.findScanRows(List.of(SCAN_ID), USER_ID)).thenReturn(List.of(SCAN_ROW));
+
+        assertEquals(
+            ScanLookup.builder()
+                .statuses(Map.of(SCAN_ID, STATUS))
+                .scans(Map.of(SCAN_ID, SCAN))
+                .build(),
+            scanService.lookupScans(USER_ID, List.of(SCAN_ID), true)
+        );
+        verify(terminalScanCache).putIfTerminal(SCAN);
+    }
+
+    @Test
+    public void testLookupScans_withCachedScans_returnsScansOfUserWithoutQuerying() {
+        Long otherUserScanId = SCAN_ID + 1;
+        when(terminalScanCache.get(SCAN_ID)).thenReturn(Optional.of(SCAN));
+        when(terminalScanCache.get(otherUserScanId))
+            .thenReturn(Optional.of(SCAN.toBuilder().id(otherUserScanId).userId("otherUserId").build()));
+
+        assertEquals(
+            ScanLookup.builder()
+                .statuses(Map.of(SCAN_ID, STATUS))
+                .scans(Map.of(SCAN_ID, SCAN))
+                .build(),
+            scanService.lookupScans(USER_ID, List.of(SCAN_ID, otherUserScanId), true)
+        );
+        verifyNoInteractions(scanRepository);
+    }
+
+    @Test
+    public void testListScanVersionsByUser_withScanResultIds_groupsScanVersionsByUser() {
+        ScanVersionRow otherScanVersionRow = SCAN_VERSION_ROW.toBuilder()
+            .id(SCAN_ID + 1)
+            .userId("otherUserId")
+            .build();
+        when(scanRepository.findScanVersionRowsByScanResultIds(List.of(SCAN_RESULT_ID)))
+            .thenReturn(List.of(SCAN_VERSION_ROW, otherScanVersionRow));
+
+        assertEquals(
+            Map.of(
+                USER_ID, List.of(ScanVersionTransform.apply(SCAN_VERSION_ROW)),
+                "otherUserId", List.of(ScanVersionTransform.apply(otherScanVersionRow))
+            ),
+            scanService.listScanVersionsByUser(List.of(SCAN_RESULT_ID))
+        );
+    }
+
+    @Test
+    public void testListScanVersionsByUser_withoutScanResultIds_skipsQuery() {
+        assertEquals(Map.of(), scanService.listScanVersionsByUser(List.of()));
+
+        verifyNoInteractions(scanRepository);
+    }
+
+    @Test
+    public void testListScanVersionsChangedAfter_withCursor_returnsLiveChangesAfterCursor() {
+        ChangeFeedCursor cursor = ChangeFeedCursor.builder()
+            .position(40L)
+            .scanId(0L)
+            .build();
+        ScanChangeEntity scanChangeEntity = scanChangeEntity(SCAN_ID, 50L);
+        when(scanChangeRepository.findLiveChangesAfter(USER_ID, 40L, 0L, PAGE_SIZE))
+            .thenReturn(List.of(scanChangeEntity));
+
+        assertEquals(
+            List.of(ScanVersionTransform.apply(scanChangeEntity)),
+            scanService.listScanVersionsChangedAfter(USER_ID, cursor, PAGE_SIZE)
+        );
+    }
+
+    @Test
+    public void testListScanChanges_withoutCursor_listsFeedFromStartAndResumesFromCompletePosition() {
+        Long completePosition = 100L;
+        ScanChangeEntity scanChangeEntity = scanChangeEntity(SCAN_ID, 50L);
+        when(scanChangeRepository.findCompletePosition()).thenReturn(completePosition);
+        when(scanChangeRepository.findChangesAfter(USER_ID, 0L, 0L, completePosition, PAGE_SIZE + 1))
+            .thenReturn(List.of(scanChangeEntity));
+
+        assertEquals(
+            ScanChangePage.builder()
+                .data(List.of(ScanChangeTransform.apply(scanChangeEntity)))
+                .nextCursor(ChangeFeedCursorTokenTransform.apply(
+                    ChangeFeedCursor.builder()
+                        .position(completePosition)
+                        .scanId(0L)
+                        .build()
+                ))
+                .hasMore(false)
+                .build(),
+            scanService.listScanChanges(USER_ID, Optional.empty(), PAGE_SIZE)
+        );
+    }
+
+    @Test
+    public void testListScanChanges_withMoreChanges_resumesFromLastChange() {
+        ChangeFeedCursor cursor = ChangeFeedCursor.builder()
+            .position(10L)
+            .scanId(SCAN_ID)
+            .build();
+        List<ScanChangeEntity> scanChangeEntityList = List.of(
+            scanChangeEntity(SCAN_ID + 1, 10L),
+            scanChangeEntity(SCAN_ID - 1, 11L),
+            scanChangeEntity(SCAN_ID + 2, 12L)
+        );
+        when(scanChangeRepository.findCompletePosition()).thenReturn(100L);
+        when(scanChangeRepository.findChangesAfter(USER_ID, 10L, SCAN_ID, 100L, 3)).thenReturn(scanChangeEntityList);
+
+        ScanChangePage actual = scanService.listScanChanges(USER_ID, Optional.of(cursor), 2);
+
+        assertEquals(
+            List.of(ScanChangeTransform.apply(scanChangeEntityList.get(0)), ScanChangeTransform.apply(scanChangeEntityList.get(1))),
+            actual.getData()
+        );
+        assertTrue(actual.getHasMore());
+        assertEquals(
+            ChangeFeedCursor.builder()
+                .position(11L)
+                .scanId(SCAN_ID - 1)
+                .build(),
+            ChangeFeedCursorTransform.apply(actual.getNextCursor())
+        );
+    }
+
+    @Test
+    public void testListScanChanges_withCursorAtCompletePosition_keepsPosition() {
+        ChangeFeedCursor cursor = ChangeFeedCursor.builder()
+            .position(100L)
+            .scanId(SCAN_ID)
+            .build();
+        when(scanChangeRepository.findCompletePosition()).thenReturn(100L);
+        when(scanChangeRepository.findChangesAfter(USER_ID, 100L, SCAN_ID, 100L, PAGE_SIZE + 1)).thenReturn(List.of());
+
+        ScanChangePage actual = scanService.listScanChanges(USER_ID, Optional.of(cursor), PAGE_SIZE);
+
+        assertEquals(List.of(), actual.getData());
+        assertFalse(actual.getHasMore());
+        assertEquals(cursor, ChangeFeedCursorTransform.apply(actual.getNextCursor()));
+    }
+
+    @Test
+    public void testListScanChanges_withCursorAtHorizon_throwsCursorExpiredException() {
+        ChangeFeedCursor cursor = ChangeFeedCursor.builder()
+            .position(10L)
+            .scanId(SCAN_ID)
+            .build();
+        when(scanChangeRepository.findCompletePosition()).thenReturn(100L);
+        when(scanChangeRepository.findChangesAfter(USER_ID, 10L, SCAN_ID, 100L, PAGE_SIZE + 1)).thenReturn(List.of());
+        when(scanChangeRepository.findHorizon(USER_ID)).thenReturn(Optional.of(10L));
+
+        assertThrows(
+            CursorExpiredException.class,
+            () -> scanService.listScanChanges(USER_ID, Optional.of(cursor), PAGE_SIZE)
+        );
+    }
+
+    @Test
+    public void testListScanChanges_withCursorAfterHorizon_listsChanges() {
+        ChangeFeedCursor cursor = ChangeFeedCursor.builder()
+            .position(10L)
+            .scanId(SCAN_ID)
+            .build();
+        when(scanChangeRepository.findCompletePosition()).thenReturn(100L);
+        when(scanChangeRepository.findChangesAfter(USER_ID, 10L, SCAN_ID, 100L, PAGE_SIZE + 1)).thenReturn(List.of());
+        when(scanChangeRepository.findHorizon(USER_ID)).thenReturn(Optional.of(9L));
+
+        ScanChangePage actual = scanService.listScanChanges(USER_ID, Optional.of(cursor), PAGE_SIZE);
+
+        assertEquals(List.of(), actual.getData());
+        assertEquals(
+            ChangeFeedCursor.builder()
+                .position(100L)
+                .scanId(0L)
+                .build(),
+            ChangeFeedCursorTransform.apply(actual.getNextCursor())
+        );
+    }
+
     @Test
     public void testListScanSummaries_withStatus_shouldSucceed() {
         org.springframework.data.domain.PageRequest pageRequest = PageRequestTransform.apply(PAGE_REQUEST)
@@ -225,13 +845,13 @@ public class ScanServiceTest {
         Integer totalPages = 1;
         Long totalElements = 2L;
 
-        when(scanRepository.findAllByUserIdAndResult_Status(USER_ID, STATUS, pageRequest))
-            .thenReturn(scanEntityPage);
-        when(scanEntityPage.getTotalElements()).thenReturn(totalElements);
-        when(scanEntityPage.getTotalPages()).thenReturn(totalPages);
-        when(scanEntityPage.getPageable()).thenReturn(pageable);
+        when(scanRepository.findScanSummaryRows(USER_ID, STATUS, pageRequest))
+            .thenReturn(scanSummaryRowPage);
+        when(scanSummaryRowPage.getTotalElements()).thenReturn(totalElements);
+        when(scanSummaryRowPage.getTotalPages()).thenReturn(totalPages);
+        when(scanSummaryRowPage.getPageable()).thenReturn(pageable);
         when(pageable.getPageNumber()).thenReturn(pageNumber);
-        when(scanEntityPage.getContent()).thenReturn(List.of(SCAN_ENTITY));
+        when(scanSummaryRowPage.getContent()).thenReturn(List.of(SCAN_SUMMARY_ROW));
 
         Page<ScanSummary> actual = scanService.listScanSummaries(USER_ID, Optional.of(STATUS), PAGE_REQUEST);
 
@@ -254,13 +874,13 @@ public class ScanServiceTest {
         Integer totalPages = 1;
         Long totalElements = 2L;
 
-        when(scanRepository.findAllByUserId(USER_ID, pageRequest))
-            .thenReturn(scanEntityPage);
-        when(scanEntityPage.getTotalElements()).thenReturn(totalElements);
-        when(scanEntityPage.getTotalPages()).thenReturn(totalPages);
-        when(scanEntityPage.getPageable()).thenReturn(pageable);
+        when(scanRepository.findScanSummaryRows(USER_ID, pageRequest))
+            .thenReturn(scanSummaryRowPage);
+        when(scanSummaryRowPage.getTotalElements()).thenReturn(totalElements);
+        when(scanSummaryRowPage.getTotalPages()).thenReturn(totalPages);
+        when(scanSummaryRowPage.getPageable()).thenReturn(pageable);
         when(pageable.getPageNumber()).thenReturn(pageNumber);
-        when(scanEntityPage.getContent()).thenReturn(List.of(SCAN_ENTITY));
+        when(scanSummaryRowPage.getContent()).thenReturn(List.of(SCAN_SUMMARY_ROW));
 
         Page<ScanSummary> actual = scanService.listScanSummaries(USER_ID, Optional.empty(), PAGE_REQUEST);
 
@@ -277,11 +897,17 @@ public class ScanServiceTest {
 
     @Test
     public void testDeleteScan_withExistingScan_deletesScan() {
+        when(clock.instant()).thenReturn(NOW);
         when(scanRepository.findByIdAndUserId(SCAN_ID, USER_ID)).thenReturn(Optional.of(SCAN_ENTITY));
 
         scanService.deleteScan(USER_ID, SCAN_ID);
 
-        verify(scanRepository).deleteById(SCAN_ID);
+        InOrder inOrder = inOrder(scanChangeRepository, scanRepository);
+        inOrder.verify(scanChangeRepository).recordChanges(List.of(SCAN_ID), true, NOW);
+        inOrder.verify(scanRepository).deleteById(SCAN_ID);
+        inOrder.verify(scanChangeRepository).deleteTombstones(USER_ID, NOW.minus(CHANGE_FEED_RETENTION));
+        verify(terminalScanCache).invalidate(SCAN_ID);
+        verify(scanResultRepository).sendNotification(SCAN_DELETED_CHANNEL, SCAN_ID.toString());
     }
 
     @Test
@@ -291,88 +917,80 @@ public class ScanServiceTest {
         scanService.deleteScan(USER_ID, SCAN_ID);
 
         verify(scanRepository, never()).deleteById(any());
+        verifyNoInteractions(scanChangeRepository);
     }
 
     @Test
-    public void testUpdateScanResult_withExistingScanResultWithOptionalFields_updatesScanResult() {
-        ScanResultStatus newStatus = ScanResultStatus.FAILED;
-        Integer newStatusCode = STATUS_CODE + 1;
-        String newStatusMessage = "newMessage";
-        String newStatusDescription = "newDescription";
+    public void testUpdateScanResult_withExpectedStatus_updatesScanResult() {
         ScanResult.StatusDetails newStatusDetails = ScanResult.StatusDetails.builder()
-            .code(newStatusCode)
-            .message(newStatusMessage)
-            .description(newStatusDescription)
+            .code(STATUS_CODE + 1)
+            .message("newMessage")
+            .description("newDescription")
             .build();
-        String newUrlScanId = "newUrlScanId";
-        String newResultUrl = "newResultUrl";
-        ScanResultEntity newScanResultEntity = SCAN_RESULT_ENTITY.toBuilder()
-            .status(newStatus)
-            .statusCode(newStatusCode)
-            .statusMessage(newStatusMessage)
-            .statusDescription(newStatusDescription)
-            .urlScanId(newUrlScanId)
-            .resultUrl(newResultUrl)
+        ScanResultUpdateRequest updateRequest = ScanResultUpdateRequest.builder()
+            .scanResultId(SCAN_RESULT_ID)
+            .expectedStatus(ScanResultStatus.SUBMITTED)
+            .status(ScanResultStatus.FAILED)
+            .statusDetails(newStatusDetails)
+            .urlScanId("newUrlScanId")
+            .resultUrl("newResultUrl")
             .build();
 
-        when(scanResultRepository.findById(SCAN_RESULT_ID)).thenReturn(Optional.of(SCAN_RESULT_ENTITY));
-        when(scanResultRepository.save(newScanResultEntity)).thenReturn(newScanResultEntity);
+        when(clock.instant()).thenReturn(NOW);
+        when(scanResultRepository.compareAndSetStatuses(List.of(updateRequest), NOW, NOW.plus(ScanService.INITIAL_CHECK_DELAY)))
+            .thenReturn(new int[]{1});
 
-        ScanResult actual = scanService.updateScanResult(
+        boolean actual = scanService.updateScanResult(
             SCAN_RESULT_ID,
-            newStatus,
+            ScanResultStatus.SUBMITTED,
+            ScanResultStatus.FAILED,
             Optional.of(newStatusDetails),
-            Optional.of(newUrlScanId),
-            Optional.of(newResultUrl)
+            Optional.of("newUrlScanId"),
+            Optional.of("newResultUrl")
         );
 
-        assertEquals(
-            SCAN_RESULT.toBuilder()
-                .status(newStatus)
-                .statusDetails(newStatusDetails)
-                .urlScanId(newUrlScanId)
-                .resultUrl(newResultUrl)
-                .build(),
-            actual
-        );
-        verify(scanResultRepository).save(newScanResultEntity);
+        assertTrue(actual);
+        verify(scanResultRepository).compareAndSetStatuses(List.of(updateRequest), NOW, NOW.plus(ScanService.INITIAL_CHECK_DELAY));
+        verify(scanResultRepository).sendNotification(SCAN_RESULT_STATUS_CHANNEL, ScanResultStatus.FAILED.name());
+        verify(scanResultRepository).sendPositionedNotification(SCAN_RESULT_UPDATED_CHANNEL, SCAN_RESULT_ID.toString());
         verifyNoMoreInteractions(scanResultRepository);
     }
 
     @Test
-    public void testUpdateScanResult_withExistingScanResultWithoutOptionalFields_updatesScanResult() {
-        ScanResultStatus newStatus = ScanResultStatus.DONE;
-        ScanResultEntity newScanResultEntity = SCAN_RESULT_ENTITY.toBuilder()
-            .status(newStatus)
+    public void testUpdateScanResult_withChangedStatus_skipsUpdate() {
+        ScanResultUpdateRequest updateRequest = ScanResultUpdateRequest.builder()
+            .scanResultId(SCAN_RESULT_ID)
+            .expectedStatus(ScanResultStatus.PROCESSING)
+            .status(ScanResultStatus.DONE)
             .build();
 
-        when(scanResultRepository.findById(SCAN_RESULT_ID)).thenReturn(Optional.of(SCAN_RESULT_ENTITY));
-        when(scanResultRepository.save(newScanResultEntity)).thenReturn(newScanResultEntity);
+        when(clock.instant()).thenReturn(NOW);
+        when(scanResultRepository.compareAndSetStatuses(List.of(updateRequest), NOW, NOW.plus(ScanService.INITIAL_CHECK_DELAY)))
+            .thenReturn(new int[]{0});
+        when(scanResultRepository.existsById(SCAN_RESULT_ID)).thenReturn(true);
 
-        ScanResult actual = scanService.updateScanResult(
+        boolean actual = scanService.updateScanResult(
             SCAN_RESULT_ID,
-            newStatus,
+            ScanResultStatus.PROCESSING,
+            ScanResultStatus.DONE,
             Optional.empty(),
             Optional.empty(),
             Optional.empty()
         );
 
-        assertEquals(
-            SCAN_RESULT.toBuilder()
-                .status(newStatus)
-                .build(),
-            actual
-        );
-        verify(scanResultRepository).save(newScanResultEntity);
-        verifyNoMoreInteractions(scanResultRepository);
+        assertFalse(actual);
+        verify(scanResultRepository, never()).sendNotification(any(), any());
     }
 
     @Test
     public void testUpdateScanResult_withoutExistingScanResult_throwsResourceNotFoundException() {
-        when(scanResultRepository.findById(SCAN_RESULT_ID)).thenReturn(Optional.empty());
+        when(clock.instant()).thenReturn(NOW);
+        when(scanResultRepository.compareAndSetStatuses(any(), any(), any())).thenReturn(new int[]{0});
+        when(scanResultRepository.existsById(SCAN_RESULT_ID)).thenReturn(false);
 
         assertThrows(ResourceNotFoundException.class, () -> scanService.updateScanResult(
                 SCAN_RESULT_ID,
+                ScanResultStatus.PROCESSING,
                 ScanResultStatus.DONE,
                 Optional.empty(),
                 Optional.empty(),
@@ -380,36 +998,268 @@ public class ScanServiceTest {
             )
         );
 
-        verify(scanResultRepository, never()).save(any());
+        verify(scanResultRepository, never()).sendNotification(any(), any());
     }
 
     @Test
-    public void testListScanResults_withValidInput_shouldSucceed() {
-        org.springframework.data.domain.PageRequest pageRequest = PageRequestTransform.apply(PAGE_REQUEST)
-            .withSort(DEFAULT_REVERSE_SORT);
-        Integer pageNumber = 0;
-        Integer totalPages = 1;
-        Long totalElements = 2L;
+    public void testUpdateScanResults_withRacingUpdate_appliesRemainingUpdates() {
+        Long scanResultId2 = SCAN_RESULT_ID + 1;
+        List<ScanResultUpdateRequest> updateRequests = List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID)
+                .expectedStatus(ScanResultStatus.SUBMITTED)
+                .status(ScanResultStatus.PROCESSING)
+                .urlScanId("newUrlScanId")
+                .build(),
+            ScanResultUpdateRequest.builder()
+                .scanResultId(scanResultId2)
+                .expectedStatus(ScanResultStatus.PROCESSING)
+                .status(ScanResultStatus.DONE)
+                .build()
+        );
 
-        when(scanResultRepository.findAllByStatus(STATUS, pageRequest))
-            .thenReturn(scanResultEntityPage);
-        when(scanResultEntityPage.getTotalElements()).thenReturn(totalElements);
-        when(scanResultEntityPage.getTotalPages()).thenReturn(totalPages);
-        when(scanResultEntityPage.getPageable()).thenReturn(pageable);
-        when(pageable.getPageNumber()).thenReturn(pageNumber);
-        when(scanResultEntityPage.getContent()).thenReturn(List.of(SCAN_RESULT_ENTITY));
+        when(clock.instant()).thenReturn(NOW);
+        when(scanResultRepository.compareAndSetStatuses(updateRequests, NOW, NOW.plus(ScanService.INITIAL_CHECK_DELAY)))
+            .thenReturn(new int[]{1, 0});
+
+        List<Long> actual = scanService.updateScanResults(updateRequests);
+
+        assertEquals(List.of(SCAN_RESULT_ID), actual);
+        verify(scanResultRepository).compareAndSetStatuses(updateRequests, NOW, NOW.plus(ScanService.INITIAL_CHECK_DELAY));
+        verify(scanResultRepository).sendNotification(SCAN_RESULT_STATUS_CHANNEL, ScanResultStatus.PROCESSING.name());
+        verify(scanResultRepository).sendPositionedNotification(SCAN_RESULT_UPDATED_CHANNEL, SCAN_RESULT_ID.toString());
+        verifyNoMoreInteractions(scanResultRepository);
+    }
+
+    @Test
+    public void testUpdateScanResults_withIllegalTransition_throwsIllegalStatusTransitionException() {
+        assertThrows(IllegalStatusTransitionException.class, () -> scanService.updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID)
+                .expectedStatus(ScanResultStatus.SUBMITTED)
+                .status(ScanResultStatus.PROCESSING)
+                .build(),
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID + 1)
+                .expectedStatus(ScanResultStatus.DONE)
+                .status(ScanResultStatus.PROCESSING)
+                .build()
+        )));
 
-        Page<ScanResult> actual = scanService.listScanResults(STATUS, PAGE_REQUEST);
+        verifyNoInteractions(scanResultRepository);
+    }
+
+    @Test
+    public void testUpdateScanResults_withoutUpdates_doesNothing() {
+        assertEquals(List.of(), scanService.updateScanResults(List.of()));
+
+        verifyNoInteractions(scanResultRepository);
+    }
+
+    @Test
+    public void testClaimScanResults_withoutCursor_claimsFirstPage() {
+        CursorPageRequest cursorPageRequest = CursorPageRequest.builder()
+            .pageSize(1)
+            .build();
+
+        when(clock.instant()).thenReturn(NOW);
+        when(scanResultRepository.claimWorkQueue(STATUS, LEASE_OWNER, NOW.plus(LEASE_DURATION), NOW, 1))
+            .thenReturn(List.of(SCAN_RESULT_ENTITY));
+
+        CursorPage<ScanResult> actual = scanService.claimScanResults(STATUS, cursorPageRequest, LEASE_REQUEST);
 
         assertEquals(
-            Page.builder()
+            CursorPage.builder()
+                .data(List.of(SCAN_RESULT))
+                .nextCursor(
+                    Cursor.builder()
+                        .createdAt(RESULT_CREATED_AT)
+                        .id(SCAN_RESULT_ID)
+                        .build()
+                ).build(),
+            actual
+        );
+    }
+
+    @Test
+    public void testClaimScanResults_withCursor_claimsPageAfterCursor() {
+        Cursor cursor = Cursor.builder()
+            .createdAt(NOW)
+            .id(SCAN_RESULT_ID)
+            .build();
+        CursorPageRequest cursorPageRequest = CursorPageRequest.builder()
+            .cursor(cursor)
+            .pageSize(PAGE_SIZE)
+            .build();
+
+        when(clock.instant()).thenReturn(NOW);
+        when(scanResultRepository.claimWorkQueueAfter(STATUS, NOW, SCAN_RESULT_ID, LEASE_OWNER, NOW.plus(LEASE_DURATION), NOW, PAGE_SIZE))
+            .thenReturn(List.of(SCAN_RESULT_ENTITY));
+
+        CursorPage<ScanResult> actual = scanService.claimScanResults(STATUS, cursorPageRequest, LEASE_REQUEST);
+
+        assertEquals(
+            CursorPage.builder()
                 .data(List.of(SCAN_RESULT))
-                .page(pageNumber)
-                .totalElements(totalElements)
-                .totalPages(totalPages)
                 .build(),
             actual
         );
     }
 
+    @Test
+    public void testClaimDueScanResults_withValidInput_claimsDueScanResults() {
+        when(clock.instant()).thenReturn(NOW);
+        when(scanResultRepository.claimDueWorkQueue(STATUS, LEASE_OWNER, NOW.plus(LEASE_DURATION), NOW, PAGE_SIZE))
+            .thenReturn(List.of(SCAN_RESULT_ENTITY));
+
+        List<DueScanResult> actual = scanService.claimDueScanResults(STATUS, PAGE_SIZE, LEASE_REQUEST);
+
+        assertEquals(
+            List.of(
+                DueScanResult.builder()
+                    .id(SCAN_RESULT_ID)
+                    .urlScanId(URL_SCAN_ID)
+                    .checkCount(0)
+                    .build()
+            ),
+            actual
+        );
+    }
+
+    @Test
+    public void testListRecentCompletionTimes_withFinishedScanResults_returnsCompletionTimes() {
+        when(scanResultRepository.findRecentCompletionMillis(ScanResultStatus.DONE, PAGE_SIZE)).thenReturn(List.of(1500L, 0L));
+
+        List<Duration> actual = scanService.listRecentCompletionTimes(PAGE_SIZE);
+
+        assertEquals(List.of(Duration.ofMillis(1500), Duration.ZERO), actual);
+    }
+
+    @Test
+    public void testUpdateScanResults_withCheckRequests_schedulesNextChecksOfLeasedScanResults() {
+        List<ScanResultCheckRequest> checkRequests = List.of(
+            ScanResultCheckRequest.builder()
+                .scanResultId(SCAN_RESULT_ID)
+                .nextCheckAt(NOW)
+                .build(),
+            ScanResultCheckRequest.builder()
+                .scanResultId(SCAN_RESULT_ID + 1)
+                .nextCheckAt(NOW.plus(1, ChronoUnit.MINUTES))
+                .build()
+        );
+
+        when(scanResultRepository.scheduleNextChecks(checkRequests, LEASE_OWNER)).thenReturn(2);
+
+        assertEquals(List.of(), scanService.updateScanResults(List.of(), checkRequests, LEASE_REQUEST));
+
+        verify(scanResultRepository).scheduleNextChecks(checkRequests, LEASE_OWNER);
+        verifyNoMoreInteractions(scanResultRepository);
+    }
+
+    @Test
+    public void testUpdateScanResults_withUpdatesAndWithoutCheckRequests_onlyAppliesUpdates() {
+        List<ScanResultUpdateRequest> updateRequests = List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID)
+                .expectedStatus(ScanResultStatus.PROCESSING)
+                .status(ScanResultStatus.DONE)
+                .build()
+        );
+
+        when(clock.instant()).thenReturn(NOW);
+        when(scanResultRepository.compareAndSetStatuses(updateRequests, NOW, NOW.plus(ScanService.INITIAL_CHECK_DELAY)))
+            .thenReturn(new int[]{1});
+
+        assertEquals(List.of(SCAN_RESULT_ID), scanService.updateScanResults(updateRequests, List.of(), LEASE_REQUEST));
+
+        verify(scanResultRepository, never()).scheduleNextChecks(any(), any());
+    }
+
+    @Test
+    public void testReleaseScanResults_withScanResults_releasesLeases() {
+        scanService.releaseScanResults(List.of(SCAN_RESULT_ID), LEASE_REQUEST);
+
+        verify(scanResultRepository).releaseLeases(List.of(SCAN_RESULT_ID), LEASE_OWNER);
+    }
+
+    @Test
+    public void testReleaseScanResults_withoutScanResults_doesNothing() {
+        scanService.releaseScanResults(List.of(), LEASE_REQUEST);
+
+        verifyNoInteractions(scanResultRepository);
+    }
+
+    private CreatedScan createScan(String url, Long urlFingerprint, boolean checkDuplicate) {
+        return scanRepository.createScan(
+            USER_ID,
+            url,
+            urlFingerprint,
+            NOW,
+            DEDUPE_CUTOFF,
+            checkDuplicate,
+            SCAN_RESULT_STATUS_CHANNEL,
+            ScanResultStatus.SUBMITTED.name(),
+            SCAN_RESULT_CREATED_CHANNEL,
+            RecentScanIndex.toNotificationEntry(urlFingerprint)
+        );
+    }
+
+    private static CreatedScan createdScan(Long duplicateScanId, Long scanId, Long scanResultId, Boolean newResult) {
+        return new CreatedScan() {
+
+            @Override
+            public Long getDuplicateScanId() {
+                return duplicateScanId;
+            }
+
+            @Override
+            public Long getScanId() {
+                return scanId;
+            }
+
+            @Override
+            public Long getScanResultId() {
+                return scanResultId;
+            }
+
+            @Override
+            public Boolean getNewResult() {
+                return newResult;
+            }
+
+        };
+    }
+
+    private static UrlDedupeMatch dedupeMatch(String url, Long scanResultId, Long duplicateScanId) {
+        return new UrlDedupeMatch() {
+
+            @Override
+            public String getUrl() {
+                return url;
+            }
+
+            @Override
+            public Long getScanResultId() {
+                return scanResultId;
+            }
+
+            @Override
+            public Long getDuplicateScanId() {
+                return duplicateScanId;
+            }
+
+        };
+    }
+
+    private static ScanChangeEntity scanChangeEntity(Long scanId, Long position) {
+        return ScanChangeEntity.builder()
+            .scanId(scanId)
+            .userId(USER_ID)
+            .status(ScanResultStatus.DONE)
+            .deleted(false)
+            .position(position)
+            .changedAt(NOW)
+            .build();
+    }
+
 }
@@ -0,0 +1,80 @@
+package org.timekeeper.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.timekeeper.database.postgresql.listener.NotificationPayloads;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class ScanStatusWaitersTest {
+
+    private static final Long SCAN_RESULT_ID = 1L;
+
+    private static final Long OTHER_SCAN_RESULT_ID = 2L;
+
+    private static final String POSITION_PREFIX = "5:";
+
+    private List<String> woken;
+
+    private ScanStatusWaiters scanStatusWaiters;
+
+    @BeforeEach
+    public void setupEach() {
+        woken = new ArrayList<>();
+        scanStatusWaiters = new ScanStatusWaiters(Runnable::run);
+    }
+
+    @Test
+    public void testHandleNotification_withWaiters_runsWaitersOnce() {
+        scanStatusWaiters.register(SCAN_RESULT_ID, () -> woken.add("first"));
+        scanStatusWaiters.register(SCAN_RESULT_ID, () -> woken.add("second"));
+        scanStatusWaiters.register(OTHER_SCAN_RESULT_ID, () -> woken.add("other"));
+
+        scanStatusWaiters.handleNotification(POSITION_PREFIX + ScanStatusWaiters.toNotificationEntry(SCAN_RESULT_ID));
+        scanStatusWaiters.handleNotification(POSITION_PREFIX + ScanStatusWaiters.toNotificationEntry(SCAN_RESULT_ID));
+
+        assertEquals(List.of("first", "second"), woken.stream().sorted().toList());
+        assertEquals(1, scanStatusWaiters.size());
+    }
+
+    @Test
+    public void testHandleNotification_withPackedEntries_runsWaitersOfEveryEntry() {
+        scanStatusWaiters.register(SCAN_RESULT_ID, () -> woken.add("first"));
+        scanStatusWaiters.register(OTHER_SCAN_RESULT_ID, () -> woken.add("other"));
+
+        NotificationPayloads.pack(List.of(
+            ScanStatusWaiters.toNotificationEntry(SCAN_RESULT_ID),
+            ScanStatusWaiters.toNotificationEntry(OTHER_SCAN_RESULT_ID)
+        ))
+            .forEach(payload -> scanStatusWaiters.handleNotification(POSITION_PREFIX + payload));
+
+        assertEquals(List.of("first", "other"), woken.stream().sorted().toList());
+        assertEquals(0, scanStatusWaiters.size());
+    }
+
+    @Test
+    public void testRegister_withDeregisteredWaiter_doesNotRunWaiter() {
+        Runnable deregister = scanStatusWaiters.register(SCAN_RESULT_ID, () -> woken.add("first"));
+        scanStatusWaiters.register(SCAN_RESULT_ID, () -> woken.add("second"));
+
+        deregister.run();
+        assertEquals(1, scanStatusWaiters.size());
+        scanStatusWaiters.handleNotification(POSITION_PREFIX + ScanStatusWaiters.toNotificationEntry(SCAN_RESULT_ID));
+
+        assertEquals(List.of("second"), woken);
+    }
+
+    @Test
+    public void testGetGeneration_afterNotification_advances() {
+        long generation = scanStatusWaiters.getGeneration();
+
+        scanStatusWaiters.handleNotification(POSITION_PREFIX + ScanStatusWaiters.toNotificationEntry(OTHER_SCAN_RESULT_ID));
+
+        assertNotEquals(generation, scanStatusWaiters.getGeneration());
+    }
+
+}
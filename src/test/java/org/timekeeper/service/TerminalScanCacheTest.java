@@ -0,0 +1,85 @@
+package org.timekeeper.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.timekeeper.model.Scan;
+import org.timekeeper.model.ScanResult;
+import org.timekeeper.model.ScanResultStatus;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.timekeeper.service.TerminalScanCache.BASE_ENTRY_WEIGHT;
+
+public class TerminalScanCacheTest {
+
+    private static final Long SCAN_ID = 1L;
+
+    private static final Scan DONE_SCAN = Scan.builder()
+        .id(SCAN_ID)
+        .userId("userId")
+        .result(
+            ScanResult.builder()
+                .id(2L)
+                .url("https://example.com/")
+                .status(ScanResultStatus.DONE)
+                .build()
+        )
+        .build();
+
+    private TerminalScanCache terminalScanCache;
+
+    @BeforeEach
+    public void setupEach() {
+        terminalScanCache = new TerminalScanCache(1_000_000L, Duration.of(1, ChronoUnit.HOURS));
+    }
+
+    @Test
+    public void testPutIfTerminal_withTerminalScan_cachesScan() {
+        terminalScanCache.putIfTerminal(DONE_SCAN);
+
+        assertEquals(Optional.of(DONE_SCAN), terminalScanCache.get(SCAN_ID));
+        assertEquals(1L, terminalScanCache.stats().hitCount());
+    }
+
+    @Test
+    public void testPutIfTerminal_withPendingScan_ignoresScan() {
+        terminalScanCache.putIfTerminal(
+            DONE_SCAN.toBuilder()
+                .result(
+                    DONE_SCAN.getResult().toBuilder()
+                        .status(ScanResultStatus.PROCESSING)
+                        .build()
+                )
+                .build()
+        );
+
+        assertEquals(Optional.empty(), terminalScanCache.get(SCAN_ID));
+        assertEquals(1L, terminalScanCache.stats().missCount());
+    }
+
+    @Test
+    public void testHandleNotification_withCachedScan_invalidatesScan() {
+        terminalScanCache.putIfTerminal(DONE_SCAN);
+
+        terminalScanCache.handleNotification(SCAN_ID.toString());
+
+        assertEquals(Optional.empty(), terminalScanCache.get(SCAN_ID));
+    }
+
+    @Test
+    public void testPutIfTerminal_beyondMaxWeight_evictsScans() {
+        terminalScanCache = new TerminalScanCache(10L * BASE_ENTRY_WEIGHT, Duration.of(1, ChronoUnit.HOURS));
+
+        for (long scanId = 0; scanId < 100; scanId++) {
+            terminalScanCache.putIfTerminal(DONE_SCAN.toBuilder().id(scanId).build());
+        }
+
+        assertTrue(terminalScanCache.getCache().size() < 10);
+        assertTrue(terminalScanCache.stats().evictionCount() > 90);
+    }
+
+}
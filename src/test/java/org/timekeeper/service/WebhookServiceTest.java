@@ -0,0 +1,262 @@
+package org.timekeeper.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.timekeeper.database.postgresql.model.ScanRow;
+import org.timekeeper.database.postgresql.model.WebhookDeliveryRow;
+import org.timekeeper.database.postgresql.model.WebhookEntity;
+import org.timekeeper.database.postgresql.repository.ScanRepository;
+import org.timekeeper.database.postgresql.repository.WebhookDeliveryRepository;
+import org.timekeeper.database.postgresql.repository.WebhookRepository;
+import org.timekeeper.exception.BadRequestException;
+import org.timekeeper.model.ScanResultStatus;
+import org.timekeeper.model.Webhook;
+import org.timekeeper.model.WebhookDelivery;
+import org.timekeeper.model.request.LeaseRequest;
+import org.timekeeper.model.transform.ScanTransform;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.timekeeper.database.postgresql.repository.Constants.MAX_WEBHOOKS_PER_USER;
+
+@ExtendWith(MockitoExtension.class)
+public class WebhookServiceTest {
+
+    private static final Long WEBHOOK_ID = 1L;
+
+    private static final Long DELIVERY_ID = 2L;
+
+    private static final Long DELETED_SCAN_DELIVERY_ID = 3L;
+
+    private static final Long SCAN_ID = 4L;
+
+    private static final Long DELETED_SCAN_ID = 5L;
+
+    private static final Integer PAGE_SIZE = 6;
+
+    private static final String USER_ID = "userId";
+
+    private static final String URL = "https://example.com/hooks";
+
+    private static final String LEASE_OWNER = "leaseOwner";
+
+    private static final String LAST_ERROR = "lastError";
+
+    private static final Duration LEASE_DURATION = Duration.of(1, ChronoUnit.MINUTES);
+
+    private static final Instant NOW = Instant.now();
+
+    private static final LeaseRequest LEASE = LeaseRequest.builder()
+        .owner(LEASE_OWNER)
+        .duration(LEASE_DURATION)
+        .build();
+
+    private static final WebhookEntity WEBHOOK_ENTITY = WebhookEntity.builder()
+        .id(WEBHOOK_ID)
+        .userId(USER_ID)
+        .url(URL)
+        .createdAt(NOW)
+        .build();
+
+    private static final Webhook WEBHOOK = Webhook.builder()
+        .id(WEBHOOK_ID)
+        .userId(USER_ID)
+        .url(URL)
+        .createdAt(NOW)
+        .build();
+
+    private static final ScanRow SCAN_ROW = ScanRow.builder()
+        .id(SCAN_ID)
+        .userId(USER_ID)
+        .resultId(7L)
+        .url("url")
+        .status(ScanResultStatus.DONE)
+        .createdAt(NOW)
+        .updatedAt(NOW)
+        .build();
+
+    @Mock
+    private Clock clock;
+
+    @Mock
+    private WebhookRepository webhookRepository;
+
+    @Mock
+    private WebhookDeliveryRepository webhookDeliveryRepository;
+
+    @Mock
+    private ScanRepository scanRepository;
+
+    @InjectMocks
+    private WebhookService webhookService;
+
+    @BeforeEach
+    public void setupEach() {
+        lenient().when(clock.instant()).thenReturn(NOW);
+    }
+
+    @Test
+    public void testCreateWebhook_withNewUrl_createsWebhook() {
+        when(webhookRepository.findByUserIdAndUrl(USER_ID, URL)).thenReturn(Optional.empty());
+        when(webhookRepository.countByUserId(USER_ID)).thenReturn(0L);
+        when(webhookRepository.saveAndFlush(WebhookEntity.builder().userId(USER_ID).url(URL).build())).thenReturn(WEBHOOK_ENTITY);
+
+        assertEquals(WEBHOOK, webhookService.createWebhook(USER_ID, URL));
+    }
+
+    @Test
+    public void testCreateWebhook_withExistingUrl_returnsExistingWebhook() {
+        when(webhookRepository.findByUserIdAndUrl(USER_ID, URL)).thenReturn(Optional.of(WEBHOOK_ENTITY));
+
+        assertEquals(WEBHOOK, webhookService.createWebhook(USER_ID, URL));
+        verify(webhookRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void testCreateWebhook_withTooManyWebhooks_throwsBadRequestException() {
+        when(webhookRepository.findByUserIdAndUrl(USER_ID, URL)).thenReturn(Optional.empty());
+        when(webhookRepository.countByUserId(USER_ID)).thenReturn((long) MAX_WEBHOOKS_PER_USER);
+
+        assertThrows(BadRequestException.class, () -> webhookService.createWebhook(USER_ID, URL));
+        verify(webhookRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void testListWebhooks_shouldSucceed() {
+        when(webhookRepository.findAllByUserIdOrderByCreatedAtAsc(USER_ID)).thenReturn(List.of(WEBHOOK_ENTITY));
+
+        assertEquals(List.of(WEBHOOK), webhookService.listWebhooks(USER_ID));
+    }
+
+    @Test
+    public void testDeleteWebhook_withExistingWebhook_deletesWebhookAndDeliveries() {
+        when(webhookRepository.findByIdAndUserId(WEBHOOK_ID, USER_ID)).thenReturn(Optional.of(WEBHOOK_ENTITY));
+
+        webhookService.deleteWebhook(USER_ID, WEBHOOK_ID);
+
+        verify(webhookDeliveryRepository).deleteAllByWebhookId(WEBHOOK_ID);
+        verify(webhookRepository).deleteById(WEBHOOK_ID);
+    }
+
+    @Test
+    public void testDeleteWebhook_withMissingWebhook_doesNothing() {
+        when(webhookRepository.findByIdAndUserId(WEBHOOK_ID, USER_ID)).thenReturn(Optional.empty());
+
+        webhookService.deleteWebhook(USER_ID, WEBHOOK_ID);
+
+        verifyNoInteractions(webhookDeliveryRepository);
+        verify(webhookRepository, never()).deleteById(any());
+    }
+
+    @Test
+    public void testClaimDeliveries_withDeletedScan_dropsItsDelivery() {
+        when(webhookDeliveryRepository.claimDueDeliveries(LEASE_OWNER, NOW.plus(LEASE_DURATION), NOW, PAGE_SIZE))
+            .thenReturn(List.of(
+                toWebhookDeliveryRow(DELIVERY_ID, SCAN_ID),
+                toWebhookDeliveryRow(DELETED_SCAN_DELIVERY_ID, DELETED_SCAN_ID)
+            ));
+        when(scanRepository.findScanRows(List.of(SCAN_ID, DELETED_SCAN_ID))).thenReturn(List.of(SCAN_ROW));
+
+        List<WebhookDelivery> actual = webhookService.claimDeliveries(PAGE_SIZE, LEASE);
+
+        assertEquals(
+            List.of(
+                WebhookDelivery.builder()
+                    .id(DELIVERY_ID)
+                    .webhookId(WEBHOOK_ID)
+                    .url(URL)
+                    .attemptCount(0)
+                    .scan(ScanTransform.apply(SCAN_ROW))
+                    .build()
+            ),
+            actual
+        );
+        verify(webhookDeliveryRepository).deleteLeased(List.of(DELETED_SCAN_DELIVERY_ID), LEASE_OWNER);
+    }
+
+    @Test
+    public void testClaimDeliveries_withNoDueDeliveries_doesNotRetrieveScans() {
+        when(webhookDeliveryRepository.claimDueDeliveries(LEASE_OWNER, NOW.plus(LEASE_DURATION), NOW, PAGE_SIZE))
+            .thenReturn(List.of());
+
+        assertEquals(List.of(), webhookService.claimDeliveries(PAGE_SIZE, LEASE));
+        verifyNoInteractions(scanRepository);
+    }
+
+    @Test
+    public void testCompleteDeliveries_deletesLeasedDeliveries() {
+        webhookService.completeDeliveries(List.of(DELIVERY_ID), LEASE);
+
+        verify(webhookDeliveryRepository).deleteLeased(List.of(DELIVERY_ID), LEASE_OWNER);
+    }
+
+    @Test
+    public void testCompleteDeliveries_withoutDeliveries_doesNothing() {
+        webhookService.completeDeliveries(List.of(), LEASE);
+
+        verifyNoInteractions(webhookDeliveryRepository);
+    }
+
+    @Test
+    public void testRescheduleDeliveries_withNextAttempt_reschedulesLeasedDeliveries() {
+        Instant nextAttemptAt = NOW.plus(1, ChronoUnit.MINUTES);
+
+        webhookService.rescheduleDeliveries(List.of(DELIVERY_ID), Optional.of(nextAttemptAt), LAST_ERROR, LEASE);
+
+        verify(webhookDeliveryRepository).rescheduleLeased(List.of(DELIVERY_ID), nextAttemptAt, LAST_ERROR, LEASE_OWNER);
+    }
+
+    @Test
+    public void testRescheduleDeliveries_withoutNextAttempt_givesUpOnDeliveries() {
+        webhookService.rescheduleDeliveries(List.of(DELIVERY_ID), Optional.empty(), LAST_ERROR, LEASE);
+
+        verify(webhookDeliveryRepository).rescheduleLeased(List.of(DELIVERY_ID), null, LAST_ERROR, LEASE_OWNER);
+    }
+
+    private static WebhookDeliveryRow toWebhookDeliveryRow(Long id, Long scanId) {
+        return new WebhookDeliveryRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getWebhookId() {
+                return WEBHOOK_ID;
+            }
+
+            @Override
+            public String getUrl() {
+                return URL;
+            }
+
+            @Override
+            public Long getScanId() {
+                return scanId;
+            }
+
+            @Override
+            public Integer getAttemptCount() {
+                return 0;
+            }
+        };
+    }
+
+}
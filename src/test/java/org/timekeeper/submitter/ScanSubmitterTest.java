@@ -5,15 +5,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
 import org.timekeeper.client.UrlScanClient;
 import org.timekeeper.client.model.SubmitScanResponse;
-import org.timekeeper.model.Page;
+import org.timekeeper.model.Cursor;
+import org.timekeeper.model.CursorPage;
 import org.timekeeper.model.ScanResult;
 import org.timekeeper.model.ScanResultStatus;
-import org.timekeeper.model.request.PageRequest;
+import org.timekeeper.model.request.CursorPageRequest;
+import org.timekeeper.model.request.LeaseRequest;
+import org.timekeeper.model.request.ScanResultUpdateRequest;
+import org.timekeeper.scheduler.RunOutcome;
 import org.timekeeper.service.ScanService;
 
 import java.time.Clock;
@@ -22,13 +31,20 @@ import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.timekeeper.submitter.ScanSubmitter.ACTION;
+import static org.timekeeper.submitter.ScanSubmitter.MAX_PAGES_PER_RUN;
 import static org.timekeeper.submitter.ScanSubmitter.PAGE_SIZE;
 import static org.timekeeper.submitter.ScanSubmitter.STATUS;
 
@@ -39,8 +55,6 @@ public class ScanSubmitterTest {
 
     private static final Long SCAN_RESULT_ID_2 = 3L;
 
-    private static final Integer TOTAL_PAGES = 2;
-
     private static final Integer STATUS_CODE = 4;
 
     private static final String URL_1 = "url1";
@@ -71,8 +85,12 @@ public class ScanSubmitterTest {
         .url(URL_2)
         .build();
 
-    private static final PageRequest PAGE_REQUEST_1 = PageRequest.builder()
-        .page(0)
+    private static final Cursor CURSOR_1 = Cursor.builder()
+        .createdAt(NOW)
+        .id(SCAN_RESULT_ID_1)
+        .build();
+
+    private static final CursorPageRequest PAGE_REQUEST_1 = CursorPageRequest.builder()
         .pageSize(PAGE_SIZE)
         .build();
 
@@ -83,7 +101,10 @@ public class ScanSubmitterTest {
     private UrlScanClient urlScanClient;
 
     @Mock
-    private ScanSubmitter.Delay delay;
+    private LeaseRequest lease;
+
+    @Spy
+    private TaskExecutor executor = new SyncTaskExecutor();
 
     @Mock
     private Clock clock;
@@ -93,25 +114,23 @@ public class ScanSubmitterTest {
 
     @BeforeEach
     public void setupEach() {
-        PageRequest pageRequest2 = PAGE_REQUEST_1.toBuilder()
-            .page(1)
+        CursorPageRequest pageRequest2 = PAGE_REQUEST_1.toBuilder()
+            .cursor(CURSOR_1)
             .build();
-        Page<ScanResult> page1 = Page.<ScanResult>builder()
+        CursorPage<ScanResult> page1 = CursorPage.<ScanResult>builder()
             .data(List.of(SCAN_RESULT_1))
-            .page(0)
-            .totalPages(TOTAL_PAGES)
+            .nextCursor(CURSOR_1)
             .build();
-        Page<ScanResult> page2 = page1.toBuilder()
+        CursorPage<ScanResult> page2 = CursorPage.<ScanResult>builder()
             .data(List.of(SCAN_RESULT_2))
-            .page(1)
             .build();
 
-        lenient().when(scanService.listScanResults(STATUS, PAGE_REQUEST_1))
+        lenient().when(scanService.claimScanResults(STATUS, PAGE_REQUEST_1, lease))
             .thenReturn(page1);
-        lenient().when(scanService.listScanResults(STATUS, pageRequest2))
+        lenient().when(scanService.claimScanResults(STATUS, pageRequest2, lease))
             .thenReturn(page2);
         lenient().when(clock.instant()).thenReturn(NOW);
-        lenient().when(delay.getTime()).thenReturn(Optional.empty());
+        lenient().when(urlScanClient.getThrottleReset(ACTION)).thenReturn(Optional.empty());
     }
 
     @Test
@@ -133,22 +152,33 @@ public class ScanSubmitterTest {
         when(urlScanClient.submitScan(URL_1)).thenReturn(responseEntity1);
         when(urlScanClient.submitScan(URL_2)).thenReturn(responseEntity2);
 
-        scanSubmitter.submit();
+        RunOutcome actual = scanSubmitter.submit();
 
-        verify(scanService).updateScanResult(
-            SCAN_RESULT_ID_1,
-            ScanResultStatus.PROCESSING,
-            Optional.empty(),
-            Optional.of(URL_SCAN_ID_1),
-            Optional.of(RESULT_URL_1)
-        );
-        verify(scanService).updateScanResult(
-            SCAN_RESULT_ID_2,
-            ScanResultStatus.PROCESSING,
-            Optional.empty(),
-            Optional.of(URL_SCAN_ID_2),
-            Optional.of(RESULT_URL_2)
+        assertEquals(
+            RunOutcome.builder()
+                .processed(2)
+                .backlog(false)
+                .build(),
+            actual
         );
+        verify(scanService).updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_1)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.PROCESSING)
+                .urlScanId(URL_SCAN_ID_1)
+                .resultUrl(RESULT_URL_1)
+                .build()
+        ));
+        verify(scanService).updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_2)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.PROCESSING)
+                .urlScanId(URL_SCAN_ID_2)
+                .resultUrl(RESULT_URL_2)
+                .build()
+        ));
     }
 
     @Test
@@ -178,47 +208,59 @@ public class ScanSubmitterTest {
 
         scanSubmitter.submit();
 
-        verify(scanService).updateScanResult(
-            SCAN_RESULT_ID_1,
-            ScanResultStatus.FAILED,
-            Optional.of(
-                ScanResult.StatusDetails.builder()
-                    .code(STATUS_CODE)
-                    .message(STATUS_MESSAGE)
-                    .description(STATUS_DESCRIPTION)
-                    .build()
-            ),
-            Optional.empty(),
-            Optional.empty()
-        );
-        verify(scanService).updateScanResult(
-            SCAN_RESULT_ID_2,
-            ScanResultStatus.FAILED,
-            Optional.of(
-                ScanResult.StatusDetails.builder()
-                    .code(status2)
-                    .message(message2)
-                    .description(description2)
-                    .build()
-            ),
-            Optional.empty(),
-            Optional.empty()
-        );
+        verify(scanService).updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_1)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.FAILED)
+                .statusDetails(
+                    ScanResult.StatusDetails.builder()
+                        .code(STATUS_CODE)
+                        .message(STATUS_MESSAGE)
+                        .description(STATUS_DESCRIPTION)
+                        .build()
+                ).build()
+        ));
+        verify(scanService).updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_2)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.FAILED)
+                .statusDetails(
+                    ScanResult.StatusDetails.builder()
+                        .code(status2)
+                        .message(message2)
+                        .description(description2)
+                        .build()
+                ).build()
+        ));
     }
 
     @Test
-    public void testSubmit_withClientThrottling_stopsProcessing() {
+    public void testSubmit_withClientThrottling_stopsProcessingAndReleasesThrottledAndPrefetchedScanResults() {
         ResponseEntity<SubmitScanResponse> responseEntity1 = new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
         Optional<Instant> throttleReset = Optional.of(Instant.now());
 
         when(urlScanClient.submitScan(URL_1)).thenReturn(responseEntity1);
         when(urlScanClient.getThrottleReset(responseEntity1)).thenReturn(throttleReset);
 
-        scanSubmitter.submit();
+        RunOutcome actual = scanSubmitter.submit();
 
+        assertEquals(
+            RunOutcome.builder()
+                .processed(0)
+                .backlog(true)
+                .throttledUntil(throttleReset.get())
+                .build(),
+            actual
+        );
         verify(urlScanClient).submitScan(URL_1);
+        verify(urlScanClient).getThrottleReset(ACTION);
         verifyNoMoreInteractions(urlScanClient);
-        verify(scanService).listScanResults(STATUS, PAGE_REQUEST_1);
+        verify(scanService).claimScanResults(STATUS, PAGE_REQUEST_1, lease);
+        verify(scanService).claimScanResults(STATUS, PAGE_REQUEST_1.toBuilder().cursor(CURSOR_1).build(), lease);
+        verify(scanService).updateScanResults(List.of());
+        verify(scanService).releaseScanResults(List.of(SCAN_RESULT_ID_1, SCAN_RESULT_ID_2), lease);
         verifyNoMoreInteractions(scanService);
     }
 
@@ -230,19 +272,94 @@ public class ScanSubmitterTest {
         when(urlScanClient.submitScan(URL_1)).thenReturn(responseEntity1);
         when(urlScanClient.submitScan(URL_2)).thenReturn(responseEntity2);
 
-        scanSubmitter.submit();
+        RunOutcome actual = scanSubmitter.submit();
+
+        assertEquals(
+            RunOutcome.builder()
+                .processed(0)
+                .backlog(false)
+                .build(),
+            actual
+        );
+        verify(scanService, times(2)).updateScanResults(List.of());
+    }
+
+    @Test
+    public void testSubmit_withSubmissionException_submitsRemainingScanResults() {
+        ResponseEntity<SubmitScanResponse> responseEntity2 = new ResponseEntity<>(
+            SubmitScanResponse.builder()
+                .uuid(URL_SCAN_ID_2)
+                .result(RESULT_URL_2)
+                .build(),
+            HttpStatus.OK
+        );
+        when(scanService.claimScanResults(STATUS, PAGE_REQUEST_1, lease)).thenReturn(
+            CursorPage.<ScanResult>builder()
+                .data(List.of(SCAN_RESULT_1, SCAN_RESULT_2))
+                .build()
+        );
+        when(urlScanClient.submitScan(URL_1)).thenThrow(new ResourceAccessException("timeout"));
+        when(urlScanClient.submitScan(URL_2)).thenReturn(responseEntity2);
+
+        RunOutcome actual = scanSubmitter.submit();
+
+        assertEquals(
+            RunOutcome.builder()
+                .processed(1)
+                .backlog(false)
+                .build(),
+            actual
+        );
+        verify(scanService).claimScanResults(STATUS, PAGE_REQUEST_1, lease);
+        verify(scanService).updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_2)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.PROCESSING)
+                .urlScanId(URL_SCAN_ID_2)
+                .resultUrl(RESULT_URL_2)
+                .build()
+        ));
+        verifyNoMoreInteractions(scanService);
+    }
+
+    @Test
+    public void testSubmit_withUpdateException_releasesPrefetchedScanResults() {
+        ResponseEntity<SubmitScanResponse> responseEntity1 = new ResponseEntity<>(
+            SubmitScanResponse.builder()
+                .uuid(URL_SCAN_ID_1)
+                .result(RESULT_URL_1)
+                .build(),
+            HttpStatus.OK
+        );
+        RuntimeException exception = new RuntimeException("database unavailable");
+        when(urlScanClient.submitScan(URL_1)).thenReturn(responseEntity1);
+        doThrow(exception).when(scanService).updateScanResults(any());
 
-        verify(scanService, never()).updateScanResult(any(), any(), any(), any(), any());
+        RuntimeException actual = assertThrows(RuntimeException.class, () -> scanSubmitter.submit());
+
+        assertEquals(exception, actual);
+        verify(urlScanClient, never()).submitScan(URL_2);
+        verify(scanService).releaseScanResults(List.of(SCAN_RESULT_ID_2), lease);
     }
 
     @Test
     public void testSubmit_withDelayInFuture_doesNothing() {
-        when(delay.getTime()).thenReturn(Optional.of(NOW.plus(1, ChronoUnit.MINUTES)));
+        when(urlScanClient.getThrottleReset(ACTION)).thenReturn(Optional.of(NOW.plus(1, ChronoUnit.MINUTES)));
 
-        scanSubmitter.submit();
+        RunOutcome actual = scanSubmitter.submit();
 
+        assertEquals(
+            RunOutcome.builder()
+                .processed(0)
+                .backlog(true)
+                .throttledUntil(NOW.plus(1, ChronoUnit.MINUTES))
+                .build(),
+            actual
+        );
         verifyNoInteractions(scanService);
-        verifyNoInteractions(urlScanClient);
+        verify(urlScanClient).getThrottleReset(ACTION);
+        verifyNoMoreInteractions(urlScanClient);
     }
 
     @Test
@@ -262,26 +379,105 @@ public class ScanSubmitterTest {
             HttpStatus.OK
         );
 
-        when(delay.getTime()).thenReturn(Optional.of(NOW.minus(1, ChronoUnit.MINUTES)));
+        when(urlScanClient.getThrottleReset(ACTION)).thenReturn(Optional.of(NOW.minus(1, ChronoUnit.MINUTES)));
         when(urlScanClient.submitScan(URL_1)).thenReturn(responseEntity1);
         when(urlScanClient.submitScan(URL_2)).thenReturn(responseEntity2);
 
         scanSubmitter.submit();
 
-        verify(scanService).updateScanResult(
-            SCAN_RESULT_ID_1,
-            ScanResultStatus.PROCESSING,
-            Optional.empty(),
-            Optional.of(URL_SCAN_ID_1),
-            Optional.of(RESULT_URL_1)
+        verify(scanService).updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_1)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.PROCESSING)
+                .urlScanId(URL_SCAN_ID_1)
+                .resultUrl(RESULT_URL_1)
+                .build()
+        ));
+        verify(scanService).updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_2)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.PROCESSING)
+                .urlScanId(URL_SCAN_ID_2)
+                .resultUrl(RESULT_URL_2)
+                .build()
+        ));
+    }
+
+    @Test
+    public void testSubmit_withBacklogBeyondPageLimit_stopsAndReportsBacklog() {
+        ResponseEntity<SubmitScanResponse> responseEntity1 = new ResponseEntity<>(
+            SubmitScanResponse.builder()
+                .uuid(URL_SCAN_ID_1)
+                .result(RESULT_URL_1)
+                .build(),
+            HttpStatus.OK
+        );
+        when(scanService.claimScanResults(eq(STATUS), any(), eq(lease))).thenReturn(
+            CursorPage.<ScanResult>builder()
+                .data(List.of(SCAN_RESULT_1))
+                .nextCursor(CURSOR_1)
+                .build()
+        );
+        when(urlScanClient.submitScan(URL_1)).thenReturn(responseEntity1);
+
+        RunOutcome actual = scanSubmitter.submit();
+
+        assertEquals(
+            RunOutcome.builder()
+                .processed(MAX_PAGES_PER_RUN)
+                .backlog(true)
+                .build(),
+            actual
         );
-        verify(scanService).updateScanResult(
-            SCAN_RESULT_ID_2,
-            ScanResultStatus.PROCESSING,
-            Optional.empty(),
-            Optional.of(URL_SCAN_ID_2),
-            Optional.of(RESULT_URL_2)
+        verify(scanService, times(MAX_PAGES_PER_RUN)).claimScanResults(eq(STATUS), any(), eq(lease));
+        verify(scanService, never()).releaseScanResults(any(), any());
+    }
+
+    @Test
+    public void testSubmit_withConcurrentExecutor_updatesStatusToProcessing() {
+        SimpleAsyncTaskExecutor concurrentExecutor = new SimpleAsyncTaskExecutor();
+        concurrentExecutor.setConcurrencyLimit(2);
+        ScanSubmitter concurrentScanSubmitter = new ScanSubmitter(scanService, urlScanClient, lease, concurrentExecutor, executor, clock);
+        ResponseEntity<SubmitScanResponse> responseEntity1 = new ResponseEntity<>(
+            SubmitScanResponse.builder()
+                .uuid(URL_SCAN_ID_1)
+                .result(RESULT_URL_1)
+                .build(),
+            HttpStatus.OK
         );
+        ResponseEntity<SubmitScanResponse> responseEntity2 = new ResponseEntity<>(
+            SubmitScanResponse.builder()
+                .uuid(URL_SCAN_ID_2)
+                .result(RESULT_URL_2)
+                .build(),
+            HttpStatus.OK
+        );
+        when(urlScanClient.submitScan(URL_1)).thenReturn(responseEntity1);
+        when(urlScanClient.submitScan(URL_2)).thenReturn(responseEntity2);
+
+        concurrentScanSubmitter.submit();
+
+        verify(scanService).updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_1)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.PROCESSING)
+                .urlScanId(URL_SCAN_ID_1)
+                .resultUrl(RESULT_URL_1)
+                .build()
+        ));
+        verify(scanService).updateScanResults(List.of(
+            ScanResultUpdateRequest.builder()
+                .scanResultId(SCAN_RESULT_ID_2)
+                .expectedStatus(STATUS)
+                .status(ScanResultStatus.PROCESSING)
+                .urlScanId(URL_SCAN_ID_2)
+                .resultUrl(RESULT_URL_2)
+                .build()
+        ));
+        verify(scanService, never()).releaseScanResults(any(), any());
     }
 
 }
@@ -0,0 +1,313 @@
+package org.timekeeper.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.web.client.RestClient;
+import org.timekeeper.client.NoOpResponseErrorHandler;
+import org.timekeeper.client.PublicHostValidator;
+import org.timekeeper.client.WebhookClient;
+import org.timekeeper.configuration.client.WebhookClientConfig;
+import org.timekeeper.model.Scan;
+import org.timekeeper.model.ScanResult;
+import org.timekeeper.model.ScanResultStatus;
+import org.timekeeper.model.WebhookDelivery;
+import org.timekeeper.model.request.LeaseRequest;
+import org.timekeeper.scheduler.RunOutcome;
+import org.timekeeper.service.WebhookService;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.timekeeper.webhook.WebhookDeliverer.BASE_BACKOFF;
+import static org.timekeeper.webhook.WebhookDeliverer.MAX_ATTEMPTS;
+import static org.timekeeper.webhook.WebhookDeliverer.MAX_BATCH_SIZE;
+import static org.timekeeper.webhook.WebhookDeliverer.PAGE_SIZE;
+import static org.timekeeper.webhook.WebhookDeliverer.SKIPPED_ERROR;
+
+/**
+ * Delivers to a stub webhook receiver served on a local port
+ */
+@ExtendWith(MockitoExtension.class)
+public class WebhookDelivererTest {
+
+    private static final Long WEBHOOK_ID_1 = 1L;
+
+    private static final Long WEBHOOK_ID_2 = 2L;
+
+    private static final Integer ENDPOINT_CONCURRENCY = 2;
+
+    private static final Instant NOW = Instant.now();
+
+    private static final LeaseRequest LEASE = LeaseRequest.builder()
+        .owner("leaseOwner")
+        .duration(Duration.ofMinutes(1))
+        .build();
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Mock
+    private WebhookService webhookService;
+
+    @Mock
+    private Clock clock;
+
+    @Mock
+    private PublicHostValidator publicHostValidator;
+
+    private HttpServer server;
+
+    private List<JsonNode> requests;
+
+    private volatile int responseStatus;
+
+    private volatile Duration responseDelay;
+
+    private AtomicInteger inFlight;
+
+    private AtomicInteger maxInFlight;
+
+    @BeforeEach
+    public void setupEach() throws IOException {
+        requests = Collections.synchronizedList(new ArrayList<>());
+        responseStatus = 200;
+        responseDelay = Duration.ZERO;
+        inFlight = new AtomicInteger();
+        maxInFlight = new AtomicInteger();
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                requests.add(OBJECT_MAPPER.readTree(exchange.getRequestBody()));
+                Thread.sleep(responseDelay.toMillis());
+                exchange.sendResponseHeaders(responseStatus, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        lenient().when(clock.instant()).thenReturn(NOW);
+        lenient().when(publicHostValidator.isValid("localhost")).thenReturn(true);
+    }
+
+    @AfterEach
+    public void teardownEach() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testDeliver_withSuccessfulResponse_batchesEventsPerWebhookAndCompletesDeliveries() {
+        when(webhookService.claimDeliveries(PAGE_SIZE, LEASE)).thenReturn(List.of(
+            delivery(1L, WEBHOOK_ID_1, "/hooks/1", 0),
+            delivery(2L, WEBHOOK_ID_2, "/hooks/2", 0),
+            delivery(3L, WEBHOOK_ID_1, "/hooks/1", 0)
+        ));
+
+        RunOutcome actual = webhookDeliverer(Runnable::run, ENDPOINT_CONCURRENCY).deliver();
+
+        assertEquals(RunOutcome.builder().processed(3).backlog(false).build(), actual);
+        assertEquals(List.of(List.of(1L, 3L), List.of(2L)), getEventIds());
+        assertEquals(ScanResultStatus.DONE.name(), requests.get(0).get("events").get(0).get("scan").get("result").get("status").asText());
+        verify(webhookService).completeDeliveries(List.of(1L, 3L, 2L), LEASE);
+        verify(webhookService, never()).rescheduleDeliveries(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testDeliver_withMoreEventsThanMaxBatchSize_splitsBatches() {
+        List<WebhookDelivery> deliveryList = LongStream.rangeClosed(1, MAX_BATCH_SIZE + 1)
+            .mapToObj(id -> delivery(id, WEBHOOK_ID_1, "/hooks/1", 0))
+            .toList();
+        when(webhookService.claimDeliveries(PAGE_SIZE, LEASE)).thenReturn(deliveryList);
+
+        webhookDeliverer(Runnable::run, ENDPOINT_CONCURRENCY).deliver();
+
+        assertEquals(
+            List.of(MAX_BATCH_SIZE, 1),
+            requests.stream().map(request -> request.get("events").size()).toList()
+        );
+    }
+
+    @Test
+    public void testDeliver_withErrorResponse_reschedulesWithBackoff() {
+        responseStatus = 500;
+        when(webhookService.claimDeliveries(PAGE_SIZE, LEASE)).thenReturn(List.of(
+            delivery(1L, WEBHOOK_ID_1, "/hooks/1", 0),
+            delivery(2L, WEBHOOK_ID_1, "/hooks/1", 1)
+        ));
+
+        webhookDeliverer(Runnable::run, ENDPOINT_CONCURRENCY).deliver();
+
+        verify(webhookService).completeDeliveries(List.of(), LEASE);
+        verify(webhookService).rescheduleDeliveries(List.of(1L), Optional.of(NOW.plus(BASE_BACKOFF)), "Webhook responded with status 500", LEASE);
+        verify(webhookService).rescheduleDeliveries(List.of(2L), Optional.of(NOW.plus(BASE_BACKOFF.multipliedBy(2))), "Webhook responded with status 500", LEASE);
+    }
+
+    @Test
+    public void testDeliver_withFailedBatch_skipsRestOfLane() {
+        responseStatus = 503;
+        when(webhookService.claimDeliveries(PAGE_SIZE, LEASE)).thenReturn(List.of(
+            delivery(1L, WEBHOOK_ID_1, "/hooks/1", 0),
+            delivery(2L, WEBHOOK_ID_2, "/hooks/2", 0)
+        ));
+
+        webhookDeliverer(Runnable::run, 1).deliver();
+
+        assertEquals(1, requests.size());
+        verify(webhookService).rescheduleDeliveries(List.of(1L), Optional.of(NOW.plus(BASE_BACKOFF)), "Webhook responded with status 503", LEASE);
+        verify(webhookService).rescheduleDeliveries(List.of(2L), Optional.of(NOW.plus(BASE_BACKOFF)), SKIPPED_ERROR, LEASE);
+    }
+
+    @Test
+    public void testDeliver_withUnreachableWebhook_reschedulesWithBackoff() {
+        server.stop(0);
+        when(webhookService.claimDeliveries(PAGE_SIZE, LEASE)).thenReturn(List.of(
+            delivery(1L, WEBHOOK_ID_1, "/hooks/1", 0)
+        ));
+
+        webhookDeliverer(Runnable::run, ENDPOINT_CONCURRENCY).deliver();
+
+        verify(webhookService).rescheduleDeliveries(
+            eq(List.of(1L)),
+            eq(Optional.of(NOW.plus(BASE_BACKOFF))),
+            startsWith("Failed to deliver to webhook"),
+            eq(LEASE)
+        );
+    }
+
+    @Test
+    public void testDeliver_withLastAttemptFailing_givesUp() {
+        responseStatus = 500;
+        when(webhookService.claimDeliveries(PAGE_SIZE, LEASE)).thenReturn(List.of(
+            delivery(1L, WEBHOOK_ID_1, "/hooks/1", MAX_ATTEMPTS - 1)
+        ));
+
+        webhookDeliverer(Runnable::run, ENDPOINT_CONCURRENCY).deliver();
+
+        verify(webhookService).rescheduleDeliveries(List.of(1L), Optional.empty(), "Webhook responded with status 500", LEASE);
+    }
+
+    @Test
+    public void testDeliver_withFullPage_claimsNextPage() {
+        List<WebhookDelivery> deliveryList = LongStream.rangeClosed(1, PAGE_SIZE)
+            .mapToObj(id -> delivery(id, id, "/hooks/" + id, 0))
+            .toList();
+        when(webhookService.claimDeliveries(PAGE_SIZE, LEASE))
+            .thenReturn(deliveryList)
+            .thenReturn(List.of());
+
+        RunOutcome actual = webhookDeliverer(Runnable::run, ENDPOINT_CONCURRENCY).deliver();
+
+        assertEquals(RunOutcome.builder().processed(PAGE_SIZE).backlog(false).build(), actual);
+        assertEquals(PAGE_SIZE, requests.size());
+    }
+
+    @Test
+    public void testDeliver_withManyWebhooksOnEndpoint_boundsRequestsInFlightToEndpoint() {
+        responseDelay = Duration.ofMillis(50);
+        List<WebhookDelivery> deliveryList = LongStream.rangeClosed(1, 8)
+            .mapToObj(id -> delivery(id, id, "/hooks/" + id, 0))
+            .toList();
+        when(webhookService.claimDeliveries(PAGE_SIZE, LEASE)).thenReturn(deliveryList);
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+        executor.setConcurrencyLimit(16);
+
+        webhookDeliverer(executor, ENDPOINT_CONCURRENCY).deliver();
+
+        assertEquals(8, requests.size());
+        assertTrue(maxInFlight.get() <= ENDPOINT_CONCURRENCY, String.format("maxInFlight=%s", maxInFlight.get()));
+        verify(webhookService).completeDeliveries(any(), eq(LEASE));
+    }
+
+    @Test
+    public void testDeliver_withNonPublicHost_reschedulesWithoutRequest() {
+        when(publicHostValidator.isValid("localhost")).thenReturn(false);
+        when(webhookService.claimDeliveries(PAGE_SIZE, LEASE)).thenReturn(List.of(delivery(1L, WEBHOOK_ID_1, "/hooks/1", 0)));
+
+        webhookDeliverer(Runnable::run, ENDPOINT_CONCURRENCY).deliver();
+
+        assertEquals(List.of(), requests);
+        verify(webhookService).completeDeliveries(List.of(), LEASE);
+        verify(webhookService).rescheduleDeliveries(
+            eq(List.of(1L)),
+            eq(Optional.of(NOW.plus(BASE_BACKOFF))),
+            startsWith("Failed to deliver to webhook: Webhook host does not resolve to a public address"),
+            eq(LEASE)
+        );
+    }
+
+    @Test
+    public void testGetNextAttemptAt_backsOffExponentially() {
+        assertEquals(Optional.of(NOW.plus(BASE_BACKOFF)), WebhookDeliverer.getNextAttemptAt(0, NOW));
+        assertEquals(Optional.of(NOW.plus(BASE_BACKOFF.multipliedBy(2))), WebhookDeliverer.getNextAttemptAt(1, NOW));
+        assertEquals(Optional.of(NOW.plus(BASE_BACKOFF.multipliedBy(4))), WebhookDeliverer.getNextAttemptAt(2, NOW));
+        assertEquals(Optional.empty(), WebhookDeliverer.getNextAttemptAt(MAX_ATTEMPTS - 1, NOW));
+    }
+
+    private WebhookDeliverer webhookDeliverer(TaskExecutor executor, Integer endpointConcurrency) {
+        WebhookClient webhookClient = new WebhookClient(
+            RestClient.builder(),
+            new WebhookClientConfig(),
+            new NoOpResponseErrorHandler(),
+            publicHostValidator
+        );
+
+        return new WebhookDeliverer(webhookService, webhookClient, LEASE, executor, endpointConcurrency, clock);
+    }
+
+    private WebhookDelivery delivery(Long id, Long webhookId, String path, Integer attemptCount) {
+        return WebhookDelivery.builder()
+            .id(id)
+            .webhookId(webhookId)
+            .url(String.format("http://localhost:%s%s", server.getAddress().getPort(), path))
+            .attemptCount(attemptCount)
+            .scan(
+                Scan.builder()
+                    .id(id)
+                    .result(ScanResult.builder().id(id).status(ScanResultStatus.DONE).build())
+                    .build()
+            ).build();
+    }
+
+    private List<List<Long>> getEventIds() {
+        return requests.stream()
+            .map(request -> {
+                List<Long> eventIds = new ArrayList<>();
+                request.get("events").forEach(event -> eventIds.add(event.get("id").asLong()));
+                return eventIds;
+            }).toList();
+    }
+
+}